@@ -0,0 +1,48 @@
+#!/bin/sh
+# Příprava aplikace pro rychlý start s AppCDS archivem (JDK 11).
+#
+# Použití: cds.sh <adresář aplikace> [spustitelný jar]
+#
+# Pokud je zadán spustitelný jar, je rozbalen do adresáře aplikace. Jinak adresář musí obsahovat rozbalené vrstvy
+# (java -Djarmode=layertools -jar app.jar extract). Třídy aplikace jsou zabaleny do application.jar, protože
+# AppCDS nepodporuje neprázdné adresáře na classpath. Výsledkem jsou soubory classpath.txt, main-class.txt
+# a archiv app.jsa vytvořený ze seznamu tříd načtených během tréninkového běhu (profil cds-training).
+set -e
+
+APP_DIR="$1"
+EXEC_JAR="$2"
+
+if [ -z "$APP_DIR" ]; then
+    echo "Usage: $0 <app directory> [executable jar]" >&2
+    exit 1
+fi
+
+mkdir -p "$APP_DIR"
+cd "$APP_DIR"
+
+if [ -n "$EXEC_JAR" ]; then
+    rm -rf BOOT-INF META-INF org
+    unzip -q -o "$EXEC_JAR"
+fi
+
+# vrstvy z layertools jsou rozbaleny každá do vlastního adresáře
+for layer in dependencies spring-boot-loader snapshot-dependencies application; do
+    if [ -d "$layer" ]; then
+        cp -R "$layer"/. .
+        rm -rf "$layer"
+    fi
+done
+
+jar cf application.jar -C BOOT-INF/classes .
+ls BOOT-INF/lib/*.jar | sort | sed '1i application.jar' | paste -sd: - > classpath.txt
+sed -n 's/^Start-Class: *//p' META-INF/MANIFEST.MF | tr -d '\r' > main-class.txt
+
+CLASSPATH="$(cat classpath.txt)"
+MAIN_CLASS="$(cat main-class.txt)"
+
+# tréninkový běh, aplikace se po startu ukončí; seznam tříd je použitelný i při neúspěšném startu (např. bez databáze)
+rm -f app.classlist app.jsa
+java -Xshare:off -XX:DumpLoadedClassList=app.classlist -cp "$CLASSPATH" "$MAIN_CLASS" \
+    --spring.profiles.active=cds-training || true
+
+java -Xshare:dump -XX:SharedClassListFile=app.classlist -XX:SharedArchiveFile=app.jsa -cp "$CLASSPATH"
@@ -1,6 +1,8 @@
 package cz.pwf.filenet.config;
 
+import cz.pwf.filenet.service.CachingDmsOperations;
 import cz.pwf.filenet.service.FileNetService;
+import cz.pwf.filenet.service.cache.DocumentContentCache;
 import cz.notix.document.plugin.configuration.DefaultOptionsRegistry;
 import cz.notix.document.plugin.configuration.DmsConfigurer;
 import cz.notix.document.plugin.configuration.DmsOperationsBuilder;
@@ -12,6 +14,11 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Optional;
 
 /**
  * Konfigurační třída pro nastavení parametrů document pluginu.
@@ -22,24 +29,41 @@ import org.springframework.context.annotation.Import;
 public class DmsConfiguration implements DmsConfigurer {
 
     private final FileNetService fileNetService;
+    private final DocumentContentCache documentContentCache;
 
     @Value("${filenet.namespace}")
     private String namespace;
 
+    /**
+     * Pokud je zapnutý cache obsahu dokumentů, je lokální cache předřazen operacím pluginu včetně jeho cache
+     * v databázi (viz {@link CachingDmsOperations}).
+     */
     @Override
     public DmsOperations configure(final DmsOperationsBuilder dmsOperationsBuilder, final DefaultOptionsRegistry registry) {
         DmsOperations defaultDmsOperation = dmsOperationsBuilder.configure(fileNetService).build();
 
-        return dmsOperationsBuilder
+        DmsOperations dmsOperations = dmsOperationsBuilder
                 .defaultNamespace(namespace)
                 .metadataNotSupported()
                 .operatedBy(defaultDmsOperation)
                 .configure(defaultDmsOperation)
                 .build();
+
+        return documentContentCache.isEnabled()
+                ? new CachingDmsOperations(dmsOperations, fileNetService, documentContentCache, namespace)
+                : dmsOperations;
     }
 
+    /**
+     * @return Vrací identifikátor ověřeného uživatele REST rozhraní (viz {@link SecurityConfig}), pro volání bez
+     * ověřeného uživatele (Zeebe joby) identifikátor {@code test}.
+     */
     @Bean
     public UserIdSupplier userIdSupplier() {
-        return () -> "test"; // replace by spring security in real impl
+        return () -> Optional.ofNullable(SecurityContextHolder.getContext().getAuthentication())
+                .filter(authentication -> authentication.isAuthenticated()
+                        && !(authentication instanceof AnonymousAuthenticationToken))
+                .map(Authentication::getName)
+                .orElse("test");
     }
 }
@@ -0,0 +1,114 @@
+package cz.pwf.filenet.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.core.env.Environment;
+import org.springframework.util.PatternMatchUtils;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Odložená inicializace beanů, které nejsou potřeba pro zpracování prvního Zeebe jobu (náhledy, swagger,
+ * čištění cache document pluginu apod.).
+ * <p>
+ * Beany, jejichž název, třída nebo třída konfigurace, která je definuje, odpovídá některému ze vzorů
+ * {@code filenet.startup.lazy-beans.patterns}, jsou označeny jako lazy, takže nezdržují start aplikace.
+ * Po startu aplikace jsou inicializovány na pozadí, aby např. naplánované čištění cache běželo i bez
+ * prvního použití beanu.
+ */
+@Slf4j
+public class LazyBeanInitializer implements BeanFactoryPostProcessor, EnvironmentAware,
+        ApplicationListener<ApplicationReadyEvent> {
+
+    private static final String PROPERTY_PREFIX = "filenet.startup.lazy-beans";
+
+    private final List<String> lazyBeanNames = new ArrayList<>();
+    private ConfigurableListableBeanFactory beanFactory;
+    private Environment environment;
+
+    @Override
+    public void setEnvironment(Environment environment) {
+        this.environment = environment;
+    }
+
+    @Override
+    public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) throws BeansException {
+        Binder binder = Binder.get(environment);
+        if (!binder.bind(PROPERTY_PREFIX + ".enabled", Boolean.class).orElse(false)) {
+            return;
+        }
+
+        this.beanFactory = beanFactory;
+        String[] patterns = binder.bind(PROPERTY_PREFIX + ".patterns", Bindable.listOf(String.class))
+                .orElse(List.of())
+                .stream()
+                .filter(StringUtils::hasText)
+                .map(String::trim)
+                .toArray(String[]::new);
+
+        for (String beanName : beanFactory.getBeanDefinitionNames()) {
+            BeanDefinition definition = beanFactory.getBeanDefinition(beanName);
+            if (definition.getRole() == BeanDefinition.ROLE_INFRASTRUCTURE || !definition.isSingleton()
+                    || definition.isLazyInit()) {
+                continue;
+            }
+
+            if (PatternMatchUtils.simpleMatch(patterns, beanName)
+                    || matches(patterns, definition.getBeanClassName())
+                    || matches(patterns, factoryClassName(beanFactory, definition))) {
+                definition.setLazyInit(true);
+                lazyBeanNames.add(beanName);
+            }
+        }
+
+        log.info("Deferred initialization of {} beans: {}", lazyBeanNames.size(), lazyBeanNames);
+    }
+
+    /**
+     * Po startu aplikace inicializuje odložené beany na pozadí.
+     */
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        if (lazyBeanNames.isEmpty() || event.getApplicationContext().getBeanFactory() != beanFactory) {
+            return;
+        }
+
+        Thread thread = new Thread(() -> {
+            long start = System.currentTimeMillis();
+            for (String beanName : lazyBeanNames) {
+                try {
+                    beanFactory.getBean(beanName);
+                } catch (BeansException e) {
+                    log.warn("Deferred initialization of bean '{}' failed", beanName, e);
+                }
+            }
+            log.info("Deferred beans initialized in {} ms", System.currentTimeMillis() - start);
+        }, "lazy-bean-init");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private static String factoryClassName(ConfigurableListableBeanFactory beanFactory, BeanDefinition definition) {
+        String factoryBeanName = definition.getFactoryBeanName();
+        if (Objects.isNull(factoryBeanName) || !beanFactory.containsBeanDefinition(factoryBeanName)) {
+            return null;
+        }
+
+        return beanFactory.getBeanDefinition(factoryBeanName).getBeanClassName();
+    }
+
+    private static boolean matches(String[] patterns, String className) {
+        return Objects.nonNull(className) && PatternMatchUtils.simpleMatch(patterns, className);
+    }
+}
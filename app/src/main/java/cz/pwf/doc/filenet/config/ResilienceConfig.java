@@ -0,0 +1,78 @@
+package cz.pwf.filenet.config;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientResponseException;
+
+import java.time.Duration;
+
+/**
+ * Konfigurační třída pro circuit breaker volání FileNetu.
+ * <p>
+ * Circuit breaker sleduje chyby serveru (HTTP 5xx) a chyby spojení. Pokud podíl chybných volání překročí
+ * nastavenou mez, jsou další volání po nastavenou dobu odmítána bez odeslání do FileNetu. Stav circuit
+ * breakeru je exportován jako {@code resilience4j.circuitbreaker.*} s tagem {@code name=filenet}.
+ */
+@Slf4j
+@Configuration
+public class ResilienceConfig {
+
+    public static final String ECM_CIRCUIT_BREAKER = "filenet";
+
+    @Value("${filenet.circuit-breaker.failure-rate-threshold:50}")
+    private float failureRateThreshold;
+
+    @Value("${filenet.circuit-breaker.sliding-window-size:20}")
+    private int slidingWindowSize;
+
+    @Value("${filenet.circuit-breaker.minimum-number-of-calls:10}")
+    private int minimumNumberOfCalls;
+
+    @Value("${filenet.circuit-breaker.wait-duration-in-open-state:30000}")
+    private long waitDurationInOpenState;
+
+    @Value("${filenet.circuit-breaker.permitted-calls-in-half-open-state:3}")
+    private int permittedCallsInHalfOpenState;
+
+    @Bean
+    public CircuitBreakerRegistry ecmCircuitBreakerRegistry(MeterRegistry meterRegistry) {
+        CircuitBreakerConfig config = CircuitBreakerConfig.custom()
+                .failureRateThreshold(failureRateThreshold)
+                .slidingWindowSize(slidingWindowSize)
+                .minimumNumberOfCalls(minimumNumberOfCalls)
+                .waitDurationInOpenState(Duration.ofMillis(waitDurationInOpenState))
+                .permittedNumberOfCallsInHalfOpenState(permittedCallsInHalfOpenState)
+                .recordException(ResilienceConfig::isFailure)
+                .build();
+
+        CircuitBreakerRegistry registry = CircuitBreakerRegistry.of(config);
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(registry).bindTo(meterRegistry);
+
+        return registry;
+    }
+
+    @Bean
+    public CircuitBreaker ecmCircuitBreaker(CircuitBreakerRegistry ecmCircuitBreakerRegistry) {
+        CircuitBreaker circuitBreaker = ecmCircuitBreakerRegistry.circuitBreaker(ECM_CIRCUIT_BREAKER);
+        circuitBreaker.getEventPublisher()
+                .onStateTransition(event -> log.warn("FileNet circuit breaker: {}", event.getStateTransition()));
+
+        return circuitBreaker;
+    }
+
+    private static boolean isFailure(Throwable e) {
+        if (e instanceof RestClientResponseException) {
+            return ((RestClientResponseException) e).getRawStatusCode() >= 500;
+        }
+
+        return e instanceof ResourceAccessException;
+    }
+}
@@ -0,0 +1,88 @@
+package cz.pwf.filenet.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import org.springframework.boot.actuate.health.HealthEndpoint;
+import org.springframework.boot.actuate.info.InfoEndpoint;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
+import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.util.StringUtils;
+
+import java.util.Objects;
+
+/**
+ * Konfigurační třída pro zabezpečení REST rozhraní služby.
+ * <p>
+ * Rozhraní pracující s dokumenty vyžadují JWT token (OAuth2 resource server), KPJM volajícího je převzato
+ * z claimu {@code filenet.security.kpjm-claim} tokenu, nikoli z obsahu požadavku. Vydavatel tokenů se nastavuje
+ * standardně ({@code spring.security.oauth2.resourceserver.jwt.issuer-uri}, případně {@code jwk-set-uri}), bez jeho
+ * nastavení jsou tato rozhraní nedostupná. Ostatní rozhraní (document plugin) zůstávají beze změny.
+ * <p>
+ * Actuator endpointy jsou ve výchozím nastavení přístupné bez ověření, aby bylo možné sbírat metriky
+ * ({@code metrics}, {@code prometheus}). Oddělit je lze samostatným portem ({@code management.server.port}), který
+ * není vystaven mimo cluster. Ochranu tokenem lze zapnout nastavením {@code filenet.security.actuator-authority},
+ * endpointy kromě {@code health} a {@code info} pak vyžadují token s tímto oprávněním a bez nastaveného vydavatele
+ * tokenů jsou nedostupné.
+ */
+@Slf4j
+@Configuration
+public class SecurityConfig {
+
+    /**
+     * Cesty rozhraní, která pracují s dokumenty pod KPJM ověřeného uživatele.
+     */
+    static final String[] DOCUMENT_PATHS = {"/batch/**", "/documents/**"};
+
+    @Value("${filenet.security.kpjm-claim:kpjm}")
+    private String kpjmClaim;
+
+    @Value("${filenet.security.actuator-authority:}")
+    private String actuatorAuthority;
+
+    @Bean
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, ObjectProvider<JwtDecoder> jwtDecoder)
+            throws Exception {
+        // bezstavové rozhraní s tokenem v hlavičce, CSRF ochrana se neuplatní
+        http.csrf().disable()
+                .sessionManagement().sessionCreationPolicy(SessionCreationPolicy.STATELESS);
+
+        final boolean actuatorProtected = StringUtils.hasText(actuatorAuthority);
+
+        if (Objects.isNull(jwtDecoder.getIfAvailable())) {
+            log.warn("JWT issuer is not configured (spring.security.oauth2.resourceserver.jwt.*), " +
+                    "document REST endpoints{} are disabled", actuatorProtected ? " and protected actuator endpoints" : "");
+            http.authorizeHttpRequests(requests -> {
+                requests.requestMatchers(EndpointRequest.to(HealthEndpoint.class, InfoEndpoint.class)).permitAll();
+                if (actuatorProtected) {
+                    requests.requestMatchers(EndpointRequest.toAnyEndpoint()).denyAll();
+                }
+                requests.antMatchers(DOCUMENT_PATHS).denyAll()
+                        .anyRequest().permitAll();
+            });
+
+            return http.build();
+        }
+
+        JwtAuthenticationConverter authenticationConverter = new JwtAuthenticationConverter();
+        authenticationConverter.setPrincipalClaimName(kpjmClaim);
+        http.authorizeHttpRequests(requests -> {
+                    requests.requestMatchers(EndpointRequest.to(HealthEndpoint.class, InfoEndpoint.class)).permitAll();
+                    if (actuatorProtected) {
+                        requests.requestMatchers(EndpointRequest.toAnyEndpoint()).hasAuthority(actuatorAuthority);
+                    }
+                    requests.antMatchers(DOCUMENT_PATHS).authenticated()
+                            .anyRequest().permitAll();
+                })
+                .oauth2ResourceServer(server -> server
+                        .jwt(jwt -> jwt.jwtAuthenticationConverter(authenticationConverter)));
+
+        return http.build();
+    }
+}
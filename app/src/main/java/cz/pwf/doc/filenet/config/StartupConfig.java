@@ -0,0 +1,45 @@
+package cz.pwf.filenet.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Konfigurační třída pro rychlý start aplikace.
+ * <p>
+ * Po startu je zalogována doba od spuštění JVM, od které aplikace přijímá Zeebe joby. Vlastnost
+ * {@code filenet.startup.exit-after-ready} ukončí aplikaci ihned po startu, používá se pro tréninkový běh
+ * při vytváření AppCDS archivu a pro měření doby startu (viz {@code StartupBenchmark}).
+ */
+@Slf4j
+@Configuration
+public class StartupConfig {
+
+    @Value("${filenet.startup.exit-after-ready:false}")
+    private boolean exitAfterReady;
+
+    /**
+     * Viz {@link LazyBeanInitializer}, bean musí být statický, aby byl vytvořen před zpracováním ostatních
+     * definic beanů.
+     */
+    @Bean
+    public static LazyBeanInitializer lazyBeanInitializer() {
+        return new LazyBeanInitializer();
+    }
+
+    @EventListener
+    public void onApplicationReady(ApplicationReadyEvent event) {
+        log.info("Application ready {} ms after JVM start", ManagementFactory.getRuntimeMXBean().getUptime());
+
+        if (exitAfterReady) {
+            log.info("Exiting after startup (filenet.startup.exit-after-ready)");
+            System.exit(SpringApplication.exit(event.getApplicationContext(), () -> 0));
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package cz.pwf.filenet.config.rest;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+import org.springframework.util.StringUtils;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Zahřátí poolu spojení na FileNet REST API na pozadí během startu aplikace.
+ * <p>
+ * Po vytvoření všech singletonů je souběžně odesláno {@code connections} požadavků {@code HEAD} na nakonfigurovanou
+ * cestu {@code filenet.startup.warm-up.path}. Požadavky nejsou autorizovány, cesta proto musí vést na levný endpoint
+ * určený ke kontrole dostupnosti (např. health endpoint FileNet REST API), jinak se požadavky objeví v access logu
+ * a auditu FileNetu jako odmítnuté. Výchozí cesta není nastavena a bez ní zahřátí neproběhne. Požadavky jsou odeslány přes továrnu požadavků {@link RestTemplate}, tj. klientem zvoleným
+ * {@code rest.client.pwf_ecm_filenet.transport}. Navázaná spojení (včetně TLS handshake) zůstanou v poolu, resp.
+ * v klientu JDK, takže první Zeebe joby je nemusí navazovat. Klient JDK s HTTP/2 souběžné požadavky multiplexuje
+ * v jednom spojení, zahřeje tak jedno spojení a vyjednání verze protokolu. Zároveň jsou načteny a zahřáty třídy
+ * HTTP klienta. Na výsledku požadavků nezáleží, chyby jsou pouze zalogovány.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class EcmConnectionWarmUp implements SmartInitializingSingleton {
+
+    private final RestTemplate restTemplate;
+
+    @Value("${filenet.startup.warm-up.enabled:false}")
+    private boolean enabled;
+
+    @Value("${filenet.startup.warm-up.connections:4}")
+    private int connections;
+
+    @Value("${filenet.startup.warm-up.path:}")
+    private String path;
+
+    @Value("${rest.client.pwf_ecm_filenet.url:https://restapidv.pwfdata.corp}")
+    private String apiBaseUrl;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!enabled || connections <= 0) {
+            return;
+        }
+        if (!StringUtils.hasText(path) || "/".equals(path.trim())) {
+            log.warn("ECM connection pool warm-up is enabled, but filenet.startup.warm-up.path is not set " +
+                    "to a health endpoint of the FileNet REST API, warm-up is skipped");
+            return;
+        }
+
+        URI uri = UriComponentsBuilder.fromHttpUrl(apiBaseUrl).path(path).build().toUri();
+        ExecutorService executor = Executors.newFixedThreadPool(connections, new CustomizableThreadFactory("ecm-warm-up-"));
+        AtomicInteger warmed = new AtomicInteger();
+        long start = System.currentTimeMillis();
+
+        List<CompletableFuture<Void>> requests = new ArrayList<>(connections);
+        for (int i = 0; i < connections; i++) {
+            requests.add(CompletableFuture.runAsync(() -> {
+                if (warmUp(uri)) {
+                    warmed.incrementAndGet();
+                }
+            }, executor));
+        }
+
+        CompletableFuture.allOf(requests.toArray(new CompletableFuture[0])).whenComplete((result, e) -> {
+            executor.shutdown();
+            log.info("ECM connection pool warm-up: {} of {} connections to {} in {} ms", warmed.get(), connections,
+                    uri, System.currentTimeMillis() - start);
+        });
+    }
+
+    private boolean warmUp(URI uri) {
+        try (ClientHttpResponse response = restTemplate.getRequestFactory()
+                .createRequest(uri, HttpMethod.HEAD)
+                .execute()) {
+            // spojení se vrací do poolu až po přečtení celé odpovědi
+            StreamUtils.drain(response.getBody());
+            return true;
+        } catch (IOException e) {
+            log.debug("ECM connection warm-up request to {} failed", uri, e);
+            return false;
+        }
+    }
+}
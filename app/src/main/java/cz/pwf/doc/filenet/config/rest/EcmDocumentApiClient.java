@@ -28,10 +28,13 @@ public class EcmDocumentApiClient {
     @Value("${rest.client.pwf_ecm_filenet.password}")
     private String password;
 
+    @Autowired
+    private RestTemplate restTemplate;
+
     @Bean
     @Primary
     public ApiClient pwfEcmFileNetDocumentApiClient() {
-        ApiClient apiClient = new ApiClient();
+        ApiClient apiClient = new ApiClient(restTemplate);
         apiClient.setBasePath(apiBaseUrl);
         apiClient.setDebugging(apiDebuggingEnabled);
         apiClient.setUsername(username);
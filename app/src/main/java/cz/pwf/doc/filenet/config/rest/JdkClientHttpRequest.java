@@ -0,0 +1,251 @@
+package cz.pwf.filenet.config.rest;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.AbstractClientHttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.util.StringUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HTTP požadavek odesílaný pomocí {@link HttpClient}, viz {@link JdkClientHttpRequestFactory}.
+ * <p>
+ * Při průběžném odesílání je požadavek odeslán již při získání výstupního streamu těla (stejně jako
+ * {@code SimpleStreamingClientHttpRequest}), zapsaná data jsou klientovi předávána po blocích s omezeným počtem
+ * bloků čekajících na odeslání.
+ */
+class JdkClientHttpRequest extends AbstractClientHttpRequest {
+
+    /**
+     * Hlavičky, které nastavuje {@link HttpClient} a které nelze v požadavku nastavit (JDK 11).
+     */
+    private static final Set<String> RESTRICTED_HEADERS = Set.of(HttpHeaders.CONNECTION.toLowerCase(Locale.ROOT),
+            HttpHeaders.CONTENT_LENGTH.toLowerCase(Locale.ROOT), HttpHeaders.DATE.toLowerCase(Locale.ROOT),
+            HttpHeaders.EXPECT.toLowerCase(Locale.ROOT), HttpHeaders.FROM.toLowerCase(Locale.ROOT),
+            HttpHeaders.HOST.toLowerCase(Locale.ROOT), HttpHeaders.UPGRADE.toLowerCase(Locale.ROOT),
+            HttpHeaders.VIA.toLowerCase(Locale.ROOT), HttpHeaders.WARNING.toLowerCase(Locale.ROOT));
+
+    private static final int CHUNK_SIZE = 64 * 1024;
+    private static final int MAX_BUFFERED_CHUNKS = 16;
+
+    private final HttpClient httpClient;
+    private final URI uri;
+    private final HttpMethod method;
+    private final Duration readTimeout;
+    private final boolean bufferRequestBody;
+    private final List<String> responseEncodings;
+
+    private ByteArrayOutputStream bufferedBody;
+    private PublisherOutputStream streamingBody;
+
+    JdkClientHttpRequest(HttpClient httpClient, URI uri, HttpMethod method, Duration readTimeout,
+                         boolean bufferRequestBody, List<String> responseEncodings) {
+        this.httpClient = httpClient;
+        this.uri = uri;
+        this.method = method;
+        this.readTimeout = readTimeout;
+        this.bufferRequestBody = bufferRequestBody;
+        this.responseEncodings = responseEncodings;
+    }
+
+    @Override
+    public String getMethodValue() {
+        return method.name();
+    }
+
+    @Override
+    public URI getURI() {
+        return uri;
+    }
+
+    @Override
+    protected OutputStream getBodyInternal(HttpHeaders headers) {
+        if (bufferRequestBody) {
+            if (Objects.isNull(bufferedBody)) {
+                bufferedBody = new ByteArrayOutputStream(Math.max((int) headers.getContentLength(), 1024));
+            }
+            return bufferedBody;
+        }
+
+        if (Objects.isNull(streamingBody)) {
+            streamingBody = new PublisherOutputStream();
+            // délku nelze předat pro prázdné tělo, klient by ji odmítl
+            HttpRequest.BodyPublisher bodyPublisher = headers.getContentLength() > 0
+                    ? HttpRequest.BodyPublishers.fromPublisher(streamingBody, headers.getContentLength())
+                    : HttpRequest.BodyPublishers.fromPublisher(streamingBody);
+            streamingBody.response = httpClient.sendAsync(request(headers, bodyPublisher),
+                    HttpResponse.BodyHandlers.ofInputStream());
+        }
+        return streamingBody;
+    }
+
+    @Override
+    protected ClientHttpResponse executeInternal(HttpHeaders headers) throws IOException {
+        if (Objects.nonNull(streamingBody)) {
+            streamingBody.close();
+            return new JdkClientHttpResponse(await(streamingBody.response));
+        }
+
+        HttpRequest.BodyPublisher bodyPublisher = Objects.isNull(bufferedBody)
+                ? HttpRequest.BodyPublishers.noBody()
+                : HttpRequest.BodyPublishers.ofByteArray(bufferedBody.toByteArray());
+        try {
+            return new JdkClientHttpResponse(httpClient.send(request(headers, bodyPublisher),
+                    HttpResponse.BodyHandlers.ofInputStream()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Request to " + uri + " interrupted");
+        }
+    }
+
+    private HttpRequest request(HttpHeaders headers, HttpRequest.BodyPublisher bodyPublisher) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(uri)
+                .timeout(readTimeout)
+                .method(method.name(), bodyPublisher);
+
+        headers.forEach((name, values) -> {
+            if (!RESTRICTED_HEADERS.contains(name.toLowerCase(Locale.ROOT))) {
+                values.forEach(value -> builder.header(name, value));
+            }
+        });
+        if (!responseEncodings.isEmpty() && !headers.containsKey(HttpHeaders.ACCEPT_ENCODING)) {
+            builder.header(HttpHeaders.ACCEPT_ENCODING, StringUtils.collectionToDelimitedString(responseEncodings, ", "));
+        }
+
+        return builder.build();
+    }
+
+    private HttpResponse<InputStream> await(CompletableFuture<HttpResponse<InputStream>> response) throws IOException {
+        try {
+            return response.get();
+        } catch (InterruptedException e) {
+            response.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Request to " + uri + " interrupted");
+        } catch (ExecutionException e) {
+            throw ioException(e.getCause());
+        }
+    }
+
+    private IOException ioException(Throwable cause) {
+        if (cause instanceof IOException) {
+            return (IOException) cause;
+        }
+        if (cause instanceof UncheckedIOException) {
+            return ((UncheckedIOException) cause).getCause();
+        }
+        return new IOException("Request to " + uri + " failed", cause);
+    }
+
+    /**
+     * Výstupní stream těla požadavku, který zapsaná data předává po blocích klientovi. Zápis čeká, dokud klient
+     * nepřevezme tělo požadavku (tj. do navázání spojení) a dokud je nevyřízených bloků více než
+     * {@link #MAX_BUFFERED_CHUNKS}.
+     */
+    private final class PublisherOutputStream extends OutputStream implements Flow.Publisher<ByteBuffer> {
+
+        private final SubmissionPublisher<ByteBuffer> publisher = new SubmissionPublisher<>(Runnable::run,
+                MAX_BUFFERED_CHUNKS);
+        private final CountDownLatch subscribed = new CountDownLatch(1);
+
+        private CompletableFuture<HttpResponse<InputStream>> response;
+        private ByteBuffer chunk;
+        private boolean closed;
+
+        @Override
+        public void subscribe(Flow.Subscriber<? super ByteBuffer> subscriber) {
+            publisher.subscribe(subscriber);
+            subscribed.countDown();
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            Objects.checkFromIndexSize(off, len, b.length);
+            if (closed) {
+                throw new IOException("Stream closed");
+            }
+
+            while (len > 0) {
+                if (Objects.isNull(chunk)) {
+                    chunk = ByteBuffer.allocate(CHUNK_SIZE);
+                }
+                int length = Math.min(len, chunk.remaining());
+                chunk.put(b, off, length);
+                off += length;
+                len -= length;
+                if (!chunk.hasRemaining()) {
+                    submitChunk();
+                }
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            submitChunk();
+            publisher.close();
+        }
+
+        private void submitChunk() throws IOException {
+            if (Objects.isNull(chunk) || chunk.position() == 0) {
+                return;
+            }
+
+            awaitSubscription();
+            publisher.submit(chunk.flip());
+            chunk = null;
+        }
+
+        private void awaitSubscription() throws IOException {
+            long deadline = System.nanoTime() + readTimeout.toNanos();
+            try {
+                while (!subscribed.await(100, TimeUnit.MILLISECONDS)) {
+                    if (response.isDone()) {
+                        // požadavek selhal dříve, než klient začal odesílat tělo (např. nelze navázat spojení)
+                        await(response);
+                        throw new IOException("Request to " + uri + " completed before the body was sent");
+                    }
+                    if (System.nanoTime() > deadline) {
+                        response.cancel(true);
+                        throw new HttpTimeoutException("Request to " + uri + " timed out waiting for connection");
+                    }
+                }
+            } catch (InterruptedException e) {
+                response.cancel(true);
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Request to " + uri + " interrupted");
+            }
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package cz.pwf.filenet.config.rest;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Továrna HTTP požadavků nad {@link HttpClient} z JDK, alternativa k Apache HttpClient pro komunikaci s FileNet
+ * REST API (viz {@code rest.client.pwf_ecm_filenet.transport}).
+ * <p>
+ * Klient s verzí {@link HttpClient.Version#HTTP_2} vyjedná HTTP/2 pomocí ALPN (TLS), případně upgradem na h2c,
+ * a souběžné požadavky na stejný server pak multiplexuje v rámci jednoho spojení. Pokud server HTTP/2 nepodporuje,
+ * klient použije HTTP/1.1. Tělo požadavku je při vypnutém bufferování odesíláno průběžně během zápisu konvertorem,
+ * tělo odpovědi je čteno průběžně ze streamu.
+ */
+public class JdkClientHttpRequestFactory implements ClientHttpRequestFactory {
+
+    private final HttpClient httpClient;
+    private final Duration readTimeout;
+    private final boolean bufferRequestBody;
+    private final List<String> responseEncodings;
+
+    /**
+     * @param httpClient        HTTP klient
+     * @param readTimeout       maximální doba čekání na odpověď
+     * @param bufferRequestBody {@code true} pro odeslání těla požadavku až po jeho celém zápisu
+     * @param responseEncodings kódování odpovědí nabízená v hlavičce {@code Accept-Encoding} (gzip, deflate),
+     *                          odpověď je při čtení transparentně dekódována
+     */
+    public JdkClientHttpRequestFactory(HttpClient httpClient, Duration readTimeout, boolean bufferRequestBody,
+                                       List<String> responseEncodings) {
+        this.httpClient = httpClient;
+        this.readTimeout = readTimeout;
+        this.bufferRequestBody = bufferRequestBody;
+        this.responseEncodings = List.copyOf(responseEncodings);
+    }
+
+    @Override
+    public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) {
+        return new JdkClientHttpRequest(httpClient, uri, httpMethod, readTimeout, bufferRequestBody, responseEncodings);
+    }
+}
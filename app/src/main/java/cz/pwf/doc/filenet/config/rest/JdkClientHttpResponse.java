@@ -0,0 +1,107 @@
+package cz.pwf.filenet.config.rest;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.AbstractClientHttpResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Odpověď na HTTP požadavek odeslaný pomocí {@link HttpClient}, viz {@link JdkClientHttpRequestFactory}.
+ * <p>
+ * Tělo odpovědi komprimované pomocí gzip nebo deflate je stejně jako u Apache HttpClient transparentně dekódováno,
+ * hlavičky {@code Content-Encoding} a {@code Content-Length} pak v odpovědi nejsou uvedeny.
+ */
+class JdkClientHttpResponse extends AbstractClientHttpResponse {
+
+    private final HttpResponse<InputStream> response;
+    private final HttpHeaders headers = new HttpHeaders();
+    private final String contentEncoding;
+
+    private InputStream body;
+
+    JdkClientHttpResponse(HttpResponse<InputStream> response) {
+        this.response = response;
+        response.headers().map().forEach((name, values) -> {
+            // pseudo-hlavičky HTTP/2 (":status") nejsou součástí odpovědi
+            if (!name.startsWith(":")) {
+                headers.addAll(name, values);
+            }
+        });
+
+        String encoding = headers.getFirst(HttpHeaders.CONTENT_ENCODING);
+        this.contentEncoding = Objects.isNull(encoding) ? null : encoding.trim().toLowerCase(Locale.ROOT);
+        if (isDecoded()) {
+            headers.remove(HttpHeaders.CONTENT_ENCODING);
+            headers.remove(HttpHeaders.CONTENT_LENGTH);
+        }
+    }
+
+    /**
+     * @return Vrací verzi protokolu, kterou klient se serverem vyjednal.
+     */
+    public HttpClient.Version getVersion() {
+        return response.version();
+    }
+
+    @Override
+    public int getRawStatusCode() {
+        return response.statusCode();
+    }
+
+    @Override
+    public String getStatusText() {
+        HttpStatus status = HttpStatus.resolve(response.statusCode());
+        return Objects.isNull(status) ? "" : status.getReasonPhrase();
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+        return headers;
+    }
+
+    @Override
+    public InputStream getBody() throws IOException {
+        if (Objects.isNull(body)) {
+            body = isDecoded() ? decode(response.body()) : response.body();
+        }
+        return body;
+    }
+
+    @Override
+    public void close() {
+        try {
+            // uzavření streamu před jeho dočtením zruší přenos zbytku odpovědi
+            (Objects.isNull(body) ? response.body() : body).close();
+        } catch (IOException e) {
+            // ignorováno stejně jako u ostatních implementací ClientHttpResponse
+        }
+    }
+
+    private boolean isDecoded() {
+        return RequestCompression.GZIP.equals(contentEncoding) || "x-gzip".equals(contentEncoding)
+                || RequestCompression.DEFLATE.equals(contentEncoding);
+    }
+
+    private InputStream decode(InputStream inputStream) throws IOException {
+        // prázdné tělo (např. odpověď 204) nelze dekódovat
+        PushbackInputStream pushbackInputStream = new PushbackInputStream(inputStream, 1);
+        int first = pushbackInputStream.read();
+        if (first < 0) {
+            return pushbackInputStream;
+        }
+        pushbackInputStream.unread(first);
+
+        return RequestCompression.DEFLATE.equals(contentEncoding)
+                ? new InflaterInputStream(pushbackInputStream)
+                : new GZIPInputStream(pushbackInputStream);
+    }
+}
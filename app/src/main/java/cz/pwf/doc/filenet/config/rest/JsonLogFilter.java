@@ -0,0 +1,200 @@
+package cz.pwf.filenet.config.rest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+
+/**
+ * Průběžný filtr JSON těla HTTP zprávy pro logování.
+ * <p>
+ * Filtr zpracovává tělo po bajtech bez jeho parsování do objektů. Řetězcové hodnoty položek
+ * {@code redactedFields} nahrazuje znakem {@code #}, z řetězcových hodnot položek {@code truncatedFields}
+ * ponechává pouze prvních {@code maxFieldLength} bajtů a délku hodnoty. Výstup je omezen na
+ * {@code maxBodyLength} bajtů, po jeho dosažení filtr již vstup nezpracovává, pouze počítá jeho délku.
+ */
+final class JsonLogFilter extends OutputStream {
+
+    private static final int MAX_FIELD_NAME_LENGTH = 64;
+
+    private enum StringMode { COPY, REDACT, TRUNCATE }
+
+    private final Set<String> redactedFields;
+    private final Set<String> truncatedFields;
+    private final int maxFieldLength;
+    private final int maxBodyLength;
+
+    private final ByteArrayOutputStream output;
+    private final byte[] lastString = new byte[MAX_FIELD_NAME_LENGTH];
+    private int lastStringLength;
+    private boolean lastStringOverflow;
+    private String pendingField;
+
+    private boolean inString;
+    private boolean escaped;
+    private StringMode stringMode;
+    private long stringLength;
+
+    private long totalBytes;
+    private boolean full;
+
+    JsonLogFilter(Set<String> redactedFields, Set<String> truncatedFields, int maxFieldLength, int maxBodyLength) {
+        this.redactedFields = redactedFields;
+        this.truncatedFields = truncatedFields;
+        this.maxFieldLength = maxFieldLength;
+        this.maxBodyLength = maxBodyLength;
+        this.output = new ByteArrayOutputStream(Math.min(maxBodyLength, 1024));
+    }
+
+    /**
+     * @return Vrací {@code true}, pokud byl dosažen limit výstupu a další vstup již není zpracováván.
+     */
+    boolean isFull() {
+        return full;
+    }
+
+    @Override
+    public void write(int b) {
+        totalBytes++;
+        if (!full) {
+            process(b & 0xFF);
+        }
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+        int end = off + len;
+        int i = off;
+        while (i < end) {
+            if (full) {
+                totalBytes += end - i;
+                return;
+            }
+            if (isSkippingString()) {
+                // nelogovaná část řetězce je jen přeskočena až po případný konec řetězce nebo escape sekvenci
+                int start = i;
+                while (i < end && b[i] != '"' && b[i] != '\\') {
+                    i++;
+                }
+                stringLength += i - start;
+                totalBytes += i - start;
+                if (i == end) {
+                    return;
+                }
+            }
+            totalBytes++;
+            process(b[i++] & 0xFF);
+        }
+    }
+
+    private boolean isSkippingString() {
+        return inString && !escaped && (stringMode == StringMode.REDACT
+                || (stringMode == StringMode.TRUNCATE && stringLength >= maxFieldLength));
+    }
+
+    private void process(int b) {
+        if (inString) {
+            processStringByte(b);
+            return;
+        }
+
+        if (b == '"') {
+            startString();
+        } else if (b == ':') {
+            pendingField = lastStringOverflow ? null : new String(lastString, 0, lastStringLength, StandardCharsets.UTF_8);
+            emit(b);
+        } else {
+            if (!isWhitespace(b)) {
+                pendingField = null;
+            }
+            emit(b);
+        }
+    }
+
+    private void startString() {
+        inString = true;
+        escaped = false;
+        stringLength = 0;
+        lastStringLength = 0;
+        lastStringOverflow = false;
+
+        if (pendingField != null && redactedFields.contains(pendingField)) {
+            stringMode = StringMode.REDACT;
+            emit('"');
+            emit('#');
+        } else if (pendingField != null && truncatedFields.contains(pendingField)) {
+            stringMode = StringMode.TRUNCATE;
+            emit('"');
+        } else {
+            stringMode = StringMode.COPY;
+            emit('"');
+        }
+        pendingField = null;
+    }
+
+    private void processStringByte(int b) {
+        if (escaped) {
+            escaped = false;
+        } else if (b == '\\') {
+            escaped = true;
+        } else if (b == '"') {
+            endString();
+            return;
+        }
+
+        stringLength++;
+        switch (stringMode) {
+            case COPY:
+                if (lastStringLength < MAX_FIELD_NAME_LENGTH) {
+                    lastString[lastStringLength++] = (byte) b;
+                } else {
+                    lastStringOverflow = true;
+                }
+                emit(b);
+                break;
+            case TRUNCATE:
+                // escape sekvence, která se do ponechané části hodnoty celá nevejde, není vypsána
+                if (stringLength < maxFieldLength || (stringLength == maxFieldLength && !escaped)) {
+                    emit(b);
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void endString() {
+        inString = false;
+        if (stringMode == StringMode.TRUNCATE && stringLength > maxFieldLength) {
+            emit("...(" + stringLength + " bytes)");
+        }
+        emit('"');
+    }
+
+    private void emit(int b) {
+        if (output.size() >= maxBodyLength) {
+            full = true;
+            return;
+        }
+        output.write(b);
+    }
+
+    private void emit(String text) {
+        for (byte b : text.getBytes(StandardCharsets.US_ASCII)) {
+            emit(b);
+        }
+    }
+
+    private static boolean isWhitespace(int b) {
+        return b == ' ' || b == '\n' || b == '\r' || b == '\t';
+    }
+
+    /**
+     * @return Vrací filtrované tělo zprávy, případně s informací o zkrácení.
+     */
+    @Override
+    public String toString() {
+        String body = output.toString(StandardCharsets.UTF_8);
+        return full ? body + "... [truncated, " + totalBytes + " bytes read]" : body;
+    }
+}
@@ -0,0 +1,129 @@
+package cz.pwf.filenet.config.rest;
+
+import cz.pwf.filenet.model.ecm.StreamingDocumentBody;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.util.StreamUtils;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Nastavení komprese těla požadavků na uložení obsahu dokumentu ({@link StreamingDocumentBody}).
+ * <p>
+ * Komprimován je pouze obsah o velikosti alespoň {@code minSize} bajtů, jehož mimetype není uveden mezi
+ * vynechanými typy (typicky již komprimované formáty). Komprese probíhá průběžně při zápisu požadavku.
+ */
+public final class RequestCompression {
+
+    public static final String GZIP = "gzip";
+    public static final String DEFLATE = "deflate";
+
+    private static final RequestCompression DISABLED = new RequestCompression(null, Integer.MAX_VALUE, List.of());
+    private static final int BUFFER_SIZE = 8192;
+
+    private final String encoding;
+    private final int minSize;
+    private final List<MediaType> skippedMediaTypes;
+
+    private RequestCompression(String encoding, int minSize, List<MediaType> skippedMediaTypes) {
+        this.encoding = encoding;
+        this.minSize = minSize;
+        this.skippedMediaTypes = skippedMediaTypes;
+    }
+
+    /**
+     * @return Vrací nastavení, při kterém nejsou požadavky komprimovány.
+     */
+    public static RequestCompression disabled() {
+        return DISABLED;
+    }
+
+    /**
+     * @param encoding          kódování těla požadavku ({@code gzip} nebo {@code deflate}), prázdná hodnota
+     *                          nebo {@code none} kompresi vypíná
+     * @param minSize           minimální velikost binárního obsahu dokumentu, od které je požadavek komprimován
+     * @param skippedMimeTypes  mimetypy obsahu, který není komprimován (podporuje zástupné znaky, např. {@code image/*})
+     * @return Vrací nastavení komprese.
+     */
+    public static RequestCompression of(String encoding, int minSize, Collection<String> skippedMimeTypes) {
+        if (!StringUtils.hasText(encoding) || "none".equalsIgnoreCase(encoding.trim())) {
+            return DISABLED;
+        }
+
+        String normalizedEncoding = encoding.trim().toLowerCase(Locale.ROOT);
+        if (!GZIP.equals(normalizedEncoding) && !DEFLATE.equals(normalizedEncoding)) {
+            throw new IllegalArgumentException("Unsupported request content encoding: " + encoding);
+        }
+
+        List<MediaType> skippedMediaTypes = skippedMimeTypes.stream()
+                .filter(StringUtils::hasText)
+                .map(mimeType -> MediaType.parseMediaType(mimeType.trim()))
+                .collect(Collectors.toUnmodifiableList());
+
+        return new RequestCompression(normalizedEncoding, Math.max(minSize, 0), skippedMediaTypes);
+    }
+
+    public boolean isEnabled() {
+        return Objects.nonNull(encoding);
+    }
+
+    /**
+     * @return Vrací hodnotu hlavičky {@code Content-Encoding} komprimovaného požadavku.
+     */
+    public String getEncoding() {
+        return encoding;
+    }
+
+    /**
+     * @param body tělo požadavku
+     * @return Vrací {@code true}, pokud má být tělo požadavku komprimováno.
+     */
+    public boolean shouldCompress(StreamingDocumentBody body) {
+        byte[] data = body.getRawData();
+        return isEnabled() && Objects.nonNull(data) && data.length >= minSize && !isSkipped(body.getMimetype());
+    }
+
+    /**
+     * Metoda obalí výstupní stream požadavku kompresním streamem. Uzavření vráceného streamu dokončí kompresi,
+     * ale neuzavře původní stream.
+     *
+     * @param outputStream výstupní stream požadavku
+     * @return Vrací kompresní stream.
+     */
+    public OutputStream wrap(OutputStream outputStream) throws IOException {
+        OutputStream nonClosing = StreamUtils.nonClosing(outputStream);
+        return GZIP.equals(encoding)
+                ? new GZIPOutputStream(nonClosing, BUFFER_SIZE)
+                : new DeflaterOutputStream(nonClosing, new Deflater(), BUFFER_SIZE) {
+                    // vlastní Deflater není při uzavření streamu uvolněn automaticky
+                    @Override
+                    public void close() throws IOException {
+                        super.close();
+                        def.end();
+                    }
+                };
+    }
+
+    private boolean isSkipped(String mimeType) {
+        if (!StringUtils.hasText(mimeType)) {
+            return false;
+        }
+
+        try {
+            MediaType mediaType = MediaType.parseMediaType(mimeType);
+            return skippedMediaTypes.stream().anyMatch(skipped -> skipped.includes(mediaType));
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
+    }
+}
@@ -1,12 +1,40 @@
 package cz.pwf.filenet.config.rest;
 
+import cz.pwf.filenet.service.buffer.BufferPool;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.PoolingHttpClientConnectionManagerMetricsBinder;
 import lombok.SneakyThrows;
+import org.springframework.beans.factory.ObjectProvider;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.entity.DeflateInputStreamFactory;
+import org.apache.http.client.entity.GZIPInputStreamFactory;
+import org.apache.http.client.entity.InputStreamFactory;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClientBuilder;
 import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.client.BufferingClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.util.StringUtils;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+
+import java.net.http.HttpClient;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Třída definující REST teplate.
@@ -14,11 +42,217 @@ import org.springframework.web.client.RestTemplate;
 @Configuration
 public class RestTemplateConfig {
 
-    @SneakyThrows
+    @Value("${rest.client.pwf_ecm_filenet.debugging:false}")
+    private boolean apiDebuggingEnabled;
+
+    @Value("${rest.client.pwf_ecm_filenet.streaming.enabled:true}")
+    private boolean streamingEnabled;
+
+    @Value("${rest.client.pwf_ecm_filenet.streaming.memory-threshold:1048576}")
+    private int streamingMemoryThreshold;
+
+    @Value("${rest.client.pwf_ecm_filenet.streaming.temp-directory:}")
+    private String streamingTempDirectory;
+
+    @Value("${rest.client.pwf_ecm_filenet.logging.enabled:false}")
+    private boolean loggingEnabled;
+
+    @Value("${rest.client.pwf_ecm_filenet.logging.redacted-fields:password}")
+    private Set<String> loggingRedactedFields;
+
+    @Value("${rest.client.pwf_ecm_filenet.logging.truncated-fields:content,data}")
+    private Set<String> loggingTruncatedFields;
+
+    @Value("${rest.client.pwf_ecm_filenet.logging.max-field-length:64}")
+    private int loggingMaxFieldLength;
+
+    @Value("${rest.client.pwf_ecm_filenet.logging.max-body-length:8192}")
+    private int loggingMaxBodyLength;
+
+    @Value("${rest.client.pwf_ecm_filenet.compression.request.encoding:none}")
+    private String requestCompressionEncoding;
+
+    @Value("${rest.client.pwf_ecm_filenet.compression.request.min-size:16384}")
+    private int requestCompressionMinSize;
+
+    @Value("${rest.client.pwf_ecm_filenet.compression.request.skipped-mimetypes:"
+            + "image/*,video/*,audio/*,application/zip,application/gzip,application/x-7z-compressed,"
+            + "application/x-rar-compressed,application/x-bzip2,application/x-xz}")
+    private List<String> requestCompressionSkippedMimeTypes;
+
+    @Value("${rest.client.pwf_ecm_filenet.compression.response.encodings:gzip,deflate}")
+    private List<String> responseCompressionEncodings;
+
+    @Value("${rest.client.pwf_ecm_filenet.pool.max-total:200}")
+    private int poolMaxTotal;
+
+    @Value("${rest.client.pwf_ecm_filenet.pool.max-per-route:50}")
+    private int poolMaxPerRoute;
+
+    @Value("${rest.client.pwf_ecm_filenet.pool.validate-after-inactivity:2000}")
+    private int poolValidateAfterInactivity;
+
+    @Value("${rest.client.pwf_ecm_filenet.pool.idle-eviction:30000}")
+    private long poolIdleEviction;
+
+    @Value("${rest.client.pwf_ecm_filenet.pool.keep-alive:30000}")
+    private long poolKeepAlive;
+
+    @Value("${rest.client.pwf_ecm_filenet.connect-timeout:5000}")
+    private int connectTimeout;
+
+    @Value("${rest.client.pwf_ecm_filenet.socket-timeout:120000}")
+    private int socketTimeout;
+
+    @Value("${rest.client.pwf_ecm_filenet.pool.acquire-timeout:5000}")
+    private int poolAcquireTimeout;
+
+    @Value("${rest.client.pwf_ecm_filenet.transport:apache}")
+    private String transport;
+
+    @Value("${rest.client.pwf_ecm_filenet.jdk.http-version:HTTP_2}")
+    private HttpClient.Version jdkHttpVersion;
+
+    /**
+     * Pool spojení pro komunikaci s FileNet REST API. Výchozí {@code HttpClients.createDefault()} povoluje pouze
+     * 2 souběžná spojení na jeden server, což při větším počtu souběžných Zeebe jobů nestačí. Vytváří se pouze pro
+     * transport {@code apache}, transport {@code jdk} používá vlastní spojení {@link HttpClient}.
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "rest.client.pwf_ecm_filenet.transport", havingValue = "apache", matchIfMissing = true)
+    public PoolingHttpClientConnectionManager ecmConnectionManager() {
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(poolMaxTotal);
+        connectionManager.setDefaultMaxPerRoute(poolMaxPerRoute);
+        connectionManager.setValidateAfterInactivity(poolValidateAfterInactivity);
+
+        return connectionManager;
+    }
+
+    /**
+     * Metriky poolu spojení ({@code httpcomponents.httpclient.pool.*} s tagem {@code httpclient=ecm}).
+     */
     @Bean
-    public RestTemplate restTemplate() {
+    @ConditionalOnProperty(name = "rest.client.pwf_ecm_filenet.transport", havingValue = "apache", matchIfMissing = true)
+    public MeterBinder ecmConnectionPoolMetrics(PoolingHttpClientConnectionManager ecmConnectionManager) {
+        return new PoolingHttpClientConnectionManagerMetricsBinder(ecmConnectionManager, "ecm");
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "rest.client.pwf_ecm_filenet.transport", havingValue = "apache", matchIfMissing = true)
+    public CloseableHttpClient ecmHttpClient(PoolingHttpClientConnectionManager ecmConnectionManager) {
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(connectTimeout)
+                .setSocketTimeout(socketTimeout)
+                .setConnectionRequestTimeout(poolAcquireTimeout)
+                .build();
+
+        HttpClientBuilder httpClientBuilder = HttpClients.custom()
+                .setConnectionManager(ecmConnectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .setKeepAliveStrategy(keepAliveStrategy())
+                .evictExpiredConnections()
+                .evictIdleConnections(poolIdleEviction, TimeUnit.MILLISECONDS);
+
+        Map<String, InputStreamFactory> contentDecoders = contentDecoders();
+        if (contentDecoders.isEmpty()) {
+            httpClientBuilder.disableContentCompression();
+        } else {
+            httpClientBuilder.setContentDecoderRegistry(contentDecoders);
+        }
+
+        return httpClientBuilder.build();
+    }
+
+    /**
+     * Kódování odpovědí, která klient nabízí v hlavičce {@code Accept-Encoding} a která při čtení odpovědi
+     * transparentně dekóduje. Prázdný seznam kompresi odpovědí vypíná.
+     */
+    private Map<String, InputStreamFactory> contentDecoders() {
+        Map<String, InputStreamFactory> contentDecoders = new LinkedHashMap<>();
+        for (String encoding : responseCompressionEncodings) {
+            String normalizedEncoding = encoding.trim().toLowerCase(Locale.ROOT);
+            if (RequestCompression.GZIP.equals(normalizedEncoding)) {
+                contentDecoders.put(RequestCompression.GZIP, GZIPInputStreamFactory.getInstance());
+                contentDecoders.put("x-gzip", GZIPInputStreamFactory.getInstance());
+            } else if (RequestCompression.DEFLATE.equals(normalizedEncoding)) {
+                contentDecoders.put(RequestCompression.DEFLATE, DeflateInputStreamFactory.getInstance());
+            } else if (StringUtils.hasText(normalizedEncoding) && !"none".equals(normalizedEncoding)) {
+                throw new IllegalArgumentException("Unsupported response content encoding: " + encoding);
+            }
+        }
+
+        return contentDecoders;
+    }
+
+    /**
+     * Spojení je drženo po dobu, kterou server uvede v hlavičce {@code Keep-Alive}, jinak po nakonfigurovanou dobu.
+     */
+    private ConnectionKeepAliveStrategy keepAliveStrategy() {
+        return (response, context) -> {
+            long serverKeepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+            return serverKeepAlive > 0 ? serverKeepAlive : poolKeepAlive;
+        };
+    }
+
+    /**
+     * Továrna HTTP požadavků podle {@code rest.client.pwf_ecm_filenet.transport}: {@code apache} (HTTP/1.1 s poolem
+     * spojení {@link #ecmConnectionManager()}) nebo {@code jdk} ({@link JdkClientHttpRequestFactory}, HTTP/2
+     * s multiplexováním požadavků a návratem k HTTP/1.1, pokud jej server nepodporuje).
+     */
+    private ClientHttpRequestFactory requestFactory(ObjectProvider<CloseableHttpClient> ecmHttpClient,
+                                                    boolean streaming) {
+        if ("jdk".equalsIgnoreCase(StringUtils.trimWhitespace(transport))) {
+            HttpClient httpClient = HttpClient.newBuilder()
+                    .version(jdkHttpVersion)
+                    .connectTimeout(Duration.ofMillis(connectTimeout))
+                    .build();
+
+            return new JdkClientHttpRequestFactory(httpClient, Duration.ofMillis(socketTimeout), !streaming,
+                    List.copyOf(contentDecoders().keySet()));
+        }
+        if (!"apache".equalsIgnoreCase(StringUtils.trimWhitespace(transport))) {
+            throw new IllegalArgumentException("Unsupported ECM REST API transport: " + transport);
+        }
+
         HttpComponentsClientHttpRequestFactory requestFactory = new HttpComponentsClientHttpRequestFactory();
-        requestFactory.setHttpClient(HttpClients.createDefault());
-        return new RestTemplate(new BufferingClientHttpRequestFactory(requestFactory));
+        requestFactory.setHttpClient(ecmHttpClient.getObject());
+        requestFactory.setBufferRequestBody(!streaming);
+
+        return requestFactory;
+    }
+
+    /**
+     * @param bufferPool pool pro obsah dokumentů držený v paměti, {@code null} znamená heap
+     */
+    @SneakyThrows
+    @Bean
+    public RestTemplate restTemplate(ObjectProvider<CloseableHttpClient> ecmHttpClient, BufferPool bufferPool) {
+        // debug interceptor generovaného ApiClient čte tělo odpovědi, proto v tomto režimu musí být odpověď bufferována
+        boolean streaming = streamingEnabled && !apiDebuggingEnabled;
+
+        ClientHttpRequestFactory requestFactory = requestFactory(ecmHttpClient, streaming);
+        ClientHttpRequestFactory restTemplateRequestFactory = streaming
+                ? requestFactory
+                : new BufferingClientHttpRequestFactory(requestFactory);
+
+        RestTemplate restTemplate = new RestTemplate(restTemplateRequestFactory);
+        restTemplate.getMessageConverters().add(0, new StreamingDocumentBodyConverter(RequestCompression.of(
+                requestCompressionEncoding, requestCompressionMinSize, requestCompressionSkippedMimeTypes)));
+        restTemplate.getMessageConverters().add(0, new StreamingGetDocumentResponseConverter(streamingMemoryThreshold,
+                StringUtils.hasText(streamingTempDirectory) ? Path.of(streamingTempDirectory) : null, bufferPool));
+
+        // interceptor vynucuje bufferování těla požadavku, proto je registrován pouze při povoleném logování
+        if (loggingEnabled && RestTemplateInterceptor.isLoggingEnabled()) {
+            restTemplate.getInterceptors().add(new RestTemplateInterceptor(loggingRedactedFields, loggingTruncatedFields,
+                    loggingMaxFieldLength, loggingMaxBodyLength));
+        }
+
+        // stejné nastavení, jaké používá RestTemplate vytvořený generovaným ApiClient
+        DefaultUriBuilderFactory uriBuilderFactory = new DefaultUriBuilderFactory();
+        uriBuilderFactory.setEncodingMode(DefaultUriBuilderFactory.EncodingMode.VALUES_ONLY);
+        restTemplate.setUriTemplateHandler(uriBuilderFactory);
+
+        return restTemplate;
     }
 }
@@ -1,112 +1,219 @@
 package cz.pwf.filenet.config.rest;
 
-import com.fasterxml.jackson.core.JsonParser.Feature;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import java.io.IOException;
-import java.io.InputStream;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-import java.util.Map.Entry;
-import java.util.Objects;
-import lombok.NoArgsConstructor;
-import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.client.ClientHttpRequestExecution;
 import org.springframework.http.client.ClientHttpRequestInterceptor;
 import org.springframework.http.client.ClientHttpResponse;
-import org.springframework.util.CollectionUtils;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * Třída pro zachycení HTTP request/response zpráv a jejich následné logování.
+ * <p>
+ * Pokud není logger povolen na úrovni INFO, interceptor zprávy pouze předává dál. JSON těla zpráv jsou logována
+ * přes {@link JsonLogFilter}, který citlivé položky nahrazuje a velké položky (např. obsah dokumentu v Base64)
+ * zkracuje. Tělo odpovědi je filtrováno průběžně při jeho čtení a zalogováno po jeho přečtení, odpověď tedy
+ * není kvůli logování bufferována.
  */
 @Slf4j
-@NoArgsConstructor
 public class RestTemplateInterceptor implements ClientHttpRequestInterceptor {
 
-    private final ObjectMapper objectMapper;
-    private String[] fieldsToExclude;
-
-    public RestTemplateInterceptor(String[] fieldsToExclude) {
-        this.fieldsToExclude = fieldsToExclude;
+    private static final Set<String> SENSITIVE_HEADERS = Set.of(
+            HttpHeaders.AUTHORIZATION.toLowerCase(Locale.ROOT), HttpHeaders.PROXY_AUTHORIZATION.toLowerCase(Locale.ROOT),
+            HttpHeaders.COOKIE.toLowerCase(Locale.ROOT), HttpHeaders.SET_COOKIE.toLowerCase(Locale.ROOT));
+
+    private final Set<String> redactedFields;
+    private final Set<String> truncatedFields;
+    private final int maxFieldLength;
+    private final int maxBodyLength;
+
+    /**
+     * @param redactedFields  položky JSON těla, jejichž řetězcové hodnoty nejsou logovány
+     * @param truncatedFields položky JSON těla, jejichž řetězcové hodnoty jsou zkráceny na {@code maxFieldLength}
+     * @param maxFieldLength  maximální počet logovaných bajtů zkracované položky
+     * @param maxBodyLength   maximální počet logovaných bajtů těla zprávy
+     */
+    public RestTemplateInterceptor(Set<String> redactedFields, Set<String> truncatedFields, int maxFieldLength, int maxBodyLength) {
+        this.redactedFields = Set.copyOf(redactedFields);
+        this.truncatedFields = Set.copyOf(truncatedFields);
+        this.maxFieldLength = maxFieldLength;
+        this.maxBodyLength = maxBodyLength;
     }
 
-    {
-        objectMapper = new ObjectMapper();
-        objectMapper.configure(Feature.AUTO_CLOSE_SOURCE, true);
+    /**
+     * @return Vrací {@code true}, pokud je logger interceptoru povolen, tj. pokud má smysl interceptor registrovat.
+     */
+    public static boolean isLoggingEnabled() {
+        return log.isInfoEnabled();
     }
 
     @Override
     public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+        if (!log.isInfoEnabled()) {
+            return execution.execute(request, body);
+        }
+
         logRequest(request, body);
         ClientHttpResponse response = execution.execute(request, body);
-        logResponse(response);
-        return response;
+        log.info("Response {} {}: {} {}, headers: {}", request.getMethodValue(), request.getURI(),
+                response.getRawStatusCode(), response.getStatusText(), new LoggedHeaders(response.getHeaders()));
+
+        return new LoggingClientHttpResponse(request.getURI(), response);
     }
 
-    private void excludeValuesOfFieldsFromPayload(Map<String, Object> payload) {
-        if (Objects.isNull(this.fieldsToExclude) || CollectionUtils.isEmpty(payload)) {
-            return;
+    private void logRequest(HttpRequest request, byte[] body) {
+        String loggedBody;
+        if (body.length == 0) {
+            loggedBody = "No body";
+        } else if (request.getHeaders().containsKey(HttpHeaders.CONTENT_ENCODING)) {
+            loggedBody = "[" + request.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING) + " encoded, " + body.length + " bytes]";
+        } else if (isJson(request.getHeaders().getContentType())) {
+            JsonLogFilter filter = newFilter();
+            filter.write(body, 0, body.length);
+            loggedBody = filter.toString();
+        } else {
+            loggedBody = "[" + request.getHeaders().getContentType() + ", " + body.length + " bytes]";
         }
 
-        for (String fieldToExclude : this.fieldsToExclude) {
-            payload.computeIfPresent(fieldToExclude, (k, v) -> {
-                if (v instanceof String) {
-                    return "#";
-                }
+        log.info("Request {} {}, headers: {}, body: {}", request.getMethodValue(), request.getURI(),
+                new LoggedHeaders(request.getHeaders()), loggedBody);
+    }
 
-                return v;
-            });
-        }
+    private JsonLogFilter newFilter() {
+        return new JsonLogFilter(redactedFields, truncatedFields, maxFieldLength, maxBodyLength);
     }
 
-    @SneakyThrows
-    private void logRequest(HttpRequest request, byte[] body) {
-        log.info("URI: " + request.getURI());
-        log.info("HTTP Method: " + request.getMethod());
-        log.info("HTTP Headers: " + headersToString(request.getHeaders()));
-
-        if (body.length > 0) {
-            Map<String, Object> bodyMap = objectMapper.readValue(body, HashMap.class);
-            if (!log.isDebugEnabled()) {
-                excludeValuesOfFieldsFromPayload(bodyMap);
-            }
+    private static boolean isJson(MediaType contentType) {
+        return Objects.nonNull(contentType) && (MediaType.APPLICATION_JSON.isCompatibleWith(contentType)
+                || contentType.getSubtype().endsWith("+json"));
+    }
 
-            log.info("Request Body: " + objectMapper.writeValueAsString(bodyMap));
-        } else {
-            log.info("Request Body: No body");
+    /**
+     * Hlavičky HTTP zprávy pro logování. Text je sestaven až při zápisu do logu, hodnoty citlivých hlaviček
+     * nejsou logovány.
+     */
+    private static final class LoggedHeaders {
+
+        private final HttpHeaders headers;
+
+        private LoggedHeaders(HttpHeaders headers) {
+            this.headers = headers;
+        }
+
+        @Override
+        public String toString() {
+            return headers.entrySet().stream()
+                    .map(LoggedHeaders::toString)
+                    .collect(Collectors.joining(", ", "[", "]"));
+        }
+
+        private static String toString(Map.Entry<String, List<String>> header) {
+            return SENSITIVE_HEADERS.contains(header.getKey().toLowerCase(Locale.ROOT))
+                    ? header.getKey() + "=#"
+                    : header.getKey() + "=" + header.getValue();
         }
     }
 
-    private void logResponse(ClientHttpResponse response) throws IOException {
-        log.info("HTTP Status Code: " + response.getRawStatusCode());
-        log.info("Status Text: " + response.getStatusText());
-        log.info("HTTP Headers: " + headersToString(response.getHeaders()));
+    /**
+     * Odpověď, jejíž JSON tělo je při čtení průběžně předáváno do {@link JsonLogFilter} a po přečtení
+     * (případně při uzavření odpovědi) zalogováno.
+     */
+    private final class LoggingClientHttpResponse implements ClientHttpResponse {
+
+        private final URI uri;
+        private final ClientHttpResponse delegate;
+        private final JsonLogFilter filter;
+        private InputStream body;
+        private boolean logged;
+
+        private LoggingClientHttpResponse(URI uri, ClientHttpResponse delegate) {
+            this.uri = uri;
+            this.delegate = delegate;
+            this.filter = isJson(delegate.getHeaders().getContentType()) ? newFilter() : null;
+        }
 
-        InputStream responseBodyStream = response.getBody();
-        if (responseBodyStream.available() > 0) {
-            Map<String, Object> bodyMap = objectMapper.readValue(responseBodyStream, HashMap.class);
-            if (!log.isDebugEnabled()) {
-                excludeValuesOfFieldsFromPayload(bodyMap);
+        @Override
+        public InputStream getBody() throws IOException {
+            if (Objects.isNull(body)) {
+                body = Objects.isNull(filter) ? delegate.getBody() : new TeeInputStream(delegate.getBody());
             }
+            return body;
+        }
 
-            log.info("Response Body: " + objectMapper.writeValueAsString(bodyMap));
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        @Override
+        public HttpStatus getStatusCode() throws IOException {
+            return delegate.getStatusCode();
+        }
+
+        @Override
+        public int getRawStatusCode() throws IOException {
+            return delegate.getRawStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return delegate.getStatusText();
         }
-    }
 
-    private String headersToString(HttpHeaders headers) {
-        StringBuilder builder = new StringBuilder();
-        for(Entry<String, List<String>> entry : headers.entrySet()) {
-            builder.append(entry.getKey()).append("=[");
-            for(String value : entry.getValue()) {
-                builder.append(value).append(",");
+        @Override
+        public void close() {
+            logBody();
+            delegate.close();
+        }
+
+        private void logBody() {
+            if (logged || Objects.isNull(filter)) {
+                return;
+            }
+            logged = true;
+            log.info("Response body {}: {}", uri, Objects.isNull(body) ? "Not read" : filter.toString());
+        }
+
+        private final class TeeInputStream extends FilterInputStream {
+
+            private TeeInputStream(InputStream in) {
+                super(in);
+            }
+
+            @Override
+            public int read() throws IOException {
+                int b = super.read();
+                if (b < 0) {
+                    logBody();
+                } else {
+                    filter.write(b);
+                }
+                return b;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                int read = super.read(b, off, len);
+                if (read < 0) {
+                    logBody();
+                } else {
+                    filter.write(b, off, read);
+                }
+                return read;
             }
-            builder.setLength(builder.length() - 1);
-            builder.append("],");
         }
-        builder.setLength(builder.length() - 1);
-        return builder.toString();
     }
-}
\ No newline at end of file
+}
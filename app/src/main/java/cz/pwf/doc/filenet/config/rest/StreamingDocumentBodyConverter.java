@@ -0,0 +1,152 @@
+package cz.pwf.filenet.config.rest;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import cz.pwf.filenet.model.ecm.StreamingDocumentBody;
+import cz.pwf.filenet.service.content.Base64Codec;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Konvertor požadavků na uložení obsahu dokumentu ({@link StreamingDocumentBody}). Atributy požadavku kromě
+ * {@code data} jsou serializovány standardně pomocí Jacksonu, binární obsah je do Base64 kódován průběžně
+ * generátorem ({@link Base64Codec#writeBinary(JsonGenerator, ByteBuffer)}) přímo do výstupního streamu požadavku,
+ * takže v paměti nikdy nevznikne celý Base64 řetězec.
+ * <p>
+ * Délka požadavku je určena serializací atributů s prázdným atributem {@code data}, ke které je připočtena délka
+ * Base64 obsahu. Znaky Base64 abecedy se v JSON řetězci neescapují, délka tedy odpovídá skutečně zapsanému tělu
+ * bez ohledu na pořadí atributů nebo formátování výstupu, a obsah se přitom kóduje pouze jednou.
+ * <p>
+ * Podle nastavení {@link RequestCompression} je celé tělo požadavku navíc průběžně komprimováno, délka takového
+ * požadavku není předem známa a je odeslán jako chunked.
+ */
+public class StreamingDocumentBodyConverter extends AbstractHttpMessageConverter<StreamingDocumentBody> {
+
+    private static final String DATA_FIELD = "data";
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final RequestCompression compression;
+
+    public StreamingDocumentBodyConverter() {
+        this(RequestCompression.disabled());
+    }
+
+    public StreamingDocumentBodyConverter(RequestCompression compression) {
+        super(MediaType.APPLICATION_JSON, new MediaType("application", "*+json"));
+        this.compression = compression;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return StreamingDocumentBody.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected void addDefaultHeaders(HttpHeaders headers, StreamingDocumentBody body, MediaType contentType) throws IOException {
+        super.addDefaultHeaders(headers, body, contentType);
+        if (compression.shouldCompress(body)) {
+            headers.set(HttpHeaders.CONTENT_ENCODING, compression.getEncoding());
+        }
+    }
+
+    @Override
+    protected Long getContentLength(StreamingDocumentBody body, MediaType contentType) throws IOException {
+        if (compression.shouldCompress(body)) {
+            return null;
+        }
+
+        CountingOutputStream counter = new CountingOutputStream();
+        write(body, counter, false);
+        if (isEmpty(body.getRawData())) {
+            return counter.count;
+        }
+
+        return counter.count + Base64Codec.encodedLength(body.getRawData().length);
+    }
+
+    @Override
+    protected void writeInternal(StreamingDocumentBody body, HttpOutputMessage outputMessage) throws IOException {
+        if (!compression.shouldCompress(body)) {
+            write(body, outputMessage.getBody(), true);
+            return;
+        }
+
+        try (OutputStream compressed = compression.wrap(outputMessage.getBody())) {
+            write(body, compressed, true);
+        }
+    }
+
+    /**
+     * @param writeData {@code true} pro zápis obsahu, {@code false} pro zápis prázdného atributu {@code data}
+     *                  (pro výpočet délky požadavku)
+     */
+    private void write(StreamingDocumentBody body, OutputStream outputStream, boolean writeData) throws IOException {
+        if (isEmpty(body.getRawData())) {
+            objectMapper.writeValue(StreamUtils.nonClosing(outputStream), body);
+            return;
+        }
+
+        ObjectNode attributes = objectMapper.valueToTree(body);
+        attributes.remove(DATA_FIELD);
+        try (JsonGenerator generator = objectMapper.createGenerator(StreamUtils.nonClosing(outputStream))) {
+            generator.writeStartObject();
+            Iterator<Map.Entry<String, JsonNode>> fields = attributes.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                generator.writeFieldName(field.getKey());
+                objectMapper.writeTree(generator, field.getValue());
+            }
+            generator.writeFieldName(DATA_FIELD);
+            if (writeData) {
+                Base64Codec.writeBinary(generator, ByteBuffer.wrap(body.getRawData()));
+            } else {
+                generator.writeString("");
+            }
+            generator.writeEndObject();
+        }
+        outputStream.flush();
+    }
+
+    @Override
+    protected StreamingDocumentBody readInternal(Class<? extends StreamingDocumentBody> clazz, HttpInputMessage inputMessage) {
+        throw new UnsupportedOperationException("Document body request can not be read");
+    }
+
+    private static boolean isEmpty(byte[] data) {
+        return Objects.isNull(data) || data.length == 0;
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
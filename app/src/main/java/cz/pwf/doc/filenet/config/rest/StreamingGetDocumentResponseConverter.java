@@ -0,0 +1,119 @@
+package cz.pwf.filenet.config.rest;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import cz.pwf.filenet.model.ecm.SpooledGetDocumentResponse;
+import cz.pwf.filenet.pwf_ecm_filenet_api_client.model.GetDocumentResponse;
+import cz.pwf.filenet.service.buffer.BufferPool;
+import cz.pwf.filenet.service.content.SpooledContent;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Objects;
+
+/**
+ * Konvertor odpovědi endpointu GetDocument, který JSON zpracovává průběžně. Base64 obsah dokumentu (atribut
+ * {@code content}) není nikdy načten jako {@link String}, ale je dekódován přímo ze vstupního streamu
+ * do {@link SpooledContent}. Ostatní atributy odpovědi jsou namapovány standardně pomocí Jacksonu.
+ */
+public class StreamingGetDocumentResponseConverter extends AbstractHttpMessageConverter<GetDocumentResponse> {
+
+    private static final String CONTENT_FIELD = "content";
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final int memoryThreshold;
+    private final Path tempDirectory;
+    private final BufferPool bufferPool;
+
+    /**
+     * @param memoryThreshold maximální velikost dekódovaného obsahu v bajtech, který je držen v paměti
+     * @param tempDirectory   adresář pro dočasné soubory, {@code null} znamená výchozí adresář JVM
+     */
+    public StreamingGetDocumentResponseConverter(int memoryThreshold, Path tempDirectory) {
+        this(memoryThreshold, tempDirectory, null);
+    }
+
+    /**
+     * @param memoryThreshold maximální velikost dekódovaného obsahu v bajtech, který je držen v paměti
+     * @param tempDirectory   adresář pro dočasné soubory, {@code null} znamená výchozí adresář JVM
+     * @param bufferPool      pool pro obsah držený v paměti, {@code null} znamená heap
+     */
+    public StreamingGetDocumentResponseConverter(int memoryThreshold, Path tempDirectory, BufferPool bufferPool) {
+        super(MediaType.APPLICATION_JSON, new MediaType("application", "*+json"));
+        this.memoryThreshold = memoryThreshold;
+        this.tempDirectory = tempDirectory;
+        this.bufferPool = bufferPool;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return GetDocumentResponse.class.equals(clazz) || SpooledGetDocumentResponse.class.equals(clazz);
+    }
+
+    @Override
+    protected boolean canWrite(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected GetDocumentResponse readInternal(Class<? extends GetDocumentResponse> clazz, HttpInputMessage inputMessage)
+            throws IOException {
+        SpooledGetDocumentResponse response = new SpooledGetDocumentResponse();
+        ObjectNode attributes = objectMapper.createObjectNode();
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(inputMessage.getBody())) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new HttpMessageNotReadableException("GetDocument response is not a JSON object", inputMessage);
+            }
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String fieldName = parser.getCurrentName();
+                JsonToken valueToken = parser.nextToken();
+
+                if (CONTENT_FIELD.equals(fieldName) && valueToken == JsonToken.VALUE_STRING) {
+                    response.setSpooledContent(readContent(parser, inputMessage));
+                } else {
+                    attributes.set(fieldName, objectMapper.readTree(parser));
+                }
+            }
+
+            return objectMapper.readerForUpdating(response).readValue(attributes);
+        } catch (IOException | RuntimeException e) {
+            if (Objects.nonNull(response.getSpooledContent())) {
+                response.getSpooledContent().close();
+            }
+            throw e;
+        }
+    }
+
+    private SpooledContent readContent(JsonParser parser, HttpInputMessage inputMessage) throws IOException {
+        SpooledContent content = new SpooledContent(memoryThreshold, tempDirectory, bufferPool);
+        try {
+            parser.readBinaryValue(content);
+            content.finishWrite();
+        } catch (IllegalArgumentException e) {
+            // Jackson hlásí neplatný Base64 obsah jako IllegalArgumentException
+            content.close();
+            throw new HttpMessageNotReadableException("GetDocument response content is not valid Base64", e,
+                    inputMessage);
+        } catch (IOException | RuntimeException e) {
+            content.close();
+            throw e;
+        }
+
+        return content;
+    }
+
+    @Override
+    protected void writeInternal(GetDocumentResponse getDocumentResponse, HttpOutputMessage outputMessage) {
+        throw new UnsupportedOperationException("GetDocument response can not be written");
+    }
+}
@@ -0,0 +1,30 @@
+package cz.pwf.filenet.controller;
+
+import cz.pwf.filenet.service.zeebe.ZeebeHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.StringUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.security.Principal;
+import java.util.Objects;
+
+/**
+ * Pomocná třída pro převzetí KPJM ověřeného uživatele REST rozhraní (viz {@code SecurityConfig}).
+ */
+final class AuthenticatedCaller {
+
+    private AuthenticatedCaller() {
+    }
+
+    /**
+     * @param principal ověřený uživatel
+     * @return Vrací Zeebe headers s KPJM ověřeného uživatele.
+     */
+    static ZeebeHeaders headers(Principal principal) {
+        if (Objects.isNull(principal) || !StringUtils.hasText(principal.getName())) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED);
+        }
+
+        return ZeebeHeaders.authenticated(principal.getName());
+    }
+}
@@ -0,0 +1,50 @@
+package cz.pwf.filenet.controller;
+
+import lombok.Value;
+import org.springframework.http.HttpRange;
+import org.springframework.util.StringUtils;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Požadovaná část obsahu dokumentu, zadaná parametry {@code offset} a {@code length}, případně hlavičkou
+ * {@code Range} s jedním rozsahem ({@code bytes=first-last} nebo {@code bytes=first-}). Délka
+ * {@link Long#MAX_VALUE} znamená část do konce obsahu.
+ */
+@Value
+class ByteRange {
+
+    static final String BYTES_UNIT = "bytes";
+
+    long offset;
+    long length;
+    /**
+     * {@code true}, pokud byla požadována část obsahu, jinak je požadován celý obsah.
+     */
+    boolean partial;
+
+    /**
+     * @param range  hodnota hlavičky {@code Range}, přednost má před parametry {@code offset} a {@code length}
+     * @param offset pozice prvního bajtu části
+     * @param length maximální délka části
+     * @return Vrací požadovanou část obsahu.
+     * @throws IllegalArgumentException pokud hlavička {@code Range} není podporována
+     */
+    static ByteRange of(String range, Long offset, Long length) {
+        if (StringUtils.hasText(range)) {
+            List<HttpRange> ranges = HttpRange.parseRanges(range);
+            if (ranges.size() != 1 || range.trim().startsWith(BYTES_UNIT + "=-")) {
+                throw new IllegalArgumentException("Only a single 'first-last' or 'first-' byte range is supported");
+            }
+
+            long first = ranges.get(0).getRangeStart(Long.MAX_VALUE);
+            long last = ranges.get(0).getRangeEnd(Long.MAX_VALUE);
+            // bytes=first- vrací konec Long.MAX_VALUE - 1, tj. část do konce obsahu
+            return new ByteRange(first, last == Long.MAX_VALUE - 1 ? Long.MAX_VALUE : last - first + 1, true);
+        }
+
+        return new ByteRange(Objects.isNull(offset) ? 0 : offset, Objects.isNull(length) ? Long.MAX_VALUE : length,
+                Objects.nonNull(offset) || Objects.nonNull(length));
+    }
+}
@@ -0,0 +1,56 @@
+package cz.pwf.filenet.controller;
+
+import cz.notix.document.plugin.connector.dto.DMSDocumentId;
+import cz.notix.document.plugin.connector.dto.DMSDocumentInfo;
+import cz.pwf.filenet.model.batch.BatchCreateRequest;
+import cz.pwf.filenet.model.batch.BatchDocumentIdsRequest;
+import cz.pwf.filenet.model.batch.BatchItemResult;
+import cz.pwf.filenet.service.FileNetBatchService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.security.Principal;
+import java.util.List;
+
+/**
+ * REST rozhraní pro dávkové operace s dokumenty FileNetu. Operace jsou prováděny pod KPJM ověřeného uživatele.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/batch/documents")
+@RequiredArgsConstructor
+public class DocumentBatchController {
+
+    private final FileNetBatchService fileNetBatchService;
+
+    @PostMapping("/create")
+    public ResponseEntity<List<BatchItemResult<DMSDocumentInfo>>> createDocuments(@RequestBody BatchCreateRequest request,
+                                                                                   Principal principal) {
+        return ResponseEntity.ok(fileNetBatchService.createAll(request.getDocuments(),
+                AuthenticatedCaller.headers(principal)));
+    }
+
+    @PostMapping("/info")
+    public ResponseEntity<List<BatchItemResult<DMSDocumentInfo>>> getDocumentsInfo(@RequestBody BatchDocumentIdsRequest request,
+                                                                                    Principal principal) {
+        return ResponseEntity.ok(fileNetBatchService.getInfoAll(request.getIds(), AuthenticatedCaller.headers(principal)));
+    }
+
+    @PostMapping("/delete")
+    public ResponseEntity<List<BatchItemResult<DMSDocumentId>>> deleteDocuments(@RequestBody BatchDocumentIdsRequest request,
+                                                                                 Principal principal) {
+        return ResponseEntity.ok(fileNetBatchService.deleteAll(request.getIds(), AuthenticatedCaller.headers(principal)));
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> badRequest(IllegalArgumentException e) {
+        log.debug("Invalid batch request", e);
+        return ResponseEntity.badRequest().body("Invalid batch request");
+    }
+}
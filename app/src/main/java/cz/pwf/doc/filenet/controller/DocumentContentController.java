@@ -0,0 +1,126 @@
+package cz.pwf.filenet.controller;
+
+import cz.notix.document.plugin.connector.dto.DMSDocumentId;
+import cz.pwf.filenet.model.content.DocumentContentRange;
+import cz.pwf.filenet.service.FileNetService;
+import cz.pwf.filenet.service.content.DocumentRangeNotSatisfiableException;
+import cz.pwf.filenet.service.content.InvalidContentRangeException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.security.Principal;
+import java.util.Objects;
+
+/**
+ * REST rozhraní pro čtení binárního obsahu dokumentů FileNetu po částech.
+ * <p>
+ * Část obsahu lze zadat parametry {@code offset} a {@code length}, případně hlavičkou {@code Range} (viz
+ * {@link ByteRange}), a je vrácena se stavem 206. Bez zadání části je vrácen celý obsah se stavem 200. Obsah je
+ * předáván průběžně, bez načtení celé části do paměti. Obsah je čten pod KPJM ověřeného uživatele
+ * (viz {@code SecurityConfig}).
+ */
+@Slf4j
+@RestController
+@RequestMapping("/documents")
+@RequiredArgsConstructor
+public class DocumentContentController {
+
+    private final FileNetService fileNetService;
+
+    @Value("${filenet.namespace}")
+    private String namespace;
+
+    @GetMapping("/{id}/content")
+    public ResponseEntity<InputStreamResource> getDocumentContent(
+            @PathVariable String id,
+            @RequestParam(required = false) String version,
+            @RequestParam(required = false) Long offset,
+            @RequestParam(required = false) Long length,
+            @RequestHeader(value = HttpHeaders.RANGE, required = false) String range,
+            Principal principal) {
+        ByteRange byteRange = ByteRange.of(range, offset, length);
+        DocumentContentRange content = fileNetService.getDataRange(new DMSDocumentId(namespace, id, version),
+                byteRange.getOffset(), byteRange.getLength(), AuthenticatedCaller.headers(principal));
+
+        return toResponse(content, byteRange.isPartial());
+    }
+
+    @ExceptionHandler(DocumentRangeNotSatisfiableException.class)
+    public ResponseEntity<Void> rangeNotSatisfiable(DocumentRangeNotSatisfiableException e) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE);
+        if (e.getTotalLength() >= 0) {
+            response.header(HttpHeaders.CONTENT_RANGE, ByteRange.BYTES_UNIT + " */" + e.getTotalLength());
+        }
+
+        return response.build();
+    }
+
+    @ExceptionHandler(InvalidContentRangeException.class)
+    public ResponseEntity<String> badGateway(InvalidContentRangeException e) {
+        log.warn("Invalid document content response: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.BAD_GATEWAY).body("Invalid document content response from FileNet");
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> badRequest(IllegalArgumentException e) {
+        log.debug("Invalid document content request: {}", e.getMessage());
+        return ResponseEntity.badRequest().body("Invalid document content request");
+    }
+
+    /**
+     * @param content část obsahu dokumentu
+     * @param partial {@code true}, pokud byla požadována část obsahu
+     * @return Vrací odpověď se stavem 206 a hlavičkou {@code Content-Range}, případně se stavem 200. Pokud není
+     * délka části známa, odpověď neobsahuje hlavičky {@code Content-Length} ani {@code Content-Range}.
+     */
+    static ResponseEntity<InputStreamResource> toResponse(DocumentContentRange content, boolean partial) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.ACCEPT_RANGES, ByteRange.BYTES_UNIT);
+        headers.setContentType(contentType(content));
+        if (content.getLength() >= 0) {
+            headers.setContentLength(content.getLength());
+        }
+        if (!partial) {
+            return ResponseEntity.ok()
+                    .headers(headers)
+                    .body(new InputStreamResource(content.getContent()));
+        }
+
+        // při neznámé délce části je obsah odeslán po blocích (chunked) a hlavičku Content-Range nelze sestavit
+        if (content.getLength() >= 0) {
+            headers.set(HttpHeaders.CONTENT_RANGE, ByteRange.BYTES_UNIT + " " + content.getOffset() + "-"
+                    + (content.getOffset() + content.getLength() - 1) + "/"
+                    + (content.getTotalLength() >= 0 ? content.getTotalLength() : "*"));
+        }
+
+        return ResponseEntity.status(HttpStatus.PARTIAL_CONTENT)
+                .headers(headers)
+                .body(new InputStreamResource(content.getContent()));
+    }
+
+    private static MediaType contentType(DocumentContentRange content) {
+        if (Objects.nonNull(content.getInfo()) && StringUtils.hasText(content.getInfo().getMimetype())) {
+            try {
+                return MediaType.parseMediaType(content.getInfo().getMimetype());
+            } catch (IllegalArgumentException e) {
+                return MediaType.APPLICATION_OCTET_STREAM;
+            }
+        }
+
+        return MediaType.APPLICATION_OCTET_STREAM;
+    }
+}
@@ -0,0 +1,230 @@
+package cz.pwf.filenet.model.attribute;
+
+import cz.notix.document.plugin.connector.dto.DmsAttribute;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * Seznam atributů dokumentu s vyhledáváním podle názvu bez ohledu na velikost písmen.
+ * <p>
+ * Atributy jsou uloženy v poli. Pro seznamy delší než {@link #INDEX_THRESHOLD} je při prvním vyhledávání vytvořen
+ * hashovací index (otevřené adresování, hash názvu je spočítán bez převodu na malá písmena), menší seznamy jsou
+ * prohledávány sekvenčně. Při více atributech stejného názvu je vrácen první z nich. Index odpovídá názvům atributů
+ * v okamžiku vytvoření, změna seznamu index zneplatní, přejmenování atributu pomocí {@link DmsAttribute#setName}
+ * nikoli.
+ * <p>
+ * Seznam je vytvářen mapováním atributů z FileNetu (viz {@code DocumentMapper}), takže index je sdílen všemi
+ * vyhledáváními nad atributy dokumentu. {@link #toString()} formátuje atributy jako {@code název -> hodnota},
+ * objekt lze tedy předat přímo jako parametr logování a formátování proběhne pouze při zapnutém logování.
+ */
+public final class DmsAttributes extends AbstractList<DmsAttribute> implements RandomAccess {
+
+    static final int INDEX_THRESHOLD = 8;
+
+    private static final DmsAttribute[] NO_ATTRIBUTES = new DmsAttribute[0];
+
+    private DmsAttribute[] attributes;
+    private int size;
+
+    /**
+     * Index atributů: pozice v poli {@link #attributes} zvýšená o 1 (0 značí volný slot), velikost je mocnina 2.
+     */
+    private volatile int[] index;
+
+    private DmsAttributes(DmsAttribute[] attributes, int size) {
+        this.attributes = attributes;
+        this.size = size;
+    }
+
+    /**
+     * @param capacity předpokládaný počet atributů
+     * @return Vrací prázdný seznam atributů.
+     */
+    public static DmsAttributes withCapacity(int capacity) {
+        return new DmsAttributes(capacity == 0 ? NO_ATTRIBUTES : new DmsAttribute[capacity], 0);
+    }
+
+    /**
+     * @param attributes atributy dokumentu, případně {@code null}
+     * @return Vrací předaný seznam, pokud je typu {@link DmsAttributes}, jinak jeho kopii.
+     */
+    public static DmsAttributes of(Collection<DmsAttribute> attributes) {
+        if (attributes instanceof DmsAttributes) {
+            return (DmsAttributes) attributes;
+        }
+        if (Objects.isNull(attributes) || attributes.isEmpty()) {
+            return withCapacity(0);
+        }
+
+        DmsAttribute[] array = attributes.toArray(NO_ATTRIBUTES);
+        return new DmsAttributes(array, array.length);
+    }
+
+    /**
+     * @param name název atributu (bez ohledu na velikost písmen)
+     * @return Vrací první atribut daného názvu, případně {@code null}.
+     */
+    public DmsAttribute get(String name) {
+        int position = indexOf(name);
+        return position < 0 ? null : attributes[position];
+    }
+
+    /**
+     * @param name název atributu (bez ohledu na velikost písmen)
+     * @return Vrací hodnotu prvního atributu daného názvu, případně {@code null}.
+     */
+    public String getValue(String name) {
+        DmsAttribute attribute = get(name);
+        return Objects.isNull(attribute) ? null : attribute.getValue();
+    }
+
+    /**
+     * @param name název atributu (bez ohledu na velikost písmen)
+     * @return Vrací {@code true}, pokud seznam obsahuje atribut daného názvu.
+     */
+    public boolean contains(String name) {
+        return indexOf(name) >= 0;
+    }
+
+    @Override
+    public DmsAttribute get(int i) {
+        Objects.checkIndex(i, size);
+        return attributes[i];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public DmsAttribute set(int i, DmsAttribute attribute) {
+        Objects.checkIndex(i, size);
+        DmsAttribute previous = attributes[i];
+        attributes[i] = attribute;
+        index = null;
+        return previous;
+    }
+
+    @Override
+    public void add(int i, DmsAttribute attribute) {
+        Objects.checkIndex(i, size + 1);
+        if (size == attributes.length) {
+            attributes = Arrays.copyOf(attributes, Math.max(INDEX_THRESHOLD, size + (size >> 1)));
+        }
+        System.arraycopy(attributes, i, attributes, i + 1, size - i);
+        attributes[i] = attribute;
+        size++;
+        modCount++;
+        index = null;
+    }
+
+    @Override
+    public DmsAttribute remove(int i) {
+        Objects.checkIndex(i, size);
+        DmsAttribute previous = attributes[i];
+        System.arraycopy(attributes, i + 1, attributes, i, size - i - 1);
+        attributes[--size] = null;
+        modCount++;
+        index = null;
+        return previous;
+    }
+
+    /**
+     * @return Vrací atributy ve formátu {@code [název -> hodnota, ...]}.
+     */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder(size * 32 + 2).append('[');
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                builder.append(", ");
+            }
+            DmsAttribute attribute = attributes[i];
+            if (Objects.isNull(attribute)) {
+                builder.append("null");
+            } else {
+                builder.append(attribute.getName()).append(" -> ").append(attribute.getValue());
+            }
+        }
+
+        return builder.append(']').toString();
+    }
+
+    private int indexOf(String name) {
+        if (Objects.isNull(name)) {
+            return -1;
+        }
+
+        if (size <= INDEX_THRESHOLD) {
+            for (int i = 0; i < size; i++) {
+                if (nameEquals(attributes[i], name)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        int[] table = index;
+        if (Objects.isNull(table)) {
+            table = buildIndex();
+            index = table;
+        }
+
+        int mask = table.length - 1;
+        for (int slot = hash(name) & mask; table[slot] != 0; slot = (slot + 1) & mask) {
+            if (nameEquals(attributes[table[slot] - 1], name)) {
+                return table[slot] - 1;
+            }
+        }
+
+        return -1;
+    }
+
+    private int[] buildIndex() {
+        // zaplnění nejvýše na polovinu, aby sekvence obsazených slotů zůstaly krátké
+        int[] table = new int[Integer.highestOneBit(Math.max(size, 1) * 2 - 1) << 1];
+        int mask = table.length - 1;
+
+        for (int i = 0; i < size; i++) {
+            DmsAttribute attribute = attributes[i];
+            if (Objects.isNull(attribute) || Objects.isNull(attribute.getName())) {
+                continue;
+            }
+
+            String name = attribute.getName();
+            int slot = hash(name) & mask;
+            while (table[slot] != 0 && !nameEquals(attributes[table[slot] - 1], name)) {
+                slot = (slot + 1) & mask;
+            }
+            // při duplicitním názvu zůstává v indexu první atribut
+            if (table[slot] == 0) {
+                table[slot] = i + 1;
+            }
+        }
+
+        return table;
+    }
+
+    private static boolean nameEquals(DmsAttribute attribute, String name) {
+        return Objects.nonNull(attribute) && name.equalsIgnoreCase(attribute.getName());
+    }
+
+    /**
+     * Hash názvu konzistentní s {@link String#equalsIgnoreCase(String)}, tj. ze znaků převedených na velká a zpět
+     * na malá písmena.
+     */
+    static int hash(String name) {
+        int hash = 0;
+        for (int i = 0; i < name.length(); i++) {
+            hash = 31 * hash + Character.toLowerCase(Character.toUpperCase(name.charAt(i)));
+        }
+
+        return hash ^ (hash >>> 16);
+    }
+}
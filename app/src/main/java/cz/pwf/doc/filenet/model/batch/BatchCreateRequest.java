@@ -0,0 +1,15 @@
+package cz.pwf.filenet.model.batch;
+
+import cz.notix.document.plugin.connector.dto.DMSDocumentNew;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Požadavek na dávkové uložení nových dokumentů do FileNetu.
+ */
+@Data
+public class BatchCreateRequest {
+
+    private List<DMSDocumentNew> documents;
+}
@@ -0,0 +1,15 @@
+package cz.pwf.filenet.model.batch;
+
+import cz.notix.document.plugin.connector.dto.DMSDocumentId;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Požadavek na dávkovou operaci nad již uloženými dokumenty FileNetu.
+ */
+@Data
+public class BatchDocumentIdsRequest {
+
+    private List<DMSDocumentId> ids;
+}
@@ -0,0 +1,35 @@
+package cz.pwf.filenet.model.batch;
+
+import lombok.Value;
+import org.springframework.web.client.RestClientResponseException;
+
+/**
+ * Výsledek zpracování jedné položky dávkové operace.
+ *
+ * @param <T> typ výsledku operace
+ */
+@Value
+public class BatchItemResult<T> {
+
+    /**
+     * Pořadí položky v dávce (od 0).
+     */
+    int index;
+    boolean success;
+    T result;
+    /**
+     * Obecný popis chyby, pokud zpracování položky selhalo. Podrobnosti chyby jsou pouze v logu služby.
+     */
+    String error;
+
+    public static <T> BatchItemResult<T> succeeded(int index, T result) {
+        return new BatchItemResult<>(index, true, result, null);
+    }
+
+    public static <T> BatchItemResult<T> failed(int index, Throwable error) {
+        String message = error instanceof RestClientResponseException
+                ? "FileNet request failed with status " + ((RestClientResponseException) error).getRawStatusCode()
+                : "Item processing failed";
+        return new BatchItemResult<>(index, false, null, message);
+    }
+}
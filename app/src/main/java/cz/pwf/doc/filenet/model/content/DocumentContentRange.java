@@ -0,0 +1,36 @@
+package cz.pwf.filenet.model.content;
+
+import cz.notix.document.plugin.connector.dto.DMSDocumentInfo;
+import lombok.Value;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Část binárního obsahu dokumentu. Obsah je čten průběžně ze streamu {@code content}, po jeho zpracování
+ * musí konzument zavolat {@link #close()}.
+ */
+@Value
+public class DocumentContentRange implements Closeable {
+
+    DMSDocumentInfo info;
+    /**
+     * Pozice prvního bajtu části v obsahu dokumentu.
+     */
+    long offset;
+    /**
+     * Délka části v bajtech, případně -1, pokud není známa.
+     */
+    long length;
+    /**
+     * Celková velikost obsahu dokumentu v bajtech, případně -1, pokud není známa.
+     */
+    long totalLength;
+    InputStream content;
+
+    @Override
+    public void close() throws IOException {
+        content.close();
+    }
+}
@@ -0,0 +1,55 @@
+package cz.pwf.filenet.model.ecm;
+
+import cz.pwf.filenet.pwf_ecm_filenet_api_client.model.CreateDocumentBodyRequest;
+import cz.pwf.filenet.pwf_ecm_filenet_api_client.model.FileNetAttributes;
+import cz.pwf.filenet.pwf_ecm_filenet_api_client.model.UpdateDocumentBodyRequest;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Požadavek na zahájení nahrávání obsahu dokumentu po částech. Obsahuje stejné atributy jako požadavek
+ * endpointu CreateDocument/UpdateDocument, místo obsahu dokumentu však pouze jeho velikost a rozdělení na části.
+ */
+@Data
+public class ChunkedUploadStartRequest {
+
+    /**
+     * ID aktualizovaného dokumentu, {@code null} při vytvoření nového dokumentu.
+     */
+    private String documentId;
+    private String namespace;
+    private String filename;
+    private String title;
+    private String mimetype;
+    private List<FileNetAttributes> attributes;
+    private long size;
+    private int chunkSize;
+    private int chunkCount;
+    /**
+     * Kontrolní součet CRC32C celého obsahu (hexadecimálně), podle kterého může FileNet ověřit složený obsah.
+     */
+    private String checksum;
+
+    public static ChunkedUploadStartRequest of(CreateDocumentBodyRequest body) {
+        ChunkedUploadStartRequest request = new ChunkedUploadStartRequest();
+        request.setNamespace(body.getNamespace());
+        request.setFilename(body.getFilename());
+        request.setTitle(body.getTitle());
+        request.setMimetype(body.getMimetype());
+        request.setAttributes(body.getAttributes());
+
+        return request;
+    }
+
+    public static ChunkedUploadStartRequest of(String documentId, UpdateDocumentBodyRequest body) {
+        ChunkedUploadStartRequest request = new ChunkedUploadStartRequest();
+        request.setDocumentId(documentId);
+        request.setNamespace(body.getNamespace());
+        request.setFilename(body.getFilename());
+        request.setMimetype(body.getMimetype());
+        request.setAttributes(body.getAttributes());
+
+        return request;
+    }
+}
@@ -0,0 +1,18 @@
+package cz.pwf.filenet.model.ecm;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Stav nahrávání obsahu dokumentu po částech, jak jej eviduje FileNet.
+ */
+@Data
+public class ChunkedUploadStatus {
+
+    private String uploadId;
+    /**
+     * Indexy částí obsahu, které FileNet již přijal.
+     */
+    private List<Integer> receivedChunks;
+}
@@ -0,0 +1,25 @@
+package cz.pwf.filenet.model.ecm;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import cz.pwf.filenet.pwf_ecm_filenet_api_client.model.GetDocumentResponse;
+import cz.pwf.filenet.service.content.SpooledContent;
+
+/**
+ * Odpověď endpointu GetDocument, jejíž obsah nebyl načten jako Base64 řetězec, ale byl průběžně dekódován
+ * do {@link SpooledContent}. Atribut {@code content} je v takovém případě vždy {@code null}.
+ */
+public class SpooledGetDocumentResponse extends GetDocumentResponse {
+
+    @JsonIgnore
+    private SpooledContent spooledContent;
+
+    @JsonIgnore
+    public SpooledContent getSpooledContent() {
+        return spooledContent;
+    }
+
+    @JsonIgnore
+    public void setSpooledContent(SpooledContent spooledContent) {
+        this.spooledContent = spooledContent;
+    }
+}
@@ -0,0 +1,25 @@
+package cz.pwf.filenet.model.ecm;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import cz.pwf.filenet.pwf_ecm_filenet_api_client.model.CreateDocumentBodyRequest;
+
+/**
+ * Požadavek endpointu CreateDocument, jehož obsah je do Base64 kódován průběžně až při odesílání.
+ * Atribut {@code data} je v takovém případě vždy {@code null}.
+ */
+public class StreamingCreateDocumentBodyRequest extends CreateDocumentBodyRequest implements StreamingDocumentBody {
+
+    @JsonIgnore
+    private byte[] rawData;
+
+    @JsonIgnore
+    @Override
+    public byte[] getRawData() {
+        return rawData;
+    }
+
+    @JsonIgnore
+    public void setRawData(byte[] rawData) {
+        this.rawData = rawData;
+    }
+}
@@ -0,0 +1,19 @@
+package cz.pwf.filenet.model.ecm;
+
+/**
+ * Tělo požadavku na uložení obsahu dokumentu, jehož atribut {@code data} není předem převeden do Base64 řetězce.
+ * Binární obsah je do Base64 kódován až při zápisu požadavku, viz
+ * {@link cz.pwf.filenet.config.rest.StreamingDocumentBodyConverter}.
+ */
+public interface StreamingDocumentBody {
+
+    /**
+     * @return Vrací binární obsah dokumentu, který má být odeslán v atributu {@code data}.
+     */
+    byte[] getRawData();
+
+    /**
+     * @return Vrací mimetype obsahu dokumentu.
+     */
+    String getMimetype();
+}
@@ -1,5 +1,9 @@
 package cz.pwf.filenet.model.mapper;
 
+import cz.pwf.filenet.model.attribute.DmsAttributes;
+import cz.pwf.filenet.model.ecm.StreamingCreateDocumentBodyRequest;
+import cz.pwf.filenet.model.ecm.StreamingUpdateDocumentBodyRequest;
+import cz.pwf.filenet.service.content.Base64Codec;
 import cz.pwf.filenet.pwf_ecm_filenet_api_client.model.CreateDocumentBodyRequest;
 import cz.pwf.filenet.pwf_ecm_filenet_api_client.model.DocumentMetadataResponse;
 import cz.pwf.filenet.pwf_ecm_filenet_api_client.model.FileNetAttributes;
@@ -20,12 +24,13 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.util.CollectionUtils;
 import org.springframework.util.StringUtils;
 
-import java.util.Base64;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 /**
  * Třída umožňující vzájemné mapování modelových tříd, vztahujících se k dokumentu.
@@ -67,6 +72,13 @@ public abstract class DocumentMapper {
     })
     public abstract UpdateDocumentBodyRequest toUpdateDocumentBodyRequest(String namespace, DMSDocumentUpdate source);
 
+    @Mappings({
+            @Mapping(target = "data", ignore = true),
+            @Mapping(target = "rawData", source = "source.data", qualifiedByName = "toRawData"),
+            @Mapping(target = "attributes", source = "source.attributes", qualifiedByName = "toFileNetAttributesList"),
+    })
+    public abstract StreamingUpdateDocumentBodyRequest toStreamingUpdateDocumentBodyRequest(String namespace, DMSDocumentUpdate source);
+
     @Mappings({
             @Mapping(target = "data", source = "source.bytes", qualifiedByName = "toBase64"),
             @Mapping(target = "filename", source = "filename"),
@@ -76,6 +88,16 @@ public abstract class DocumentMapper {
     })
     public abstract CreateDocumentBodyRequest toCreateDocumentBodyRequest(DMSDocumentNew source);
 
+    @Mappings({
+            @Mapping(target = "data", ignore = true),
+            @Mapping(target = "rawData", source = "source.bytes", qualifiedByName = "toRawData"),
+            @Mapping(target = "filename", source = "filename"),
+            @Mapping(target = "title", source = "filename", qualifiedByName = "extractTitleFromFilename"),
+            @Mapping(target = "mimetype", source = "source.mimeType"),
+            @Mapping(target = "attributes", source = "source.metadata", qualifiedByName = "toFileNetAttributesList"),
+    })
+    public abstract StreamingCreateDocumentBodyRequest toStreamingCreateDocumentBodyRequest(DMSDocumentNew source);
+
     @Mappings({
             @Mapping(target = "id", source = "source.id", qualifiedByName = "fromFileNetIdentificatorToDMSDocumentId"),
             @Mapping(target = "filename", source = "source.fileName"),
@@ -85,13 +107,33 @@ public abstract class DocumentMapper {
     })
     public abstract DMSDocumentInfo toDMSDocumentInfo(GetDocumentResponse source);
 
+    @Mappings({
+            @Mapping(target = "id", source = "source.id", qualifiedByName = "fromFileNetIdentificatorToDMSDocumentId"),
+            @Mapping(target = "filename", source = "source.fileName"),
+            @Mapping(target = "mimetype", source = "source.mimeType"),
+            @Mapping(target = "sizeInBytes", source = "sizeInBytes"),
+            @Mapping(target = "attributes", expression = "java(java.util.Collections.emptyList())"),
+    })
+    public abstract DMSDocumentInfo toDMSDocumentInfo(GetDocumentResponse source, Long sizeInBytes);
+
     @Named("toBase64")
     protected String toBase64(byte[] data) {
         if (data.length == 0) {
             return null;
         }
 
-        return Base64.getEncoder().encodeToString(data);
+        byte[] encoded = new byte[(int) Base64Codec.encodedLength(data.length)];
+        Base64Codec.encode(ByteBuffer.wrap(data), ByteBuffer.wrap(encoded));
+
+        return new String(encoded, StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Metoda předává binární obsah beze změny (bez kopie pole), do Base64 je kódován až při odesílání požadavku.
+     */
+    @Named("toRawData")
+    protected byte[] toRawData(byte[] data) {
+        return data;
     }
 
     @Named("extractTitleFromFilename")
@@ -106,39 +148,55 @@ public abstract class DocumentMapper {
         return filename;
     }
 
+    /**
+     * Metoda spočítá velikost dekódovaných dat pouze z délky Base64 řetězce a počtu znaků paddingu,
+     * bez nutnosti data dekódovat.
+     *
+     * @param base64Data data v Base64 (bez oddělovačů řádků)
+     * @return Vrací velikost dekódovaných dat v bajtech.
+     */
     @Named("getFileSizeInBytesFromBase64String")
     protected Long getFileSizeInBytesFromBase64String(String base64Data) {
         if (!StringUtils.hasText(base64Data)) {
             return null;
         }
 
-        return (long) Base64.getDecoder().decode(base64Data).length;
+        return (long) Base64Codec.decodedLength(base64Data);
     }
 
+    /**
+     * Metoda vrací atributy jako {@link DmsAttributes}, index pro vyhledávání atributů podle názvu je tak vytvořen
+     * nejvýše jednou pro každý načtený dokument.
+     */
     @Named("toDmsAttributeList")
     protected List<DmsAttribute> toDmsAttributeList(List<FileNetAttributes> attributes) {
-        if (!CollectionUtils.isEmpty(attributes)) {
-            return attributes.stream()
-                    .map(attribute -> new DmsAttribute(attribute.getName(), attribute.getValue(), AttributeType.valueOf(attribute.getType())))
-                    .collect(Collectors.toList());
+        if (CollectionUtils.isEmpty(attributes)) {
+            return Collections.emptyList();
+        }
+
+        DmsAttributes dmsAttributes = DmsAttributes.withCapacity(attributes.size());
+        for (FileNetAttributes attribute : attributes) {
+            dmsAttributes.add(new DmsAttribute(attribute.getName(), attribute.getValue(), AttributeType.valueOf(attribute.getType())));
         }
 
-        return Collections.emptyList();
+        return dmsAttributes;
     }
 
     @Named("toFileNetAttributesList")
     protected List<FileNetAttributes> toFileNetAttributesList(List<DmsAttribute> attributes) {
-        if (!CollectionUtils.isEmpty(attributes)) {
-            return attributes.stream()
-                    .map(attribute -> new FileNetAttributes()
-                            .type(attribute.getType().name())
-                            .name(attribute.getName())
-                            .value(attribute.getValue())
-                    )
-                    .collect(Collectors.toList());
+        if (CollectionUtils.isEmpty(attributes)) {
+            return Collections.emptyList();
+        }
+
+        List<FileNetAttributes> fileNetAttributes = new ArrayList<>(attributes.size());
+        for (DmsAttribute attribute : attributes) {
+            fileNetAttributes.add(new FileNetAttributes()
+                    .type(attribute.getType().name())
+                    .name(attribute.getName())
+                    .value(attribute.getValue()));
         }
 
-        return Collections.emptyList();
+        return fileNetAttributes;
     }
 
     @Named("fromFileNetIdentificatorToDMSDocumentId")
@@ -0,0 +1,145 @@
+package cz.pwf.filenet.service;
+
+import cz.notix.document.plugin.connector.DmsOperations;
+import cz.notix.document.plugin.connector.dto.DMSDocument;
+import cz.notix.document.plugin.connector.dto.DMSDocumentData;
+import cz.notix.document.plugin.connector.dto.DMSDocumentId;
+import cz.notix.document.plugin.connector.dto.DMSDocumentInfo;
+import cz.notix.document.plugin.connector.dto.DMSDocumentNew;
+import cz.notix.document.plugin.connector.dto.DMSDocumentStorno;
+import cz.notix.document.plugin.connector.dto.DMSDocumentUpdate;
+import cz.pwf.filenet.service.cache.ContentCacheKey;
+import cz.pwf.filenet.service.cache.DocumentContentCache;
+import lombok.RequiredArgsConstructor;
+import org.springframework.util.StringUtils;
+
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Operace document pluginu, před které je předřazen lokální cache obsahu dokumentů ({@link DocumentContentCache}).
+ * <p>
+ * Obsah dokumentu s uvedenou verzí je nejprve hledán v lokálním cache (viz {@link FileNetService#getCachedData}),
+ * operace pluginu a tedy i jeho cache v databázi jsou volány až při neúspěchu. {@link FileNetService} za pluginem
+ * pak obsah této verze v lokálním cache znovu nehledá. Dokument bez verze je předán rovnou pluginu, aktuální verzi
+ * by bylo nutné před cache v databázi zjistit voláním FileNetu. Obsah vrácený pluginem a obsah nově uložených
+ * dokumentů je do lokálního cache uložen (write-through). Smazání dokumentu odstraní z lokálního cache všechny
+ * jeho verze.
+ */
+@RequiredArgsConstructor
+public class CachingDmsOperations implements DmsOperations {
+
+    private final DmsOperations delegate;
+    private final FileNetService fileNetService;
+    private final DocumentContentCache documentContentCache;
+    private final String namespace;
+
+    @Override
+    public boolean isZeebeVariablesAware() {
+        return delegate.isZeebeVariablesAware();
+    }
+
+    @Override
+    public DMSDocumentInfo create(DMSDocumentNew doc, String zeebeVariables) {
+        DMSDocumentInfo info = delegate.create(doc, zeebeVariables);
+        put(info, doc.bytes);
+
+        return info;
+    }
+
+    @Override
+    public DMSDocumentInfo getInfo(DMSDocumentId id, String zeebeVariables) {
+        return delegate.getInfo(id, zeebeVariables);
+    }
+
+    @Override
+    public DMSDocumentData getData(DMSDocumentId id, String zeebeVariables) {
+        Optional<DMSDocumentData> cached = fileNetService.getCachedData(id, zeebeVariables);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+
+        DMSDocumentData data = delegate.getData(id, zeebeVariables);
+        if (Objects.nonNull(data)) {
+            put(data.getInfo(), data.getData());
+        }
+
+        return data;
+    }
+
+    @Override
+    public DMSDocumentInfo update(DMSDocumentId id, DMSDocumentUpdate doc, String zeebeVariables) {
+        DMSDocumentInfo info = delegate.update(id, doc, zeebeVariables);
+        put(info, doc.getData());
+
+        return info;
+    }
+
+    @Override
+    public DMSDocumentId delete(DMSDocumentId id, String zeebeVariables) {
+        DMSDocumentId deleted = delegate.delete(id, zeebeVariables);
+        documentContentCache.invalidate(id.getId());
+
+        return deleted;
+    }
+
+    @Override
+    public DMSDocumentInfo create(DMSDocumentNew doc) {
+        return delegate.create(doc);
+    }
+
+    @Override
+    public DMSDocument get(DMSDocumentId id) {
+        return delegate.get(id);
+    }
+
+    @Override
+    public DMSDocumentInfo getInfo(DMSDocumentId id) {
+        return delegate.getInfo(id);
+    }
+
+    @Override
+    public DMSDocumentData getData(DMSDocumentId id) {
+        return delegate.getData(id);
+    }
+
+    @Override
+    public DMSDocumentInfo update(DMSDocumentId id, DMSDocumentUpdate doc) {
+        return delegate.update(id, doc);
+    }
+
+    @Override
+    public DMSDocumentInfo updateMetadata(DMSDocumentId id) {
+        return delegate.updateMetadata(id);
+    }
+
+    @Override
+    public DMSDocumentId delete(DMSDocumentId id) {
+        DMSDocumentId deleted = delegate.delete(id);
+        documentContentCache.invalidate(id.getId());
+
+        return deleted;
+    }
+
+    @Override
+    public DMSDocumentId storno(DMSDocumentId id, DMSDocumentStorno storno) {
+        DMSDocumentId result = delegate.storno(id, storno);
+        documentContentCache.invalidate(id.getId());
+
+        return result;
+    }
+
+    /**
+     * Metoda uloží obsah dokumentu do lokálního cache. Obsah bez verze dokumentu se neukládá, verze identifikuje
+     * neměnný obsah.
+     */
+    private void put(DMSDocumentInfo info, byte[] data) {
+        if (Objects.isNull(info) || Objects.isNull(info.getId()) || Objects.isNull(data)
+                || !StringUtils.hasText(info.getId().getVersion())) {
+            return;
+        }
+
+        documentContentCache.putIfAbsent(new ContentCacheKey(namespace, info.getId().getId(), info.getId().getVersion()),
+                info, data);
+    }
+}
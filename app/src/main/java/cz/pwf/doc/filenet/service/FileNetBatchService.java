@@ -0,0 +1,207 @@
+package cz.pwf.filenet.service;
+
+import cz.notix.document.plugin.connector.dto.DMSDocumentId;
+import cz.notix.document.plugin.connector.dto.DMSDocumentInfo;
+import cz.notix.document.plugin.connector.dto.DMSDocumentNew;
+import cz.pwf.filenet.model.batch.BatchItemResult;
+import cz.pwf.filenet.service.ecm.EcmConcurrencyLimitExceededException;
+import cz.pwf.filenet.service.zeebe.ZeebeHeaders;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.util.CollectionUtils;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
+
+/**
+ * Servisní třída pro dávkové operace s dokumenty FileNetu.
+ * <p>
+ * Položky dávky jsou zpracovávány souběžně na sdíleném omezeném poolu vláken, počet souběžně zpracovávaných
+ * položek jedné dávky je navíc omezen, aby jedna velká dávka nevyčerpala celý pool. Všechny položky dávky jsou
+ * zpracovány pod stejnými Zeebe headers. Selhání jedné položky neovlivní zpracování ostatních položek, výsledek
+ * je vrácen pro každou položku zvlášť.
+ * <p>
+ * Volání FileNetu sdílí adaptivní limity souběžných volání se Zeebe joby (viz {@code EcmBulkheads}). Položka,
+ * jejíž volání limit odmítl (volání nebylo do FileNetu odesláno), je po náhodném odstupu opakována, dokud nevyprší
+ * {@code filenet.batch.limiter-wait}. Souběžné dávky tak při plném limitu čekají, místo aby jejich položky selhaly.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class FileNetBatchService {
+
+    private final FileNetService fileNetService;
+
+    @Value("${filenet.batch.threads:16}")
+    private int threads;
+
+    @Value("${filenet.batch.queue-capacity:1000}")
+    private int queueCapacity;
+
+    @Value("${filenet.batch.max-concurrency:8}")
+    private int maxConcurrency;
+
+    @Value("${filenet.batch.max-size:1000}")
+    private int maxSize;
+
+    @Value("${filenet.batch.limiter-wait:30000}")
+    private long limiterWait;
+
+    @Value("${filenet.batch.limiter-backoff:100}")
+    private long limiterBackoff;
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    void init() {
+        executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("filenet-batch-"),
+                FileNetBatchService::rejected);
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Při zaplnění fronty zpracuje položku volající vlákno, tím je zároveň přibrzděno. Po ukončení poolu je položka
+     * odmítnuta výjimkou, zahozením by její výsledek nebyl nikdy dokončen.
+     */
+    private static void rejected(Runnable task, ThreadPoolExecutor executor) {
+        if (executor.isShutdown()) {
+            throw new RejectedExecutionException("Batch executor has been shut down");
+        }
+        task.run();
+    }
+
+    /**
+     * Metoda pro dávkové uložení nových dokumentů do FileNetu.
+     *
+     * @param docs           dokumenty, které mají být uloženy
+     * @param zeebeHeaders   Zeebe headers, pod kterými jsou položky zpracovány
+     * @return Vrací výsledek uložení pro každý dokument v pořadí dávky.
+     */
+    public List<BatchItemResult<DMSDocumentInfo>> createAll(List<DMSDocumentNew> docs, ZeebeHeaders zeebeHeaders) {
+        return execute("CreateDocument", docs, zeebeHeaders, fileNetService::create);
+    }
+
+    /**
+     * Metoda vrací informace o již uložených dokumentech ve FileNetu.
+     *
+     * @param ids            identifikátory dokumentů
+     * @param zeebeHeaders   Zeebe headers, pod kterými jsou položky zpracovány
+     * @return Vrací informace o dokumentu pro každý identifikátor v pořadí dávky.
+     */
+    public List<BatchItemResult<DMSDocumentInfo>> getInfoAll(List<DMSDocumentId> ids, ZeebeHeaders zeebeHeaders) {
+        return execute("GetDocumentMetadata", ids, zeebeHeaders, fileNetService::getInfo);
+    }
+
+    /**
+     * Metoda na základě ID dávkově smaže dokumenty ve FileNetu.
+     *
+     * @param ids            identifikátory dokumentů
+     * @param zeebeHeaders   Zeebe headers, pod kterými jsou položky zpracovány
+     * @return Vrací výsledek smazání pro každý identifikátor v pořadí dávky.
+     */
+    public List<BatchItemResult<DMSDocumentId>> deleteAll(List<DMSDocumentId> ids, ZeebeHeaders zeebeHeaders) {
+        return execute("DeleteDocument", ids, zeebeHeaders, fileNetService::delete);
+    }
+
+    private <I, R> List<BatchItemResult<R>> execute(String operation, List<I> items, ZeebeHeaders zeebeHeaders,
+                                                    BiFunction<I, ZeebeHeaders, R> action) {
+        if (CollectionUtils.isEmpty(items)) {
+            return Collections.emptyList();
+        }
+        if (items.size() > maxSize) {
+            throw new IllegalArgumentException("Batch size " + items.size() + " exceeds the limit of " + maxSize);
+        }
+
+        final Semaphore permits = new Semaphore(maxConcurrency);
+        final List<CompletableFuture<BatchItemResult<R>>> results = new ArrayList<>(items.size());
+
+        log.debug("{} batch: {} items", operation, items.size());
+        for (int i = 0; i < items.size(); i++) {
+            final int index = i;
+            final I item = items.get(i);
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                // přerušené vlákno další položky nenaplánuje, zbývající položky jsou označeny jako neúspěšné
+                Thread.currentThread().interrupt();
+                log.warn("{} batch: interrupted, {} remaining items not processed", operation, items.size() - index);
+                for (int remaining = index; remaining < items.size(); remaining++) {
+                    results.add(CompletableFuture.completedFuture(BatchItemResult.failed(remaining, e)));
+                }
+                break;
+            }
+
+            try {
+                results.add(CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return BatchItemResult.succeeded(index, apply(operation, index, item, zeebeHeaders, action));
+                    } catch (Throwable e) {
+                        // i Error (např. nedostatek paměti u velkého dokumentu) je výsledkem položky, ne celé dávky
+                        log.warn("{} batch: item {} failed", operation, index, e);
+                        return BatchItemResult.<R>failed(index, e);
+                    } finally {
+                        permits.release();
+                    }
+                }, executor));
+            } catch (RejectedExecutionException e) {
+                log.warn("{} batch: item {} rejected", operation, index, e);
+                permits.release();
+                results.add(CompletableFuture.completedFuture(BatchItemResult.failed(index, e)));
+            }
+        }
+
+        return results.stream()
+                .map(CompletableFuture::join)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Metoda zpracuje položku dávky. Pokud volání FileNetu odmítne limit souběžných volání, je položka po odstupu
+     * {@code limiterBackoff} až {@code 2 * limiterBackoff} opakována, nejdéle však po dobu {@code limiterWait}.
+     */
+    private <I, R> R apply(String operation, int index, I item, ZeebeHeaders zeebeHeaders,
+                           BiFunction<I, ZeebeHeaders, R> action) {
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(limiterWait);
+
+        while (true) {
+            try {
+                return action.apply(item, zeebeHeaders);
+            } catch (EcmConcurrencyLimitExceededException e) {
+                long backoff = limiterBackoff + ThreadLocalRandom.current().nextLong(limiterBackoff + 1);
+                if (System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(backoff) >= deadline) {
+                    throw e;
+                }
+
+                log.debug("{} batch: item {} rejected by the concurrency limit, retrying after {} ms", operation,
+                        index, backoff);
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+}
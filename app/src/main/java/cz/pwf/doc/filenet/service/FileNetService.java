@@ -1,13 +1,36 @@
 package cz.pwf.filenet.service;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import cz.pwf.filenet.pwf_ecm_filenet_api_client.handler.EcmApi;
 import cz.pwf.filenet.pwf_ecm_filenet_api_client.model.DocumentMetadataResponse;
 import cz.pwf.filenet.pwf_ecm_filenet_api_client.model.FileNetIdentificator;
 import cz.pwf.filenet.pwf_ecm_filenet_api_client.model.GetDocumentResponse;
 import cz.pwf.filenet.config.Constants;
+import cz.pwf.filenet.model.attribute.DmsAttributes;
+import cz.pwf.filenet.model.content.DocumentContentRange;
+import cz.pwf.filenet.model.ecm.ChunkedUploadStartRequest;
+import cz.pwf.filenet.model.ecm.SpooledGetDocumentResponse;
 import cz.pwf.filenet.model.mapper.DocumentMapper;
+import cz.pwf.filenet.service.cache.ContentCacheKey;
+import cz.pwf.filenet.service.cache.DocumentContentCache;
+import cz.pwf.filenet.service.cache.DocumentMetadataCache;
+import cz.pwf.filenet.service.cache.MetadataCacheKey;
+import cz.pwf.filenet.service.concurrent.ReadRequestCoalescer;
+import cz.pwf.filenet.service.concurrent.ReadRequestKey;
+import cz.pwf.filenet.service.content.Base64Codec;
+import cz.pwf.filenet.service.content.ContentRange;
+import cz.pwf.filenet.service.content.DocumentRangeNotSatisfiableException;
+import cz.pwf.filenet.service.content.EcmDocumentContentClient;
+import cz.pwf.filenet.service.content.InvalidContentRangeException;
+import cz.pwf.filenet.service.content.RangeInputStream;
+import cz.pwf.filenet.service.content.SpooledContent;
+import cz.pwf.filenet.service.dedup.DeduplicationEntry;
+import cz.pwf.filenet.service.dedup.DeduplicationIndex;
+import cz.pwf.filenet.service.dedup.DeduplicationKey;
+import cz.pwf.filenet.service.ecm.EcmRequestExecutor;
+import cz.pwf.filenet.service.prefetch.DocumentPrefetcher;
+import cz.pwf.filenet.service.upload.ChunkedUploadService;
+import cz.pwf.filenet.service.zeebe.ZeebeHeaderExtractor;
+import cz.pwf.filenet.service.zeebe.ZeebeHeaders;
 import cz.notix.document.plugin.connector.DmsOperations;
 import cz.notix.document.plugin.connector.dto.DMSDocument;
 import cz.notix.document.plugin.connector.dto.DMSDocumentData;
@@ -22,20 +45,20 @@ import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import org.springframework.web.client.HttpClientErrorException;
 
-import java.time.Duration;
-import java.time.Instant;
-import java.util.Base64;
-import java.util.Collections;
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.UUID;
-import java.util.stream.Collectors;
 
 /**
  * Servisní třída obsahující business logiku pro manipulaci s dokumenty FileNetu.
@@ -46,30 +69,23 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public final class FileNetService implements DmsOperations {
 
-    private static final String KPJM_ZEEBE_VARIABLE_KEY = "uid";
     private static final String REAUTHORIZE_KPJM_FIELD = "reauthorize";
     private static final String PWF_TECH_USER_UID = "pwfadmin";
 
     private final EcmApi ecmApi;
     private final DocumentMapper documentMapper;
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final DocumentMetadataCache documentMetadataCache;
+    private final DocumentContentCache documentContentCache;
+    private final ReadRequestCoalescer readRequestCoalescer;
+    private final EcmRequestExecutor ecmRequestExecutor;
+    private final ChunkedUploadService chunkedUploadService;
+    private final EcmDocumentContentClient ecmDocumentContentClient;
+    private final DocumentPrefetcher documentPrefetcher;
+    private final DeduplicationIndex deduplicationIndex;
 
     @Value("${filenet.namespace}")
     private String namespace;
 
-    /**
-     * Metoda loguje čas strávený zpracováním HTTP požadavku.
-     *
-     * @param start        začátek zpracování požadavku
-     * @param endpointName název endpointu, u kterého se sleduje doba zpracování požadavku
-     */
-    private void logEndpointCallElapsedTime(Instant start, String endpointName) {
-        if (log.isDebugEnabled()) {
-            Instant finish = Instant.now();
-            log.debug("Call {} endpoint - elapsed time: {} ms", endpointName, Duration.between(start, finish).toMillis());
-        }
-    }
-
     /**
      * Metoda slouží k získání KPJM ze Zeebe header.
      *
@@ -77,10 +93,10 @@ public final class FileNetService implements DmsOperations {
      * @param defaultKpjm    výchozí hodnota, která bude vrácena v případě, že nebyl nalezen v Zeebe headers příslušná hlavička s hodnotou
      * @return Vrací KPJM, pokud je obsaženo v Zeebe header, jinak {@code defaultKpjm}.
      */
-    private String obtainKpjmFromZeebeHeaderOrGetDefault(Map<String, Object> zeebeHeaders, String defaultKpjm) {
+    private String obtainKpjmFromZeebeHeaderOrGetDefault(ZeebeHeaders zeebeHeaders, String defaultKpjm) {
 
         return Optional.ofNullable(zeebeHeaders)
-                .map(headers -> headers.get(KPJM_ZEEBE_VARIABLE_KEY).toString())
+                .map(ZeebeHeaders::getUid)
                 .orElse(defaultKpjm);
     }
 
@@ -93,41 +109,87 @@ public final class FileNetService implements DmsOperations {
      * @return Vrací KPJM, pokud je obsaženo v metadatech, jinak {@code defaultKpjm}.
      */
     private String obtainKpjmFromMetadataOrGetDefault(String endpointName, List<DmsAttribute> metadata, String defaultKpjm) {
-        log.debug("{}: metadata{}", endpointName, metadata.stream()
-                .map(m -> m.getName() + " -> " + m.getValue())
-                .collect(Collectors.toList()));
-
-        return metadata.stream()
-                .filter(m -> m.getName().equalsIgnoreCase(REAUTHORIZE_KPJM_FIELD))
-                .map(DmsAttribute::getValue)
-                .peek(m -> log.debug("{}: reauthorize KPJM - {}", endpointName, m))
-                .findFirst()
-                .orElseGet(() -> {
-                    log.debug("{}: The 'reauthorize' attribute not found. " +
-                            "Return a default KPJM: {}", endpointName, defaultKpjm);
-                    return defaultKpjm;
-                });
+        if (log.isDebugEnabled()) {
+            log.debug("{}: metadata{}", endpointName, DmsAttributes.of(metadata));
+        }
+
+        // atributy dokumentu z FileNetu mají index, ostatní seznamy jsou pro jediné vyhledání prohledány sekvenčně
+        DmsAttribute reauthorize = metadata instanceof DmsAttributes
+                ? ((DmsAttributes) metadata).get(REAUTHORIZE_KPJM_FIELD)
+                : findAttribute(metadata, REAUTHORIZE_KPJM_FIELD);
+        if (Objects.isNull(reauthorize)) {
+            log.debug("{}: The 'reauthorize' attribute not found. Return a default KPJM: {}", endpointName, defaultKpjm);
+            return defaultKpjm;
+        }
+
+        log.debug("{}: reauthorize KPJM - {}", endpointName, reauthorize.getValue());
+        return reauthorize.getValue();
     }
 
-    @SneakyThrows
-    private Map<String, Object> castToHeadersMap(String zeebeVariables) {
-        Map<String, Map<String, Object>> map = objectMapper.readValue(zeebeVariables, new TypeReference<>() {});
+    private static DmsAttribute findAttribute(List<DmsAttribute> metadata, String name) {
+        if (Objects.isNull(metadata)) {
+            return null;
+        }
+
+        for (DmsAttribute attribute : metadata) {
+            if (name.equalsIgnoreCase(attribute.getName())) {
+                return attribute;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Metoda načte Zeebe headers ze Zeebe proměnných.
+     *
+     * @param zeebeVariables objekt obsahující Zeebe headers
+     * @return Vrací Zeebe headers, případně {@link ZeebeHeaders#EMPTY}.
+     */
+    ZeebeHeaders castToHeaders(String zeebeVariables) {
+        return ZeebeHeaderExtractor.extract(zeebeVariables);
+    }
 
-        return Optional.ofNullable(map.get("headers")).orElse(Collections.emptyMap());
+    /**
+     * @return Vrací {@code true}, pokud bylo KPJM reautorizováno, tj. liší se od KPJM ze Zeebe header.
+     */
+    private static boolean isReauthorized(ZeebeHeaders zeebeHeaders, String kpjm) {
+        return Objects.nonNull(kpjm) && !kpjm.equals(zeebeHeaders.getUid());
+    }
+
+    private static long payloadSize(byte[] data) {
+        return Objects.isNull(data) ? EcmRequestExecutor.NO_PAYLOAD : data.length;
+    }
+
+    private static long payloadSize(GetDocumentResponse response) {
+        if (response instanceof SpooledGetDocumentResponse
+                && Objects.nonNull(((SpooledGetDocumentResponse) response).getSpooledContent())) {
+            return ((SpooledGetDocumentResponse) response).getSpooledContent().size();
+        }
+        if (Objects.nonNull(response) && Objects.nonNull(response.getContent())) {
+            return Base64Codec.decodedLength(response.getContent());
+        }
+        return EcmRequestExecutor.NO_PAYLOAD;
     }
 
     /**
      * Metoda se pokusí reautorizovat KPJM na základě metadat dokumentu za podmínky že v těchto metadatech je
      * přítomen atribut reauthorize a v Zeebe header bylo zasláno KPJM technického uživatele.
-     * Pokud není splněno, vrací se KPJM ze Zeebe header.
+     * Pokud není splněno, vrací se KPJM ze Zeebe header. KPJM ověřeného uživatele REST rozhraní
+     * ({@link ZeebeHeaders#isAuthenticated()}) se nereautorizuje.
      *
      * @param endpointName   název endpointu ze kterého je metoda volána (pro logovací účely)
-     * @param zeebeVariables objekt obsahující Zeebe headers
+     * @param zeebeHeaders   Zeebe headers
      * @param metadata       kolekce metadat odkud je získána příslužná hodnota atributu {@link FileNetService#REAUTHORIZE_KPJM_FIELD}
      * @return Vrací KPJM k reautorizaci, případně standardně zaslané ze Zeebe header na základě podmínky v popisu.
      */
-    private String reauthorizeKpjmIfNeeded(String endpointName, Map<String, Object> zeebeVariables, List<DmsAttribute> metadata) {
-        String kpjm = obtainKpjmFromZeebeHeaderOrGetDefault(zeebeVariables, null);
+    String reauthorizeKpjmIfNeeded(String endpointName, ZeebeHeaders zeebeHeaders, List<DmsAttribute> metadata) {
+        if (Objects.nonNull(zeebeHeaders) && zeebeHeaders.isAuthenticated()) {
+            // KPJM ověřeného uživatele REST rozhraní nelze změnit obsahem požadavku
+            return zeebeHeaders.getUid();
+        }
+
+        String kpjm = obtainKpjmFromZeebeHeaderOrGetDefault(zeebeHeaders, null);
 
         if (Objects.isNull(kpjm) || PWF_TECH_USER_UID.equalsIgnoreCase(kpjm)) {
             log.debug("{}: KPJM from Zeebe header is null or equals PWF tech user: {}. Try to obtain KPJM from " +
@@ -138,6 +200,43 @@ public final class FileNetService implements DmsOperations {
         return kpjm;
     }
 
+    /**
+     * Metoda naplánuje přednačtení dokumentů, na které odkazují Zeebe proměnné jobu (viz {@link DocumentPrefetcher}).
+     * Dokumenty jsou načítány pod stejným KPJM jako dokument, se kterým job pracuje.
+     *
+     * @param zeebeVariables objekt obsahující Zeebe proměnné
+     * @param kpjm           KPJM, pod kterým job pracuje s dokumentem
+     * @param reauthorized   {@code true}, pokud bylo KPJM reautorizováno
+     * @param metadata       atributy dokumentu, se kterým job pracuje
+     * @param currentId      identifikátor dokumentu, se kterým job pracuje, případně {@code null}
+     */
+    private void prefetch(String zeebeVariables, String kpjm, boolean reauthorized, List<DmsAttribute> metadata,
+                          String currentId) {
+        if (!documentPrefetcher.isEnabled()) {
+            return;
+        }
+
+        documentPrefetcher.prefetch(zeebeVariables, metadata, currentId, namespace, kpjm,
+                new DocumentPrefetcher.PrefetchLoader() {
+                    @Override
+                    public DMSDocumentInfo loadInfo(DMSDocumentId id) {
+                        return FileNetService.this.loadInfo(id, kpjm, reauthorized);
+                    }
+
+                    @Override
+                    public void loadData(DMSDocumentId id) {
+                        // stejný klíč jako getData, souběžné čtení dokumentu se tak připojí k přednačítání
+                        readRequestCoalescer.execute(new ReadRequestKey("GetDocument", namespace, id.getId(),
+                                id.getVersion(), kpjm), () -> FileNetService.this.loadData(id, kpjm, reauthorized));
+                    }
+
+                    @Override
+                    public boolean isContentCacheEnabled() {
+                        return documentContentCache.isEnabled();
+                    }
+                });
+    }
+
     @Override
     public boolean isZeebeVariablesAware() {
         return true;
@@ -152,21 +251,111 @@ public final class FileNetService implements DmsOperations {
      */
     @Override
     public DMSDocumentInfo create(DMSDocumentNew doc, String zeebeVariables) {
+        final ZeebeHeaders zeebeHeaders = castToHeaders(zeebeVariables);
+        final String kpjm = reauthorizeKpjmIfNeeded("CreateDocument", zeebeHeaders, doc.metadata);
+        final boolean reauthorized = isReauthorized(zeebeHeaders, kpjm);
+        prefetch(zeebeVariables, kpjm, reauthorized, doc.metadata, null);
+
+        return create(doc, zeebeHeaders, kpjm, reauthorized);
+    }
+
+    /**
+     * Metoda pro uložení nového dokumentu do FileNetu s již načtenými Zeebe headers.
+     * <p>
+     * Pokud je zapnutá deduplikace a stejný dokument (obsah, namespace, název souboru, MIME typ a metadata) již byl
+     * uložen stejnou instancí procesu, je po ověření jeho existence ve FileNetu vrácen existující dokument a obsah
+     * se znovu neodesílá.
+     *
+     * @param doc          dokument, který má být uložen
+     * @param zeebeHeaders Zeebe headers načtené pomocí {@link #castToHeaders(String)}
+     * @return Vrací informace o nově uloženém dokumentu (ID, URL, ...).
+     */
+    DMSDocumentInfo create(DMSDocumentNew doc, ZeebeHeaders zeebeHeaders) {
+        final String kpjm = reauthorizeKpjmIfNeeded("CreateDocument", zeebeHeaders, doc.metadata);
+
+        return create(doc, zeebeHeaders, kpjm, isReauthorized(zeebeHeaders, kpjm));
+    }
+
+    private DMSDocumentInfo create(DMSDocumentNew doc, ZeebeHeaders zeebeHeaders, String kpjm, boolean reauthorized) {
         final String endpointName = "CreateDocument";
-        Instant start = Instant.now();
 
-        final String kpjm = reauthorizeKpjmIfNeeded(endpointName, castToHeadersMap(zeebeVariables), doc.metadata);
+        // dokument jiné instance procesu nesmí být vrácen, bez instance procesu se deduplikace neprovádí
+        final String processInstanceKey = Objects.isNull(zeebeHeaders) ? null : zeebeHeaders.getProcessInstanceKey();
+        DeduplicationKey deduplicationKey = null;
+        if (deduplicationIndex.isEnabled() && Objects.nonNull(doc.bytes) && StringUtils.hasText(processInstanceKey)) {
+            deduplicationKey = DeduplicationIndex.key(namespace, processInstanceKey, doc);
+            DMSDocumentInfo duplicate = findDuplicate(endpointName, deduplicationKey, doc, kpjm, reauthorized);
+            if (Objects.nonNull(duplicate)) {
+                return duplicate;
+            }
+        }
 
-        ResponseEntity<FileNetIdentificator> response = ecmApi.eCMCreateDocumentWithHttpInfo(kpjm,
-                UUID.randomUUID().toString(), String.valueOf(System.currentTimeMillis()), Constants.SOURCE_SYSTEM,
-                documentMapper.toCreateDocumentBodyRequest(doc), null, null, null, null);
-        logEndpointCallElapsedTime(start, endpointName);
+        FileNetIdentificator identificator;
+        if (chunkedUploadService.isChunked(doc.bytes)) {
+            identificator = chunkedUploadService.upload(endpointName, kpjm, reauthorized,
+                    ChunkedUploadStartRequest.of(documentMapper.toStreamingCreateDocumentBodyRequest(doc)), doc.bytes);
+        } else {
+            identificator = ecmRequestExecutor.execute(endpointName, reauthorized, payloadSize(doc.bytes),
+                    requestId -> ecmApi.eCMCreateDocumentWithHttpInfo(kpjm, requestId,
+                            String.valueOf(System.currentTimeMillis()), Constants.SOURCE_SYSTEM,
+                            documentMapper.toStreamingCreateDocumentBodyRequest(doc), null, null, null, null))
+                    .getBody();
+        }
 
-        return Optional.ofNullable(response.getBody())
+        if (Objects.nonNull(deduplicationKey) && Objects.nonNull(identificator)
+                && StringUtils.hasText(identificator.getId())) {
+            deduplicationIndex.put(deduplicationKey, new DeduplicationEntry(identificator.getId(),
+                    identificator.getVersion(), doc.bytes.length));
+        }
+
+        return Optional.ofNullable(identificator)
                 .map(r -> documentMapper.toDMSDocumentInfo(r, doc))
                 .orElse(null);
     }
 
+    /**
+     * Metoda vyhledá v indexu deduplikace dokument shodný s ukládaným dokumentem a ověří, že jej KPJM volajícího
+     * může ve FileNetu načíst a že jeho velikost odpovídá. Neplatný záznam je z indexu odstraněn. Pokud ověření
+     * selže z jiného důvodu (chyba serveru, I/O chyba), záznam zůstává a dokument je uložen standardně.
+     *
+     * @param endpointName název endpointu ze kterého je metoda volána (pro logovací účely)
+     * @param key          klíč indexu deduplikace
+     * @param doc          dokument, který má být uložen
+     * @param kpjm         KPJM, pod kterým je dokument ukládán
+     * @param reauthorized {@code true}, pokud bylo KPJM reautorizováno
+     * @return Vrací informace o existujícím dokumentu, případně {@code null}.
+     */
+    private DMSDocumentInfo findDuplicate(String endpointName, DeduplicationKey key, DMSDocumentNew doc, String kpjm,
+                                          boolean reauthorized) {
+        DeduplicationEntry entry = deduplicationIndex.find(key).orElse(null);
+        if (Objects.isNull(entry)) {
+            return null;
+        }
+
+        DMSDocumentInfo info;
+        try {
+            // ověření obchází cache metadat, dokument mohl být smazán jiným systémem
+            info = fetchInfo(new DMSDocumentId(namespace, entry.getId(), entry.getVersion()), kpjm, reauthorized);
+        } catch (HttpClientErrorException e) {
+            log.debug("{}: duplicate document {} is not accessible: {}", endpointName, entry, e.getRawStatusCode());
+            info = null;
+        } catch (RuntimeException e) {
+            log.warn("{}: duplicate document {} could not be verified, content is uploaded", endpointName, entry, e);
+            return null;
+        }
+
+        if (Objects.isNull(info) || (Objects.nonNull(info.getSizeInBytes()) && info.getSizeInBytes() != entry.getSize())) {
+            log.debug("{}: duplicate document {} is no longer valid", endpointName, entry);
+            deduplicationIndex.stale(key);
+            return null;
+        }
+
+        deduplicationIndex.hit(entry);
+        log.debug("{}: content is already stored as document {}, upload skipped", endpointName, entry);
+        return documentMapper.toDMSDocumentInfo(new FileNetIdentificator().id(entry.getId()).version(entry.getVersion()),
+                doc);
+    }
+
     /**
      * Metoda vrací informace o již uloženém dokumentu ve FileNetu.
      *
@@ -176,15 +365,83 @@ public final class FileNetService implements DmsOperations {
      */
     @Override
     public DMSDocumentInfo getInfo(DMSDocumentId id, String zeebeVariables) {
+        final ZeebeHeaders zeebeHeaders = castToHeaders(zeebeVariables);
+        final String kpjm = reauthorizeKpjmIfNeeded("GetDocumentMetadata", zeebeHeaders, id.getDmsSpecificAttributes());
+        final boolean reauthorized = isReauthorized(zeebeHeaders, kpjm);
+        prefetch(zeebeVariables, kpjm, reauthorized, id.getDmsSpecificAttributes(), id.getId());
+
+        return getInfo(id, kpjm, reauthorized);
+    }
+
+    /**
+     * Metoda vrací informace o již uloženém dokumentu ve FileNetu s již načtenými Zeebe headers.
+     *
+     * @param id           identifikátor dokumentu
+     * @param zeebeHeaders Zeebe headers načtené pomocí {@link #castToHeaders(String)}
+     * @return Vrací informace o uloženém dokumentu (ID, URL, ...).
+     */
+    DMSDocumentInfo getInfo(DMSDocumentId id, ZeebeHeaders zeebeHeaders) {
+        final String kpjm = reauthorizeKpjmIfNeeded("GetDocumentMetadata", zeebeHeaders, id.getDmsSpecificAttributes());
+
+        return getInfo(id, kpjm, isReauthorized(zeebeHeaders, kpjm));
+    }
+
+    private DMSDocumentInfo getInfo(DMSDocumentId id, String kpjm, boolean reauthorized) {
+        documentPrefetcher.metadataRead(namespace, id.getId(), id.getVersion(), kpjm);
+
+        return loadInfo(id, kpjm, reauthorized);
+    }
+
+    /**
+     * Metoda načte informace o dokumentu z cache metadat, případně z FileNetu.
+     *
+     * @param id           identifikátor dokumentu
+     * @param kpjm         KPJM, pod kterým je dokument načítán
+     * @param reauthorized {@code true}, pokud bylo KPJM reautorizováno
+     * @return Vrací informace o uloženém dokumentu (ID, URL, ...).
+     */
+    private DMSDocumentInfo loadInfo(DMSDocumentId id, String kpjm, boolean reauthorized) {
         final String endpointName = "GetDocumentMetadata";
-        Instant start = Instant.now();
 
-        final String kpjm = reauthorizeKpjmIfNeeded(endpointName, castToHeadersMap(zeebeVariables), id.getDmsSpecificAttributes());
+        return documentMetadataCache.get(new MetadataCacheKey(namespace, id.getId(), id.getVersion(), kpjm), () ->
+                readRequestCoalescer.execute(new ReadRequestKey(endpointName, namespace, id.getId(), id.getVersion(), kpjm),
+                        () -> fetchInfo(id, kpjm, reauthorized)));
+    }
+
+    /**
+     * Metoda načte informace o dokumentu, jehož obsah je čten. Aktuální verze dokumentu (identifikátor bez verze)
+     * je vždy ověřena ve FileNetu mimo cache metadat, dokument mohla mezitím změnit jiná instance služby a z cache
+     * obsahu by byl vrácen obsah předchozí verze.
+     *
+     * @param id           identifikátor dokumentu
+     * @param kpjm         KPJM, pod kterým je dokument načítán
+     * @param reauthorized {@code true}, pokud bylo KPJM reautorizováno
+     * @return Vrací informace o uloženém dokumentu (ID, URL, ...).
+     */
+    private DMSDocumentInfo loadContentInfo(DMSDocumentId id, String kpjm, boolean reauthorized) {
+        if (StringUtils.hasText(id.getVersion())) {
+            return loadInfo(id, kpjm, reauthorized);
+        }
+
+        return readRequestCoalescer.execute(new ReadRequestKey("GetDocumentMetadata", namespace, id.getId(), null, kpjm),
+                () -> fetchInfo(id, kpjm, reauthorized));
+    }
+
+    /**
+     * Metoda načte informace o dokumentu z FileNetu.
+     *
+     * @param id           identifikátor dokumentu
+     * @param kpjm         KPJM, pod kterým je dokument načítán
+     * @param reauthorized {@code true}, pokud bylo KPJM reautorizováno
+     * @return Vrací informace o uloženém dokumentu (ID, URL, ...).
+     */
+    private DMSDocumentInfo fetchInfo(DMSDocumentId id, String kpjm, boolean reauthorized) {
+        final String endpointName = "GetDocumentMetadata";
 
-        ResponseEntity<DocumentMetadataResponse> response = ecmApi.eCMGetDocumentMetadataWithHttpInfo(kpjm, id.getId(),
-                UUID.randomUUID().toString(), String.valueOf(System.currentTimeMillis()), Constants.SOURCE_SYSTEM,
-                namespace, null, null, null, null, id.getVersion());
-        logEndpointCallElapsedTime(start, endpointName);
+        ResponseEntity<DocumentMetadataResponse> response = ecmRequestExecutor.execute(endpointName, reauthorized,
+                requestId -> ecmApi.eCMGetDocumentMetadataWithHttpInfo(kpjm, id.getId(), requestId,
+                        String.valueOf(System.currentTimeMillis()), Constants.SOURCE_SYSTEM, namespace,
+                        null, null, null, null, id.getVersion()));
 
         return Optional.ofNullable(response.getBody())
                 .map(documentMapper::toDMSDocumentInfo)
@@ -193,6 +450,9 @@ public final class FileNetService implements DmsOperations {
 
     /**
      * Metoda poskytuje podle ID binární obsah uloženého dokumentu ve FileNetu.
+     * <p>
+     * Pokud je zapnutý cache obsahu, je nejprve z metadat dokumentu (ověřených pod KPJM volajícího) zjištěna
+     * verze dokumentu a obsah této verze je vrácen z cache, případně stažen z FileNetu a do cache uložen.
      *
      * @param id             identifikátor dokumentu
      * @param zeebeVariables objekt obsahující Zeebe headers
@@ -201,23 +461,332 @@ public final class FileNetService implements DmsOperations {
     @Override
     public DMSDocumentData getData(DMSDocumentId id, String zeebeVariables) {
         final String endpointName = "GetDocument";
-        Instant start = Instant.now();
 
-        log.info("zeebeVariables: {}", zeebeVariables);
-        final String kpjm = reauthorizeKpjmIfNeeded(endpointName, castToHeadersMap(zeebeVariables), id.getDmsSpecificAttributes());
+        final ZeebeHeaders zeebeHeaders = castToHeaders(zeebeVariables);
+        final String kpjm = reauthorizeKpjmIfNeeded(endpointName, zeebeHeaders, id.getDmsSpecificAttributes());
+        final boolean reauthorized = isReauthorized(zeebeHeaders, kpjm);
+        prefetch(zeebeVariables, kpjm, reauthorized, id.getDmsSpecificAttributes(), id.getId());
+
+        DMSDocumentData data = readRequestCoalescer.execute(
+                new ReadRequestKey(endpointName, namespace, id.getId(), id.getVersion(), kpjm),
+                () -> readData(id, kpjm, reauthorized));
+        // i čtení připojené k probíhajícímu přednačítání obsahu je zásahem přednačítání
+        contentRead(data);
+
+        return data;
+    }
+
+    /**
+     * Metoda poskytuje binární obsah dokumentu s uvedenou verzí pouze z cache obsahu, bez stažení z FileNetu.
+     * Oprávnění KPJM je ověřeno z metadat dokumentu (viz {@link #loadInfo}), metadata verze dokumentu jsou v cache
+     * metadat. Aktuální verzi dokumentu bez verze by bylo nutné zjistit voláním FileNetu, takový dokument proto
+     * v cache hledán není a hledá jej až {@link #getData(DMSDocumentId, String)}.
+     *
+     * @param id             identifikátor dokumentu
+     * @param zeebeVariables objekt obsahující Zeebe headers
+     * @return Vrací obsah dokumentu z cache, případně prázdný {@link Optional}, pokud v cache není.
+     */
+    public Optional<DMSDocumentData> getCachedData(DMSDocumentId id, String zeebeVariables) {
+        if (!documentContentCache.isEnabled() || !StringUtils.hasText(id.getVersion())) {
+            return Optional.empty();
+        }
+
+        final ZeebeHeaders zeebeHeaders = castToHeaders(zeebeVariables);
+        final String kpjm = reauthorizeKpjmIfNeeded("GetDocument", zeebeHeaders, id.getDmsSpecificAttributes());
+        final boolean reauthorized = isReauthorized(zeebeHeaders, kpjm);
+
+        final String version = Optional.ofNullable(loadInfo(id, kpjm, reauthorized))
+                .map(DMSDocumentInfo::getId)
+                .map(DMSDocumentId::getVersion)
+                .orElse(id.getVersion());
+
+        Optional<DMSDocumentData> cached = documentContentCache.get(new ContentCacheKey(namespace, id.getId(), version));
+        if (cached.isPresent()) {
+            prefetch(zeebeVariables, kpjm, reauthorized, id.getDmsSpecificAttributes(), id.getId());
+            contentRead(cached.get());
+        }
+
+        return cached;
+    }
+
+    private void contentRead(DMSDocumentData data) {
+        if (!documentPrefetcher.isEnabled() || Objects.isNull(data) || Objects.isNull(data.getInfo())
+                || Objects.isNull(data.getInfo().getId()) || !StringUtils.hasText(data.getInfo().getId().getVersion())) {
+            return;
+        }
+
+        DMSDocumentId id = data.getInfo().getId();
+        documentPrefetcher.contentRead(new ContentCacheKey(namespace, id.getId(), id.getVersion()));
+    }
+
+    /**
+     * Metoda poskytuje část binárního obsahu uloženého dokumentu ve FileNetu jako stream.
+     * <p>
+     * Pokud FileNet podporuje čtení části obsahu (viz {@link EcmDocumentContentClient}), je z FileNetu přenesena
+     * pouze požadovaná část. Jinak je část čtena ze souboru v cache obsahu, případně je obsah dokumentu stažen
+     * a vrácena je jeho část (viz {@link #streamRange}). Vrácený objekt musí volající uzavřít.
+     *
+     * @param id           identifikátor dokumentu
+     * @param offset       pozice prvního bajtu části
+     * @param length       maximální délka části, část je zkrácena na konec obsahu
+     * @param zeebeHeaders Zeebe headers, pod kterými je obsah čten
+     * @return Vrací část binárního obsahu uloženého dokumentu.
+     * @throws DocumentRangeNotSatisfiableException pokud {@code offset} leží za koncem obsahu dokumentu
+     * @throws InvalidContentRangeException pokud FileNet vrátil část obsahu s neplatnou hlavičkou {@code Content-Range}
+     */
+    @SneakyThrows
+    public DocumentContentRange getDataRange(DMSDocumentId id, long offset, long length, ZeebeHeaders zeebeHeaders) {
+        if (offset < 0 || length <= 0) {
+            throw new IllegalArgumentException("Invalid range: offset " + offset + ", length " + length);
+        }
+
+        final String endpointName = "GetDocument";
+
+        final String kpjm = reauthorizeKpjmIfNeeded(endpointName, zeebeHeaders, id.getDmsSpecificAttributes());
+        final boolean reauthorized = isReauthorized(zeebeHeaders, kpjm);
+
+        // metadata jsou načtena i kvůli ověření oprávnění KPJM k dokumentu, obsah v cache není vázán na KPJM
+        final DMSDocumentInfo info = loadContentInfo(id, kpjm, reauthorized);
+        final String version = Optional.ofNullable(info)
+                .map(DMSDocumentInfo::getId)
+                .map(DMSDocumentId::getVersion)
+                .orElse(id.getVersion());
+
+        if (ecmDocumentContentClient.isEnabled()) {
+            return downloadRange(id.getId(), version, kpjm, reauthorized, info, offset, length);
+        }
+
+        if (StringUtils.hasText(version)) {
+            ContentCacheKey cacheKey = new ContentCacheKey(namespace, id.getId(), version);
+            Optional<DocumentContentRange> cached = documentContentCache.getRange(cacheKey, offset, length);
+            if (cached.isPresent()) {
+                documentPrefetcher.contentRead(cacheKey);
+                return cached.get();
+            }
+        }
+
+        return streamRange(id.getId(), version, kpjm, reauthorized, info, offset, length);
+    }
+
+    /**
+     * Metoda stáhne celý obsah dokumentu z FileNetu a vrátí jeho část. Část je čtena průběžně z obsahu odpovědi
+     * odloženého mimo heap nebo do dočasného souboru (viz {@link SpooledGetDocumentResponse}), který je uvolněn
+     * uzavřením vrácené části. Obsah není ukládán do cache obsahu, protože by jej bylo nutné načíst do paměti.
+     */
+    private DocumentContentRange streamRange(String documentId, String version, String kpjm, boolean reauthorized,
+                                             DMSDocumentInfo info, long offset, long length) throws IOException {
+        GetDocumentResponse response = getDocument(documentId, version, kpjm, reauthorized).getBody();
+        SpooledContent content = response instanceof SpooledGetDocumentResponse
+                ? ((SpooledGetDocumentResponse) response).getSpooledContent() : null;
+        if (Objects.isNull(content)) {
+            // průběžné čtení odpovědi je vypnuto, obsah je již v paměti jako Base64 řetězec
+            byte[] bytes = Optional.ofNullable(response)
+                    .map(GetDocumentResponse::getContent)
+                    .map(Base64Codec::decode)
+                    .orElse(new byte[0]);
+            if (offset >= bytes.length) {
+                throw new DocumentRangeNotSatisfiableException(offset, bytes.length);
+            }
+
+            int rangeLength = (int) Math.min(length, bytes.length - offset);
+            return new DocumentContentRange(Objects.isNull(response) ? info : documentMapper.toDMSDocumentInfo(response),
+                    offset, rangeLength, bytes.length, new ByteArrayInputStream(bytes, (int) offset, rangeLength));
+        }
+
+        try {
+            long totalLength = content.size();
+            if (offset >= totalLength) {
+                throw new DocumentRangeNotSatisfiableException(offset, totalLength);
+            }
+
+            long rangeLength = Math.min(length, totalLength - offset);
+            InputStream stream = new FilterInputStream(new RangeInputStream(content.openStream(), offset, rangeLength)) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        content.close();
+                    }
+                }
+            };
+            return new DocumentContentRange(documentMapper.toDMSDocumentInfo(response, totalLength), offset, rangeLength,
+                    totalLength, stream);
+        } catch (IOException | RuntimeException e) {
+            content.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Metoda stáhne část binárního obsahu dokumentu z FileNetu. Pokud FileNet hlavičku {@code Range} ignoruje,
+     * je z celého obsahu průběžně přeskočen začátek a čtení skončí na konci požadované části.
+     */
+    private DocumentContentRange downloadRange(String documentId, String version, String kpjm, boolean reauthorized,
+                                               DMSDocumentInfo info, long offset, long length) throws IOException {
+        ResponseEntity<InputStream> response = ecmRequestExecutor.execute("GetDocumentRange", reauthorized,
+                body -> length == Long.MAX_VALUE ? EcmRequestExecutor.NO_PAYLOAD : length,
+                requestId -> getRangeResponse(kpjm, requestId, documentId, version, offset, length));
+
+        InputStream body = Objects.requireNonNull(response.getBody());
+        HttpHeaders headers = response.getHeaders();
+        if (response.getStatusCodeValue() == HttpStatus.PARTIAL_CONTENT.value()) {
+            ContentRange contentRange;
+            try {
+                contentRange = ContentRange.parse(headers.getFirst(HttpHeaders.CONTENT_RANGE), offset,
+                        headers.getContentLength());
+            } catch (InvalidContentRangeException e) {
+                body.close();
+                throw e;
+            }
+            return new DocumentContentRange(info, contentRange.getOffset(), contentRange.getLength(),
+                    contentRange.getTotalLength(), body);
+        }
+
+        // bez hlavičky Content-Length je velikost obsahu převzata z metadat dokumentu
+        long totalLength = headers.getContentLength() >= 0 ? headers.getContentLength()
+                : Optional.ofNullable(info).map(DMSDocumentInfo::getSizeInBytes).orElse(-1L);
+        if (totalLength >= 0 && offset >= totalLength) {
+            body.close();
+            throw new DocumentRangeNotSatisfiableException(offset, totalLength);
+        }
+
+        // při neznámé velikosti obsahu není známa ani délka části, stream je omezen pouze požadovanou délkou
+        long rangeLength = totalLength >= 0 ? Math.min(length, totalLength - offset) : -1;
+        return new DocumentContentRange(info, offset, rangeLength, totalLength,
+                new RangeInputStream(body, offset, rangeLength >= 0 ? rangeLength : length));
+    }
+
+    @SneakyThrows
+    private ResponseEntity<InputStream> getRangeResponse(String kpjm, String requestId, String documentId,
+                                                         String version, long offset, long length) {
+        try {
+            return ecmDocumentContentClient.getRange(kpjm, requestId, namespace, documentId, version, offset, length);
+        } catch (HttpClientErrorException e) {
+            if (e.getRawStatusCode() != HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value()) {
+                throw e;
+            }
+
+            String contentRange = Optional.ofNullable(e.getResponseHeaders())
+                    .map(headers -> headers.getFirst(HttpHeaders.CONTENT_RANGE))
+                    .orElse(null);
+            long totalLength;
+            try {
+                totalLength = ContentRange.parse(contentRange, offset, -1).getTotalLength();
+            } catch (InvalidContentRangeException invalid) {
+                // velikost obsahu je v odpovědi 416 pouze informativní
+                totalLength = -1;
+            }
+            throw new DocumentRangeNotSatisfiableException(offset, totalLength);
+        }
+    }
+
+    /**
+     * Metoda načte binární obsah dokumentu pro {@link #getData(DMSDocumentId, String)}. Se zapnutým cache obsahu
+     * je operacím pluginu předřazen {@link CachingDmsOperations}, který obsah dokumentu s uvedenou verzí v cache
+     * již hledal. Takový obsah je proto stažen z FileNetu bez dalšího hledání v cache, stažení zároveň ověří
+     * oprávnění KPJM. Dokument bez verze je v cache hledán až po zjištění aktuální verze (viz {@link #loadData}).
+     *
+     * @param id           identifikátor dokumentu
+     * @param kpjm         KPJM, pod kterým je dokument načítán
+     * @param reauthorized {@code true}, pokud bylo KPJM reautorizováno
+     * @return Vrací binární obsah uloženého dokumentu.
+     */
+    private DMSDocumentData readData(DMSDocumentId id, String kpjm, boolean reauthorized) {
+        if (documentContentCache.isEnabled() && StringUtils.hasText(id.getVersion())) {
+            return downloadData(id.getId(), id.getVersion(), kpjm, reauthorized,
+                    new ContentCacheKey(namespace, id.getId(), id.getVersion()));
+        }
+
+        return loadData(id, kpjm, reauthorized);
+    }
+
+    /**
+     * Metoda načte binární obsah dokumentu z cache obsahu, případně z FileNetu.
+     *
+     * @param id           identifikátor dokumentu
+     * @param kpjm         KPJM, pod kterým je dokument načítán
+     * @param reauthorized {@code true}, pokud bylo KPJM reautorizováno
+     * @return Vrací binární obsah uloženého dokumentu.
+     */
+    private DMSDocumentData loadData(DMSDocumentId id, String kpjm, boolean reauthorized) {
+        if (!documentContentCache.isEnabled()) {
+            return downloadData(id.getId(), id.getVersion(), kpjm, reauthorized, null);
+        }
+
+        final String version = Optional.ofNullable(loadContentInfo(id, kpjm, reauthorized))
+                .map(DMSDocumentInfo::getId)
+                .map(DMSDocumentId::getVersion)
+                .orElse(id.getVersion());
+        if (!StringUtils.hasText(version)) {
+            return downloadData(id.getId(), id.getVersion(), kpjm, reauthorized, null);
+        }
+
+        ContentCacheKey cacheKey = new ContentCacheKey(namespace, id.getId(), version);
+        Optional<DMSDocumentData> cached = documentContentCache.get(cacheKey);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+
+        return downloadData(id.getId(), version, kpjm, reauthorized, cacheKey);
+    }
 
-        ResponseEntity<GetDocumentResponse> data = ecmApi.eCMGetDocumentWithHttpInfo(kpjm, id.getId(),
-                UUID.randomUUID().toString(), String.valueOf(System.currentTimeMillis()), Constants.SOURCE_SYSTEM,
-                namespace, null, null, null, null, id.getVersion());
-        logEndpointCallElapsedTime(start, endpointName);
+    /**
+     * Metoda stáhne binární obsah dokumentu z FileNetu.
+     *
+     * @param documentId   identifikátor dokumentu
+     * @param version      verze dokumentu, {@code null} znamená aktuální verzi
+     * @param kpjm         KPJM, pod kterým je dokument stahován
+     * @param reauthorized {@code true}, pokud bylo KPJM reautorizováno
+     * @param cacheKey     klíč, pod kterým má být obsah uložen do cache obsahu, případně {@code null}
+     * @return Vrací binární obsah uloženého dokumentu.
+     */
+    private DMSDocumentData downloadData(String documentId, String version, String kpjm, boolean reauthorized,
+                                         ContentCacheKey cacheKey) {
+        return Optional.ofNullable(getDocument(documentId, version, kpjm, reauthorized).getBody())
+                .map(r -> toDMSDocumentData(r, cacheKey))
+                .orElse(null);
+    }
 
-        if (data.hasBody()) {
-            return new DMSDocumentData(documentMapper.toDMSDocumentInfo(data.getBody()),
-                    Optional.of(data).map(HttpEntity::getBody)
-                            .map(GetDocumentResponse::getContent).map(c -> Base64.getDecoder().decode(c)).orElse(null));
+    private ResponseEntity<GetDocumentResponse> getDocument(String documentId, String version, String kpjm,
+                                                            boolean reauthorized) {
+        return ecmRequestExecutor.execute("GetDocument", reauthorized,
+                FileNetService::payloadSize,
+                requestId -> ecmApi.eCMGetDocumentWithHttpInfo(kpjm, documentId, requestId,
+                        String.valueOf(System.currentTimeMillis()), Constants.SOURCE_SYSTEM, namespace,
+                        null, null, null, null, version));
+    }
+
+    /**
+     * Metoda převede odpověď endpointu GetDocument na binární obsah dokumentu. Pokud byl obsah načten průběžně
+     * (viz {@link SpooledGetDocumentResponse}), je dočasně uložený obsah po převodu uvolněn. Rozhraní
+     * {@code DmsOperations} vyžaduje obsah jako pole bajtů, obsah je proto zkopírován do jednoho pole přesné velikosti.
+     * Bez kopie do heapu je obsah předáván pouze čtením po částech ({@link #getDataRange}).
+     *
+     * @param response odpověď endpointu GetDocument
+     * @param cacheKey klíč, pod kterým má být obsah uložen do cache obsahu, případně {@code null}
+     * @return Vrací binární obsah dokumentu.
+     */
+    @SneakyThrows
+    private DMSDocumentData toDMSDocumentData(GetDocumentResponse response, ContentCacheKey cacheKey) {
+        DMSDocumentInfo info;
+        byte[] bytes;
+
+        if (response instanceof SpooledGetDocumentResponse) {
+            try (SpooledContent content = ((SpooledGetDocumentResponse) response).getSpooledContent()) {
+                info = documentMapper.toDMSDocumentInfo(response, Objects.isNull(content) ? null : content.size());
+                bytes = Objects.isNull(content) ? null : content.toByteArray();
+            }
         } else {
-            return null;
+            info = documentMapper.toDMSDocumentInfo(response);
+            bytes = Optional.ofNullable(response.getContent()).map(Base64Codec::decode).orElse(null);
+        }
+
+        if (Objects.nonNull(cacheKey)) {
+            documentContentCache.put(cacheKey, info, bytes);
         }
+
+        return new DMSDocumentData(info, bytes);
     }
 
     /**
@@ -231,17 +800,27 @@ public final class FileNetService implements DmsOperations {
     @Override
     public DMSDocumentInfo update(DMSDocumentId id, DMSDocumentUpdate doc, String zeebeVariables) {
         final String endpointName = "UpdateDocument";
-        Instant start = Instant.now();
 
-        final String kpjm = reauthorizeKpjmIfNeeded(endpointName, castToHeadersMap(zeebeVariables), id.getDmsSpecificAttributes());
+        final ZeebeHeaders zeebeHeaders = castToHeaders(zeebeVariables);
+        final String kpjm = reauthorizeKpjmIfNeeded(endpointName, zeebeHeaders, id.getDmsSpecificAttributes());
+        final boolean reauthorized = isReauthorized(zeebeHeaders, kpjm);
+        prefetch(zeebeVariables, kpjm, reauthorized, id.getDmsSpecificAttributes(), id.getId());
 
-        ResponseEntity<FileNetIdentificator> response = ecmApi.eCMUpdateDocumentWithHttpInfo(kpjm, id.getId(),
-                UUID.randomUUID().toString(), String.valueOf(System.currentTimeMillis()),
-                Constants.SOURCE_SYSTEM, documentMapper.toUpdateDocumentBodyRequest(namespace, doc), null,
-                null, null, null);
-        logEndpointCallElapsedTime(start, endpointName);
+        FileNetIdentificator identificator;
+        if (chunkedUploadService.isChunked(doc.getData())) {
+            identificator = chunkedUploadService.upload(endpointName, kpjm, reauthorized, ChunkedUploadStartRequest.of(
+                    id.getId(), documentMapper.toStreamingUpdateDocumentBodyRequest(namespace, doc)), doc.getData());
+        } else {
+            identificator = ecmRequestExecutor.execute(endpointName, reauthorized, payloadSize(doc.getData()),
+                    requestId -> ecmApi.eCMUpdateDocumentWithHttpInfo(kpjm, id.getId(), requestId,
+                            String.valueOf(System.currentTimeMillis()), Constants.SOURCE_SYSTEM,
+                            documentMapper.toStreamingUpdateDocumentBodyRequest(namespace, doc), null, null, null, null))
+                    .getBody();
+        }
+        documentMetadataCache.invalidate(id.getId());
+        deduplicationIndex.invalidate(id.getId());
 
-        return Optional.ofNullable(response.getBody())
+        return Optional.ofNullable(identificator)
                 .map(r -> documentMapper.toDMSDocumentInfo(r, doc))
                 .orElse(null);
     }
@@ -255,15 +834,29 @@ public final class FileNetService implements DmsOperations {
      */
     @Override
     public DMSDocumentId delete(DMSDocumentId id, String zeebeVariables) {
+        return delete(id, castToHeaders(zeebeVariables));
+    }
+
+    /**
+     * Metoda na základě ID smaže dokument ve FileNetu s již načtenými Zeebe headers.
+     *
+     * @param id           identifikátor dokumentu
+     * @param zeebeHeaders Zeebe headers načtené pomocí {@link #castToHeaders(String)}
+     * @return Vrací ID smazaného dokumentu.
+     */
+    DMSDocumentId delete(DMSDocumentId id, ZeebeHeaders zeebeHeaders) {
         final String endpointName = "DeleteDocument";
-        Instant start = Instant.now();
 
-        final String kpjm = reauthorizeKpjmIfNeeded(endpointName, castToHeadersMap(zeebeVariables), id.getDmsSpecificAttributes());
+        final String kpjm = reauthorizeKpjmIfNeeded(endpointName, zeebeHeaders, id.getDmsSpecificAttributes());
 
-        ResponseEntity<FileNetIdentificator> response = ecmApi.eCMDeleteDocumentWithHttpInfo(kpjm, id.getId(),
-                UUID.randomUUID().toString(), String.valueOf(System.currentTimeMillis()), Constants.SOURCE_SYSTEM,
-                namespace, null, null, null, null, null);
-        logEndpointCallElapsedTime(start, endpointName);
+        ResponseEntity<FileNetIdentificator> response = ecmRequestExecutor.execute(endpointName,
+                isReauthorized(zeebeHeaders, kpjm),
+                requestId -> ecmApi.eCMDeleteDocumentWithHttpInfo(kpjm, id.getId(), requestId,
+                        String.valueOf(System.currentTimeMillis()), Constants.SOURCE_SYSTEM, namespace,
+                        null, null, null, null, null));
+        documentMetadataCache.invalidate(id.getId());
+        documentContentCache.invalidate(id.getId());
+        deduplicationIndex.invalidate(id.getId());
 
         return Optional.ofNullable(response.getBody())
                 .map(documentMapper::toDMSDocumentId)
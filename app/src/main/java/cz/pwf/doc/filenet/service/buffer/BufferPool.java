@@ -0,0 +1,195 @@
+package cz.pwf.filenet.service.buffer;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.lang.ref.Cleaner;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Omezený pool off-heap bufferů pro průběžné zpracování obsahu dokumentů.
+ * <p>
+ * Paměť je rozdělena na segmenty pevné velikosti (direct {@link ByteBuffer}), které jsou alokovány při prvním
+ * použití a po uvolnění se vrací do poolu k opětovnému použití. Obsah dokumentu tak neroste v heapu kopírováním
+ * zvětšujících se polí a velké dokumenty nevytváří humongous alokace G1. Celková velikost poolu je pevně omezena,
+ * pokud nejsou segmenty k dispozici, čeká žadatel nejvýše nakonfigurovanou dobu a poté je vyhozena
+ * {@link BufferPoolExhaustedException}.
+ * <p>
+ * Segmenty jsou přidělovány prostřednictvím {@link PooledBuffer} s počítáním referencí. Detekce úniků má tři
+ * úrovně: {@code none}, {@code simple} (buffer, který byl uvolněn garbage collectorem bez volání
+ * {@link PooledBuffer#release()}, je zalogován a jeho segmenty vráceny do poolu) a {@code paranoid} (navíc je
+ * u každého bufferu zaznamenáno místo alokace a neuvolněné buffery lze vypsat pomocí {@link #getUnreleased()}).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BufferPool {
+
+    private static final String METRIC_PREFIX = "filenet.buffer.pool";
+    private static final Cleaner CLEANER = Cleaner.create();
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${filenet.buffer-pool.enabled:false}")
+    private boolean enabled;
+
+    @Value("${filenet.buffer-pool.segment-size:65536}")
+    private int segmentSize;
+
+    @Value("${filenet.buffer-pool.max-bytes:134217728}")
+    private long maxBytes;
+
+    @Value("${filenet.buffer-pool.max-content-size:33554432}")
+    private long maxContentSize;
+
+    @Value("${filenet.buffer-pool.acquire-timeout:50}")
+    private long acquireTimeout;
+
+    @Value("${filenet.buffer-pool.leak-detection:simple}")
+    private String leakDetection;
+
+    private final ConcurrentLinkedDeque<ByteBuffer> freeSegments = new ConcurrentLinkedDeque<>();
+    private final Map<PooledBuffer.State, Throwable> unreleased = new ConcurrentHashMap<>();
+    private Semaphore permits;
+    private LeakDetection leakDetectionLevel;
+
+    private Counter exhaustedCounter;
+    private Counter leakCounter;
+
+    @PostConstruct
+    void init() {
+        permits = new Semaphore((int) Math.min(Integer.MAX_VALUE, maxBytes / segmentSize), true);
+        leakDetectionLevel = LeakDetection.valueOf(leakDetection.trim().toUpperCase(Locale.ROOT));
+
+        exhaustedCounter = meterRegistry.counter(METRIC_PREFIX + ".exhausted");
+        leakCounter = meterRegistry.counter(METRIC_PREFIX + ".leaks");
+        Gauge.builder(METRIC_PREFIX + ".used", this, BufferPool::getUsedBytes)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".max", this, pool -> pool.maxBytes)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int getSegmentSize() {
+        return segmentSize;
+    }
+
+    /**
+     * @return Vrací maximální velikost obsahu jednoho dokumentu v bajtech, který je držen v poolu. Větší obsah je
+     * odložen do dočasného souboru, aby jeden dokument nevyčerpal celý pool.
+     */
+    public long getMaxContentSize() {
+        return maxContentSize;
+    }
+
+    /**
+     * @return Vrací velikost segmentů, které jsou aktuálně přiděleny bufferům.
+     */
+    public long getUsedBytes() {
+        return (maxBytes / segmentSize - permits.availablePermits()) * segmentSize;
+    }
+
+    /**
+     * @return Vrací počet bufferů uvolněných garbage collectorem bez volání {@link PooledBuffer#release()}.
+     */
+    public long getLeakCount() {
+        return (long) leakCounter.count();
+    }
+
+    /**
+     * @return Vrací místa alokace dosud neuvolněných bufferů. Evidována jsou pouze při detekci úniků
+     * {@code paranoid}.
+     */
+    public Collection<Throwable> getUnreleased() {
+        return List.copyOf(unreleased.values());
+    }
+
+    /**
+     * @return Vrací nový prázdný buffer s jednou referencí. Segmenty jsou přidělovány až při zápisu obsahu.
+     */
+    public PooledBuffer allocate() {
+        return new PooledBuffer(this);
+    }
+
+    /**
+     * Metoda přidělí segmenty pro {@code bytes} bajtů. Segmenty jsou přiděleny buď všechny, nebo žádný.
+     */
+    List<ByteBuffer> acquire(long bytes) throws BufferPoolExhaustedException {
+        int count = (int) ((bytes + segmentSize - 1) / segmentSize);
+        try {
+            if (!permits.tryAcquire(count, acquireTimeout, TimeUnit.MILLISECONDS)) {
+                exhaustedCounter.increment();
+                throw new BufferPoolExhaustedException(bytes, maxBytes);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BufferPoolExhaustedException(bytes, maxBytes);
+        }
+
+        List<ByteBuffer> segments = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ByteBuffer segment = freeSegments.pollFirst();
+            segments.add(segment == null ? ByteBuffer.allocateDirect(segmentSize) : segment.clear());
+        }
+
+        return segments;
+    }
+
+    /**
+     * Metoda vrátí segmenty do poolu.
+     */
+    void release(List<ByteBuffer> segments) {
+        segments.forEach(freeSegments::offerFirst);
+        permits.release(segments.size());
+    }
+
+    /**
+     * Metoda zaregistruje nový buffer pro detekci úniků.
+     */
+    Cleaner.Cleanable track(PooledBuffer buffer, PooledBuffer.State state) {
+        if (leakDetectionLevel == LeakDetection.PARANOID) {
+            unreleased.put(state, new Throwable("Pooled buffer allocated by " + Thread.currentThread().getName()));
+        }
+
+        return leakDetectionLevel == LeakDetection.NONE ? null : CLEANER.register(buffer, state);
+    }
+
+    /**
+     * Metoda zaznamená uvolnění bufferu. Pokud buffer nebyl uvolněn voláním {@link PooledBuffer#release()},
+     * jde o únik.
+     */
+    void untrack(PooledBuffer.State state, boolean leaked) {
+        Throwable allocation = unreleased.remove(state);
+        if (leaked) {
+            leakCounter.increment();
+            log.error("Pooled buffer of {} bytes was not released before garbage collection, returning it to the pool",
+                    state.capacity(), allocation);
+        }
+    }
+
+    private enum LeakDetection {
+        NONE,
+        SIMPLE,
+        PARANOID
+    }
+}
@@ -0,0 +1,14 @@
+package cz.pwf.filenet.service.buffer;
+
+import java.io.IOException;
+
+/**
+ * Výjimka vyhozená, pokud {@link BufferPool} nemá ani po uplynutí nakonfigurované doby čekání volné segmenty.
+ * Konzument obvykle reaguje odložením obsahu mimo pool (např. do dočasného souboru).
+ */
+public class BufferPoolExhaustedException extends IOException {
+
+    public BufferPoolExhaustedException(long requestedBytes, long maxBytes) {
+        super("Buffer pool exhausted, unable to acquire " + requestedBytes + " bytes (pool limit " + maxBytes + " bytes)");
+    }
+}
@@ -0,0 +1,244 @@
+package cz.pwf.filenet.service.buffer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.ref.Cleaner;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Rostoucí buffer složený ze segmentů {@link BufferPool} s počítáním referencí.
+ * <p>
+ * Buffer vzniká s jednou referencí. Každý další konzument obsahu (např. stream vrácený {@link #openStream()})
+ * získá vlastní referenci pomocí {@link #retain()} a po dokončení ji uvolní pomocí {@link #release()}. Segmenty
+ * jsou vráceny do poolu po uvolnění poslední reference. Zápis obsahu není thread-safe, čtení po dokončení
+ * zápisu ano.
+ */
+public final class PooledBuffer implements Closeable {
+
+    private final BufferPool pool;
+    private final int segmentSize;
+    private final State state;
+    private final Cleaner.Cleanable cleanable;
+    private final AtomicInteger refCnt = new AtomicInteger(1);
+
+    private long size;
+
+    PooledBuffer(BufferPool pool) {
+        this.pool = pool;
+        this.segmentSize = pool.getSegmentSize();
+        this.state = new State(pool);
+        this.cleanable = pool.track(this, state);
+    }
+
+    /**
+     * Metoda připojí obsah na konec bufferu. Chybějící segmenty jsou přiděleny najednou, pokud je pool nemá
+     * k dispozici, obsah bufferu se nezmění.
+     *
+     * @throws BufferPoolExhaustedException pokud pool nemá volné segmenty
+     */
+    public void write(byte[] b, int off, int len) throws BufferPoolExhaustedException {
+        Objects.checkFromIndexSize(off, len, b.length);
+        ensureAlive();
+
+        long missing = size + len - (long) state.segments.size() * segmentSize;
+        if (missing > 0) {
+            state.segments.addAll(pool.acquire(missing));
+        }
+
+        int remaining = len;
+        int offset = off;
+        while (remaining > 0) {
+            ByteBuffer segment = state.segments.get((int) (size / segmentSize));
+            int length = Math.min(remaining, segment.remaining());
+            segment.put(b, offset, length);
+            offset += length;
+            remaining -= length;
+            size += length;
+        }
+    }
+
+    /**
+     * @return Vrací počet zapsaných bajtů.
+     */
+    public long size() {
+        return size;
+    }
+
+    public int refCnt() {
+        return refCnt.get();
+    }
+
+    /**
+     * Metoda přidá bufferu referenci.
+     *
+     * @return Vrací tento buffer.
+     */
+    public PooledBuffer retain() {
+        refCnt.updateAndGet(count -> {
+            if (count <= 0) {
+                throw new IllegalStateException("Pooled buffer has already been released");
+            }
+            return count + 1;
+        });
+
+        return this;
+    }
+
+    /**
+     * Metoda uvolní referenci bufferu. Po uvolnění poslední reference jsou segmenty vráceny do poolu.
+     *
+     * @return Vrací {@code true}, pokud byla uvolněna poslední reference.
+     */
+    public boolean release() {
+        int count = refCnt.decrementAndGet();
+        if (count < 0) {
+            refCnt.incrementAndGet();
+            throw new IllegalStateException("Pooled buffer has already been released");
+        }
+        if (count > 0) {
+            return false;
+        }
+
+        state.release(false);
+        if (Objects.nonNull(cleanable)) {
+            cleanable.clean();
+        }
+        return true;
+    }
+
+    /**
+     * Uvolní referenci vlastníka bufferu, viz {@link #release()}.
+     */
+    @Override
+    public void close() {
+        release();
+    }
+
+    /**
+     * @return Vrací obsah jako pole přesně odpovídající velikosti obsahu.
+     */
+    public byte[] toByteArray() {
+        ensureAlive();
+        if (size > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("Content of size " + size + " bytes can not be stored in a byte array");
+        }
+
+        byte[] data = new byte[(int) size];
+        int position = 0;
+        for (ByteBuffer segment : state.segments) {
+            ByteBuffer content = segment.duplicate().flip();
+            int length = content.remaining();
+            content.get(data, position, length);
+            position += length;
+        }
+
+        return data;
+    }
+
+    /**
+     * Metoda zapíše obsah bufferu do výstupního streamu.
+     */
+    public void writeTo(OutputStream outputStream) throws IOException {
+        try (InputStream inputStream = openStream()) {
+            inputStream.transferTo(outputStream);
+        }
+    }
+
+    /**
+     * Metoda vrací stream pro čtení obsahu. Stream drží vlastní referenci bufferu, kterou uvolní při uzavření,
+     * obsah je tedy čitelný i po uvolnění reference vlastníka.
+     *
+     * @return Vrací stream pro čtení obsahu.
+     */
+    public InputStream openStream() {
+        retain();
+        return new SegmentInputStream();
+    }
+
+    private void ensureAlive() {
+        if (refCnt.get() <= 0) {
+            throw new IllegalStateException("Pooled buffer has already been released");
+        }
+    }
+
+    /**
+     * Segmenty bufferu. Objekt neodkazuje na {@link PooledBuffer}, aby jej bylo možné použít jako akci
+     * {@link Cleaner} pro vrácení segmentů neuvolněného bufferu.
+     */
+    static final class State implements Runnable {
+
+        private final BufferPool pool;
+        private final List<ByteBuffer> segments = new ArrayList<>();
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private State(BufferPool pool) {
+            this.pool = pool;
+        }
+
+        long capacity() {
+            return (long) segments.size() * pool.getSegmentSize();
+        }
+
+        @Override
+        public void run() {
+            release(true);
+        }
+
+        private void release(boolean leaked) {
+            if (released.compareAndSet(false, true)) {
+                pool.release(segments);
+                pool.untrack(this, leaked);
+            }
+        }
+    }
+
+    private final class SegmentInputStream extends InputStream {
+
+        private int segmentIndex;
+        private ByteBuffer current;
+        private boolean closed;
+
+        @Override
+        public int read() throws IOException {
+            byte[] b = new byte[1];
+            return read(b, 0, 1) < 0 ? -1 : b[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            Objects.checkFromIndexSize(off, len, b.length);
+            if (closed) {
+                throw new IOException("Stream closed");
+            }
+            if (len == 0) {
+                return 0;
+            }
+
+            while (Objects.isNull(current) || !current.hasRemaining()) {
+                if (segmentIndex >= state.segments.size()) {
+                    return -1;
+                }
+                current = state.segments.get(segmentIndex++).duplicate().flip();
+            }
+
+            int length = Math.min(len, current.remaining());
+            current.get(b, off, length);
+            return length;
+        }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                release();
+            }
+        }
+    }
+}
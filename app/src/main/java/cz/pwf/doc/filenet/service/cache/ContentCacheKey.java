@@ -0,0 +1,15 @@
+package cz.pwf.filenet.service.cache;
+
+import lombok.Value;
+
+/**
+ * Klíč cache obsahu dokumentu. Obsah je vždy ukládán pod konkrétní verzí dokumentu, protože obsah dané verze
+ * se již nemění.
+ */
+@Value
+public class ContentCacheKey {
+
+    String namespace;
+    String id;
+    String version;
+}
@@ -0,0 +1,89 @@
+package cz.pwf.filenet.service.cache;
+
+import cz.notix.document.plugin.connector.dto.DMSDocumentData;
+import cz.notix.document.plugin.connector.dto.DMSDocumentInfo;
+import cz.pwf.filenet.model.content.DocumentContentRange;
+
+import java.io.ByteArrayInputStream;
+import java.util.Optional;
+
+/**
+ * Úroveň cache obsahu dokumentů (viz {@link DocumentContentCache}). Úrovně jsou prohledávány v pořadí daném
+ * {@link org.springframework.core.annotation.Order}, nejrychlejší úroveň je první. Doba platnosti záznamů se řídí
+ * nastavením cache document pluginu ({@code documentCache.cleanUp.ttl.minutes}).
+ */
+public interface ContentCacheTier {
+
+    /**
+     * @return Vrací název úrovně, používá se jako tag metrik.
+     */
+    String getName();
+
+    boolean isEnabled();
+
+    /**
+     * Metoda vrací obsah dokumentu z cache.
+     *
+     * @param key klíč cache
+     * @return Vrací obsah dokumentu, případně prázdný {@link Optional}, pokud záznam neexistuje nebo vypršel.
+     */
+    Optional<DMSDocumentData> get(ContentCacheKey key);
+
+    /**
+     * Metoda vrací část obsahu dokumentu z cache.
+     *
+     * @param key    klíč cache
+     * @param offset pozice prvního bajtu části
+     * @param length maximální délka části, část je zkrácena na konec obsahu
+     * @return Vrací část obsahu dokumentu, případně prázdný {@link Optional}, pokud záznam neexistuje, vypršel
+     * nebo je {@code offset} za koncem obsahu.
+     */
+    default Optional<DocumentContentRange> getRange(ContentCacheKey key, long offset, long length) {
+        return get(key).flatMap(data -> range(data, offset, length));
+    }
+
+    /**
+     * @return Vrací {@code true}, pokud {@link #getRange} čte pouze požadovanou část obsahu.
+     */
+    default boolean supportsRangeReads() {
+        return false;
+    }
+
+    /**
+     * @param key klíč cache
+     * @return Vrací {@code true}, pokud cache obsahuje platný záznam s daným klíčem.
+     */
+    default boolean contains(ContentCacheKey key) {
+        return get(key).isPresent();
+    }
+
+    /**
+     * Metoda uloží obsah dokumentu do cache.
+     *
+     * @param key  klíč cache
+     * @param info informace o dokumentu
+     * @param data binární obsah dokumentu
+     */
+    void put(ContentCacheKey key, DMSDocumentInfo info, byte[] data);
+
+    /**
+     * Metoda odstraní z cache všechny verze dokumentu s daným ID.
+     *
+     * @param id identifikátor dokumentu
+     */
+    void invalidate(String id);
+
+    /**
+     * @return Vrací část obsahu dokumentu, případně prázdný {@link Optional}, pokud je {@code offset} za koncem
+     * obsahu.
+     */
+    static Optional<DocumentContentRange> range(DMSDocumentData data, long offset, long length) {
+        if (offset >= data.getData().length) {
+            return Optional.empty();
+        }
+
+        int rangeLength = (int) Math.min(length, data.getData().length - offset);
+        return Optional.of(new DocumentContentRange(data.getInfo(), offset, rangeLength, data.getData().length,
+                new ByteArrayInputStream(data.getData(), (int) offset, rangeLength)));
+    }
+}
@@ -0,0 +1,291 @@
+package cz.pwf.filenet.service.cache;
+
+import cz.notix.document.plugin.connector.dto.DMSDocumentData;
+import cz.notix.document.plugin.connector.dto.DMSDocumentInfo;
+import cz.pwf.filenet.model.content.DocumentContentRange;
+import cz.pwf.filenet.service.content.FileRangeInputStream;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lokální diskový cache obsahu dokumentů načítaných z FileNetu (úroveň {@code disk}, viz {@link DocumentContentCache}).
+ * <p>
+ * Obsah je ukládán do souborů v nakonfigurovaném adresáři, index záznamů je držen v paměti. Při překročení
+ * maximální celkové velikosti jsou odstraňovány nejdéle nepoužité záznamy (LRU). Doba platnosti záznamu se řídí
+ * stejným nastavením jako cache document pluginu ({@code documentCache.cleanUp.ttl.minutes}). Při zásahu cache
+ * je soubor čten pomocí memory-mapped I/O.
+ */
+@Slf4j
+@Component
+@Order(2)
+@RequiredArgsConstructor
+public class DiskContentCacheTier implements ContentCacheTier {
+
+    private static final String METRIC_PREFIX = "filenet.content.cache";
+    private static final String FILE_PREFIX = "content-";
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${filenet.cache.content.enabled:false}")
+    private boolean enabled;
+
+    @Value("${filenet.cache.content.directory:${java.io.tmpdir}/filenet-content-cache}")
+    private String directoryName;
+
+    @Value("${filenet.cache.content.max-bytes:1073741824}")
+    private long maxBytes;
+
+    @Value("${documentCache.cleanUp.ttl.minutes:1440}")
+    private long ttlMinutes;
+
+    private final Map<ContentCacheKey, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private Path directory;
+    private long totalBytes;
+
+    private Counter evictionCounter;
+
+    @PostConstruct
+    void init() throws IOException {
+        if (!enabled) {
+            return;
+        }
+
+        directory = Files.createDirectories(Path.of(directoryName));
+        // index se mezi restarty neuchovává, soubory z předchozího běhu jsou proto odstraněny
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, FILE_PREFIX + "*")) {
+            files.forEach(DiskContentCacheTier::deleteFile);
+        }
+
+        evictionCounter = meterRegistry.counter(METRIC_PREFIX + ".evictions");
+        Gauge.builder(METRIC_PREFIX + ".size", this, DiskContentCacheTier::getTotalBytes)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String getName() {
+        return "disk";
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public boolean supportsRangeReads() {
+        return true;
+    }
+
+    public synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    @Override
+    public Optional<DMSDocumentData> get(ContentCacheKey key) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+
+        Entry entry = getEntry(key);
+
+        if (Objects.isNull(entry)) {
+            return Optional.empty();
+        }
+
+        try {
+            byte[] data = read(entry);
+            return Optional.of(new DMSDocumentData(entry.info, data));
+        } catch (IOException e) {
+            log.warn("Unable to read cached content of {}, entry is discarded", key, e);
+            synchronized (this) {
+                if (entries.get(key) == entry) {
+                    remove(key);
+                }
+            }
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Metoda vrací část obsahu dokumentu z cache jako stream nad souborem záznamu, obsah tedy není celý
+     * načítán do paměti. Pokud je záznam během čtení z cache odstraněn, soubor zůstává čitelný až do uzavření
+     * streamu (na systémech, které dovolují smazat otevřený soubor).
+     *
+     * @param key    klíč cache
+     * @param offset pozice prvního bajtu části
+     * @param length maximální délka části, část je zkrácena na konec obsahu
+     * @return Vrací část obsahu dokumentu, případně prázdný {@link Optional}, pokud záznam neexistuje nebo vypršel.
+     */
+    @Override
+    public Optional<DocumentContentRange> getRange(ContentCacheKey key, long offset, long length) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+
+        Entry entry = getEntry(key);
+
+        if (Objects.isNull(entry) || offset >= entry.size) {
+            return Optional.empty();
+        }
+
+        long rangeLength = Math.min(length, entry.size - offset);
+        try {
+            InputStream content = new FileRangeInputStream(entry.file, offset, rangeLength);
+            return Optional.of(new DocumentContentRange(entry.info, offset, rangeLength, entry.size, content));
+        } catch (IOException e) {
+            log.warn("Unable to read cached content of {}, entry is discarded", key, e);
+            synchronized (this) {
+                if (entries.get(key) == entry) {
+                    remove(key);
+                }
+            }
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public boolean contains(ContentCacheKey key) {
+        return enabled && Objects.nonNull(getEntry(key));
+    }
+
+    /**
+     * Metoda uloží obsah dokumentu do cache. Obsah větší než celková kapacita cache se neukládá.
+     */
+    @Override
+    public void put(ContentCacheKey key, DMSDocumentInfo info, byte[] data) {
+        if (!enabled || Objects.isNull(data) || data.length > maxBytes) {
+            return;
+        }
+
+        Path file = directory.resolve(FILE_PREFIX + UUID.randomUUID());
+        Path tempFile = null;
+        try {
+            tempFile = Files.createTempFile(directory, FILE_PREFIX, ".part");
+            Files.write(tempFile, data);
+            Files.move(tempFile, file, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Unable to store content of {} to cache", key, e);
+            if (Objects.nonNull(tempFile)) {
+                deleteFile(tempFile);
+            }
+            return;
+        }
+
+        List<Path> evicted = new ArrayList<>();
+        synchronized (this) {
+            Entry previous = entries.put(key, new Entry(file, data.length, System.currentTimeMillis(), info));
+            if (Objects.nonNull(previous)) {
+                totalBytes -= previous.size;
+                evicted.add(previous.file);
+            }
+            totalBytes += data.length;
+
+            Iterator<Map.Entry<ContentCacheKey, Entry>> iterator = entries.entrySet().iterator();
+            while (totalBytes > maxBytes && iterator.hasNext()) {
+                Entry eldest = iterator.next().getValue();
+                iterator.remove();
+                totalBytes -= eldest.size;
+                evicted.add(eldest.file);
+                evictionCounter.increment();
+            }
+        }
+
+        evicted.forEach(DiskContentCacheTier::deleteFile);
+    }
+
+    @Override
+    public void invalidate(String id) {
+        if (!enabled) {
+            return;
+        }
+
+        List<Path> removed = new ArrayList<>();
+        synchronized (this) {
+            entries.entrySet().removeIf(e -> {
+                if (Objects.equals(e.getKey().getId(), id)) {
+                    totalBytes -= e.getValue().size;
+                    removed.add(e.getValue().file);
+                    return true;
+                }
+                return false;
+            });
+        }
+
+        removed.forEach(DiskContentCacheTier::deleteFile);
+    }
+
+    private synchronized Entry getEntry(ContentCacheKey key) {
+        Entry entry = entries.get(key);
+        if (Objects.nonNull(entry) && entry.isExpired(TimeUnit.MINUTES.toMillis(ttlMinutes))) {
+            remove(key);
+            return null;
+        }
+
+        return entry;
+    }
+
+    private void remove(ContentCacheKey key) {
+        Entry entry = entries.remove(key);
+        if (Objects.nonNull(entry)) {
+            totalBytes -= entry.size;
+            deleteFile(entry.file);
+        }
+    }
+
+    private static byte[] read(Entry entry) throws IOException {
+        try (FileChannel channel = FileChannel.open(entry.file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, entry.size);
+            byte[] data = new byte[(int) entry.size];
+            buffer.get(data);
+            return data;
+        }
+    }
+
+    private static void deleteFile(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Unable to delete cached content file {}", file, e);
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static final class Entry {
+
+        private final Path file;
+        private final long size;
+        private final long createdAt;
+        private final DMSDocumentInfo info;
+
+        private boolean isExpired(long ttlMillis) {
+            return System.currentTimeMillis() - createdAt > ttlMillis;
+        }
+    }
+}
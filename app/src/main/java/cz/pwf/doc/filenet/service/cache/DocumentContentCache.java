@@ -0,0 +1,214 @@
+package cz.pwf.filenet.service.cache;
+
+import cz.notix.document.plugin.connector.dto.DMSDocumentData;
+import cz.notix.document.plugin.connector.dto.DMSDocumentInfo;
+import cz.pwf.filenet.model.content.DocumentContentRange;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Víceúrovňový cache obsahu dokumentů načítaných z FileNetu.
+ * <p>
+ * Úrovně ({@link ContentCacheTier}) jsou prohledávány v pořadí od nejrychlejší: paměť a lokální disk. Obsah
+ * nalezený v pomalejší úrovni je uložen do všech rychlejších úrovní, nový obsah je ukládán do všech úrovní
+ * (write-through). Cache je lokální pro instanci aplikace a je dotazován před cache document pluginu (viz
+ * {@link cz.pwf.filenet.service.CachingDmsOperations}). Počet zásahů a neúspěchů celého cache je publikován jako
+ * {@code filenet.content.cache.gets}, stejně jako před zavedením úrovní. Pro každou úroveň je navíc publikován
+ * počet zásahů a neúspěchů ({@code filenet.content.cache.tier.gets}) a jejich poměr
+ * ({@code filenet.content.cache.tier.hit.ratio}).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DocumentContentCache {
+
+    private static final String METRIC_PREFIX = "filenet.content.cache";
+    private static final String TIER_METRIC_PREFIX = METRIC_PREFIX + ".tier";
+
+    private final List<ContentCacheTier> tiers;
+    private final MeterRegistry meterRegistry;
+
+    private final List<TierMetrics> metrics = new ArrayList<>();
+    private Counter hitCounter;
+    private Counter missCounter;
+
+    @PostConstruct
+    void init() {
+        hitCounter = meterRegistry.counter(METRIC_PREFIX + ".gets", "result", "hit");
+        missCounter = meterRegistry.counter(METRIC_PREFIX + ".gets", "result", "miss");
+        for (ContentCacheTier tier : tiers) {
+            TierMetrics tierMetrics = new TierMetrics(
+                    meterRegistry.counter(TIER_METRIC_PREFIX + ".gets", "tier", tier.getName(), "result", "hit"),
+                    meterRegistry.counter(TIER_METRIC_PREFIX + ".gets", "tier", tier.getName(), "result", "miss"));
+            if (tier.isEnabled()) {
+                Gauge.builder(TIER_METRIC_PREFIX + ".hit.ratio", tierMetrics, TierMetrics::hitRatio)
+                        .tag("tier", tier.getName())
+                        .register(meterRegistry);
+            }
+            metrics.add(tierMetrics);
+        }
+    }
+
+    /**
+     * @return Vrací {@code true}, pokud je povolena alespoň jedna úroveň cache.
+     */
+    public boolean isEnabled() {
+        return tiers.stream().anyMatch(ContentCacheTier::isEnabled);
+    }
+
+    /**
+     * Metoda vrací obsah dokumentu z první úrovně, která jej obsahuje.
+     *
+     * @param key klíč cache
+     * @return Vrací obsah dokumentu, případně prázdný {@link Optional}, pokud záznam neexistuje nebo vypršel.
+     */
+    public Optional<DMSDocumentData> get(ContentCacheKey key) {
+        if (!isEnabled()) {
+            return Optional.empty();
+        }
+
+        for (int i = 0; i < tiers.size(); i++) {
+            ContentCacheTier tier = tiers.get(i);
+            if (!tier.isEnabled()) {
+                continue;
+            }
+
+            Optional<DMSDocumentData> data = tier.get(key);
+            if (data.isPresent()) {
+                metrics.get(i).hits.increment();
+                hitCounter.increment();
+                log.debug("Content cache hit ({}): {}", tier.getName(), key);
+                promote(i, key, data.get());
+                return data;
+            }
+            metrics.get(i).misses.increment();
+        }
+
+        missCounter.increment();
+        return Optional.empty();
+    }
+
+    /**
+     * Metoda vrací část obsahu dokumentu z první úrovně, která jej obsahuje. Úrovně, které neumí číst pouze část
+     * obsahu (viz {@link ContentCacheTier#supportsRangeReads()}), načtou celý obsah a uloží jej do rychlejších úrovní.
+     *
+     * @param key    klíč cache
+     * @param offset pozice prvního bajtu části
+     * @param length maximální délka části, část je zkrácena na konec obsahu
+     * @return Vrací část obsahu dokumentu, případně prázdný {@link Optional}, pokud záznam neexistuje nebo vypršel.
+     */
+    public Optional<DocumentContentRange> getRange(ContentCacheKey key, long offset, long length) {
+        if (!isEnabled()) {
+            return Optional.empty();
+        }
+
+        for (int i = 0; i < tiers.size(); i++) {
+            ContentCacheTier tier = tiers.get(i);
+            if (!tier.isEnabled()) {
+                continue;
+            }
+
+            Optional<DocumentContentRange> range;
+            if (tier.supportsRangeReads()) {
+                range = tier.getRange(key, offset, length);
+            } else {
+                Optional<DMSDocumentData> data = tier.get(key);
+                if (data.isPresent()) {
+                    promote(i, key, data.get());
+                }
+                range = data.flatMap(d -> ContentCacheTier.range(d, offset, length));
+            }
+
+            if (range.isPresent()) {
+                metrics.get(i).hits.increment();
+                hitCounter.increment();
+                log.debug("Content cache hit ({}): {}, range {}+{}", tier.getName(), key, offset, range.get().getLength());
+                return range;
+            }
+            metrics.get(i).misses.increment();
+        }
+
+        missCounter.increment();
+        return Optional.empty();
+    }
+
+    /**
+     * Metoda uloží obsah dokumentu do všech úrovní cache.
+     *
+     * @param key  klíč cache
+     * @param info informace o dokumentu
+     * @param data binární obsah dokumentu
+     */
+    public void put(ContentCacheKey key, DMSDocumentInfo info, byte[] data) {
+        for (ContentCacheTier tier : tiers) {
+            tier.put(key, info, data);
+        }
+    }
+
+    /**
+     * Metoda uloží obsah dokumentu do úrovní cache, které jej dosud neobsahují.
+     *
+     * @param key  klíč cache
+     * @param info informace o dokumentu
+     * @param data binární obsah dokumentu
+     */
+    public void putIfAbsent(ContentCacheKey key, DMSDocumentInfo info, byte[] data) {
+        for (ContentCacheTier tier : tiers) {
+            if (tier.isEnabled() && !tier.contains(key)) {
+                tier.put(key, info, data);
+            }
+        }
+    }
+
+    /**
+     * Metoda odstraní ze všech úrovní cache všechny verze dokumentu s daným ID.
+     *
+     * @param id identifikátor dokumentu
+     */
+    public void invalidate(String id) {
+        for (ContentCacheTier tier : tiers) {
+            tier.invalidate(id);
+        }
+    }
+
+    /**
+     * @param tier název úrovně
+     * @return Vrací poměr zásahů úrovně ke všem dotazům na úroveň.
+     */
+    public double getHitRatio(String tier) {
+        for (int i = 0; i < tiers.size(); i++) {
+            if (tiers.get(i).getName().equals(tier)) {
+                return metrics.get(i).hitRatio();
+            }
+        }
+
+        throw new IllegalArgumentException("Unknown content cache tier: " + tier);
+    }
+
+    private void promote(int tierIndex, ContentCacheKey key, DMSDocumentData data) {
+        for (int i = 0; i < tierIndex; i++) {
+            tiers.get(i).put(key, data.getInfo(), data.getData());
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static final class TierMetrics {
+
+        private final Counter hits;
+        private final Counter misses;
+
+        private double hitRatio() {
+            double total = hits.count() + misses.count();
+            return total == 0 ? 0 : hits.count() / total;
+        }
+    }
+}
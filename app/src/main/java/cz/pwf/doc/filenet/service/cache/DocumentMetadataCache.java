@@ -0,0 +1,210 @@
+package cz.pwf.filenet.service.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import cz.notix.document.plugin.connector.dto.DMSDocumentInfo;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.CollectionUtils;
+
+import javax.annotation.PostConstruct;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+/**
+ * In-memory cache metadat dokumentů načítaných z FileNetu.
+ * <p>
+ * Metadata konkrétní verze dokumentu jsou neměnná, proto jsou drženy bez omezení doby platnosti (jsou odstraněny
+ * pouze při překročení kapacity cache). Metadata aktuální verze dokumentu (dotaz bez verze) mají omezenou dobu
+ * platnosti. Kapacita cache je omezena celkovou váhou záznamů, kde váha záznamu odpovídá počtu jeho atributů
+ * (minimálně 1), a tím zároveň i počtem záznamů.
+ * <p>
+ * Metadata jsou načítána mimo Caffeine (souběžná načtení sdružuje {@code ReadRequestCoalescer}), volání FileNetu
+ * tak neblokuje ostatní klíče cache. Invalidace dokumentu zvýší jeho generaci, načtená metadata jsou do cache uložena
+ * pouze pokud se generace dokumentu během načítání nezměnila.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DocumentMetadataCache {
+
+    private static final String CACHE_NAME = "filenet.metadata";
+    private static final int GENERATION_STRIPES = 64;
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${filenet.cache.metadata.enabled:true}")
+    private boolean enabled;
+
+    @Value("${filenet.cache.metadata.max-weight:100000}")
+    private long maxWeight;
+
+    @Value("${filenet.cache.metadata.ttl.seconds:300}")
+    private long ttlSeconds;
+
+    private Cache<MetadataCacheKey, DMSDocumentInfo> cache;
+    /**
+     * Klíče cache podle ID dokumentu, invalidace dokumentu tak nemusí procházet celou cache.
+     */
+    private final Map<String, Set<MetadataCacheKey>> keysById = new ConcurrentHashMap<>();
+    /**
+     * Generace invalidací dokumentů rozdělená podle hashe ID dokumentu, invalidace jiného dokumentu ve stejném
+     * pruhu pouze zabrání uložení načtených metadat.
+     */
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+
+    @PostConstruct
+    void init() {
+        cache = Caffeine.newBuilder()
+                .maximumWeight(maxWeight)
+                .weigher((MetadataCacheKey key, DMSDocumentInfo info) -> weigh(info))
+                .expireAfter(new MetadataExpiry(TimeUnit.SECONDS.toNanos(ttlSeconds)))
+                .recordStats()
+                .executor(Runnable::run)
+                // listener je volán atomicky s odstraněním záznamu, nemůže tak odregistrovat znovu uložený klíč
+                .evictionListener((MetadataCacheKey key, DMSDocumentInfo info, RemovalCause cause) -> {
+                    if (Objects.nonNull(key)) {
+                        unregister(key);
+                    }
+                })
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    /**
+     * Metoda vrací metadata dokumentu z cache, případně je načte pomocí {@code loader} a do cache uloží.
+     * Hodnota {@code null} se do cache neukládá.
+     *
+     * @param key    klíč cache
+     * @param loader funkce pro načtení metadat z FileNetu
+     * @return Vrací metadata dokumentu.
+     */
+    public DMSDocumentInfo get(MetadataCacheKey key, Supplier<DMSDocumentInfo> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+
+        DMSDocumentInfo info = cache.getIfPresent(key);
+        if (Objects.nonNull(info)) {
+            log.debug("Metadata cache hit: {}", key);
+            return info;
+        }
+
+        final long generation = generation(key.getId());
+        DMSDocumentInfo loaded = loader.get();
+        if (Objects.isNull(loaded) || generation(key.getId()) != generation) {
+            return loaded;
+        }
+
+        // klíč je registrován před uložením i po něm, vytlačení jiného záznamu téhož klíče mezi registrací a uložením
+        // by jej jinak z indexu odstranilo
+        register(key);
+        if (Objects.nonNull(cache.asMap().putIfAbsent(key, loaded))) {
+            // záznam uložilo jiné načtení, které klíč registrovalo samo
+            unregisterIfAbsent(key);
+            return loaded;
+        }
+        register(key);
+        if (generation(key.getId()) != generation) {
+            cache.asMap().remove(key, loaded);
+        }
+        // záznam mohl být mezitím odstraněn nebo vytlačen, klíč bez záznamu v indexu nezůstane
+        unregisterIfAbsent(key);
+
+        return loaded;
+    }
+
+    /**
+     * Metoda odstraní z cache všechny záznamy (všechny verze a KPJM) dokumentu s daným ID.
+     *
+     * @param id identifikátor dokumentu
+     */
+    public void invalidate(String id) {
+        if (!enabled) {
+            return;
+        }
+
+        generations.incrementAndGet(stripe(id));
+        Set<MetadataCacheKey> keys = keysById.remove(id);
+        if (Objects.nonNull(keys) && !keys.isEmpty()) {
+            cache.invalidateAll(List.copyOf(keys));
+            log.debug("Metadata cache entries invalidated for document {}", id);
+        }
+    }
+
+    private void register(MetadataCacheKey key) {
+        keysById.computeIfAbsent(key.getId(), id -> ConcurrentHashMap.newKeySet()).add(key);
+    }
+
+    /**
+     * Metoda odstraní klíč z indexu, pokud k němu v cache není záznam. Kontrola probíhá atomicky s indexem klíčů
+     * dokumentu, souběžné načtení téhož klíče jej registruje znovu před uložením záznamu.
+     */
+    private void unregisterIfAbsent(MetadataCacheKey key) {
+        keysById.computeIfPresent(key.getId(), (id, keys) -> {
+            if (!cache.asMap().containsKey(key)) {
+                keys.remove(key);
+            }
+            return keys.isEmpty() ? null : keys;
+        });
+    }
+
+    private long generation(String id) {
+        return generations.get(stripe(id));
+    }
+
+    private static int stripe(String id) {
+        return Math.floorMod(Objects.hashCode(id), GENERATION_STRIPES);
+    }
+
+    /**
+     * Metoda odstraní klíč z indexu klíčů podle ID dokumentu, volá se při vytlačení záznamu z cache. Explicitně
+     * odstraněné záznamy odstraní z indexu {@link #invalidate(String)}.
+     */
+    private void unregister(MetadataCacheKey key) {
+        keysById.computeIfPresent(key.getId(), (id, keys) -> {
+            keys.remove(key);
+            return keys.isEmpty() ? null : keys;
+        });
+    }
+
+    private static int weigh(DMSDocumentInfo info) {
+        return CollectionUtils.isEmpty(info.getAttributes()) ? 1 : 1 + info.getAttributes().size();
+    }
+
+    /**
+     * Záznamy konkrétní verze dokumentu nevyprší, záznamy aktuální verze vyprší po nakonfigurované době.
+     */
+    @RequiredArgsConstructor
+    private static final class MetadataExpiry implements Expiry<MetadataCacheKey, DMSDocumentInfo> {
+
+        private final long ttlNanos;
+
+        @Override
+        public long expireAfterCreate(MetadataCacheKey key, DMSDocumentInfo value, long currentTime) {
+            return key.isVersioned() ? Long.MAX_VALUE : ttlNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(MetadataCacheKey key, DMSDocumentInfo value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(MetadataCacheKey key, DMSDocumentInfo value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
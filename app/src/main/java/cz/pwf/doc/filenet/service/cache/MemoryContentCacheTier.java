@@ -0,0 +1,102 @@
+package cz.pwf.filenet.service.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import cz.notix.document.plugin.connector.dto.DMSDocumentData;
+import cz.notix.document.plugin.connector.dto.DMSDocumentInfo;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory cache obsahu dokumentů (úroveň {@code memory}, viz {@link DocumentContentCache}).
+ * <p>
+ * Kapacita je omezena celkovou velikostí obsahu, při jejím překročení jsou odstraňovány nejméně používané záznamy.
+ * Do cache se ukládá pouze obsah do velikosti {@code max-document-size}, větší dokumenty by vytlačily mnoho
+ * menších.
+ */
+@Slf4j
+@Component
+@Order(1)
+@RequiredArgsConstructor
+public class MemoryContentCacheTier implements ContentCacheTier {
+
+    private static final String CACHE_NAME = "filenet.content.memory";
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${filenet.cache.content.memory.enabled:false}")
+    private boolean enabled;
+
+    @Value("${filenet.cache.content.memory.max-bytes:134217728}")
+    private long maxBytes;
+
+    @Value("${filenet.cache.content.memory.max-document-size:10485760}")
+    private long maxDocumentSize;
+
+    @Value("${documentCache.cleanUp.ttl.minutes:1440}")
+    private long ttlMinutes;
+
+    private Cache<ContentCacheKey, DMSDocumentData> cache;
+
+    @PostConstruct
+    void init() {
+        if (!enabled) {
+            return;
+        }
+
+        cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((ContentCacheKey key, DMSDocumentData data) -> data.getData().length)
+                .expireAfterWrite(ttlMinutes, TimeUnit.MINUTES)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    @Override
+    public String getName() {
+        return "memory";
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public Optional<DMSDocumentData> get(ContentCacheKey key) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+
+        return Optional.ofNullable(cache.getIfPresent(key));
+    }
+
+    @Override
+    public void put(ContentCacheKey key, DMSDocumentInfo info, byte[] data) {
+        if (!enabled || Objects.isNull(data) || data.length > maxDocumentSize) {
+            return;
+        }
+
+        cache.put(key, new DMSDocumentData(info, data));
+    }
+
+    @Override
+    public void invalidate(String id) {
+        if (!enabled) {
+            return;
+        }
+
+        cache.asMap().keySet().removeIf(key -> Objects.equals(key.getId(), id));
+    }
+}
@@ -0,0 +1,27 @@
+package cz.pwf.filenet.service.cache;
+
+import lombok.Value;
+import org.springframework.util.StringUtils;
+
+/**
+ * Klíč cache metadat dokumentu. Součástí klíče je i KPJM, pod kterým byla metadata z FileNetu načtena,
+ * aby cache nezpřístupnila dokument uživateli, který k němu nemá oprávnění.
+ */
+@Value
+public class MetadataCacheKey {
+
+    String namespace;
+    String id;
+    /**
+     * Verze dokumentu, {@code null} znamená aktuální verzi.
+     */
+    String version;
+    String kpjm;
+
+    /**
+     * @return Vrací {@code true}, pokud klíč odkazuje na konkrétní (neměnnou) verzi dokumentu.
+     */
+    public boolean isVersioned() {
+        return StringUtils.hasText(version);
+    }
+}
@@ -0,0 +1,83 @@
+package cz.pwf.filenet.service.concurrent;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Slučování souběžných shodných čtecích požadavků do FileNetu (single-flight).
+ * <p>
+ * Pokud pro daný klíč již probíhá požadavek do FileNetu, další volající na jeho výsledek počkají místo toho,
+ * aby odeslali vlastní požadavek. Výsledek (včetně výjimky) je sdílen všemi čekajícími volajícími, vrácený objekt
+ * proto nesmí být volajícími modifikován.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ReadRequestCoalescer {
+
+    private static final String COALESCED_METRIC = "filenet.requests.coalesced";
+
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentMap<ReadRequestKey, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    @Value("${filenet.coalescing.enabled:true}")
+    private boolean enabled;
+
+    /**
+     * Metoda provede požadavek, případně se připojí k již probíhajícímu požadavku se stejným klíčem.
+     *
+     * @param key      klíč požadavku
+     * @param supplier funkce provádějící požadavek do FileNetu
+     * @return Vrací výsledek požadavku.
+     */
+    @SuppressWarnings("unchecked")
+    public <V> V execute(ReadRequestKey key, Supplier<V> supplier) {
+        if (!enabled) {
+            return supplier.get();
+        }
+
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, future);
+        if (Objects.nonNull(existing)) {
+            meterRegistry.counter(COALESCED_METRIC, "operation", key.getOperation()).increment();
+            log.debug("Joining in-flight request {}", key);
+            return (V) join(existing);
+        }
+
+        try {
+            V result = supplier.get();
+            future.complete(result);
+            return result;
+        } catch (Throwable e) {
+            // i výjimky propagované pomocí @SneakyThrows musí ukončit čekání ostatních volajících
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    private static Object join(CompletableFuture<Object> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+}
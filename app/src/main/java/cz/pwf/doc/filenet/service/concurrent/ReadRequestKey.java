@@ -0,0 +1,17 @@
+package cz.pwf.filenet.service.concurrent;
+
+import lombok.Value;
+
+/**
+ * Klíč čtecího požadavku do FileNetu. Dva požadavky se stejným klíčem vrací stejný výsledek, protože sdílí
+ * operaci, dokument, jeho verzi i KPJM, pod kterým je dokument čten.
+ */
+@Value
+public class ReadRequestKey {
+
+    String operation;
+    String namespace;
+    String id;
+    String version;
+    String kpjm;
+}
@@ -0,0 +1,269 @@
+package cz.pwf.filenet.service.content;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedOutputStream;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Base64 kódování (RFC 4648, základní abeceda bez oddělovačů řádků) pracující přímo nad {@link ByteBuffer},
+ * včetně direct bufferů, a nad znaky {@link CharSequence}.
+ * <p>
+ * Na rozdíl od {@link java.util.Base64} nevyžaduje převod obsahu na {@code byte[]} nebo {@link String}: dekódování
+ * řetězce neprovádí jeho kopii do pole bajtů a kódování bufferu do výstupního streamu používá pouze malý pomocný
+ * buffer. Metody {@link #writeBinary(JsonGenerator, ByteBuffer)} a {@link #readBinary(JsonParser, ByteBuffer)}
+ * předávají obsah bufferu binárním API Jacksonu, takže Base64 hodnota JSON atributu nikdy nevznikne jako řetězec.
+ */
+public final class Base64Codec {
+
+    private static final byte[] ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/"
+            .getBytes(StandardCharsets.US_ASCII);
+    private static final int[] SEXTETS = new int[256];
+    private static final byte PADDING = '=';
+
+    /**
+     * Velikost pomocného bufferu pro kódování do streamu, násobek 4 znaků (tj. 3 bajtů obsahu).
+     */
+    private static final int STREAM_CHUNK = 8192;
+
+    static {
+        Arrays.fill(SEXTETS, -1);
+        for (int i = 0; i < ALPHABET.length; i++) {
+            SEXTETS[ALPHABET[i]] = i;
+        }
+    }
+
+    private Base64Codec() {
+    }
+
+    /**
+     * @param length délka obsahu v bajtech
+     * @return Vrací délku Base64 kódovaného obsahu včetně paddingu.
+     */
+    public static long encodedLength(long length) {
+        return 4 * ((length + 2) / 3);
+    }
+
+    /**
+     * Metoda spočítá velikost dekódovaných dat pouze z délky Base64 řetězce a počtu znaků paddingu,
+     * bez nutnosti data dekódovat.
+     *
+     * @param base64 data v Base64 (bez oddělovačů řádků)
+     * @return Vrací velikost dekódovaných dat v bajtech.
+     */
+    public static int decodedLength(CharSequence base64) {
+        int length = base64.length();
+        int padding = 0;
+        while (padding < 2 && padding < length && base64.charAt(length - 1 - padding) == PADDING) {
+            padding++;
+        }
+
+        return decodedLength(length, padding);
+    }
+
+    /**
+     * Metoda zakóduje obsah bufferu {@code src} (od pozice po limit) do bufferu {@code dst}. Pozice obou bufferů
+     * jsou posunuty o zpracované bajty.
+     *
+     * @return Vrací počet zapsaných znaků.
+     * @throws BufferOverflowException pokud v {@code dst} nezbývá místo pro celý kódovaný obsah
+     */
+    public static int encode(ByteBuffer src, ByteBuffer dst) {
+        long encodedLength = encodedLength(src.remaining());
+        if (dst.remaining() < encodedLength) {
+            throw new BufferOverflowException();
+        }
+
+        if (src.hasArray() && dst.hasArray()) {
+            int written = encode(src.array(), src.arrayOffset() + src.position(), src.remaining(),
+                    dst.array(), dst.arrayOffset() + dst.position());
+            src.position(src.limit());
+            dst.position(dst.position() + written);
+            return written;
+        }
+
+        while (src.remaining() >= 3) {
+            int bits = (src.get() & 0xff) << 16 | (src.get() & 0xff) << 8 | (src.get() & 0xff);
+            dst.put(ALPHABET[bits >>> 18 & 0x3f])
+                    .put(ALPHABET[bits >>> 12 & 0x3f])
+                    .put(ALPHABET[bits >>> 6 & 0x3f])
+                    .put(ALPHABET[bits & 0x3f]);
+        }
+        if (src.hasRemaining()) {
+            boolean twoBytes = src.remaining() == 2;
+            int bits = (src.get() & 0xff) << 16 | (twoBytes ? (src.get() & 0xff) << 8 : 0);
+            dst.put(ALPHABET[bits >>> 18 & 0x3f]).put(ALPHABET[bits >>> 12 & 0x3f]);
+            dst.put(twoBytes ? ALPHABET[bits >>> 6 & 0x3f] : PADDING).put(PADDING);
+        }
+
+        return (int) encodedLength;
+    }
+
+    /**
+     * Metoda průběžně zakóduje obsah bufferu {@code src} (od pozice po limit) do výstupního streamu. Pozice bufferu
+     * není změněna, stream není uzavřen.
+     */
+    public static void encode(ByteBuffer src, OutputStream outputStream) throws IOException {
+        ByteBuffer remaining = src.duplicate();
+        byte[] chunk = new byte[STREAM_CHUNK];
+        ByteBuffer chunkBuffer = ByteBuffer.wrap(chunk);
+        int chunkInput = STREAM_CHUNK / 4 * 3;
+
+        while (remaining.hasRemaining()) {
+            ByteBuffer part = remaining.slice();
+            part.limit(Math.min(part.limit(), chunkInput));
+            remaining.position(remaining.position() + part.remaining());
+
+            chunkBuffer.clear();
+            int written = encode(part, chunkBuffer);
+            outputStream.write(chunk, 0, written);
+        }
+    }
+
+    /**
+     * Metoda dekóduje Base64 řetězec přímo do pole odpovídající velikosti, bez mezikopie řetězce do pole bajtů.
+     *
+     * @param base64 data v Base64 (bez oddělovačů řádků)
+     * @return Vrací dekódovaná data.
+     * @throws IllegalArgumentException pokud řetězec není platný Base64
+     */
+    public static byte[] decode(CharSequence base64) {
+        int length = base64.length();
+        int padding = 0;
+        while (padding < 2 && padding < length && base64.charAt(length - 1 - padding) == PADDING) {
+            padding++;
+        }
+
+        int end = length - padding;
+        byte[] data = new byte[decodedLength(length, padding)];
+        int position = 0;
+        int i = 0;
+        for (; i + 4 <= end; i += 4) {
+            int bits = sextet(base64.charAt(i)) << 18 | sextet(base64.charAt(i + 1)) << 12
+                    | sextet(base64.charAt(i + 2)) << 6 | sextet(base64.charAt(i + 3));
+            data[position++] = (byte) (bits >> 16);
+            data[position++] = (byte) (bits >> 8);
+            data[position++] = (byte) bits;
+        }
+        if (i < end) {
+            int bits = sextet(base64.charAt(i)) << 18 | sextet(base64.charAt(i + 1)) << 12
+                    | (end - i == 3 ? sextet(base64.charAt(i + 2)) << 6 : 0);
+            data[position++] = (byte) (bits >> 16);
+            if (end - i == 3) {
+                data[position] = (byte) (bits >> 8);
+            }
+        }
+
+        return data;
+    }
+
+    /**
+     * Metoda dekóduje Base64 obsah bufferu {@code src} (od pozice po limit) do bufferu {@code dst}. Pozice obou
+     * bufferů jsou posunuty o zpracované bajty.
+     *
+     * @return Vrací počet zapsaných bajtů.
+     * @throws IllegalArgumentException pokud obsah není platný Base64
+     * @throws BufferOverflowException  pokud v {@code dst} nezbývá místo pro celý dekódovaný obsah
+     */
+    public static int decode(ByteBuffer src, ByteBuffer dst) {
+        int start = src.position();
+        int length = src.remaining();
+        int padding = 0;
+        while (padding < 2 && padding < length && src.get(src.limit() - 1 - padding) == PADDING) {
+            padding++;
+        }
+
+        int end = start + length - padding;
+        int decodedLength = decodedLength(length, padding);
+        if (dst.remaining() < decodedLength) {
+            throw new BufferOverflowException();
+        }
+
+        int i = start;
+        for (; i + 4 <= end; i += 4) {
+            int bits = sextet(src.get(i)) << 18 | sextet(src.get(i + 1)) << 12
+                    | sextet(src.get(i + 2)) << 6 | sextet(src.get(i + 3));
+            dst.put((byte) (bits >> 16)).put((byte) (bits >> 8)).put((byte) bits);
+        }
+        if (i < end) {
+            int bits = sextet(src.get(i)) << 18 | sextet(src.get(i + 1)) << 12
+                    | (end - i == 3 ? sextet(src.get(i + 2)) << 6 : 0);
+            dst.put((byte) (bits >> 16));
+            if (end - i == 3) {
+                dst.put((byte) (bits >> 8));
+            }
+        }
+        src.position(src.limit());
+
+        return decodedLength;
+    }
+
+    /**
+     * Metoda zapíše obsah bufferu (od pozice po limit) jako Base64 hodnotu JSON atributu. Obsah je kódován
+     * průběžně generátorem, pozice bufferu není změněna.
+     */
+    public static void writeBinary(JsonGenerator generator, ByteBuffer data) throws IOException {
+        generator.writeBinary(new ByteBufferBackedInputStream(data.duplicate()), data.remaining());
+    }
+
+    /**
+     * Metoda dekóduje aktuální Base64 hodnotu JSON parseru přímo do bufferu {@code dst}, hodnota není načtena
+     * jako řetězec ani jako pole bajtů.
+     *
+     * @return Vrací počet zapsaných bajtů.
+     * @throws BufferOverflowException pokud v {@code dst} nezbývá místo pro celý dekódovaný obsah
+     */
+    public static int readBinary(JsonParser parser, ByteBuffer dst) throws IOException {
+        return parser.readBinaryValue(new ByteBufferBackedOutputStream(dst));
+    }
+
+    private static int encode(byte[] src, int offset, int length, byte[] dst, int dstOffset) {
+        int end = offset + length;
+        int position = dstOffset;
+        int i = offset;
+        for (; i + 3 <= end; i += 3) {
+            int bits = (src[i] & 0xff) << 16 | (src[i + 1] & 0xff) << 8 | (src[i + 2] & 0xff);
+            dst[position++] = ALPHABET[bits >>> 18 & 0x3f];
+            dst[position++] = ALPHABET[bits >>> 12 & 0x3f];
+            dst[position++] = ALPHABET[bits >>> 6 & 0x3f];
+            dst[position++] = ALPHABET[bits & 0x3f];
+        }
+        if (i < end) {
+            int bits = (src[i] & 0xff) << 16 | (end - i == 2 ? (src[i + 1] & 0xff) << 8 : 0);
+            dst[position++] = ALPHABET[bits >>> 18 & 0x3f];
+            dst[position++] = ALPHABET[bits >>> 12 & 0x3f];
+            dst[position++] = end - i == 2 ? ALPHABET[bits >>> 6 & 0x3f] : PADDING;
+            dst[position++] = PADDING;
+        }
+
+        return position - dstOffset;
+    }
+
+    /**
+     * Padding je nepovinný, pokud je uveden, musí doplnit obsah na násobek 4 znaků.
+     */
+    private static int decodedLength(int length, int padding) {
+        int unpaddedLength = length - padding;
+        if (unpaddedLength % 4 == 1 || (padding > 0 && (length % 4 != 0 || unpaddedLength % 4 == 0))) {
+            throw new IllegalArgumentException("Invalid Base64 length: " + length);
+        }
+
+        return (int) ((long) unpaddedLength * 3 / 4);
+    }
+
+    private static int sextet(int c) {
+        int sextet = c >= 0 && c < SEXTETS.length ? SEXTETS[c & 0xff] : -1;
+        if (sextet < 0) {
+            throw new IllegalArgumentException("Illegal Base64 character: " + Integer.toHexString(c & 0xffff));
+        }
+
+        return sextet;
+    }
+}
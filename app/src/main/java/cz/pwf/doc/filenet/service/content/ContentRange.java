@@ -0,0 +1,73 @@
+package cz.pwf.filenet.service.content;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.util.StringUtils;
+
+/**
+ * Hodnota hlavičky {@code Content-Range} odpovědi FileNetu ve tvaru {@code bytes first-last/total}, případně
+ * {@code bytes first-last/*} nebo {@code bytes *&#47;total}. Neznámé hodnoty jsou {@code -1}.
+ */
+@Getter
+@RequiredArgsConstructor
+public final class ContentRange {
+
+    private static final String BYTES_PREFIX = "bytes ";
+
+    private final long offset;
+    private final long length;
+    private final long totalLength;
+
+    /**
+     * @param value         hodnota hlavičky, případně {@code null}
+     * @param defaultOffset pozice části, pokud ji hlavička neuvádí
+     * @param defaultLength délka části, pokud ji hlavička neuvádí
+     * @return Vrací rozsah části obsahu podle hlavičky.
+     * @throws InvalidContentRangeException pokud hlavička nemá platný tvar
+     */
+    public static ContentRange parse(String value, long defaultOffset, long defaultLength) {
+        if (!StringUtils.hasText(value)) {
+            return new ContentRange(defaultOffset, defaultLength, -1);
+        }
+        if (!value.startsWith(BYTES_PREFIX)) {
+            throw new InvalidContentRangeException(value);
+        }
+
+        String[] rangeAndTotal = value.substring(BYTES_PREFIX.length()).trim().split("/", -1);
+        if (rangeAndTotal.length != 2) {
+            throw new InvalidContentRangeException(value);
+        }
+
+        String total = rangeAndTotal[1].trim();
+        long totalLength = "*".equals(total) ? -1 : parseBound(total, value);
+        String range = rangeAndTotal[0].trim();
+        if ("*".equals(range)) {
+            return new ContentRange(defaultOffset, defaultLength, totalLength);
+        }
+
+        String[] bounds = range.split("-", -1);
+        if (bounds.length != 2) {
+            throw new InvalidContentRangeException(value);
+        }
+
+        long first = parseBound(bounds[0].trim(), value);
+        long last = parseBound(bounds[1].trim(), value);
+        if (last < first || (totalLength >= 0 && last >= totalLength)) {
+            throw new InvalidContentRangeException(value);
+        }
+
+        return new ContentRange(first, last - first + 1, totalLength);
+    }
+
+    private static long parseBound(String bound, String value) {
+        try {
+            long parsed = Long.parseLong(bound);
+            if (parsed < 0) {
+                throw new InvalidContentRangeException(value);
+            }
+            return parsed;
+        } catch (NumberFormatException e) {
+            throw new InvalidContentRangeException(value);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package cz.pwf.filenet.service.content;
+
+import lombok.Getter;
+
+/**
+ * Výjimka v případě, že požadovaná část obsahu dokumentu leží mimo jeho obsah.
+ */
+@Getter
+public class DocumentRangeNotSatisfiableException extends RuntimeException {
+
+    private final long totalLength;
+
+    public DocumentRangeNotSatisfiableException(long offset, long totalLength) {
+        super("Range offset " + offset + " is beyond the document length " + totalLength);
+        this.totalLength = totalLength;
+    }
+}
@@ -0,0 +1,92 @@
+package cz.pwf.filenet.service.content;
+
+import cz.pwf.filenet.service.ecm.EcmHeaders;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRange;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * REST klient endpointu FileNetu, který vrací binární obsah dokumentu ({@code application/octet-stream})
+ * a podporuje čtení části obsahu pomocí hlavičky {@code Range}.
+ * <p>
+ * Endpoint není součástí generovaného klienta {@code EcmApi} a jeho dostupnost závisí na verzi FileNet REST API,
+ * proto je jeho použití nutné povolit ({@code filenet.range.upstream.enabled}). Odpověď není bufferována,
+ * obsah je čten přímo ze spojení až do uzavření vráceného streamu.
+ */
+@Component
+@RequiredArgsConstructor
+public class EcmDocumentContentClient {
+
+    private final RestTemplate restTemplate;
+    private final EcmHeaders ecmHeaders;
+
+    @Value("${filenet.range.upstream.enabled:false}")
+    private boolean enabled;
+
+    @Value("${filenet.range.upstream.path:/document/{id}/content}")
+    private String path;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Metoda požádá FileNet o část obsahu dokumentu. FileNet může hlavičku {@code Range} ignorovat a vrátit
+     * celý obsah se stavem 200, volající musí stav odpovědi zkontrolovat. Délka {@link Long#MAX_VALUE}, případně
+     * jiná délka přesahující rozsah {@code long}, znamená část od {@code offset} do konce obsahu.
+     *
+     * @return Vrací odpověď se stavem 206 (část obsahu) nebo 200 (celý obsah), tělem je neuzavřený stream obsahu.
+     */
+    public ResponseEntity<InputStream> getRange(String kpjm, String requestId, String namespace, String id,
+                                                String version, long offset, long length) throws IOException {
+        URI uri = ecmHeaders.uri(path)
+                .queryParam("namespace", namespace)
+                .queryParamIfPresent("version", Optional.ofNullable(version))
+                .buildAndExpand(Map.of("id", id))
+                .encode()
+                .toUri();
+
+        ClientHttpRequest request = restTemplate.getRequestFactory().createRequest(uri, HttpMethod.GET);
+        request.getHeaders().addAll(ecmHeaders.create(kpjm, requestId));
+        request.getHeaders().setAccept(List.of(MediaType.APPLICATION_OCTET_STREAM));
+        request.getHeaders().setRange(List.of(length >= Long.MAX_VALUE - offset
+                ? HttpRange.createByteRange(offset)
+                : HttpRange.createByteRange(offset, offset + length - 1)));
+
+        ClientHttpResponse response = request.execute();
+        try {
+            if (restTemplate.getErrorHandler().hasError(response)) {
+                restTemplate.getErrorHandler().handleError(uri, HttpMethod.GET, response);
+            }
+
+            InputStream body = new FilterInputStream(response.getBody()) {
+                @Override
+                public void close() {
+                    response.close();
+                }
+            };
+            HttpHeaders headers = response.getHeaders();
+
+            return ResponseEntity.status(response.getRawStatusCode()).headers(headers).body(body);
+        } catch (IOException | RuntimeException e) {
+            response.close();
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package cz.pwf.filenet.service.content;
+
+/**
+ * Výjimka v případě, že FileNet vrátil část obsahu dokumentu s neplatnou hlavičkou {@code Content-Range}.
+ */
+public class InvalidContentRangeException extends RuntimeException {
+
+    public InvalidContentRangeException(String contentRange) {
+        super("FileNet returned an invalid Content-Range header: " + contentRange);
+    }
+}
@@ -0,0 +1,76 @@
+package cz.pwf.filenet.service.content;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Stream, který z podkladového streamu přeskočí prvních {@code offset} bajtů a poté čte nejvýše
+ * {@code length} bajtů. Uzavření streamu uzavře i podkladový stream.
+ */
+public final class RangeInputStream extends FilterInputStream {
+
+    private long toSkip;
+    private long remaining;
+
+    public RangeInputStream(InputStream in, long offset, long length) {
+        super(in);
+        this.toSkip = offset;
+        this.remaining = length;
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] b = new byte[1];
+        return read(b, 0, 1) == -1 ? -1 : b[0] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        skipOffset();
+        if (remaining <= 0) {
+            return -1;
+        }
+
+        int read = in.read(b, off, (int) Math.min(len, remaining));
+        if (read > 0) {
+            remaining -= read;
+        }
+
+        return read;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        skipOffset();
+        long skipped = in.skip(Math.min(n, remaining));
+        remaining -= skipped;
+
+        return skipped;
+    }
+
+    @Override
+    public int available() throws IOException {
+        return toSkip > 0 ? 0 : (int) Math.min(in.available(), remaining);
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    private void skipOffset() throws IOException {
+        while (toSkip > 0) {
+            long skipped = in.skip(toSkip);
+            if (skipped <= 0) {
+                if (in.read() == -1) {
+                    toSkip = 0;
+                    remaining = 0;
+                    return;
+                }
+                skipped = 1;
+            }
+            toSkip -= skipped;
+        }
+    }
+}
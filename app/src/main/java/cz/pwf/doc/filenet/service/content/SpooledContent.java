@@ -0,0 +1,218 @@
+package cz.pwf.filenet.service.content;
+
+import cz.pwf.filenet.service.buffer.BufferPool;
+import cz.pwf.filenet.service.buffer.BufferPoolExhaustedException;
+import cz.pwf.filenet.service.buffer.PooledBuffer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Binární obsah dokumentu, který je do velikosti {@code memoryThreshold} držen v paměti a po jejím překročení
+ * je odložen do dočasného souboru. Obsah se do instance zapisuje jako do {@link OutputStream}, po jeho zpracování
+ * musí konzument zavolat {@link #close()}, které smaže dočasný soubor.
+ * <p>
+ * Pokud je zapnutý {@link BufferPool}, je obsah v paměti držen v segmentech poolu mimo heap a místo
+ * {@code memoryThreshold} je do souboru odložen až obsah větší než {@link BufferPool#getMaxContentSize()}. Velké
+ * dokumenty tak zůstávají mimo heap i při čtení pomocí {@link #openStream()}. Pokud pool nemá volné segmenty, je
+ * obsah odložen do dočasného souboru i pod touto hranicí.
+ */
+@Slf4j
+public final class SpooledContent extends OutputStream {
+
+    private static final int INITIAL_BUFFER_SIZE = 8192;
+    private static final String TEMP_FILE_PREFIX = "filenet-content-";
+
+    private final long memoryThreshold;
+    private final Path tempDirectory;
+    private final BufferPool bufferPool;
+
+    private byte[] buffer = new byte[0];
+    private PooledBuffer pooledBuffer;
+    private long size;
+    private Path file;
+    private OutputStream fileStream;
+    private boolean writeFinished;
+
+    /**
+     * @param memoryThreshold maximální velikost obsahu v bajtech, který je držen v paměti
+     * @param tempDirectory   adresář pro dočasné soubory, {@code null} znamená výchozí adresář JVM
+     */
+    public SpooledContent(int memoryThreshold, Path tempDirectory) {
+        this(memoryThreshold, tempDirectory, null);
+    }
+
+    /**
+     * @param memoryThreshold maximální velikost obsahu v bajtech, který je držen v paměti
+     * @param tempDirectory   adresář pro dočasné soubory, {@code null} znamená výchozí adresář JVM
+     * @param bufferPool      pool pro obsah držený v paměti, {@code null} nebo vypnutý pool znamená heap a hranici
+     *                        {@code memoryThreshold}
+     */
+    public SpooledContent(int memoryThreshold, Path tempDirectory, BufferPool bufferPool) {
+        this.tempDirectory = tempDirectory;
+        this.bufferPool = Objects.nonNull(bufferPool) && bufferPool.isEnabled() ? bufferPool : null;
+        this.memoryThreshold = Objects.nonNull(this.bufferPool) ? this.bufferPool.getMaxContentSize() : memoryThreshold;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        Objects.checkFromIndexSize(off, len, b.length);
+        if (writeFinished) {
+            throw new IOException("Content has already been written");
+        }
+
+        if (Objects.isNull(fileStream) && size + len > memoryThreshold) {
+            spillToFile();
+        }
+
+        if (Objects.isNull(fileStream) && Objects.nonNull(bufferPool)) {
+            writePooled(b, off, len);
+        } else if (Objects.nonNull(fileStream)) {
+            fileStream.write(b, off, len);
+        } else {
+            ensureCapacity((int) size + len);
+            System.arraycopy(b, off, buffer, (int) size, len);
+        }
+        size += len;
+    }
+
+    /**
+     * Metoda ukončí zápis obsahu. Obsah je poté možné číst pomocí {@link #toByteArray()} nebo {@link #openStream()}.
+     */
+    public void finishWrite() throws IOException {
+        if (!writeFinished) {
+            writeFinished = true;
+            if (Objects.nonNull(fileStream)) {
+                fileStream.close();
+            }
+        }
+    }
+
+    /**
+     * @return Vrací počet zapsaných bajtů.
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * @return Vrací {@code true}, pokud byl obsah odložen do dočasného souboru.
+     */
+    public boolean isSpilled() {
+        return Objects.nonNull(file);
+    }
+
+    /**
+     * Metoda vrací obsah jako pole přesně odpovídající velikosti obsahu (bez dalších kopií rostoucích bufferů).
+     *
+     * @return Vrací binární obsah dokumentu.
+     */
+    public byte[] toByteArray() throws IOException {
+        finishWrite();
+        if (size > Integer.MAX_VALUE - 8) {
+            throw new IOException("Content of size " + size + " bytes can not be stored in a byte array");
+        }
+
+        if (Objects.nonNull(file)) {
+            return Files.readAllBytes(file);
+        }
+        if (Objects.nonNull(pooledBuffer)) {
+            return pooledBuffer.toByteArray();
+        }
+
+        return buffer.length == size ? buffer : Arrays.copyOf(buffer, (int) size);
+    }
+
+    /**
+     * @return Vrací stream pro čtení obsahu.
+     */
+    public InputStream openStream() throws IOException {
+        finishWrite();
+        if (Objects.nonNull(file)) {
+            return Files.newInputStream(file);
+        }
+        if (Objects.nonNull(pooledBuffer)) {
+            return pooledBuffer.openStream();
+        }
+
+        return new ByteArrayInputStream(buffer, 0, (int) size);
+    }
+
+    /**
+     * Metoda uvolní buffer a smaže dočasný soubor, pokud byl vytvořen. Segmenty poolu jsou uvolněny až po uzavření
+     * všech streamů vrácených {@link #openStream()}.
+     */
+    @Override
+    public void close() {
+        try {
+            finishWrite();
+        } catch (IOException e) {
+            log.warn("Unable to close temporary content file {}", file, e);
+        }
+
+        buffer = new byte[0];
+        releasePooledBuffer();
+        if (Objects.nonNull(file)) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                log.warn("Unable to delete temporary content file {}", file, e);
+            }
+        }
+    }
+
+    private void ensureCapacity(int minCapacity) {
+        if (minCapacity > buffer.length) {
+            int newCapacity = Math.max(INITIAL_BUFFER_SIZE, buffer.length << 1);
+            buffer = Arrays.copyOf(buffer, (int) Math.min(Math.max(newCapacity, minCapacity), memoryThreshold));
+        }
+    }
+
+    private void writePooled(byte[] b, int off, int len) throws IOException {
+        if (Objects.isNull(pooledBuffer)) {
+            pooledBuffer = bufferPool.allocate();
+        }
+
+        try {
+            pooledBuffer.write(b, off, len);
+        } catch (BufferPoolExhaustedException e) {
+            log.debug("Buffer pool exhausted, spilling content of {} bytes to a temporary file", size + len);
+            spillToFile();
+            fileStream.write(b, off, len);
+        }
+    }
+
+    private void releasePooledBuffer() {
+        if (Objects.nonNull(pooledBuffer)) {
+            pooledBuffer.release();
+            pooledBuffer = null;
+        }
+    }
+
+    private void spillToFile() throws IOException {
+        file = Objects.isNull(tempDirectory)
+                ? Files.createTempFile(TEMP_FILE_PREFIX, ".tmp")
+                : Files.createTempFile(tempDirectory, TEMP_FILE_PREFIX, ".tmp");
+        fileStream = Files.newOutputStream(file);
+        if (Objects.nonNull(pooledBuffer)) {
+            pooledBuffer.writeTo(fileStream);
+            releasePooledBuffer();
+        } else {
+            fileStream.write(buffer, 0, (int) size);
+        }
+        buffer = new byte[0];
+        log.debug("Content exceeded {} bytes, spilled to temporary file {}", memoryThreshold, file);
+    }
+}
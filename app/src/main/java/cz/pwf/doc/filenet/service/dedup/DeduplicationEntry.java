@@ -0,0 +1,17 @@
+package cz.pwf.filenet.service.dedup;
+
+import lombok.Value;
+
+/**
+ * Záznam indexu deduplikace, tj. dokument ve FileNetu, pod kterým je uložen obsah s daným klíčem.
+ */
+@Value
+public class DeduplicationEntry {
+
+    String id;
+    String version;
+    /**
+     * Velikost obsahu dokumentu v bajtech.
+     */
+    long size;
+}
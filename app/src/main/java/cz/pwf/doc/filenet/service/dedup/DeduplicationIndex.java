@@ -0,0 +1,370 @@
+package cz.pwf.filenet.service.dedup;
+
+import cz.notix.document.plugin.connector.dto.DMSDocumentNew;
+import cz.notix.document.plugin.connector.dto.DmsAttribute;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Index deduplikace nově ukládaných dokumentů. Pro obsah a metadata dokumentu ({@link DeduplicationKey}) uchovává
+ * dokument ve FileNetu, pod kterým již byl stejný dokument uložen.
+ * <p>
+ * Index je držen v paměti a jeho změny jsou zapisovány do souboru (journal), ze kterého je index při startu obnoven.
+ * Po překročení {@code max-entries} jsou odstraňovány nejdéle nepoužité záznamy (LRU), pořadí použití se však mezi
+ * restarty neuchovává. Journal je přepsán aktuálním obsahem indexu, jakmile počet zápisů výrazně převýší počet
+ * záznamů. Protože dokument mohl být ve FileNetu mezitím smazán, musí volající záznam před použitím ověřit.
+ * <p>
+ * Záznamy jsou omezeny na instanci procesu, která dokument uložila (viz {@link DeduplicationKey#getScope()}), jiný
+ * proces tak nikdy nedostane ID dokumentu, který sám neuložil. Journal musí ležet v adresáři, který přežije restart
+ * aplikace ({@code filenet.dedup.file}), jeho umístění je proto při zapnuté deduplikaci povinné.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DeduplicationIndex {
+
+    private static final String METRIC_PREFIX = "filenet.dedup";
+    private static final String PUT = "P";
+    private static final String REMOVE = "R";
+    private static final String SEPARATOR = "\t";
+    private static final int MIN_COMPACTION_RECORDS = 1000;
+
+    private static final Comparator<DmsAttribute> ATTRIBUTE_ORDER = Comparator
+            .comparing((DmsAttribute attribute) -> lowerCase(attribute.getName()), Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(DmsAttribute::getValue, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${filenet.dedup.enabled:false}")
+    private boolean enabled;
+
+    @Value("${filenet.dedup.file:}")
+    private String fileName;
+
+    @Value("${filenet.dedup.max-entries:100000}")
+    private int maxEntries;
+
+    private final Map<DeduplicationKey, DeduplicationEntry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private Path file;
+    private Writer journal;
+    private long journalRecords;
+
+    private Counter hitCounter;
+    private Counter missCounter;
+    private Counter staleCounter;
+    private Counter evictionCounter;
+    private Counter savedBytesCounter;
+
+    @PostConstruct
+    void init() throws IOException {
+        if (!enabled) {
+            return;
+        }
+
+        if (!StringUtils.hasText(fileName)) {
+            throw new IllegalStateException("Deduplication index file (filenet.dedup.file) must be set when "
+                    + "deduplication is enabled");
+        }
+
+        file = Path.of(fileName).toAbsolutePath();
+        Files.createDirectories(file.getParent());
+        if (Files.exists(file)) {
+            load();
+        }
+        compact();
+
+        hitCounter = meterRegistry.counter(METRIC_PREFIX + ".lookups", "result", "hit");
+        missCounter = meterRegistry.counter(METRIC_PREFIX + ".lookups", "result", "miss");
+        staleCounter = meterRegistry.counter(METRIC_PREFIX + ".lookups", "result", "stale");
+        evictionCounter = meterRegistry.counter(METRIC_PREFIX + ".evictions");
+        savedBytesCounter = Counter.builder(METRIC_PREFIX + ".saved")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".entries", this, DeduplicationIndex::size)
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    synchronized void close() throws IOException {
+        if (Objects.nonNull(journal)) {
+            journal.close();
+            journal = null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Metoda vypočítá klíč indexu pro nový dokument.
+     *
+     * @param namespace namespace, do kterého je dokument ukládán
+     * @param scope     klíč instance procesu, která dokument ukládá
+     * @param doc       nový dokument
+     * @return Vrací klíč indexu.
+     */
+    public static DeduplicationKey key(String namespace, String scope, DMSDocumentNew doc) {
+        MessageDigest digest = sha256();
+        String hash = encode(digest.digest(Objects.isNull(doc.bytes) ? new byte[0] : doc.bytes));
+
+        update(digest, doc.filename);
+        update(digest, doc.mimeType);
+        if (Objects.nonNull(doc.metadata)) {
+            // pořadí atributů ani velikost písmen v jejich názvech nejsou pro FileNet podstatné
+            List<DmsAttribute> attributes = new ArrayList<>(doc.metadata);
+            attributes.sort(ATTRIBUTE_ORDER);
+            for (DmsAttribute attribute : attributes) {
+                update(digest, lowerCase(attribute.getName()));
+                update(digest, attribute.getValue());
+                update(digest, Objects.isNull(attribute.getType()) ? null : attribute.getType().name());
+            }
+        }
+
+        return new DeduplicationKey(hash, namespace, scope, encode(digest.digest()));
+    }
+
+    /**
+     * Metoda vyhledá v indexu dokument se stejným obsahem a metadaty.
+     *
+     * @param key klíč indexu
+     * @return Vrací dokument ve FileNetu, případně prázdný {@link Optional}, pokud takový dokument není v indexu.
+     */
+    public synchronized Optional<DeduplicationEntry> find(DeduplicationKey key) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+
+        DeduplicationEntry entry = entries.get(key);
+        if (Objects.isNull(entry)) {
+            missCounter.increment();
+        }
+        return Optional.ofNullable(entry);
+    }
+
+    /**
+     * Metoda zaznamená použití existujícího dokumentu místo nového uložení obsahu.
+     *
+     * @param entry použitý záznam indexu
+     */
+    public void hit(DeduplicationEntry entry) {
+        hitCounter.increment();
+        savedBytesCounter.increment(entry.getSize());
+    }
+
+    /**
+     * Metoda odstraní z indexu záznam, jehož dokument ve FileNetu již neexistuje nebo neodpovídá záznamu.
+     *
+     * @param key klíč indexu
+     */
+    public synchronized void stale(DeduplicationKey key) {
+        staleCounter.increment();
+        if (Objects.nonNull(entries.remove(key))) {
+            appendRemove(key);
+        }
+    }
+
+    /**
+     * Metoda uloží do indexu nově uložený dokument.
+     *
+     * @param key   klíč indexu
+     * @param entry dokument ve FileNetu
+     */
+    public synchronized void put(DeduplicationKey key, DeduplicationEntry entry) {
+        if (!enabled) {
+            return;
+        }
+        if (Objects.isNull(key.getNamespace()) || Objects.isNull(key.getScope()) || Objects.isNull(entry.getId())
+                || !isStorable(key.getNamespace()) || !isStorable(key.getScope()) || !isStorable(entry.getId())
+                || !isStorable(entry.getVersion())) {
+            log.debug("Document {} cannot be stored to the deduplication index", entry);
+            return;
+        }
+
+        entries.put(key, entry);
+        appendPut(key, entry);
+
+        Iterator<Map.Entry<DeduplicationKey, DeduplicationEntry>> iterator = entries.entrySet().iterator();
+        while (entries.size() > maxEntries && iterator.hasNext()) {
+            DeduplicationKey eldest = iterator.next().getKey();
+            iterator.remove();
+            evictionCounter.increment();
+            appendRemove(eldest);
+        }
+
+        if (journalRecords > 2L * entries.size() + MIN_COMPACTION_RECORDS) {
+            try {
+                compact();
+            } catch (IOException e) {
+                log.warn("Unable to compact deduplication index {}", file, e);
+            }
+        }
+    }
+
+    /**
+     * Metoda odstraní z indexu všechny verze dokumentu s daným ID.
+     *
+     * @param id identifikátor dokumentu
+     */
+    public synchronized void invalidate(String id) {
+        if (!enabled) {
+            return;
+        }
+
+        Iterator<Map.Entry<DeduplicationKey, DeduplicationEntry>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<DeduplicationKey, DeduplicationEntry> e = iterator.next();
+            if (Objects.equals(e.getValue().getId(), id)) {
+                iterator.remove();
+                appendRemove(e.getKey());
+            }
+        }
+    }
+
+    private void load() throws IOException {
+        int invalid = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split(SEPARATOR, -1);
+                if (PUT.equals(fields[0]) && fields.length == 8) {
+                    try {
+                        entries.put(new DeduplicationKey(fields[1], fields[2], fields[3], fields[4]),
+                                new DeduplicationEntry(fields[5], fields[6].isEmpty() ? null : fields[6],
+                                        Long.parseLong(fields[7])));
+                    } catch (NumberFormatException e) {
+                        invalid++;
+                    }
+                } else if (REMOVE.equals(fields[0]) && fields.length == 5) {
+                    entries.remove(new DeduplicationKey(fields[1], fields[2], fields[3], fields[4]));
+                } else {
+                    // neúplný poslední záznam po pádu aplikace nebo záznam bez instance procesu z dřívější verze
+                    invalid++;
+                }
+            }
+        }
+
+        Iterator<DeduplicationKey> iterator = entries.keySet().iterator();
+        while (entries.size() > maxEntries && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+        if (invalid > 0) {
+            log.warn("Skipped {} invalid records of deduplication index {}", invalid, file);
+        }
+        log.info("Loaded {} entries of deduplication index {}", entries.size(), file);
+    }
+
+    /**
+     * Metoda přepíše journal aktuálním obsahem indexu. Záznamy jsou zapsány od nejdéle nepoužitého.
+     */
+    private void compact() throws IOException {
+        close();
+
+        Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+        try (Writer writer = Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8)) {
+            for (Map.Entry<DeduplicationKey, DeduplicationEntry> e : entries.entrySet()) {
+                writer.write(putRecord(e.getKey(), e.getValue()));
+                writer.write('\n');
+            }
+        }
+        Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        journal = Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+        journalRecords = entries.size();
+    }
+
+    private static String putRecord(DeduplicationKey key, DeduplicationEntry entry) {
+        return String.join(SEPARATOR, PUT, key.getHash(), key.getNamespace(), key.getScope(), key.getFingerprint(),
+                entry.getId(), Objects.toString(entry.getVersion(), ""), String.valueOf(entry.getSize()));
+    }
+
+    private void appendPut(DeduplicationKey key, DeduplicationEntry entry) {
+        append(putRecord(key, entry));
+    }
+
+    private void appendRemove(DeduplicationKey key) {
+        append(String.join(SEPARATOR, REMOVE, key.getHash(), key.getNamespace(), key.getScope(), key.getFingerprint()));
+    }
+
+    private void append(String record) {
+        if (Objects.isNull(journal)) {
+            return;
+        }
+
+        try {
+            journal.write(record);
+            journal.write('\n');
+            journal.flush();
+            journalRecords++;
+        } catch (IOException e) {
+            // index v paměti zůstává funkční, změna se pouze neprojeví po restartu
+            log.warn("Unable to write to deduplication index {}", file, e);
+        }
+    }
+
+    private static boolean isStorable(String value) {
+        return Objects.isNull(value) || (value.indexOf('\t') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0);
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        if (Objects.isNull(value)) {
+            digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(-1).flip());
+            return;
+        }
+
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(bytes.length).flip());
+        digest.update(bytes);
+    }
+
+    private static String lowerCase(String value) {
+        return Objects.isNull(value) ? null : value.toLowerCase(Locale.ROOT);
+    }
+
+    private static String encode(byte[] hash) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported", e);
+        }
+    }
+}
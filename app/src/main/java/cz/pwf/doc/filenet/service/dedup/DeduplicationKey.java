@@ -0,0 +1,26 @@
+package cz.pwf.filenet.service.dedup;
+
+import lombok.Value;
+
+/**
+ * Klíč indexu deduplikace. Dokument je považován za shodný, pokud má stejný obsah ({@code hash}), je ukládán
+ * do stejného namespace v rámci stejné instance procesu ({@code scope}) a má stejný název souboru, MIME typ
+ * a metadata ({@code fingerprint}).
+ */
+@Value
+public class DeduplicationKey {
+
+    /**
+     * SHA-256 obsahu dokumentu.
+     */
+    String hash;
+    String namespace;
+    /**
+     * Klíč instance procesu, který dokument ukládá. Dokument uložený jiným procesem se nepoužije.
+     */
+    String scope;
+    /**
+     * SHA-256 názvu souboru, MIME typu a metadat dokumentu.
+     */
+    String fingerprint;
+}
@@ -0,0 +1,74 @@
+package cz.pwf.filenet.service.ecm;
+
+/**
+ * Adaptivní limit souběžných volání řízený algoritmem AIMD (additive increase, multiplicative decrease).
+ * <p>
+ * Úspěšné volání s dobou odezvy do {@code latencyThresholdNanos} zvýší limit o {@code 1 / limit}, pokud byl limit
+ * alespoň z poloviny využit, tj. limit roste o 1 za každé okno {@code limit} úspěšných volání (přibližně za jednu
+ * dobu odezvy při plném využití), ne o 1 za každé volání. Volání, které selže z důvodu přetížení FileNetu nebo
+ * překročí {@code latencyThresholdNanos}, limit sníží násobkem {@code backoffRatio}. Limit se pohybuje v rozmezí
+ * {@code minLimit} až {@code maxLimit}.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final long latencyThresholdNanos;
+
+    private double limit;
+    private int inFlight;
+
+    public AdaptiveConcurrencyLimiter(String name, int initialLimit, int minLimit, int maxLimit, double backoffRatio,
+                                      long latencyThresholdNanos) {
+        this.name = name;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.latencyThresholdNanos = latencyThresholdNanos;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    /**
+     * Metoda zaregistruje nové volání, pokud to aktuální limit dovolí.
+     *
+     * @return Vrací {@code true}, pokud může být volání provedeno. V takovém případě musí být po jeho dokončení
+     * zavolána metoda {@link #release(long, boolean)}.
+     */
+    public synchronized boolean tryAcquire() {
+        if (inFlight >= (int) limit) {
+            return false;
+        }
+        inFlight++;
+        return true;
+    }
+
+    /**
+     * Metoda ukončí volání a upraví limit podle jeho výsledku.
+     *
+     * @param elapsedNanos doba volání
+     * @param dropped      {@code true}, pokud volání selhalo z důvodu přetížení (timeout, HTTP 429 nebo 503)
+     */
+    public synchronized void release(long elapsedNanos, boolean dropped) {
+        int currentInFlight = inFlight--;
+
+        if (dropped || elapsedNanos > latencyThresholdNanos) {
+            limit = Math.max(minLimit, limit * backoffRatio);
+        } else if (currentInFlight * 2 >= limit) {
+            limit = Math.min(maxLimit, limit + 1 / limit);
+        }
+    }
+}
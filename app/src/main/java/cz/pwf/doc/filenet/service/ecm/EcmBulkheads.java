@@ -0,0 +1,122 @@
+package cz.pwf.filenet.service.ecm;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Oddělené limity souběžných volání FileNetu (bulkheady) pro stahování obsahu ({@code GetDocument},
+ * {@code GetDocumentRange}), ostatní čtení ({@code GetDocumentMetadata}) a zápis (ostatní endpointy), aby dlouhé
+ * stahování a nahrávání dokumentů nevyčerpalo kapacitu pro čtení metadat. Stahování obsahu má vlastní práh doby
+ * odezvy, pomalé stahování velkého dokumentu tak nesnižuje limit čtení metadat. Součet maximálních limitů nemá
+ * překročit počet spojení poolu na FileNet ({@code rest.client.pwf_ecm_filenet.pool.max-per-route}), jinak volání
+ * v rámci limitu čekají na volné spojení. Aktuální limity a počty probíhajících volání jsou exportovány jako
+ * {@code filenet.ecm.limiter.limit} a {@code filenet.ecm.limiter.inflight} s tagem {@code bulkhead}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class EcmBulkheads {
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${filenet.limiter.enabled:true}")
+    private boolean enabled;
+
+    @Value("${filenet.limiter.read.initial-limit:15}")
+    private int readInitialLimit;
+
+    @Value("${filenet.limiter.read.min-limit:5}")
+    private int readMinLimit;
+
+    @Value("${filenet.limiter.read.max-limit:20}")
+    private int readMaxLimit;
+
+    @Value("${filenet.limiter.read.latency-threshold:10000}")
+    private long readLatencyThreshold;
+
+    @Value("${filenet.limiter.content.initial-limit:10}")
+    private int contentInitialLimit;
+
+    @Value("${filenet.limiter.content.min-limit:2}")
+    private int contentMinLimit;
+
+    @Value("${filenet.limiter.content.max-limit:15}")
+    private int contentMaxLimit;
+
+    @Value("${filenet.limiter.content.latency-threshold:60000}")
+    private long contentLatencyThreshold;
+
+    @Value("${filenet.limiter.write.initial-limit:10}")
+    private int writeInitialLimit;
+
+    @Value("${filenet.limiter.write.min-limit:2}")
+    private int writeMinLimit;
+
+    @Value("${filenet.limiter.write.max-limit:15}")
+    private int writeMaxLimit;
+
+    @Value("${filenet.limiter.write.latency-threshold:30000}")
+    private long writeLatencyThreshold;
+
+    @Value("${filenet.limiter.backoff-ratio:0.9}")
+    private double backoffRatio;
+
+    @Value("${rest.client.pwf_ecm_filenet.pool.max-per-route:50}")
+    private int maxPerRoute;
+
+    private AdaptiveConcurrencyLimiter read;
+    private AdaptiveConcurrencyLimiter content;
+    private AdaptiveConcurrencyLimiter write;
+
+    @PostConstruct
+    void init() {
+        int maxLimits = readMaxLimit + contentMaxLimit + writeMaxLimit;
+        if (enabled && maxLimits > maxPerRoute) {
+            log.warn("FileNet limiter max limits ({}) exceed the connection pool max-per-route ({}), calls within "
+                    + "the limits may wait for a pooled connection", maxLimits, maxPerRoute);
+        }
+
+        read = register(new AdaptiveConcurrencyLimiter("read", readInitialLimit, readMinLimit, readMaxLimit,
+                backoffRatio, TimeUnit.MILLISECONDS.toNanos(readLatencyThreshold)));
+        content = register(new AdaptiveConcurrencyLimiter("content", contentInitialLimit, contentMinLimit,
+                contentMaxLimit, backoffRatio, TimeUnit.MILLISECONDS.toNanos(contentLatencyThreshold)));
+        write = register(new AdaptiveConcurrencyLimiter("write", writeInitialLimit, writeMinLimit, writeMaxLimit,
+                backoffRatio, TimeUnit.MILLISECONDS.toNanos(writeLatencyThreshold)));
+    }
+
+    private AdaptiveConcurrencyLimiter register(AdaptiveConcurrencyLimiter limiter) {
+        Gauge.builder("filenet.ecm.limiter.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                .description("Current FileNet concurrency limit")
+                .tag("bulkhead", limiter.getName())
+                .register(meterRegistry);
+        Gauge.builder("filenet.ecm.limiter.inflight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                .description("FileNet calls holding a concurrency permit")
+                .tag("bulkhead", limiter.getName())
+                .register(meterRegistry);
+
+        return limiter;
+    }
+
+    /**
+     * @param endpointName název endpointu FileNetu
+     * @return Vrací limit pro daný endpoint, případně {@code null}, pokud je omezování vypnuto.
+     */
+    public AdaptiveConcurrencyLimiter forEndpoint(String endpointName) {
+        if (!enabled) {
+            return null;
+        }
+
+        if (EcmEndpoints.isContent(endpointName)) {
+            return content;
+        }
+
+        return EcmEndpoints.isRead(endpointName) ? read : write;
+    }
+}
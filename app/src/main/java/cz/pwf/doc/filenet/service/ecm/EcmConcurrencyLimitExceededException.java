@@ -0,0 +1,12 @@
+package cz.pwf.filenet.service.ecm;
+
+/**
+ * Výjimka vyhozená, pokud by volání FileNetu překročilo aktuální limit souběžných volání. Volání do FileNetu
+ * není odesláno.
+ */
+public class EcmConcurrencyLimitExceededException extends EcmRetryableException {
+
+    public EcmConcurrencyLimitExceededException(String bulkhead, int limit) {
+        super("FileNet " + bulkhead + " concurrency limit " + limit + " exceeded");
+    }
+}
@@ -0,0 +1,33 @@
+package cz.pwf.filenet.service.ecm;
+
+import java.util.Set;
+
+/**
+ * Rozdělení endpointů FileNet REST API na čtecí a zapisovací. Ze čtecích jsou zvlášť vyčleněny endpointy
+ * stahující obsah dokumentu, jejichž doba odezvy závisí na velikosti dokumentu.
+ */
+public final class EcmEndpoints {
+
+    private static final Set<String> CONTENT_ENDPOINTS = Set.of("GetDocument", "GetDocumentRange");
+    private static final Set<String> READ_ENDPOINTS = Set.of("GetDocument", "GetDocumentRange", "GetDocumentMetadata",
+            "GetDocumentUploadStatus");
+
+    private EcmEndpoints() {
+    }
+
+    /**
+     * @param endpointName název endpointu FileNetu
+     * @return Vrací {@code true}, pokud endpoint pouze čte data.
+     */
+    public static boolean isRead(String endpointName) {
+        return READ_ENDPOINTS.contains(endpointName);
+    }
+
+    /**
+     * @param endpointName název endpointu FileNetu
+     * @return Vrací {@code true}, pokud endpoint stahuje obsah dokumentu.
+     */
+    public static boolean isContent(String endpointName) {
+        return CONTENT_ENDPOINTS.contains(endpointName);
+    }
+}
@@ -0,0 +1,57 @@
+package cz.pwf.filenet.service.ecm;
+
+import cz.pwf.filenet.config.Constants;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.util.List;
+
+/**
+ * Hlavičky a adresy volání endpointů FileNet REST API, které nejsou součástí generovaného klienta {@code EcmApi}.
+ * Volání používají stejné přihlašovací údaje a hlavičky jako generovaný klient.
+ */
+@Component
+public class EcmHeaders {
+
+    static final String KPJM_HEADER = "kpjm";
+    static final String REQUEST_ID_HEADER = "requestId";
+    static final String TIMESTAMP_HEADER = "timestamp";
+    static final String SOURCE_SYSTEM_HEADER = "sourceSystem";
+
+    @Value("${rest.client.pwf_ecm_filenet.url:https://restapidv.pwfdata.corp}")
+    private String apiBaseUrl;
+
+    @Value("${rest.client.pwf_ecm_filenet.username}")
+    private String username;
+
+    @Value("${rest.client.pwf_ecm_filenet.password}")
+    private String password;
+
+    /**
+     * @param kpjm      KPJM, pod kterým je volání prováděno
+     * @param requestId request UUID volání
+     * @return Vrací hlavičky volání FileNetu.
+     */
+    public HttpHeaders create(String kpjm, String requestId) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBasicAuth(username, password);
+        headers.setAccept(List.of(MediaType.APPLICATION_JSON));
+        headers.set(KPJM_HEADER, kpjm);
+        headers.set(REQUEST_ID_HEADER, requestId);
+        headers.set(TIMESTAMP_HEADER, String.valueOf(System.currentTimeMillis()));
+        headers.set(SOURCE_SYSTEM_HEADER, Constants.SOURCE_SYSTEM);
+
+        return headers;
+    }
+
+    /**
+     * @param path cesta endpointu relativně k adrese FileNet REST API
+     * @return Vrací builder adresy endpointu.
+     */
+    public UriComponentsBuilder uri(String path) {
+        return UriComponentsBuilder.fromHttpUrl(apiBaseUrl).path(path);
+    }
+}
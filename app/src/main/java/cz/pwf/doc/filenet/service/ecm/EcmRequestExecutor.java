@@ -0,0 +1,349 @@
+package cz.pwf.filenet.service.ecm;
+
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.http.conn.ConnectTimeoutException;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientResponseException;
+
+import java.io.InterruptedIOException;
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.UnknownHostException;
+import java.net.http.HttpConnectTimeoutException;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * Provádění volání FileNet REST API.
+ * <p>
+ * Každé volání dostane vlastní request UUID, které je předáno do FileNetu a po dobu volání je spolu s názvem
+ * endpointu uloženo v MDC ({@value #REQUEST_ID_MDC_KEY}, {@value #ENDPOINT_MDC_KEY}), takže všechny logy volání
+ * lze s požadavkem ve FileNetu spárovat. Doba volání je měřena timerem {@code filenet.ecm.requests}
+ * s tagy {@code endpoint}, {@code outcome}, {@code reauthorized} a {@code size}, velikost přenášeného obsahu
+ * souhrnem {@code filenet.ecm.payload.size} a počet právě probíhajících volání gaugem
+ * {@code filenet.ecm.requests.active}. Timer publikuje pevné SLO buckety ({@link #LATENCY_SLOS}), percentilový
+ * histogram lze zapnout nastavením {@code filenet.metrics.percentile-histogram}.
+ * <p>
+ * Počet souběžných volání je omezen adaptivními limity (viz {@link EcmBulkheads}). Volání nad limit není
+ * do FileNetu odesláno a skončí výjimkou {@link EcmConcurrencyLimitExceededException}.
+ * <p>
+ * Dočasná selhání jsou opakována po náhodném odstupu podle {@link EcmRetryPolicies} (viz {@link EcmRetryPolicy}).
+ * U zapisovacích endpointů je opakováno pouze volání, které se nepodařilo navázat (požadavek do FileNetu nebyl
+ * odeslán), a HTTP stavy, se kterými FileNet požadavek odmítl bez zpracování. Všechny pokusy
+ * používají stejné request UUID, jejich počet je omezen {@code max-attempts} a opakování je provedeno, jen pokud
+ * odstup nepřekročí {@code deadline} celého volání. Počet opakování je exportován jako {@code filenet.ecm.retries}.
+ * Dočasné selhání, které již nelze opakovat, skončí výjimkou {@link EcmRetryableException}. Pokud je otevřen circuit
+ * breaker FileNetu nebo je překročen limit souběžných volání, volání skončí bez odeslání a bez opakování rovněž
+ * výjimkou {@link EcmRetryableException}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class EcmRequestExecutor {
+
+    public static final String REQUEST_ID_MDC_KEY = "ecmRequestId";
+    public static final String ENDPOINT_MDC_KEY = "ecmEndpoint";
+
+    /**
+     * Hodnota {@code payloadSize}, pokud volání nepřenáší obsah dokumentu.
+     */
+    public static final long NO_PAYLOAD = -1;
+
+    private static final String METRIC_PREFIX = "filenet.ecm";
+    private static final String OUTCOME_SUCCESS = "success";
+    private static final String OUTCOME_CLIENT_ERROR = "client_error";
+    private static final String OUTCOME_SERVER_ERROR = "server_error";
+    private static final String OUTCOME_ERROR = "error";
+    private static final long KB = 1024;
+    private static final long MB = 1024 * KB;
+    private static final Duration[] LATENCY_SLOS = {Duration.ofMillis(100), Duration.ofMillis(500),
+            Duration.ofSeconds(1), Duration.ofSeconds(5), Duration.ofSeconds(10), Duration.ofSeconds(30)};
+
+    private final MeterRegistry meterRegistry;
+    private final EcmBulkheads ecmBulkheads;
+    private final EcmRetryPolicies ecmRetryPolicies;
+    private final CircuitBreaker ecmCircuitBreaker;
+    private final ConcurrentMap<String, AtomicInteger> activeRequests = new ConcurrentHashMap<>();
+
+    @Value("${filenet.metrics.percentile-histogram:false}")
+    private boolean percentileHistogram;
+
+    /**
+     * Metoda provede volání FileNetu bez přenosu obsahu dokumentu.
+     *
+     * @param endpointName název endpointu
+     * @param reauthorized {@code true}, pokud bylo KPJM reautorizováno z metadat dokumentu
+     * @param call         volání FileNetu, parametrem je request UUID
+     * @return Vrací odpověď FileNetu.
+     */
+    public <T> ResponseEntity<T> execute(String endpointName, boolean reauthorized, Function<String, ResponseEntity<T>> call) {
+        return execute(endpointName, reauthorized, body -> NO_PAYLOAD, call);
+    }
+
+    /**
+     * Metoda provede volání FileNetu, které obsah dokumentu odesílá. Velikost obsahu je známa před voláním
+     * a je zaznamenána i pro neúspěšná volání.
+     *
+     * @param endpointName název endpointu
+     * @param reauthorized {@code true}, pokud bylo KPJM reautorizováno z metadat dokumentu
+     * @param payloadSize  velikost odesílaného obsahu dokumentu v bajtech, případně {@link #NO_PAYLOAD}
+     * @param call         volání FileNetu, parametrem je request UUID
+     * @return Vrací odpověď FileNetu.
+     */
+    public <T> ResponseEntity<T> execute(String endpointName, boolean reauthorized, long payloadSize,
+                                         Function<String, ResponseEntity<T>> call) {
+        return execute(endpointName, reauthorized, payloadSize, body -> payloadSize, call);
+    }
+
+    /**
+     * Metoda provede volání FileNetu, které obsah dokumentu stahuje. Velikost obsahu je známa až z odpovědi,
+     * neúspěšná volání jsou zaznamenána bez velikosti.
+     *
+     * @param endpointName název endpointu
+     * @param reauthorized {@code true}, pokud bylo KPJM reautorizováno z metadat dokumentu
+     * @param payloadSize  funkce vracející velikost obsahu dokumentu v bajtech z těla odpovědi, případně
+     *                     {@link #NO_PAYLOAD}
+     * @param call         volání FileNetu, parametrem je request UUID
+     * @return Vrací odpověď FileNetu.
+     */
+    public <T> ResponseEntity<T> execute(String endpointName, boolean reauthorized, ToLongFunction<T> payloadSize,
+                                         Function<String, ResponseEntity<T>> call) {
+        return execute(endpointName, reauthorized, NO_PAYLOAD, payloadSize, call);
+    }
+
+    private <T> ResponseEntity<T> execute(String endpointName, boolean reauthorized, long requestSize,
+                                          ToLongFunction<T> responseSize, Function<String, ResponseEntity<T>> call) {
+        final String requestId = UUID.randomUUID().toString();
+        final EcmRetryPolicy retryPolicy = ecmRetryPolicies.forEndpoint(endpointName);
+        final long deadline = System.nanoTime() + retryPolicy.getDeadline().toNanos();
+        // volání může být vnořeno do jiného volání FileNetu, jeho hodnoty v MDC jsou po skončení obnoveny
+        final String outerRequestId = MDC.get(REQUEST_ID_MDC_KEY);
+        final String outerEndpointName = MDC.get(ENDPOINT_MDC_KEY);
+
+        MDC.put(REQUEST_ID_MDC_KEY, requestId);
+        MDC.put(ENDPOINT_MDC_KEY, endpointName);
+        try {
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    return executeAttempt(endpointName, reauthorized, requestSize, responseSize,
+                            () -> call.apply(requestId));
+                } catch (RuntimeException e) {
+                    // nenavázané spojení lze opakovat i u zapisovacích endpointů, odstup a deadline platí stejně
+                    if (!isConnectFailure(e) && !isTransient(endpointName, e)) {
+                        throw e;
+                    }
+
+                    long backoff = retryPolicy.backoffMillis(attempt);
+                    if (attempt < retryPolicy.getMaxAttempts()
+                            && System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(backoff) < deadline) {
+                        log.warn("Call {} endpoint failed transiently (attempt {}), retrying after {} ms: {}",
+                                endpointName, attempt, backoff, e.getMessage());
+                        meterRegistry.counter(METRIC_PREFIX + ".retries", "endpoint", endpointName).increment();
+                        sleep(backoff, e);
+                        continue;
+                    }
+                    log.warn("Call {} endpoint failed transiently (attempt {}), giving up: {}", endpointName,
+                            attempt, e.getMessage());
+                    throw new EcmRetryableException("FileNet " + endpointName + " call failed transiently", e);
+                }
+            }
+        } finally {
+            restoreMdc(REQUEST_ID_MDC_KEY, outerRequestId);
+            restoreMdc(ENDPOINT_MDC_KEY, outerEndpointName);
+        }
+    }
+
+    private static void sleep(long millis, RuntimeException failure) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new EcmRetryableException("Interrupted while waiting to retry FileNet call", failure);
+        }
+    }
+
+    /**
+     * Metoda provede jeden pokus o volání FileNetu v rámci circuit breakeru a limitu souběžných volání.
+     */
+    private <T> ResponseEntity<T> executeAttempt(String endpointName, boolean reauthorized, long requestSize,
+                                                 ToLongFunction<T> responseSize, Supplier<ResponseEntity<T>> call) {
+        try {
+            ecmCircuitBreaker.acquirePermission();
+        } catch (CallNotPermittedException e) {
+            throw new EcmRetryableException("FileNet circuit breaker is open", e);
+        }
+
+        final AdaptiveConcurrencyLimiter limiter = ecmBulkheads.forEndpoint(endpointName);
+        if (Objects.nonNull(limiter) && !limiter.tryAcquire()) {
+            ecmCircuitBreaker.releasePermission();
+            meterRegistry.counter(METRIC_PREFIX + ".limiter.rejected", "bulkhead", limiter.getName()).increment();
+            throw new EcmConcurrencyLimitExceededException(limiter.getName(), limiter.getLimit());
+        }
+
+        final AtomicInteger active = activeRequests(endpointName);
+        String outcome = OUTCOME_ERROR;
+        long size = requestSize;
+        Throwable failure = null;
+
+        active.incrementAndGet();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            ResponseEntity<T> response = call.get();
+            outcome = OUTCOME_SUCCESS;
+            size = responseSize.applyAsLong(response.getBody());
+            return response;
+        } catch (RestClientResponseException e) {
+            outcome = e.getRawStatusCode() < 500 ? OUTCOME_CLIENT_ERROR : OUTCOME_SERVER_ERROR;
+            failure = e;
+            throw e;
+        } catch (Throwable e) {
+            failure = e;
+            throw e;
+        } finally {
+            long elapsed = sample.stop(timer(endpointName, outcome, reauthorized, size));
+            active.decrementAndGet();
+            if (Objects.isNull(failure)) {
+                ecmCircuitBreaker.onSuccess(elapsed, TimeUnit.NANOSECONDS);
+            } else {
+                ecmCircuitBreaker.onError(elapsed, TimeUnit.NANOSECONDS, failure);
+            }
+            if (Objects.nonNull(limiter)) {
+                limiter.release(elapsed, isOverload(failure));
+            }
+            if (size != NO_PAYLOAD) {
+                payloadSummary(endpointName).record(size);
+            }
+            log.debug("Call {} endpoint - elapsed time: {} ms, outcome: {}", endpointName,
+                    TimeUnit.NANOSECONDS.toMillis(elapsed), outcome);
+        }
+    }
+
+    /**
+     * Selhání navázání spojení znamená, že požadavek do FileNetu nebyl odeslán, a lze jej tedy bezpečně opakovat
+     * i u zapisovacích endpointů.
+     */
+    static boolean isConnectFailure(RuntimeException e) {
+        if (!(e instanceof ResourceAccessException)) {
+            return false;
+        }
+        for (Throwable cause = e.getCause(); Objects.nonNull(cause); cause = cause.getCause()) {
+            // HttpHostConnectException klienta Apache je potomkem ConnectException
+            if (cause instanceof ConnectException || cause instanceof ConnectTimeoutException
+                    || cause instanceof HttpConnectTimeoutException || cause instanceof UnknownHostException
+                    || cause instanceof NoRouteToHostException) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Timeout nebo přerušené spojení zapisovacího volání nejsou dočasným selháním, FileNet mohl požadavek již
+     * zpracovat a opakování by dokument uložilo podruhé.
+     */
+    private boolean isTransient(String endpointName, RuntimeException e) {
+        if (e instanceof RestClientResponseException) {
+            return ecmRetryPolicies.isRetryableStatus(endpointName, ((RestClientResponseException) e).getRawStatusCode());
+        }
+
+        return e instanceof ResourceAccessException && EcmEndpoints.isRead(endpointName);
+    }
+
+    private static void restoreMdc(String key, String value) {
+        if (Objects.isNull(value)) {
+            MDC.remove(key);
+        } else {
+            MDC.put(key, value);
+        }
+    }
+
+    /**
+     * Přetížení FileNetu značí pouze timeout a odpovědi HTTP 429 a 503. Ostatní chyby (chyby klienta, interní
+     * chyby serveru, odmítnuté spojení) o zátěži nevypovídají a limit souběžných volání nesnižují.
+     */
+    static boolean isOverload(Throwable failure) {
+        if (failure instanceof RestClientResponseException) {
+            int status = ((RestClientResponseException) failure).getRawStatusCode();
+            return status == HttpStatus.TOO_MANY_REQUESTS.value() || status == HttpStatus.SERVICE_UNAVAILABLE.value();
+        }
+        for (Throwable cause = failure; Objects.nonNull(cause); cause = cause.getCause()) {
+            // SocketTimeoutException a ConnectTimeoutException klienta Apache, HttpTimeoutException klienta JDK
+            if (cause instanceof InterruptedIOException || cause instanceof HttpTimeoutException) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private Timer timer(String endpointName, String outcome, boolean reauthorized, long size) {
+        return Timer.builder(METRIC_PREFIX + ".requests")
+                .description("FileNet REST API calls")
+                .tag("endpoint", endpointName)
+                .tag("outcome", outcome)
+                .tag("reauthorized", String.valueOf(reauthorized))
+                .tag("size", sizeBucket(size))
+                .serviceLevelObjectives(LATENCY_SLOS)
+                .publishPercentileHistogram(percentileHistogram)
+                .register(meterRegistry);
+    }
+
+    private DistributionSummary payloadSummary(String endpointName) {
+        return DistributionSummary.builder(METRIC_PREFIX + ".payload.size")
+                .description("Size of document content transferred by FileNet REST API calls")
+                .baseUnit("bytes")
+                .tag("endpoint", endpointName)
+                .publishPercentileHistogram(percentileHistogram)
+                .register(meterRegistry);
+    }
+
+    private AtomicInteger activeRequests(String endpointName) {
+        return activeRequests.computeIfAbsent(endpointName, name -> {
+            AtomicInteger counter = new AtomicInteger();
+            Gauge.builder(METRIC_PREFIX + ".requests.active", counter, AtomicInteger::get)
+                    .description("FileNet REST API calls in progress")
+                    .tag("endpoint", name)
+                    .register(meterRegistry);
+            return counter;
+        });
+    }
+
+    /**
+     * Velikostní skupina obsahu dokumentu pro tag {@code size}: {@code none} (bez obsahu), {@code small}
+     * (do 100 KB), {@code medium} (do 1 MB), {@code large} (do 10 MB) a {@code huge}.
+     */
+    static String sizeBucket(long size) {
+        if (size < 0) {
+            return "none";
+        } else if (size < 100 * KB) {
+            return "small";
+        } else if (size < MB) {
+            return "medium";
+        } else if (size < 10 * MB) {
+            return "large";
+        }
+        return "huge";
+    }
+}
@@ -0,0 +1,77 @@
+package cz.pwf.filenet.service.ecm;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Pravidla opakování volání FileNetu pro čtecí a zapisovací endpointy (viz {@link EcmEndpoints}).
+ * <p>
+ * Za dočasné selhání je považována chyba spojení čtecího volání (např. reset spojení, timeout) a HTTP stav
+ * z {@code filenet.retry.statuses}, u zapisovacích volání pouze HTTP stav z {@code filenet.retry.write.statuses},
+ * tj. stav, se kterým FileNet požadavek odmítl bez zpracování. Odstup před opakováním roste exponenciálně
+ * (viz {@link EcmRetryPolicy}).
+ */
+@Component
+public class EcmRetryPolicies {
+
+    @Value("${filenet.retry.statuses:429,502,503,504}")
+    private Set<Integer> retryableStatuses;
+
+    @Value("${filenet.retry.read.max-attempts:3}")
+    private int readMaxAttempts;
+
+    @Value("${filenet.retry.read.deadline:30000}")
+    private long readDeadline;
+
+    @Value("${filenet.retry.write.statuses:429,503}")
+    private Set<Integer> writeRetryableStatuses;
+
+    @Value("${filenet.retry.write.max-attempts:3}")
+    private int writeMaxAttempts;
+
+    @Value("${filenet.retry.write.deadline:120000}")
+    private long writeDeadline;
+
+    @Value("${filenet.retry.initial-backoff:200}")
+    private long initialBackoff;
+
+    @Value("${filenet.retry.max-backoff:5000}")
+    private long maxBackoff;
+
+    @Value("${filenet.retry.multiplier:2.0}")
+    private double multiplier;
+
+    private EcmRetryPolicy read;
+    private EcmRetryPolicy write;
+
+    @PostConstruct
+    void init() {
+        read = new EcmRetryPolicy(readMaxAttempts, Duration.ofMillis(initialBackoff), Duration.ofMillis(maxBackoff),
+                multiplier, Duration.ofMillis(readDeadline));
+        write = new EcmRetryPolicy(writeMaxAttempts, Duration.ofMillis(initialBackoff), Duration.ofMillis(maxBackoff),
+                multiplier, Duration.ofMillis(writeDeadline));
+    }
+
+    /**
+     * @param endpointName název endpointu FileNetu
+     * @return Vrací pravidla opakování pro daný endpoint.
+     */
+    public EcmRetryPolicy forEndpoint(String endpointName) {
+        return EcmEndpoints.isRead(endpointName) ? read : write;
+    }
+
+    /**
+     * @param endpointName  název endpointu FileNetu
+     * @param rawStatusCode HTTP stav odpovědi FileNetu
+     * @return Vrací {@code true}, pokud HTTP stav značí dočasné selhání.
+     */
+    public boolean isRetryableStatus(String endpointName, int rawStatusCode) {
+        return EcmEndpoints.isRead(endpointName)
+                ? retryableStatuses.contains(rawStatusCode)
+                : writeRetryableStatuses.contains(rawStatusCode);
+    }
+}
@@ -0,0 +1,35 @@
+package cz.pwf.filenet.service.ecm;
+
+import lombok.Value;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Pravidla opakování volání FileNetu po dočasném selhání.
+ * <p>
+ * Odstup před opakováním volání roste exponenciálně od {@code initialBackoff} (násobek {@code multiplier}) až do
+ * {@code maxBackoff}, skutečný odstup je náhodně zvolen z intervalu 0 až vypočtený odstup (full jitter). Volání je
+ * provedeno nejvýše {@code maxAttempts}krát a opakováno pouze do {@code deadline} celého volání. Odstup a deadline
+ * platí i pro nenavázané spojení.
+ */
+@Value
+public class EcmRetryPolicy {
+
+    int maxAttempts;
+    Duration initialBackoff;
+    Duration maxBackoff;
+    double multiplier;
+    Duration deadline;
+
+    /**
+     * @param attempt pořadí neúspěšného pokusu (od 1)
+     * @return Vrací odstup před dalším pokusem v milisekundách.
+     */
+    public long backoffMillis(int attempt) {
+        double backoff = initialBackoff.toMillis() * Math.pow(multiplier, attempt - 1);
+        long maxMillis = (long) Math.min(maxBackoff.toMillis(), backoff);
+
+        return maxMillis <= 0 ? 0 : ThreadLocalRandom.current().nextLong(maxMillis + 1);
+    }
+}
@@ -0,0 +1,15 @@
+package cz.pwf.filenet.service.ecm;
+
+/**
+ * Výjimka označující dočasné selhání volání FileNetu, po kterém má smysl volání (Zeebe job) s odstupem opakovat.
+ */
+public class EcmRetryableException extends RuntimeException {
+
+    public EcmRetryableException(String message) {
+        super(message);
+    }
+
+    public EcmRetryableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
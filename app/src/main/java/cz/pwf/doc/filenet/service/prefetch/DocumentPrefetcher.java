@@ -0,0 +1,335 @@
+package cz.pwf.filenet.service.prefetch;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import cz.notix.document.plugin.connector.dto.DMSDocumentId;
+import cz.notix.document.plugin.connector.dto.DMSDocumentInfo;
+import cz.notix.document.plugin.connector.dto.DmsAttribute;
+import cz.pwf.filenet.service.cache.ContentCacheKey;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.util.CollectionUtils;
+import org.springframework.util.StringUtils;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Přednačítání dokumentů, na které odkazují proměnné Zeebe jobu.
+ * <p>
+ * Při volání služby z jobu nakonfigurovaného typu jsou v Zeebe proměnných a v {@code dmsSpecificAttributes}
+ * vyhledány odkazy na dokumenty (viz {@link PrefetchCandidateExtractor}). Metadata a obsah těchto dokumentů jsou
+ * asynchronně načteny do cache metadat a cache obsahu, takže následující service task je již nemusí stahovat
+ * z FileNetu. Přednačítání probíhá na vlastním omezeném poolu vláken, požadavky nad kapacitu fronty jsou zahozeny.
+ * <p>
+ * Přednačtené záznamy jsou evidovány od naplánování do prvního použití, nejvýše však po nakonfigurovanou dobu.
+ * Počet a celková velikost evidovaných záznamů jsou omezeny, rozpočet je rezervován atomicky před načtením
+ * a nad něj se další dokumenty nepřednačítají. Použití dokumentu, jehož přednačítání právě probíhá, je také
+ * započteno jako zásah. Metriky
+ * {@code filenet.prefetch.requests}, {@code filenet.prefetch.hits} a {@code filenet.prefetch.unused} (s tagem
+ * {@code kind}) umožňují sledovat úspěšnost přednačítání.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DocumentPrefetcher {
+
+    private static final String METRIC_PREFIX = "filenet.prefetch";
+    private static final String KIND_METADATA = "metadata";
+    private static final String KIND_CONTENT = "content";
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${filenet.prefetch.enabled:false}")
+    private boolean enabled;
+
+    @Value("${filenet.prefetch.job-type-header:jobType}")
+    private String jobTypeHeader;
+
+    /**
+     * Typy jobů, pro které se dokumenty přednačítají, prázdná množina znamená všechny joby.
+     */
+    @Value("${filenet.prefetch.job-types:}")
+    private Set<String> jobTypes;
+
+    @Value("${filenet.prefetch.variables:documentId}")
+    private Set<String> variables;
+
+    @Value("${filenet.prefetch.attributes:}")
+    private Set<String> attributes;
+
+    @Value("${filenet.prefetch.content:true}")
+    private boolean contentEnabled;
+
+    @Value("${filenet.prefetch.threads:4}")
+    private int threads;
+
+    @Value("${filenet.prefetch.queue-capacity:100}")
+    private int queueCapacity;
+
+    @Value("${filenet.prefetch.max-entries:10000}")
+    private long maxEntries;
+
+    @Value("${filenet.prefetch.max-bytes:268435456}")
+    private long maxBytes;
+
+    @Value("${filenet.prefetch.max-document-size:52428800}")
+    private long maxDocumentSize;
+
+    @Value("${filenet.prefetch.ttl:600000}")
+    private long ttl;
+
+    private final AtomicLong reservedEntries = new AtomicLong();
+    private final AtomicLong reservedBytes = new AtomicLong();
+
+    private ThreadPoolExecutor executor;
+    /**
+     * Hodnota {@code false} značí přednačtení čekající ve frontě, {@code true} probíhající nebo dokončené.
+     */
+    private Cache<PrefetchKey, Boolean> prefetchedMetadata;
+    private Cache<ContentCacheKey, Long> prefetchedContent;
+
+    @PostConstruct
+    void init() {
+        if (!enabled) {
+            return;
+        }
+
+        executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("filenet-prefetch-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+
+        // rozpočet je uvolněn při každém odebrání záznamu, listener proto běží synchronně
+        prefetchedMetadata = Caffeine.newBuilder()
+                .expireAfterWrite(ttl, TimeUnit.MILLISECONDS)
+                .executor(Runnable::run)
+                .removalListener((PrefetchKey key, Boolean value, RemovalCause cause) ->
+                        onRemoval(KIND_METADATA, cause, reservedEntries, 1))
+                .build();
+        prefetchedContent = Caffeine.newBuilder()
+                .expireAfterWrite(ttl, TimeUnit.MILLISECONDS)
+                .executor(Runnable::run)
+                .removalListener((ContentCacheKey key, Long size, RemovalCause cause) ->
+                        onRemoval(KIND_CONTENT, cause, reservedBytes, Objects.isNull(size) ? 0 : size))
+                .build();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (Objects.nonNull(executor)) {
+            executor.shutdownNow();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Metoda naplánuje přednačtení dokumentů, na které odkazují Zeebe proměnné a atributy dokumentu.
+     *
+     * @param zeebeVariables        objekt obsahující Zeebe proměnné jobu
+     * @param dmsSpecificAttributes atributy dokumentu, se kterým job pracuje, případně {@code null}
+     * @param currentId             identifikátor dokumentu, se kterým job právě pracuje (není přednačítán), případně {@code null}
+     * @param namespace             namespace dokumentů
+     * @param kpjm                  KPJM, pod kterým jsou dokumenty načítány
+     * @param loader                načítání dokumentů pod daným KPJM
+     */
+    public void prefetch(String zeebeVariables, List<DmsAttribute> dmsSpecificAttributes, String currentId,
+                         String namespace, String kpjm, PrefetchLoader loader) {
+        if (!enabled || !isPrefetchedJobType(zeebeVariables)) {
+            return;
+        }
+
+        Collection<PrefetchCandidate> candidates = new LinkedHashSet<>(
+                PrefetchCandidateExtractor.extract(zeebeVariables, variables));
+        if (!CollectionUtils.isEmpty(dmsSpecificAttributes) && !attributes.isEmpty()) {
+            dmsSpecificAttributes.stream()
+                    .filter(attribute -> attributes.contains(attribute.getName()))
+                    .filter(attribute -> StringUtils.hasText(attribute.getValue()))
+                    .forEach(attribute -> candidates.add(new PrefetchCandidate(attribute.getValue(), null)));
+        }
+
+        for (PrefetchCandidate candidate : candidates) {
+            if (candidate.getId().equals(currentId)) {
+                continue;
+            }
+            PrefetchKey key = new PrefetchKey(namespace, candidate.getId(), candidate.getVersion(), kpjm);
+            if (!reserve(reservedEntries, 1, maxEntries)) {
+                skipped("budget");
+                continue;
+            }
+            if (Objects.nonNull(prefetchedMetadata.asMap().putIfAbsent(key, Boolean.FALSE))) {
+                reservedEntries.addAndGet(-1);
+                skipped("duplicate");
+                continue;
+            }
+
+            try {
+                executor.execute(() -> prefetch(key, loader));
+            } catch (RejectedExecutionException e) {
+                prefetchedMetadata.invalidate(key);
+                skipped("queue_full");
+            }
+        }
+    }
+
+    /**
+     * Metoda zaznamená použití metadat dokumentu. Pokud byla metadata přednačtena nebo se právě přednačítají,
+     * je použití započteno jako zásah přednačítání. Přednačtení čekající ve frontě je zrušeno.
+     */
+    public void metadataRead(String namespace, String id, String version, String kpjm) {
+        if (enabled && Boolean.TRUE.equals(prefetchedMetadata.asMap().remove(new PrefetchKey(namespace, id, version, kpjm)))) {
+            meterRegistry.counter(METRIC_PREFIX + ".hits", "kind", KIND_METADATA).increment();
+        }
+    }
+
+    /**
+     * Metoda zaznamená použití obsahu dokumentu. Pokud byl obsah přednačten nebo se právě přednačítá, je použití
+     * započteno jako zásah přednačítání.
+     */
+    public void contentRead(ContentCacheKey key) {
+        if (enabled && Objects.nonNull(prefetchedContent.asMap().remove(key))) {
+            meterRegistry.counter(METRIC_PREFIX + ".hits", "kind", KIND_CONTENT).increment();
+        }
+    }
+
+    private void prefetch(PrefetchKey key, PrefetchLoader loader) {
+        if (!prefetchedMetadata.asMap().replace(key, Boolean.FALSE, Boolean.TRUE)) {
+            // metadata byla mezitím použita nebo záznam vypršel
+            return;
+        }
+
+        DMSDocumentId id = new DMSDocumentId(key.getNamespace(), key.getId(), key.getVersion());
+        DMSDocumentInfo info;
+        try {
+            info = loader.loadInfo(id);
+        } catch (Exception e) {
+            log.debug("Prefetch of document {} failed", key, e);
+            prefetchedMetadata.invalidate(key);
+            skipped("error");
+            return;
+        }
+        if (Objects.isNull(info)) {
+            prefetchedMetadata.invalidate(key);
+            return;
+        }
+        requested(KIND_METADATA);
+
+        try {
+            prefetchContent(id, info, loader);
+        } catch (Exception e) {
+            log.debug("Prefetch of document {} content failed", key, e);
+            skipped("error");
+        }
+    }
+
+    private void prefetchContent(DMSDocumentId id, DMSDocumentInfo info, PrefetchLoader loader) {
+        String version = Objects.nonNull(info.getId()) && StringUtils.hasText(info.getId().getVersion())
+                ? info.getId().getVersion()
+                : id.getVersion();
+        if (!contentEnabled || !loader.isContentCacheEnabled() || !StringUtils.hasText(version)) {
+            return;
+        }
+
+        Long size = info.getSizeInBytes();
+        if (Objects.isNull(size) || size > maxDocumentSize) {
+            skipped("size");
+            return;
+        }
+
+        if (!reserve(reservedBytes, size, maxBytes)) {
+            skipped("budget");
+            return;
+        }
+        ContentCacheKey cacheKey = new ContentCacheKey(id.getNamespace(), id.getId(), version);
+        if (Objects.nonNull(prefetchedContent.asMap().putIfAbsent(cacheKey, size))) {
+            reservedBytes.addAndGet(-size);
+            return;
+        }
+
+        try {
+            loader.loadData(id);
+        } catch (RuntimeException e) {
+            prefetchedContent.invalidate(cacheKey);
+            throw e;
+        }
+        requested(KIND_CONTENT);
+        log.debug("Document {} version {} prefetched ({} bytes)", id.getId(), version, size);
+    }
+
+    private boolean isPrefetchedJobType(String zeebeVariables) {
+        return jobTypes.isEmpty() || jobTypes.contains(PrefetchCandidateExtractor.extractJobType(zeebeVariables, jobTypeHeader));
+    }
+
+    /**
+     * Metoda rezervuje část rozpočtu, pokud by jeho využití nepřekročilo limit.
+     */
+    private static boolean reserve(AtomicLong reserved, long amount, long budget) {
+        long current;
+        do {
+            current = reserved.get();
+            if (current + amount > budget) {
+                return false;
+            }
+        } while (!reserved.compareAndSet(current, current + amount));
+
+        return true;
+    }
+
+    private void onRemoval(String kind, RemovalCause cause, AtomicLong reserved, long amount) {
+        if (cause == RemovalCause.REPLACED) {
+            // změna stavu záznamu, rezervace trvá
+            return;
+        }
+        reserved.addAndGet(-amount);
+        if (cause != RemovalCause.EXPLICIT) {
+            meterRegistry.counter(METRIC_PREFIX + ".unused", "kind", kind).increment();
+        }
+    }
+
+    private void requested(String kind) {
+        meterRegistry.counter(METRIC_PREFIX + ".requests", "kind", kind).increment();
+    }
+
+    private void skipped(String reason) {
+        meterRegistry.counter(METRIC_PREFIX + ".skipped", "reason", reason).increment();
+    }
+
+    /**
+     * Načítání dokumentů pro přednačítání. Implementace ukládá načtená metadata a obsah do cache služby.
+     */
+    public interface PrefetchLoader {
+
+        DMSDocumentInfo loadInfo(DMSDocumentId id);
+
+        void loadData(DMSDocumentId id);
+
+        boolean isContentCacheEnabled();
+    }
+
+    @lombok.Value
+    private static class PrefetchKey {
+
+        String namespace;
+        String id;
+        String version;
+        String kpjm;
+    }
+}
@@ -0,0 +1,16 @@
+package cz.pwf.filenet.service.prefetch;
+
+import lombok.Value;
+
+/**
+ * Dokument, jehož metadata a obsah mají být načteny předem.
+ */
+@Value
+public class PrefetchCandidate {
+
+    String id;
+    /**
+     * Verze dokumentu, {@code null} znamená aktuální verzi.
+     */
+    String version;
+}
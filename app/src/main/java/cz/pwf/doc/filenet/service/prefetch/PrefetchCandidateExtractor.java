@@ -0,0 +1,137 @@
+package cz.pwf.filenet.service.prefetch;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import lombok.SneakyThrows;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Vyhledání dokumentů, na které odkazují Zeebe proměnné jobu.
+ * <p>
+ * Odkazem na dokument je proměnná s nakonfigurovaným názvem (v libovolné úrovni zanoření), jejíž hodnotou je
+ * ID dokumentu, objekt {@code DMSDocumentId} (atributy {@code id} a {@code version}) nebo pole těchto hodnot.
+ * Stejně jako při načítání Zeebe headers je JSON čten průběžně pomocí {@link JsonParser}.
+ */
+public final class PrefetchCandidateExtractor {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private static final String HEADERS_FIELD = "headers";
+    private static final String ID_FIELD = "id";
+    private static final String VERSION_FIELD = "version";
+
+    private PrefetchCandidateExtractor() {
+    }
+
+    /**
+     * Metoda načte typ jobu ze Zeebe headers.
+     *
+     * @param zeebeVariables objekt obsahující Zeebe headers
+     * @param jobTypeHeader  název hlavičky obsahující typ jobu
+     * @return Vrací typ jobu, případně {@code null}, pokud proměnné hlavičku neobsahují.
+     */
+    @SneakyThrows
+    public static String extractJobType(String zeebeVariables, String jobTypeHeader) {
+        if (!StringUtils.hasText(zeebeVariables)) {
+            return null;
+        }
+
+        try (JsonParser parser = JSON_FACTORY.createParser(zeebeVariables)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if (HEADERS_FIELD.equals(field) && value == JsonToken.START_OBJECT) {
+                    return readScalarField(parser, jobTypeHeader);
+                }
+                parser.skipChildren();
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Metoda vyhledá v Zeebe proměnných odkazy na dokumenty.
+     *
+     * @param zeebeVariables objekt obsahující Zeebe proměnné
+     * @param variableNames  názvy proměnných, které odkazují na dokumenty
+     * @return Vrací nalezené dokumenty bez duplicit v pořadí výskytu.
+     */
+    @SneakyThrows
+    public static Collection<PrefetchCandidate> extract(String zeebeVariables, Set<String> variableNames) {
+        Set<PrefetchCandidate> candidates = new LinkedHashSet<>();
+        if (!StringUtils.hasText(zeebeVariables) || variableNames.isEmpty()) {
+            return candidates;
+        }
+
+        try (JsonParser parser = JSON_FACTORY.createParser(zeebeVariables)) {
+            JsonToken token;
+            while ((token = parser.nextToken()) != null) {
+                if (token == JsonToken.FIELD_NAME && variableNames.contains(parser.getCurrentName())) {
+                    parser.nextToken();
+                    readReference(parser, candidates);
+                }
+            }
+        }
+
+        return candidates;
+    }
+
+    /**
+     * Metoda načte odkaz na dokument z aktuální hodnoty. Po návratu je parser na posledním tokenu hodnoty.
+     */
+    private static void readReference(JsonParser parser, Set<PrefetchCandidate> candidates) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.VALUE_STRING || token == JsonToken.VALUE_NUMBER_INT) {
+            addCandidate(candidates, parser.getText(), null);
+        } else if (token == JsonToken.START_ARRAY) {
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                readReference(parser, candidates);
+            }
+        } else if (token == JsonToken.START_OBJECT) {
+            String id = null;
+            String version = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if (ID_FIELD.equals(field) && value.isScalarValue() && value != JsonToken.VALUE_NULL) {
+                    id = parser.getText();
+                } else if (VERSION_FIELD.equals(field) && value.isScalarValue() && value != JsonToken.VALUE_NULL) {
+                    version = parser.getText();
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            addCandidate(candidates, id, version);
+        }
+    }
+
+    private static void addCandidate(Set<PrefetchCandidate> candidates, String id, String version) {
+        if (StringUtils.hasText(id)) {
+            candidates.add(new PrefetchCandidate(id, StringUtils.hasText(version) ? version : null));
+        }
+    }
+
+    private static String readScalarField(JsonParser parser, String fieldName) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if (fieldName.equals(field) && value.isScalarValue()) {
+                return value == JsonToken.VALUE_NULL ? null : parser.getText();
+            }
+            parser.skipChildren();
+        }
+
+        return null;
+    }
+}
@@ -0,0 +1,38 @@
+package cz.pwf.filenet.service.upload;
+
+import org.springframework.core.io.AbstractResource;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+
+/**
+ * Část obsahu dokumentu odesílaná jako tělo požadavku. Odkazuje přímo do pole s celým obsahem,
+ * takže pro část nevzniká kopie dat.
+ */
+final class ChunkResource extends AbstractResource {
+
+    private final byte[] data;
+    private final int offset;
+    private final int length;
+
+    ChunkResource(byte[] data, int offset, int length) {
+        this.data = data;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    @Override
+    public InputStream getInputStream() {
+        return new ByteArrayInputStream(data, offset, length);
+    }
+
+    @Override
+    public long contentLength() {
+        return length;
+    }
+
+    @Override
+    public String getDescription() {
+        return "Document chunk [" + offset + ", " + (offset + length) + ")";
+    }
+}
@@ -0,0 +1,18 @@
+package cz.pwf.filenet.service.upload;
+
+import lombok.Value;
+
+/**
+ * Klíč rozpracovaného nahrávání po částech. Opakované uložení stejného obsahu (např. při opakování Zeebe jobu)
+ * pod stejným KPJM naváže na předchozí nedokončené nahrávání.
+ */
+@Value
+class ChunkedUploadKey {
+
+    String endpointName;
+    String documentId;
+    String filename;
+    String kpjm;
+    long size;
+    String checksum;
+}
@@ -0,0 +1,59 @@
+package cz.pwf.filenet.service.upload;
+
+import java.util.BitSet;
+import java.util.Collection;
+
+/**
+ * Průběh nahrávání obsahu jednoho dokumentu po částech. Eviduje části, které FileNet již přijal, aby po selhání
+ * některé části bylo možné nahrávání navázat bez opakovaného odesílání již přijatých částí.
+ */
+final class ChunkedUploadProgress {
+
+    private final String uploadId;
+    private final int chunkCount;
+    private final BitSet uploaded;
+    private volatile long lastUpdate;
+
+    ChunkedUploadProgress(String uploadId, int chunkCount) {
+        this.uploadId = uploadId;
+        this.chunkCount = chunkCount;
+        this.uploaded = new BitSet(chunkCount);
+        this.lastUpdate = System.currentTimeMillis();
+    }
+
+    String getUploadId() {
+        return uploadId;
+    }
+
+    int getChunkCount() {
+        return chunkCount;
+    }
+
+    synchronized boolean isUploaded(int index) {
+        return uploaded.get(index);
+    }
+
+    synchronized void markUploaded(int index) {
+        uploaded.set(index);
+        lastUpdate = System.currentTimeMillis();
+    }
+
+    /**
+     * Metoda nahradí evidenci přijatých částí stavem, který vrátil FileNet.
+     */
+    synchronized void reset(Collection<Integer> receivedChunks) {
+        uploaded.clear();
+        receivedChunks.stream()
+                .filter(index -> index >= 0 && index < chunkCount)
+                .forEach(uploaded::set);
+        lastUpdate = System.currentTimeMillis();
+    }
+
+    synchronized int getUploadedCount() {
+        return uploaded.cardinality();
+    }
+
+    boolean isExpired(long ttlMillis) {
+        return System.currentTimeMillis() - lastUpdate > ttlMillis;
+    }
+}
@@ -0,0 +1,318 @@
+package cz.pwf.filenet.service.upload;
+
+import cz.pwf.filenet.model.ecm.ChunkedUploadStartRequest;
+import cz.pwf.filenet.model.ecm.ChunkedUploadStatus;
+import cz.pwf.filenet.pwf_ecm_filenet_api_client.model.FileNetIdentificator;
+import cz.pwf.filenet.service.ecm.EcmRequestExecutor;
+import cz.pwf.filenet.service.ecm.EcmRetryableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.util.CollectionUtils;
+import org.springframework.web.client.HttpClientErrorException;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.CRC32C;
+
+/**
+ * Servisní třída pro nahrávání velkých dokumentů do FileNetu po částech.
+ * <p>
+ * Obsah dokumentu nad nakonfigurovanou velikostí není odesílán v jednom JSON požadavku (v Base64), ale je rozdělen
+ * na části pevné velikosti, které jsou nahrávány souběžně na sdíleném omezeném poolu vláken. Každá část je
+ * samostatné volání FileNetu přes {@link EcmRequestExecutor}, při dočasné chybě je tedy opakována pouze
+ * tato část. Pokud nahrávání části přesto selže, průběh zůstane po nakonfigurovanou dobu uložen a opakované uložení
+ * stejného obsahu naváže na části, které FileNet již přijal. Nahrávání, na které již nelze navázat (vypršel průběh,
+ * FileNet odmítl dokončení, ukončení služby), je ve FileNetu zrušeno, aby přijaté části nezůstaly uloženy
+ * do jejich vypršení ve FileNetu.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ChunkedUploadService {
+
+    private static final String START_ENDPOINT = "StartDocumentUpload";
+    private static final String STATUS_ENDPOINT = "GetDocumentUploadStatus";
+    private static final String CHUNK_ENDPOINT = "UploadDocumentChunk";
+    private static final String COMPLETE_ENDPOINT = "CompleteDocumentUpload";
+    private static final String ABORT_ENDPOINT = "AbortDocumentUpload";
+    private static final String METRIC_PREFIX = "filenet.upload";
+
+    private final EcmChunkedUploadClient ecmChunkedUploadClient;
+    private final EcmRequestExecutor ecmRequestExecutor;
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentMap<ChunkedUploadKey, ChunkedUploadProgress> uploads = new ConcurrentHashMap<>();
+
+    @Value("${filenet.upload.chunked.enabled:false}")
+    private boolean enabled;
+
+    @Value("${filenet.upload.chunked.threshold:268435456}")
+    private long threshold;
+
+    @Value("${filenet.upload.chunked.chunk-size:8388608}")
+    private int chunkSize;
+
+    @Value("${filenet.upload.chunked.threads:8}")
+    private int threads;
+
+    @Value("${filenet.upload.chunked.queue-capacity:100}")
+    private int queueCapacity;
+
+    @Value("${filenet.upload.chunked.max-parallel-chunks:4}")
+    private int maxParallelChunks;
+
+    @Value("${filenet.upload.chunked.resume-ttl:3600000}")
+    private long resumeTtl;
+
+    private ThreadPoolExecutor executor;
+    private Counter uploadedChunksCounter;
+    private Counter skippedChunksCounter;
+    private Counter resumedCounter;
+
+    @PostConstruct
+    void init() {
+        executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("filenet-upload-"),
+                ChunkedUploadService::rejected);
+        executor.allowCoreThreadTimeOut(true);
+
+        uploadedChunksCounter = meterRegistry.counter(METRIC_PREFIX + ".chunks", "outcome", "uploaded");
+        skippedChunksCounter = meterRegistry.counter(METRIC_PREFIX + ".chunks", "outcome", "skipped");
+        resumedCounter = meterRegistry.counter(METRIC_PREFIX + ".resumed");
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+        // průběh je držen pouze v paměti, po ukončení služby na nahrávání nelze navázat
+        uploads.forEach(this::abort);
+        uploads.clear();
+    }
+
+    /**
+     * Při zaplnění fronty nahraje část volající vlákno, tím je zároveň přibrzděno. Po ukončení poolu je část
+     * odmítnuta výjimkou, zahozením by nahrávání nebylo nikdy dokončeno.
+     */
+    private static void rejected(Runnable task, ThreadPoolExecutor executor) {
+        if (executor.isShutdown()) {
+            throw new RejectedExecutionException("Upload executor has been shut down");
+        }
+        task.run();
+    }
+
+    /**
+     * @param data obsah dokumentu
+     * @return Vrací {@code true}, pokud má být obsah nahrán po částech.
+     */
+    public boolean isChunked(byte[] data) {
+        return enabled && Objects.nonNull(data) && data.length >= threshold;
+    }
+
+    /**
+     * Metoda nahraje obsah dokumentu po částech a uloží dokument.
+     *
+     * @param endpointName název operace (CreateDocument, UpdateDocument), pod kterou je evidován průběh nahrávání
+     * @param kpjm         KPJM, pod kterým je dokument ukládán
+     * @param reauthorized {@code true}, pokud bylo KPJM reautorizováno z metadat dokumentu
+     * @param request      atributy ukládaného dokumentu
+     * @param data         obsah dokumentu
+     * @return Vrací identifikátor uloženého dokumentu.
+     */
+    public FileNetIdentificator upload(String endpointName, String kpjm, boolean reauthorized,
+                                       ChunkedUploadStartRequest request, byte[] data) {
+        final int chunkCount = (int) ((data.length + (long) chunkSize - 1) / chunkSize);
+        final String checksum = checksum(data);
+        final ChunkedUploadKey key = new ChunkedUploadKey(endpointName, request.getDocumentId(), request.getFilename(),
+                kpjm, data.length, checksum);
+
+        uploads.forEach((expiredKey, expired) -> {
+            if (expired.isExpired(resumeTtl) && uploads.remove(expiredKey, expired)) {
+                abort(expiredKey, expired);
+            }
+        });
+        ChunkedUploadProgress progress = resume(key, kpjm, reauthorized);
+        if (Objects.isNull(progress)) {
+            request.setSize(data.length);
+            request.setChunkSize(chunkSize);
+            request.setChunkCount(chunkCount);
+            request.setChecksum(checksum);
+            ResponseEntity<ChunkedUploadStatus> response = ecmRequestExecutor.execute(START_ENDPOINT, reauthorized,
+                    requestId -> ecmChunkedUploadClient.start(kpjm, requestId, request));
+            progress = new ChunkedUploadProgress(Objects.requireNonNull(response.getBody()).getUploadId(), chunkCount);
+            uploads.put(key, progress);
+        }
+
+        log.debug("{}: uploading {} bytes in {} chunks, upload {}", endpointName, data.length, chunkCount,
+                progress.getUploadId());
+        try {
+            uploadChunks(progress, kpjm, reauthorized, data);
+        } catch (UploadNotResumableException e) {
+            if (uploads.remove(key, progress)) {
+                abort(key, progress);
+            }
+            throw e;
+        }
+
+        final String uploadId = progress.getUploadId();
+        ResponseEntity<FileNetIdentificator> response;
+        try {
+            response = ecmRequestExecutor.execute(COMPLETE_ENDPOINT, reauthorized,
+                    requestId -> ecmChunkedUploadClient.complete(kpjm, requestId, uploadId));
+        } catch (EcmRetryableException e) {
+            // dočasné selhání, opakované uložení naváže a dokončení zopakuje
+            throw e;
+        } catch (RuntimeException e) {
+            if (uploads.remove(key, progress)) {
+                abort(key, progress);
+            }
+            throw e;
+        }
+        uploads.remove(key, progress);
+
+        return response.getBody();
+    }
+
+    /**
+     * Metoda zruší nahrávání ve FileNetu. Zrušení je pouze úklid, jeho selhání je zalogováno a jinak ignorováno.
+     */
+    private void abort(ChunkedUploadKey key, ChunkedUploadProgress progress) {
+        try {
+            ecmRequestExecutor.execute(ABORT_ENDPOINT, false,
+                    requestId -> ecmChunkedUploadClient.abort(key.getKpjm(), requestId, progress.getUploadId()));
+            log.info("Upload {} aborted, {} of {} chunks were uploaded", progress.getUploadId(),
+                    progress.getUploadedCount(), progress.getChunkCount());
+        } catch (RuntimeException e) {
+            log.warn("Upload {} could not be aborted, FileNet keeps it until it expires", progress.getUploadId(), e);
+        }
+    }
+
+    /**
+     * Metoda vrací průběh předchozího nedokončeného nahrávání stejného obsahu, aktualizovaný podle stavu
+     * ve FileNetu. Pokud takové nahrávání neexistuje nebo jej FileNet již neeviduje, vrací {@code null}.
+     */
+    private ChunkedUploadProgress resume(ChunkedUploadKey key, String kpjm, boolean reauthorized) {
+        ChunkedUploadProgress progress = uploads.get(key);
+        if (Objects.isNull(progress)) {
+            return null;
+        }
+
+        try {
+            ResponseEntity<ChunkedUploadStatus> response = ecmRequestExecutor.execute(STATUS_ENDPOINT, reauthorized,
+                    requestId -> ecmChunkedUploadClient.status(kpjm, requestId, progress.getUploadId()));
+            List<Integer> receivedChunks = Objects.isNull(response.getBody())
+                    || CollectionUtils.isEmpty(response.getBody().getReceivedChunks())
+                    ? Collections.emptyList()
+                    : response.getBody().getReceivedChunks();
+            progress.reset(receivedChunks);
+        } catch (HttpClientErrorException.NotFound e) {
+            log.info("Upload {} is no longer known to FileNet, starting a new upload", progress.getUploadId());
+            uploads.remove(key, progress);
+            return null;
+        }
+
+        resumedCounter.increment();
+        log.info("Resuming upload {}: {} of {} chunks already uploaded", progress.getUploadId(),
+                progress.getUploadedCount(), progress.getChunkCount());
+
+        return progress;
+    }
+
+    private void uploadChunks(ChunkedUploadProgress progress, String kpjm, boolean reauthorized, byte[] data) {
+        final Semaphore permits = new Semaphore(maxParallelChunks);
+        final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        final List<CompletableFuture<Void>> chunks = new ArrayList<>(progress.getChunkCount());
+
+        for (int i = 0; i < progress.getChunkCount() && Objects.isNull(failure.get()); i++) {
+            final int index = i;
+            if (progress.isUploaded(index)) {
+                skippedChunksCounter.increment();
+                continue;
+            }
+
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failure.compareAndSet(null, new UploadNotResumableException("Chunked upload interrupted", e));
+                break;
+            }
+
+            try {
+                chunks.add(CompletableFuture.runAsync(() -> {
+                    try {
+                        if (Objects.isNull(failure.get())) {
+                            uploadChunk(progress, index, kpjm, reauthorized, data);
+                        }
+                    } catch (RuntimeException e) {
+                        failure.compareAndSet(null, e);
+                    } finally {
+                        permits.release();
+                    }
+                }, executor));
+            } catch (RejectedExecutionException e) {
+                permits.release();
+                failure.compareAndSet(null, new UploadNotResumableException("Chunked upload rejected", e));
+                break;
+            }
+        }
+
+        try {
+            CompletableFuture.allOf(chunks.toArray(new CompletableFuture[0])).join();
+        } catch (CompletionException e) {
+            failure.compareAndSet(null, e);
+        }
+
+        if (Objects.nonNull(failure.get())) {
+            log.warn("Upload {} failed, {} of {} chunks uploaded, the upload can be resumed for {} ms",
+                    progress.getUploadId(), progress.getUploadedCount(), progress.getChunkCount(), resumeTtl);
+            throw failure.get();
+        }
+    }
+
+    private void uploadChunk(ChunkedUploadProgress progress, int index, String kpjm, boolean reauthorized, byte[] data) {
+        final int offset = index * chunkSize;
+        final int length = Math.min(chunkSize, data.length - offset);
+
+        ecmRequestExecutor.execute(CHUNK_ENDPOINT, reauthorized, length,
+                requestId -> ecmChunkedUploadClient.uploadChunk(kpjm, requestId, progress.getUploadId(), index,
+                        data, offset, length));
+        progress.markUploaded(index);
+        uploadedChunksCounter.increment();
+    }
+
+    private static String checksum(byte[] data) {
+        CRC32C crc = new CRC32C();
+        crc.update(data, 0, data.length);
+
+        return Long.toHexString(crc.getValue());
+    }
+
+    /**
+     * Selhání nahrávání, na které po opakování uložení nelze navázat (přerušení vlákna, ukončení služby).
+     */
+    private static final class UploadNotResumableException extends IllegalStateException {
+
+        private UploadNotResumableException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package cz.pwf.filenet.service.upload;
+
+import cz.pwf.filenet.model.ecm.ChunkedUploadStartRequest;
+import cz.pwf.filenet.model.ecm.ChunkedUploadStatus;
+import cz.pwf.filenet.pwf_ecm_filenet_api_client.model.FileNetIdentificator;
+import cz.pwf.filenet.service.ecm.EcmHeaders;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.URI;
+
+/**
+ * REST klient endpointů FileNetu pro nahrávání obsahu dokumentu po částech.
+ * <p>
+ * Endpointy nejsou součástí generovaného klienta {@code EcmApi}, klient proto používá přímo {@link RestTemplate}
+ * FileNet REST API (včetně poolu spojení, konvertorů a logování) a stejné hlavičky jako ostatní endpointy
+ * (viz {@link EcmHeaders}):
+ * <ul>
+ *     <li>{@code POST {path}} - zahájení nahrávání, vrací {@link ChunkedUploadStatus}</li>
+ *     <li>{@code GET {path}/{uploadId}} - stav nahrávání (přijaté části)</li>
+ *     <li>{@code PUT {path}/{uploadId}/chunks/{index}} - nahrání jedné části ({@code application/octet-stream})</li>
+ *     <li>{@code POST {path}/{uploadId}/complete} - složení obsahu a uložení dokumentu, vrací {@link FileNetIdentificator}</li>
+ *     <li>{@code DELETE {path}/{uploadId}} - zrušení nahrávání</li>
+ * </ul>
+ */
+@Component
+@RequiredArgsConstructor
+public class EcmChunkedUploadClient {
+
+    private final RestTemplate restTemplate;
+    private final EcmHeaders ecmHeaders;
+
+    @Value("${filenet.upload.chunked.path:/document/upload}")
+    private String path;
+
+    public ResponseEntity<ChunkedUploadStatus> start(String kpjm, String requestId, ChunkedUploadStartRequest request) {
+        HttpHeaders headers = ecmHeaders.create(kpjm, requestId);
+        headers.setContentType(MediaType.APPLICATION_JSON);
+
+        return restTemplate.exchange(uri(), HttpMethod.POST, new HttpEntity<>(request, headers), ChunkedUploadStatus.class);
+    }
+
+    public ResponseEntity<ChunkedUploadStatus> status(String kpjm, String requestId, String uploadId) {
+        return restTemplate.exchange(uri(uploadId), HttpMethod.GET,
+                new HttpEntity<>(ecmHeaders.create(kpjm, requestId)), ChunkedUploadStatus.class);
+    }
+
+    /**
+     * Metoda nahraje jednu část obsahu dokumentu.
+     *
+     * @param index  index části
+     * @param data   celý obsah dokumentu
+     * @param offset počátek části v {@code data}
+     * @param length délka části
+     */
+    public ResponseEntity<Void> uploadChunk(String kpjm, String requestId, String uploadId, int index,
+                                            byte[] data, int offset, int length) {
+        HttpHeaders headers = ecmHeaders.create(kpjm, requestId);
+        headers.setContentType(MediaType.APPLICATION_OCTET_STREAM);
+        headers.set(HttpHeaders.CONTENT_RANGE, "bytes " + offset + "-" + (offset + length - 1) + "/" + data.length);
+
+        return restTemplate.exchange(uri(uploadId, "chunks", String.valueOf(index)), HttpMethod.PUT,
+                new HttpEntity<>(new ChunkResource(data, offset, length), headers), Void.class);
+    }
+
+    public ResponseEntity<FileNetIdentificator> complete(String kpjm, String requestId, String uploadId) {
+        return restTemplate.exchange(uri(uploadId, "complete"), HttpMethod.POST,
+                new HttpEntity<>(ecmHeaders.create(kpjm, requestId)), FileNetIdentificator.class);
+    }
+
+    public ResponseEntity<Void> abort(String kpjm, String requestId, String uploadId) {
+        return restTemplate.exchange(uri(uploadId), HttpMethod.DELETE,
+                new HttpEntity<>(ecmHeaders.create(kpjm, requestId)), Void.class);
+    }
+
+    private URI uri(String... segments) {
+        return ecmHeaders.uri(path)
+                .pathSegment(segments)
+                .build()
+                .encode()
+                .toUri();
+    }
+}
@@ -0,0 +1,84 @@
+package cz.pwf.filenet.service.zeebe;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import lombok.SneakyThrows;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+
+/**
+ * Načítání Zeebe headers ze Zeebe proměnných.
+ * <p>
+ * Zeebe proměnné mohou obsahovat rozsáhlé procesní proměnné, proto nejsou deserializovány celé. JSON je čten
+ * průběžně pomocí {@link JsonParser}, všechny ostatní části jsou přeskočeny bez vytváření objektů a čtení
+ * končí, jakmile jsou nalezeny hlavičky {@code headers.uid} a {@code headers.processInstanceKey}.
+ */
+public final class ZeebeHeaderExtractor {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private static final String HEADERS_FIELD = "headers";
+    private static final String UID_FIELD = "uid";
+    private static final String PROCESS_INSTANCE_KEY_FIELD = "processInstanceKey";
+
+    private ZeebeHeaderExtractor() {
+    }
+
+    /**
+     * Metoda načte Zeebe headers ze Zeebe proměnných.
+     *
+     * @param zeebeVariables objekt obsahující Zeebe headers
+     * @return Vrací Zeebe headers, případně {@link ZeebeHeaders#EMPTY}, pokud proměnné headers neobsahují.
+     */
+    @SneakyThrows
+    public static ZeebeHeaders extract(String zeebeVariables) {
+        if (!StringUtils.hasText(zeebeVariables)) {
+            return ZeebeHeaders.EMPTY;
+        }
+
+        try (JsonParser parser = JSON_FACTORY.createParser(zeebeVariables)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return ZeebeHeaders.EMPTY;
+            }
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if (HEADERS_FIELD.equals(field) && value == JsonToken.START_OBJECT) {
+                    return readHeaders(parser);
+                }
+                parser.skipChildren();
+            }
+        }
+
+        return ZeebeHeaders.EMPTY;
+    }
+
+    private static ZeebeHeaders readHeaders(JsonParser parser) throws IOException {
+        String uid = null;
+        String processInstanceKey = null;
+        boolean uidFound = false;
+        boolean processInstanceKeyFound = false;
+        while (!(uidFound && processInstanceKeyFound) && parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if (UID_FIELD.equals(field) && value.isScalarValue()) {
+                uid = scalarValue(parser, value);
+                uidFound = true;
+            } else if (PROCESS_INSTANCE_KEY_FIELD.equals(field) && value.isScalarValue()) {
+                processInstanceKey = scalarValue(parser, value);
+                processInstanceKeyFound = true;
+            } else {
+                parser.skipChildren();
+            }
+        }
+
+        return new ZeebeHeaders(uid, processInstanceKey);
+    }
+
+    private static String scalarValue(JsonParser parser, JsonToken value) throws IOException {
+        return value == JsonToken.VALUE_NULL ? null : parser.getText();
+    }
+}
@@ -0,0 +1,48 @@
+package cz.pwf.filenet.service.zeebe;
+
+import lombok.Value;
+
+/**
+ * Zeebe headers, které služba využívá, načtené ze Zeebe proměnných.
+ */
+@Value
+public class ZeebeHeaders {
+
+    public static final ZeebeHeaders EMPTY = new ZeebeHeaders(null);
+
+    /**
+     * KPJM uživatele (hlavička {@code uid}), případně {@code null}, pokud hlavička není přítomna.
+     */
+    String uid;
+    /**
+     * Klíč instance procesu, ve které job běží (hlavička {@code processInstanceKey}), případně {@code null}.
+     */
+    String processInstanceKey;
+    /**
+     * {@code true}, pokud KPJM pochází z ověřeného uživatele REST rozhraní. Takové KPJM nelze reautorizovat
+     * atributem dokumentu.
+     */
+    boolean authenticated;
+
+    public ZeebeHeaders(String uid) {
+        this(uid, null, false);
+    }
+
+    public ZeebeHeaders(String uid, String processInstanceKey) {
+        this(uid, processInstanceKey, false);
+    }
+
+    private ZeebeHeaders(String uid, String processInstanceKey, boolean authenticated) {
+        this.uid = uid;
+        this.processInstanceKey = processInstanceKey;
+        this.authenticated = authenticated;
+    }
+
+    /**
+     * @param kpjm KPJM ověřeného uživatele REST rozhraní
+     * @return Vrací headers s KPJM ověřeného uživatele.
+     */
+    public static ZeebeHeaders authenticated(String kpjm) {
+        return new ZeebeHeaders(kpjm, null, true);
+    }
+}
@@ -0,0 +1,62 @@
+package cz.pwf.filenet.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.YamlPropertiesFactoryBean;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.util.StringUtils;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test profilu {@code cds-training}: tréninkový běh AppCDS probíhá při buildu docker image, a proto nesmí volat
+ * žádnou externí službu.
+ */
+public class CdsTrainingProfileTest {
+
+    /**
+     * Adresy služeb, na které se aplikace během startu připojuje.
+     */
+    private static final List<String> ENDPOINTS = List.of(
+            "rest.client.pwf_ecm_filenet.url",
+            "spring.datasource.url",
+            "zeebe.client.broker.contactPoint");
+
+    @Test
+    public void trainingRunMakesNoOutboundCalls() {
+        Properties defaults = load("application.yml");
+        Properties training = load("application-cds-training.yml");
+
+        assertEquals("true", training.getProperty("filenet.startup.exit-after-ready"));
+        assertEquals("false", training.getProperty("filenet.startup.warm-up.enabled"));
+        assertEquals("false", training.getProperty("spring.flyway.enabled"));
+        assertFalse(StringUtils.hasText(
+                training.getProperty("spring.security.oauth2.resourceserver.jwt.issuer-uri")));
+        assertFalse(StringUtils.hasText(
+                training.getProperty("spring.security.oauth2.resourceserver.jwt.jwk-set-uri")));
+
+        for (String endpoint : ENDPOINTS) {
+            String value = training.getProperty(endpoint, defaults.getProperty(endpoint));
+            assertTrue(isLoopback(value), endpoint + " must point to loopback, was " + value);
+        }
+    }
+
+    private static boolean isLoopback(String value) {
+        String address = value.startsWith("jdbc:") ? value.substring("jdbc:".length()) : value;
+        String host = address.contains("://") ? URI.create(address).getHost() : address.split(":")[0];
+
+        return "127.0.0.1".equals(host) || "localhost".equals(host);
+    }
+
+    private static Properties load(String resource) {
+        YamlPropertiesFactoryBean factory = new YamlPropertiesFactoryBean();
+        factory.setResources(new ClassPathResource(resource));
+
+        return factory.getObject();
+    }
+}
@@ -0,0 +1,222 @@
+package cz.pwf.filenet.config.rest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import cz.pwf.filenet.model.ecm.StreamingCreateDocumentBodyRequest;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test komprese těla požadavků a odpovědí FileNet klienta proti lokálnímu HTTP serveru.
+ */
+public class EcmCompressionTest {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private HttpServer server;
+    private String baseUrl;
+    private PoolingHttpClientConnectionManager connectionManager;
+    private CloseableHttpClient httpClient;
+
+    private volatile byte[] receivedBody;
+    private volatile String receivedContentEncoding;
+    private volatile String receivedAcceptEncoding;
+    private volatile int sentResponseBytes;
+
+    @BeforeEach
+    public void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/document", this::handle);
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @AfterEach
+    public void stopServer() throws IOException {
+        if (httpClient != null) {
+            httpClient.close();
+            connectionManager.close();
+        }
+        server.stop(0);
+    }
+
+    @Test
+    public void gzipRequestBody() throws IOException {
+        RestTemplate restTemplate = restTemplate("gzip", "gzip,deflate");
+        byte[] data = compressibleContent(1024 * 1024);
+
+        JsonNode response = restTemplate.postForObject(baseUrl + "/document", createRequest(data, "text/plain"), JsonNode.class);
+
+        assertEquals("gzip", receivedContentEncoding);
+        byte[] json = gunzip(receivedBody);
+        assertArrayEquals(data, Base64.getDecoder().decode(OBJECT_MAPPER.readTree(json).get("data").asText()));
+        assertEquals("doc.txt", OBJECT_MAPPER.readTree(json).get("filename").asText());
+        assertTrue(receivedBody.length * 10 < json.length,
+                "Compressed request " + receivedBody.length + " B, uncompressed " + json.length + " B");
+        assertEquals(json.length, response.get("length").asInt());
+    }
+
+    @Test
+    public void deflateRequestBody() throws IOException {
+        RestTemplate restTemplate = restTemplate("deflate", "gzip,deflate");
+        byte[] data = compressibleContent(64 * 1024);
+
+        restTemplate.postForObject(baseUrl + "/document", createRequest(data, "text/plain"), JsonNode.class);
+
+        assertEquals("deflate", receivedContentEncoding);
+        byte[] json = new InflaterInputStream(new ByteArrayInputStream(receivedBody)).readAllBytes();
+        assertArrayEquals(data, Base64.getDecoder().decode(OBJECT_MAPPER.readTree(json).get("data").asText()));
+    }
+
+    @Test
+    public void smallAndCompressedContentIsNotCompressed() throws IOException {
+        RestTemplate restTemplate = restTemplate("gzip", "gzip,deflate");
+
+        restTemplate.postForObject(baseUrl + "/document", createRequest(compressibleContent(100), "text/plain"), JsonNode.class);
+        assertNull(receivedContentEncoding);
+
+        byte[] data = compressibleContent(64 * 1024);
+        restTemplate.postForObject(baseUrl + "/document", createRequest(data, "image/png"), JsonNode.class);
+        assertNull(receivedContentEncoding);
+        assertArrayEquals(data, Base64.getDecoder().decode(OBJECT_MAPPER.readTree(receivedBody).get("data").asText()));
+    }
+
+    @Test
+    public void gzipResponseBody() {
+        RestTemplate restTemplate = restTemplate("none", "gzip,deflate");
+
+        JsonNode response = restTemplate.postForObject(baseUrl + "/document",
+                createRequest(compressibleContent(256 * 1024), "text/plain"), JsonNode.class);
+
+        assertTrue(receivedAcceptEncoding.contains("gzip"));
+        assertNull(receivedContentEncoding);
+        assertEquals(receivedBody.length, response.get("length").asInt());
+        assertTrue(sentResponseBytes * 10 < response.get("echo").asText().length(),
+                "Compressed response " + sentResponseBytes + " B, uncompressed " + response.get("echo").asText().length() + " B");
+    }
+
+    @Test
+    public void responseCompressionDisabled() {
+        RestTemplate restTemplate = restTemplate("none", "");
+
+        JsonNode response = restTemplate.postForObject(baseUrl + "/document",
+                createRequest(compressibleContent(1024), "text/plain"), JsonNode.class);
+
+        assertNull(receivedAcceptEncoding);
+        assertEquals(receivedBody.length, response.get("length").asInt());
+    }
+
+    private RestTemplate restTemplate(String requestEncoding, String responseEncodings) {
+        RestTemplateConfig config = new RestTemplateConfig();
+        ReflectionTestUtils.setField(config, "transport", "apache");
+        ReflectionTestUtils.setField(config, "streamingEnabled", true);
+        ReflectionTestUtils.setField(config, "streamingMemoryThreshold", 1024 * 1024);
+        ReflectionTestUtils.setField(config, "streamingTempDirectory", "");
+        ReflectionTestUtils.setField(config, "loggingRedactedFields", Set.of());
+        ReflectionTestUtils.setField(config, "loggingTruncatedFields", Set.of());
+        ReflectionTestUtils.setField(config, "requestCompressionEncoding", requestEncoding);
+        ReflectionTestUtils.setField(config, "requestCompressionMinSize", 16 * 1024);
+        ReflectionTestUtils.setField(config, "requestCompressionSkippedMimeTypes", List.of("image/*", "application/zip"));
+        ReflectionTestUtils.setField(config, "responseCompressionEncodings", List.of(responseEncodings.split(",")));
+        ReflectionTestUtils.setField(config, "poolMaxTotal", 10);
+        ReflectionTestUtils.setField(config, "poolMaxPerRoute", 10);
+        ReflectionTestUtils.setField(config, "poolValidateAfterInactivity", 2000);
+        ReflectionTestUtils.setField(config, "poolIdleEviction", 30000L);
+        ReflectionTestUtils.setField(config, "poolKeepAlive", 30000L);
+        ReflectionTestUtils.setField(config, "connectTimeout", 5000);
+        ReflectionTestUtils.setField(config, "socketTimeout", 30000);
+        ReflectionTestUtils.setField(config, "poolAcquireTimeout", 5000);
+
+        connectionManager = config.ecmConnectionManager();
+        httpClient = config.ecmHttpClient(connectionManager);
+
+        return config.restTemplate(new StaticListableBeanFactory(Map.of("ecmHttpClient", httpClient))
+                .getBeanProvider(CloseableHttpClient.class), null);
+    }
+
+    private static StreamingCreateDocumentBodyRequest createRequest(byte[] data, String mimetype) {
+        StreamingCreateDocumentBodyRequest request = new StreamingCreateDocumentBodyRequest();
+        request.setFilename("doc.txt");
+        request.setMimetype(mimetype);
+        request.setRawData(data);
+
+        return request;
+    }
+
+    private static byte[] compressibleContent(int length) {
+        byte[] line = "Lorem ipsum dolor sit amet, consectetur adipiscing elit.\n".getBytes(StandardCharsets.US_ASCII);
+        byte[] data = new byte[length];
+        for (int i = 0; i < length; i++) {
+            data[i] = line[i % line.length];
+        }
+
+        return data;
+    }
+
+    private static byte[] gunzip(byte[] data) throws IOException {
+        try (InputStream inputStream = new GZIPInputStream(new ByteArrayInputStream(data))) {
+            return inputStream.readAllBytes();
+        }
+    }
+
+    /**
+     * Server uloží přijaté tělo požadavku a vrátí jeho délku (po dekompresi) a obsah, komprimovaný podle hlavičky
+     * {@code Accept-Encoding}.
+     */
+    private void handle(HttpExchange exchange) throws IOException {
+        receivedBody = exchange.getRequestBody().readAllBytes();
+        receivedContentEncoding = exchange.getRequestHeaders().getFirst(HttpHeaders.CONTENT_ENCODING);
+        receivedAcceptEncoding = exchange.getRequestHeaders().getFirst(HttpHeaders.ACCEPT_ENCODING);
+
+        byte[] json = "gzip".equals(receivedContentEncoding) ? gunzip(receivedBody)
+                : "deflate".equals(receivedContentEncoding) ? new InflaterInputStream(new ByteArrayInputStream(receivedBody)).readAllBytes()
+                : receivedBody;
+        byte[] response = OBJECT_MAPPER.writeValueAsBytes(Map.of("length", json.length,
+                "echo", new String(json, StandardCharsets.UTF_8)));
+
+        exchange.getResponseHeaders().set(HttpHeaders.CONTENT_TYPE, "application/json");
+        if (receivedAcceptEncoding != null && receivedAcceptEncoding.contains("gzip")) {
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+            try (OutputStream outputStream = new GZIPOutputStream(compressed)) {
+                outputStream.write(response);
+            }
+            response = compressed.toByteArray();
+            exchange.getResponseHeaders().set(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+
+        sentResponseBytes = response.length;
+        exchange.sendResponseHeaders(200, response.length);
+        try (OutputStream outputStream = exchange.getResponseBody()) {
+            outputStream.write(response);
+        }
+    }
+}
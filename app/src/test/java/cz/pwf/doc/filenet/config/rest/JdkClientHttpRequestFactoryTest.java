@@ -0,0 +1,271 @@
+package cz.pwf.filenet.config.rest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import cz.pwf.filenet.model.ecm.StreamingCreateDocumentBodyRequest;
+import org.eclipse.jetty.http2.server.HTTP2CServerConnectionFactory;
+import org.eclipse.jetty.server.ConnectionFactory;
+import org.eclipse.jetty.server.HttpConfiguration;
+import org.eclipse.jetty.server.HttpConnectionFactory;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+import org.eclipse.jetty.server.handler.AbstractHandler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test HTTP/2 transportu FileNet klienta ({@link JdkClientHttpRequestFactory}) proti lokálnímu serveru s podporou
+ * h2c, případně pouze HTTP/1.1.
+ */
+public class JdkClientHttpRequestFactoryTest {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final Set<Integer> remotePorts = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private final AtomicInteger headRequests = new AtomicInteger();
+
+    private Server server;
+    private String baseUrl;
+
+    @AfterEach
+    public void stopServer() throws Exception {
+        server.stop();
+    }
+
+    @Test
+    public void concurrentRequestsAreMultiplexed() throws Exception {
+        startServer(true);
+        JdkClientHttpRequestFactory requestFactory = requestFactory(HttpClient.Version.HTTP_2);
+
+        // první požadavek provede upgrade spojení na h2c, server jej sám zpracuje ještě jako HTTP/1.1
+        assertEquals("HTTP/1.1", get(requestFactory, "/protocol"));
+        assertEquals("HTTP/2.0", get(requestFactory, "/protocol"));
+        remotePorts.clear();
+
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 32; i++) {
+                results.add(executor.submit(() -> get(requestFactory, "/protocol?delay=100")));
+            }
+            for (Future<String> result : results) {
+                assertEquals("HTTP/2.0", result.get(30, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, remotePorts.size(), "Connections: " + remotePorts);
+        assertTrue(maxInFlight.get() > 1, "Max concurrent requests: " + maxInFlight.get());
+    }
+
+    @Test
+    public void fallbackToHttp11() throws Exception {
+        startServer(false);
+        JdkClientHttpRequestFactory requestFactory = requestFactory(HttpClient.Version.HTTP_2);
+
+        ClientHttpRequest request = requestFactory.createRequest(URI.create(baseUrl + "/protocol"), HttpMethod.GET);
+        try (ClientHttpResponse response = request.execute()) {
+            assertEquals(200, response.getRawStatusCode());
+            assertEquals(HttpClient.Version.HTTP_1_1, ((JdkClientHttpResponse) response).getVersion());
+            assertEquals("HTTP/1.1", new String(response.getBody().readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    public void streamingRequestBody() throws Exception {
+        startServer(true);
+        JdkClientHttpRequestFactory requestFactory = requestFactory(HttpClient.Version.HTTP_2);
+        get(requestFactory, "/protocol");
+
+        byte[] data = new byte[5 * 1024 * 1024 + 17];
+        new Random(42).nextBytes(data);
+
+        for (boolean knownLength : new boolean[]{true, false}) {
+            ClientHttpRequest request = requestFactory.createRequest(URI.create(baseUrl + "/echo"), HttpMethod.PUT);
+            if (knownLength) {
+                request.getHeaders().setContentLength(data.length);
+            }
+            OutputStream body = request.getBody();
+            for (int offset = 0; offset < data.length; offset += 10_000) {
+                body.write(data, offset, Math.min(10_000, data.length - offset));
+            }
+
+            try (ClientHttpResponse response = request.execute()) {
+                assertEquals(200, response.getRawStatusCode());
+                assertEquals("HTTP/2.0", response.getHeaders().getFirst("X-Protocol"));
+                assertArrayEquals(data, response.getBody().readAllBytes());
+            }
+        }
+    }
+
+    @Test
+    public void restTemplateWithJdkTransport() throws Exception {
+        startServer(true);
+        RestTemplate restTemplate = restTemplate();
+        byte[] data = new byte[256 * 1024];
+        new Random(7).nextBytes(data);
+
+        StreamingCreateDocumentBodyRequest request = new StreamingCreateDocumentBodyRequest();
+        request.setFilename("doc.pdf");
+        request.setMimetype("application/pdf");
+        request.setRawData(data);
+        JsonNode response = restTemplate.postForObject(baseUrl + "/document", request, JsonNode.class);
+
+        assertEquals("gzip", response.get("acceptEncoding").asText().split(",")[0].trim());
+        assertArrayEquals(data, Base64.getDecoder().decode(OBJECT_MAPPER.readTree(response.get("echo").asText())
+                .get("data").asText()));
+        assertNull(restTemplate.headForHeaders(baseUrl + "/protocol").getFirst(HttpHeaders.CONTENT_ENCODING));
+    }
+
+    @Test
+    public void warmUpUsesJdkTransport() throws Exception {
+        startServer(true);
+        RestTemplate restTemplate = restTemplate();
+        EcmConnectionWarmUp warmUp = new EcmConnectionWarmUp(restTemplate);
+        ReflectionTestUtils.setField(warmUp, "enabled", true);
+        ReflectionTestUtils.setField(warmUp, "connections", 4);
+        ReflectionTestUtils.setField(warmUp, "path", "/protocol");
+        ReflectionTestUtils.setField(warmUp, "apiBaseUrl", baseUrl);
+
+        warmUp.afterSingletonsInstantiated();
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while ((headRequests.get() < 4 || inFlight.get() > 0) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(4, headRequests.get());
+        // spojení bylo během zahřátí převedeno na h2c, první požadavek aplikace je již odeslán pomocí HTTP/2
+        assertEquals("HTTP/2.0", restTemplate.getForObject(baseUrl + "/protocol", String.class));
+    }
+
+    private RestTemplate restTemplate() {
+        RestTemplateConfig config = new RestTemplateConfig();
+        ReflectionTestUtils.setField(config, "transport", "jdk");
+        ReflectionTestUtils.setField(config, "jdkHttpVersion", HttpClient.Version.HTTP_2);
+        ReflectionTestUtils.setField(config, "streamingEnabled", true);
+        ReflectionTestUtils.setField(config, "streamingMemoryThreshold", 1024 * 1024);
+        ReflectionTestUtils.setField(config, "streamingTempDirectory", "");
+        ReflectionTestUtils.setField(config, "requestCompressionEncoding", "none");
+        ReflectionTestUtils.setField(config, "requestCompressionSkippedMimeTypes", List.of());
+        ReflectionTestUtils.setField(config, "responseCompressionEncodings", List.of("gzip", "deflate"));
+        ReflectionTestUtils.setField(config, "connectTimeout", 5000);
+        ReflectionTestUtils.setField(config, "socketTimeout", 30000);
+
+        return config.restTemplate(null, null);
+    }
+
+    private static JdkClientHttpRequestFactory requestFactory(HttpClient.Version version) {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(version)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+
+        return new JdkClientHttpRequestFactory(httpClient, Duration.ofSeconds(30), false, List.of());
+    }
+
+    private String get(JdkClientHttpRequestFactory requestFactory, String path) throws IOException {
+        ClientHttpRequest request = requestFactory.createRequest(URI.create(baseUrl + path), HttpMethod.GET);
+        try (ClientHttpResponse response = request.execute()) {
+            return new String(response.getBody().readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private void startServer(boolean h2c) throws Exception {
+        HttpConfiguration configuration = new HttpConfiguration();
+        ConnectionFactory[] connectionFactories = h2c
+                ? new ConnectionFactory[]{new HttpConnectionFactory(configuration), new HTTP2CServerConnectionFactory(configuration)}
+                : new ConnectionFactory[]{new HttpConnectionFactory(configuration)};
+
+        server = new Server();
+        ServerConnector connector = new ServerConnector(server, connectionFactories);
+        connector.setHost("127.0.0.1");
+        server.addConnector(connector);
+        server.setHandler(new AbstractHandler() {
+            @Override
+            public void handle(String target, Request baseRequest, HttpServletRequest request,
+                               HttpServletResponse response) throws IOException {
+                baseRequest.setHandled(true);
+                JdkClientHttpRequestFactoryTest.this.handle(target, request, response);
+            }
+        });
+        server.start();
+        baseUrl = "http://127.0.0.1:" + connector.getLocalPort();
+    }
+
+    /**
+     * {@code /protocol} vrací protokol požadavku, {@code /echo} vrací tělo požadavku a {@code /document} vrací
+     * JSON s tělem požadavku komprimovaný pomocí gzip.
+     */
+    private void handle(String target, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        remotePorts.add(request.getRemotePort());
+        if (HttpMethod.HEAD.matches(request.getMethod())) {
+            headRequests.incrementAndGet();
+        }
+        maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        try {
+            if (request.getParameter("delay") != null) {
+                Thread.sleep(Long.parseLong(request.getParameter("delay")));
+            }
+
+            byte[] requestBody = request.getInputStream().readAllBytes();
+            response.setHeader("X-Protocol", request.getProtocol());
+            if ("/echo".equals(target)) {
+                response.getOutputStream().write(requestBody);
+            } else if ("/document".equals(target)) {
+                ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+                try (OutputStream outputStream = new GZIPOutputStream(compressed)) {
+                    outputStream.write(OBJECT_MAPPER.writeValueAsBytes(Map.of(
+                            "acceptEncoding", String.valueOf(request.getHeader(HttpHeaders.ACCEPT_ENCODING)),
+                            "echo", new String(requestBody, StandardCharsets.UTF_8))));
+                }
+                response.setContentType("application/json");
+                response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+                response.getOutputStream().write(compressed.toByteArray());
+            } else {
+                response.getOutputStream().write(request.getProtocol().getBytes(StandardCharsets.UTF_8));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package cz.pwf.filenet.config.rest;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test průběžného filtru JSON těla HTTP zprávy pro logování.
+ */
+public class JsonLogFilterTest {
+
+    private static final Set<String> REDACTED = Set.of("password");
+    private static final Set<String> TRUNCATED = Set.of("content", "data");
+    private static final int MAX_FIELD_LENGTH = 4;
+    private static final int MAX_BODY_LENGTH = 1024;
+
+    @Test
+    public void redactedFieldIsReplaced() {
+        assertEquals("{\"user\":\"KPJM1\",\"password\":\"#\",\"id\":1}",
+                filter("{\"user\":\"KPJM1\",\"password\":\"secret\",\"id\":1}"));
+        assertEquals("{ \"password\" : \"#\" }", filter("{ \"password\" : \"secret\" }"));
+        // stejný text jako hodnota, ne jako název položky, není nahrazen
+        assertEquals("{\"user\":\"password\",\"x\":\"y\"}", filter("{\"user\":\"password\",\"x\":\"y\"}"));
+    }
+
+    @Test
+    public void truncatedFieldKeepsPrefixAndLength() {
+        assertEquals("{\"data\":\"QUJD...(12 bytes)\",\"content\":\"QUJD\"}",
+                filter("{\"data\":\"QUJDREVGR0hJ\",\"content\":\"QUJD\"}"));
+    }
+
+    @Test
+    public void resultDoesNotDependOnBufferBoundaries() {
+        String body = "{\"password\":\"se\\\"cret\",\"doc\":{\"data\":\"QUJDREVGR0hJ\",\"name\":\"a\\\\b\"},"
+                + "\"list\":[\"password\",{\"password\":\"x\"}]}";
+        String expected = filter(body);
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+
+        // každé rozdělení těla na tři části, tj. i rozdělení názvu položky a escape sekvence
+        for (int i = 0; i <= bytes.length; i++) {
+            for (int j = i; j <= bytes.length; j++) {
+                JsonLogFilter filter = newFilter(MAX_BODY_LENGTH);
+                filter.write(bytes, 0, i);
+                filter.write(bytes, i, j - i);
+                filter.write(bytes, j, bytes.length - j);
+                assertEquals(expected, filter.toString(), "split at " + i + ", " + j);
+            }
+        }
+
+        JsonLogFilter byteByByte = newFilter(MAX_BODY_LENGTH);
+        for (byte b : bytes) {
+            byteByByte.write(b);
+        }
+        assertEquals(expected, byteByByte.toString());
+    }
+
+    @Test
+    public void escapedQuotesAndBackslashesDoNotEndString() {
+        assertEquals("{\"password\":\"#\",\"user\":\"KPJM1\"}",
+                filter("{\"password\":\"a\\\"b\\\\\",\"user\":\"KPJM1\"}"));
+        assertEquals("{\"note\":\"\\\"password\\\":\\\"x\\\"\"}",
+                filter("{\"note\":\"\\\"password\\\":\\\"x\\\"\"}"));
+        assertEquals("{\"data\":\"\\\"\\\\...(7 bytes)\"}", filter("{\"data\":\"\\\"\\\\bcd\"}"));
+    }
+
+    @Test
+    public void truncationDoesNotEndWithIncompleteEscape() {
+        // čtvrtý bajt hodnoty je začátek escape sekvence, která se do prefixu nevejde
+        assertEquals("{\"data\":\"abc...(6 bytes)\"}", filter("{\"data\":\"abc\\\"d\"}"));
+    }
+
+    @Test
+    public void nestedObjectsAndArrays() {
+        assertEquals("{\"doc\":{\"id\":{\"password\":\"#\"},\"items\":[{\"data\":\"QUJD...(8 bytes)\"},[\"password\"]]},"
+                        + "\"password\":[\"x\"]}",
+                filter("{\"doc\":{\"id\":{\"password\":\"s\"},\"items\":[{\"data\":\"QUJDREVG\"},[\"password\"]]},"
+                        + "\"password\":[\"x\"]}"));
+    }
+
+    @Test
+    public void nonJsonBodyIsCopied() {
+        assertEquals("Service Unavailable: password expired", filter("Service Unavailable: password expired"));
+        assertEquals("<error code=\"503\">password</error>", filter("<error code=\"503\">password</error>"));
+        assertEquals("", filter(""));
+    }
+
+    @Test
+    public void bodyIsCappedWithTruncationMarker() {
+        String body = "{\"name\":\"" + "x".repeat(100) + "\"}";
+        JsonLogFilter filter = newFilter(20);
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        filter.write(bytes, 0, bytes.length);
+
+        assertTrue(filter.isFull());
+        assertEquals(body.substring(0, 20) + "... [truncated, " + bytes.length + " bytes read]", filter.toString());
+    }
+
+    @Test
+    public void bodyAtCapIsNotMarked() {
+        String body = "{\"name\":\"" + "x".repeat(9) + "\"}";
+        JsonLogFilter filter = newFilter(body.length());
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        filter.write(bytes, 0, bytes.length);
+
+        assertFalse(filter.isFull());
+        assertEquals(body, filter.toString());
+    }
+
+    private static String filter(String body) {
+        JsonLogFilter filter = newFilter(MAX_BODY_LENGTH);
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        filter.write(bytes, 0, bytes.length);
+        return filter.toString();
+    }
+
+    private static JsonLogFilter newFilter(int maxBodyLength) {
+        return new JsonLogFilter(REDACTED, TRUNCATED, MAX_FIELD_LENGTH, maxBodyLength);
+    }
+}
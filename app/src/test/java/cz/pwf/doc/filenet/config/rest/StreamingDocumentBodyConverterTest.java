@@ -0,0 +1,118 @@
+package cz.pwf.filenet.config.rest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import cz.pwf.filenet.model.ecm.StreamingCreateDocumentBodyRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test zápisu požadavku na uložení obsahu dokumentu proti lokálnímu HTTP serveru. Požadavek je odeslán
+ * s pevnou délkou podle {@code Content-Length}, nesouhlasící délka by tedy odeslání požadavku přerušila.
+ */
+public class StreamingDocumentBodyConverterTest {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private HttpServer server;
+    private String baseUrl;
+    private RestTemplate restTemplate;
+
+    private volatile byte[] receivedBody;
+    private volatile String receivedContentLength;
+
+    @BeforeEach
+    public void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/document", this::handle);
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setBufferRequestBody(false);
+        restTemplate = new RestTemplate(requestFactory);
+        restTemplate.setMessageConverters(List.of(new StreamingDocumentBodyConverter()));
+    }
+
+    @AfterEach
+    public void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    public void bodyRoundTrip() throws IOException {
+        // délky pokrývají všechny varianty Base64 paddingu
+        for (int length : new int[]{1, 2, 3, 100_000}) {
+            byte[] data = new byte[length];
+            new Random(length).nextBytes(data);
+
+            restTemplate.postForLocation(baseUrl + "/document", request(data, "doc \"1\".txt"));
+
+            assertEquals(String.valueOf(receivedBody.length), receivedContentLength);
+            JsonNode body = OBJECT_MAPPER.readTree(receivedBody);
+            assertArrayEquals(data, Base64.getDecoder().decode(body.get("data").asText()));
+            assertEquals("doc \"1\".txt", body.get("filename").asText());
+            assertEquals("application/pdf", body.get("mimetype").asText());
+            assertEquals("ns", body.get("namespace").asText());
+        }
+    }
+
+    @Test
+    public void emptyContent() throws IOException {
+        restTemplate.postForLocation(baseUrl + "/document", request(new byte[0], "empty.txt"));
+
+        assertEquals(String.valueOf(receivedBody.length), receivedContentLength);
+        JsonNode body = OBJECT_MAPPER.readTree(receivedBody);
+        assertEquals("empty.txt", body.get("filename").asText());
+        assertTrue(body.get("data").isNull());
+    }
+
+    @Test
+    public void nonAsciiAttributesAreCounted() throws IOException {
+        byte[] data = "obsah".getBytes(StandardCharsets.UTF_8);
+
+        restTemplate.postForLocation(baseUrl + "/document", request(data, "žluťoučký kůň.txt"));
+
+        assertEquals(String.valueOf(receivedBody.length), receivedContentLength);
+        assertEquals("žluťoučký kůň.txt", OBJECT_MAPPER.readTree(receivedBody).get("filename").asText());
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange; InputStream body = exchange.getRequestBody()) {
+            receivedBody = body.readAllBytes();
+            receivedContentLength = exchange.getRequestHeaders().getFirst(HttpHeaders.CONTENT_LENGTH);
+            exchange.sendResponseHeaders(201, -1);
+            OutputStream responseBody = exchange.getResponseBody();
+            responseBody.close();
+        }
+    }
+
+    private static StreamingCreateDocumentBodyRequest request(byte[] data, String filename) {
+        StreamingCreateDocumentBodyRequest request = new StreamingCreateDocumentBodyRequest();
+        request.setFilename(filename);
+        request.setMimetype("application/pdf");
+        request.setNamespace("ns");
+        request.setRawData(data);
+
+        return request;
+    }
+}
@@ -0,0 +1,133 @@
+package cz.pwf.filenet.config.rest;
+
+import cz.pwf.filenet.model.ecm.SpooledGetDocumentResponse;
+import cz.pwf.filenet.pwf_ecm_filenet_api_client.model.GetDocumentResponse;
+import cz.pwf.filenet.service.content.SpooledContent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.mock.http.MockHttpInputMessage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Base64;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test průběžného dekódování obsahu odpovědi endpointu GetDocument do paměti a do dočasného souboru.
+ */
+public class StreamingGetDocumentResponseConverterTest {
+
+    private static final int MEMORY_THRESHOLD = 1024;
+
+    @TempDir
+    Path tempDirectory;
+
+    @Test
+    public void smallContentIsKeptInMemory() throws IOException {
+        byte[] data = data(MEMORY_THRESHOLD);
+
+        SpooledContent content = read(body(data)).getSpooledContent();
+        try (content) {
+            assertFalse(content.isSpilled());
+            assertEquals(data.length, content.size());
+            assertArrayEquals(data, content.toByteArray());
+            assertArrayEquals(data, readAll(content));
+        }
+        assertEquals(0, tempFiles());
+    }
+
+    @Test
+    public void largeContentIsSpilledToFileDeletedOnClose() throws IOException {
+        byte[] data = data(10 * MEMORY_THRESHOLD + 1);
+
+        SpooledGetDocumentResponse response = read(body(data));
+        SpooledContent content = response.getSpooledContent();
+        assertTrue(content.isSpilled());
+        assertEquals(data.length, content.size());
+        assertEquals(1, tempFiles());
+        assertArrayEquals(data, readAll(content));
+        // ostatní atributy jsou namapovány i za obsahem dokumentu
+        assertEquals("{id-1}", response.getId().getId());
+        assertEquals("2.0", response.getId().getVersion());
+        assertNull(response.getContent());
+
+        content.close();
+        assertEquals(0, tempFiles());
+    }
+
+    @Test
+    public void emptyContent() throws IOException {
+        try (SpooledContent content = read(body(new byte[0])).getSpooledContent()) {
+            assertFalse(content.isSpilled());
+            assertEquals(0, content.size());
+            assertArrayEquals(new byte[0], content.toByteArray());
+        }
+    }
+
+    @Test
+    public void nullContent() throws IOException {
+        SpooledGetDocumentResponse response = read("{\"id\":{\"id\":\"{id-1}\"},\"content\":null}");
+
+        assertNull(response.getSpooledContent());
+        assertNull(response.getContent());
+        assertEquals("{id-1}", response.getId().getId());
+    }
+
+    @Test
+    public void invalidContentDeletesTemporaryFile() throws IOException {
+        String body = "{\"content\":\"" + Base64.getEncoder().encodeToString(data(10 * MEMORY_THRESHOLD)) + "!\"}";
+
+        assertThrows(HttpMessageNotReadableException.class, () -> read(body));
+        assertEquals(0, tempFiles());
+    }
+
+    @Test
+    public void nonObjectResponseIsRejected() {
+        assertThrows(HttpMessageNotReadableException.class, () -> read("[]"));
+    }
+
+    private SpooledGetDocumentResponse read(String body) throws IOException {
+        StreamingGetDocumentResponseConverter converter = new StreamingGetDocumentResponseConverter(MEMORY_THRESHOLD,
+                tempDirectory);
+        GetDocumentResponse response = converter.read(GetDocumentResponse.class,
+                new MockHttpInputMessage(body.getBytes(StandardCharsets.UTF_8)));
+
+        return assertInstanceOf(SpooledGetDocumentResponse.class, response);
+    }
+
+    private static String body(byte[] data) {
+        return "{\"content\":\"" + Base64.getEncoder().encodeToString(data) + "\",\"id\":{\"id\":\"{id-1}\","
+                + "\"version\":\"2.0\"}}";
+    }
+
+    private static byte[] readAll(SpooledContent content) throws IOException {
+        try (InputStream stream = content.openStream()) {
+            return stream.readAllBytes();
+        }
+    }
+
+    private long tempFiles() throws IOException {
+        try (Stream<Path> files = Files.list(tempDirectory)) {
+            return files.count();
+        }
+    }
+
+    private static byte[] data(int length) {
+        byte[] data = new byte[length];
+        new Random(length).nextBytes(data);
+        return data;
+    }
+}
@@ -0,0 +1,92 @@
+package cz.pwf.filenet.controller;
+
+import cz.notix.document.plugin.connector.dto.DMSDocumentId;
+import cz.notix.document.plugin.connector.dto.DMSDocumentInfo;
+import cz.notix.document.plugin.connector.dto.DMSDocumentNew;
+import cz.pwf.filenet.model.batch.BatchCreateRequest;
+import cz.pwf.filenet.model.batch.BatchDocumentIdsRequest;
+import cz.pwf.filenet.model.batch.BatchItemResult;
+import cz.pwf.filenet.service.FileNetBatchService;
+import cz.pwf.filenet.service.zeebe.ZeebeHeaders;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.security.Principal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test REST rozhraní dávkových operací, zejména předání KPJM ověřeného uživatele.
+ */
+public class DocumentBatchControllerTest {
+
+    private static final Principal PRINCIPAL = () -> "KPJM1";
+
+    private final FileNetBatchService batchService = mock(FileNetBatchService.class);
+    private final DocumentBatchController controller = new DocumentBatchController(batchService);
+
+    @Test
+    public void operationsRunUnderAuthenticatedUser() {
+        List<DMSDocumentId> ids = List.of(new DMSDocumentId("ns", "doc-1", null));
+        List<DMSDocumentNew> docs = List.of();
+        List<BatchItemResult<DMSDocumentInfo>> infos = List.of(BatchItemResult.succeeded(0, new DMSDocumentInfo()));
+        List<BatchItemResult<DMSDocumentId>> deleted = List.of(BatchItemResult.succeeded(0, ids.get(0)));
+        when(batchService.createAll(any(), any())).thenReturn(infos);
+        when(batchService.getInfoAll(any(), any())).thenReturn(infos);
+        when(batchService.deleteAll(any(), any())).thenReturn(deleted);
+
+        ResponseEntity<List<BatchItemResult<DMSDocumentInfo>>> created = controller.createDocuments(create(docs),
+                PRINCIPAL);
+        ResponseEntity<List<BatchItemResult<DMSDocumentInfo>>> info = controller.getDocumentsInfo(ids(ids), PRINCIPAL);
+        ResponseEntity<List<BatchItemResult<DMSDocumentId>>> delete = controller.deleteDocuments(ids(ids), PRINCIPAL);
+
+        assertEquals(HttpStatus.OK, created.getStatusCode());
+        assertSame(infos, created.getBody());
+        assertSame(infos, info.getBody());
+        assertSame(deleted, delete.getBody());
+        ZeebeHeaders headers = ZeebeHeaders.authenticated("KPJM1");
+        verify(batchService).createAll(docs, headers);
+        verify(batchService).getInfoAll(ids, headers);
+        verify(batchService).deleteAll(ids, headers);
+    }
+
+    @Test
+    public void unauthenticatedRequestIsRejected() {
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> controller.getDocumentsInfo(ids(List.of()), null));
+
+        assertEquals(HttpStatus.UNAUTHORIZED, e.getStatus());
+        verifyNoInteractions(batchService);
+    }
+
+    @Test
+    public void invalidBatchIsBadRequest() {
+        ResponseEntity<String> response = controller.badRequest(new IllegalArgumentException("Batch size 1001"));
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        // podrobnosti chyby nejsou volajícímu vraceny
+        assertEquals("Invalid batch request", response.getBody());
+    }
+
+    private static BatchCreateRequest create(List<DMSDocumentNew> docs) {
+        BatchCreateRequest request = new BatchCreateRequest();
+        request.setDocuments(docs);
+        return request;
+    }
+
+    private static BatchDocumentIdsRequest ids(List<DMSDocumentId> ids) {
+        BatchDocumentIdsRequest request = new BatchDocumentIdsRequest();
+        request.setIds(ids);
+        return request;
+    }
+}
@@ -0,0 +1,95 @@
+package cz.pwf.filenet.controller;
+
+import cz.pwf.filenet.model.content.DocumentContentRange;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.io.ByteArrayInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test určení požadované části obsahu dokumentu a stavu odpovědi REST rozhraní.
+ */
+public class DocumentContentControllerTest {
+
+    @Test
+    public void rangeHeaderIsParsed() {
+        assertEquals(new ByteRange(100, 50, true), ByteRange.of("bytes=100-149", null, null));
+        assertEquals(new ByteRange(100, Long.MAX_VALUE, true), ByteRange.of("bytes=100-", null, null));
+        // hlavička má přednost před parametry
+        assertEquals(new ByteRange(0, 10, true), ByteRange.of("bytes=0-9", 100L, 50L));
+    }
+
+    @Test
+    public void unsupportedRangeHeaderIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> ByteRange.of("bytes=-100", null, null));
+        assertThrows(IllegalArgumentException.class, () -> ByteRange.of("bytes=0-9,20-29", null, null));
+        assertThrows(IllegalArgumentException.class, () -> ByteRange.of("bytes=20-10", null, null));
+        assertThrows(IllegalArgumentException.class, () -> ByteRange.of("items=0-9", null, null));
+    }
+
+    @Test
+    public void rangeParametersAreUsedWithoutHeader() {
+        assertEquals(new ByteRange(100, Long.MAX_VALUE, true), ByteRange.of(null, 100L, null));
+        assertEquals(new ByteRange(0, 50, true), ByteRange.of(null, null, 50L));
+        assertEquals(new ByteRange(0, Long.MAX_VALUE, false), ByteRange.of(" ", null, null));
+    }
+
+    @Test
+    public void fullContentIsReturnedWithOk() {
+        ResponseEntity<InputStreamResource> response = DocumentContentController.toResponse(content(0, 1000, 1000),
+                false);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(1000, response.getHeaders().getContentLength());
+        assertNull(response.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE));
+        assertEquals("bytes", response.getHeaders().getFirst(HttpHeaders.ACCEPT_RANGES));
+    }
+
+    @Test
+    public void partialContentIsReturnedWithContentRange() {
+        ResponseEntity<InputStreamResource> response = DocumentContentController.toResponse(content(100, 50, 1000),
+                true);
+
+        assertEquals(HttpStatus.PARTIAL_CONTENT, response.getStatusCode());
+        assertEquals(50, response.getHeaders().getContentLength());
+        assertEquals("bytes 100-149/1000", response.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE));
+
+        ResponseEntity<InputStreamResource> unknownTotal = DocumentContentController.toResponse(content(100, 50, -1),
+                true);
+        assertEquals("bytes 100-149/*", unknownTotal.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE));
+    }
+
+    @Test
+    public void unknownLengthIsNotSentAsContentLength() {
+        DocumentContentRange content = new DocumentContentRange(null, 100, -1, -1,
+                new ByteArrayInputStream(new byte[10]));
+
+        ResponseEntity<InputStreamResource> partial = DocumentContentController.toResponse(content, true);
+        assertEquals(HttpStatus.PARTIAL_CONTENT, partial.getStatusCode());
+        assertNull(partial.getHeaders().getFirst(HttpHeaders.CONTENT_LENGTH));
+        assertNull(partial.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE));
+
+        ResponseEntity<InputStreamResource> full = DocumentContentController.toResponse(content, false);
+        assertNull(full.getHeaders().getFirst(HttpHeaders.CONTENT_LENGTH));
+    }
+
+    @Test
+    public void contentIsPartialOnlyWhenRequested() {
+        assertTrue(ByteRange.of("bytes=0-", null, null).isPartial());
+        assertFalse(ByteRange.of(null, null, null).isPartial());
+    }
+
+    private static DocumentContentRange content(long offset, long length, long totalLength) {
+        return new DocumentContentRange(null, offset, length, totalLength,
+                new ByteArrayInputStream(new byte[(int) length]));
+    }
+}
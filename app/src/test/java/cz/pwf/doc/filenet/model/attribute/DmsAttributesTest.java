@@ -0,0 +1,77 @@
+package cz.pwf.filenet.model.attribute;
+
+import cz.notix.document.plugin.connector.dto.AttributeType;
+import cz.notix.document.plugin.connector.dto.DmsAttribute;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test vyhledávání atributů podle názvu v {@link DmsAttributes} bez indexu i s indexem.
+ */
+public class DmsAttributesTest {
+
+    @Test
+    public void lookupIgnoresCase() {
+        for (int count : new int[]{3, DmsAttributes.INDEX_THRESHOLD + 1, 500}) {
+            DmsAttributes attributes = DmsAttributes.of(attributes(count));
+            attributes.add(new DmsAttribute("Reauthorize", "KPJM1", AttributeType.STRING));
+
+            assertEquals("KPJM1", attributes.getValue("reauthorize"));
+            assertEquals("KPJM1", attributes.getValue("REAUTHORIZE"));
+            assertEquals("value" + (count - 1), attributes.getValue("ATTRIBUTE" + (count - 1)));
+            assertFalse(attributes.contains("missing"));
+            assertNull(attributes.getValue(null));
+        }
+    }
+
+    @Test
+    public void firstAttributeOfDuplicateNameWins() {
+        List<DmsAttribute> list = attributes(20);
+        list.add(new DmsAttribute("attribute5", "duplicate", AttributeType.STRING));
+        list.add(0, new DmsAttribute(null, "no name", AttributeType.STRING));
+
+        DmsAttributes attributes = DmsAttributes.of(list);
+        assertEquals("value5", attributes.getValue("Attribute5"));
+        assertEquals(22, attributes.size());
+    }
+
+    @Test
+    public void modificationInvalidatesIndex() {
+        DmsAttributes attributes = DmsAttributes.of(attributes(20));
+        assertTrue(attributes.contains("attribute10"));
+
+        attributes.remove(10);
+        assertFalse(attributes.contains("attribute10"));
+        assertEquals("value11", attributes.getValue("attribute11"));
+
+        attributes.set(0, new DmsAttribute("attribute10", "new", AttributeType.STRING));
+        assertEquals("new", attributes.getValue("attribute10"));
+        assertFalse(attributes.contains("attribute0"));
+    }
+
+    @Test
+    public void ofReturnsSameInstance() {
+        DmsAttributes attributes = DmsAttributes.of(attributes(2));
+
+        assertSame(attributes, DmsAttributes.of(attributes));
+        assertTrue(DmsAttributes.of(null).isEmpty());
+        assertEquals("[attribute0 -> value0, attribute1 -> value1]", attributes.toString());
+    }
+
+    private static List<DmsAttribute> attributes(int count) {
+        List<DmsAttribute> attributes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            attributes.add(new DmsAttribute("attribute" + i, "value" + i, AttributeType.STRING));
+        }
+
+        return attributes;
+    }
+}
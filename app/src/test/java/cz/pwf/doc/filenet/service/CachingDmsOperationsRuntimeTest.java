@@ -0,0 +1,140 @@
+package cz.pwf.filenet.service;
+
+import cz.notix.document.plugin.connector.DmsOperations;
+import cz.notix.document.plugin.connector.dto.DMSDocumentId;
+import cz.pwf.filenet.pwf_ecm_filenet_api_client.handler.EcmApi;
+import cz.pwf.filenet.pwf_ecm_filenet_api_client.model.DocumentMetadataResponse;
+import cz.pwf.filenet.pwf_ecm_filenet_api_client.model.FileNetIdentificator;
+import cz.pwf.filenet.pwf_ecm_filenet_api_client.model.GetDocumentResponse;
+import cz.pwf.filenet.service.cache.DocumentContentCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test lokálního cache obsahu předřazeného operacím document pluginu v kontextu aplikace s databází H2 (profil
+ * {@code test}). Operace pluginu zastupuje mock, který při neúspěchu cache pluginu v databázi volá
+ * {@link FileNetService}, stejně jako plugin.
+ */
+@SpringBootTest(properties = "filenet.cache.content.memory.enabled=true")
+@ActiveProfiles("test")
+public class CachingDmsOperationsRuntimeTest {
+
+    private static final String ZEEBE_VARIABLES = "{\"headers\":{\"uid\":\"KPJM1\"}}";
+
+    @MockBean
+    private EcmApi ecmApi;
+
+    @Autowired
+    private FileNetService fileNetService;
+
+    @Autowired
+    private DocumentContentCache documentContentCache;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${filenet.namespace}")
+    private String namespace;
+
+    private DmsOperations plugin;
+    private CachingDmsOperations operations;
+
+    @BeforeEach
+    public void setUp() {
+        when(ecmApi.eCMGetDocumentMetadataWithHttpInfo(any(), any(), any(), any(), any(), any(), any(), any(), any(),
+                any(), any())).thenAnswer(invocation -> ResponseEntity.ok(metadata(invocation.getArgument(1), "1")));
+        when(ecmApi.eCMGetDocumentWithHttpInfo(any(), any(), any(), any(), any(), any(), any(), any(), any(), any(),
+                any())).thenAnswer(invocation -> ResponseEntity.ok(document(invocation.getArgument(1), "1")));
+
+        plugin = mock(DmsOperations.class);
+        when(plugin.getData(any(), any())).thenAnswer(invocation ->
+                fileNetService.getData(invocation.getArgument(0), invocation.getArgument(1)));
+        operations = new CachingDmsOperations(plugin, fileNetService, documentContentCache, namespace);
+    }
+
+    @Test
+    public void versionedMissIsLookedUpLocallyOnce() {
+        DMSDocumentId id = new DMSDocumentId(namespace, "doc-versioned", "1");
+        double misses = contentCacheGets("miss");
+
+        assertEquals("obsah doc-versioned", content(id));
+        assertEquals(misses + 1, contentCacheGets("miss"));
+        verify(ecmApi, times(1)).eCMGetDocumentMetadataWithHttpInfo(any(), any(), any(), any(), any(), any(), any(),
+                any(), any(), any(), any());
+        verify(ecmApi, times(1)).eCMGetDocumentWithHttpInfo(any(), any(), any(), any(), any(), any(), any(), any(),
+                any(), any(), any());
+
+        // druhé čtení je obslouženo lokálním cache, plugin ani FileNet volány nejsou
+        assertEquals("obsah doc-versioned", content(id));
+        verify(plugin, times(1)).getData(any(), any());
+        verify(ecmApi, times(1)).eCMGetDocumentWithHttpInfo(any(), any(), any(), any(), any(), any(), any(), any(),
+                any(), any(), any());
+    }
+
+    @Test
+    public void unversionedReadReachesPluginWithoutFileNetCall() {
+        DMSDocumentId id = new DMSDocumentId(namespace, "doc-current", null);
+        double misses = contentCacheGets("miss");
+        when(plugin.getData(any(), any())).thenAnswer(invocation -> {
+            // cache pluginu v databázi je dotazován dříve, než lokální cache zavolá FileNet
+            verify(ecmApi, never()).eCMGetDocumentMetadataWithHttpInfo(any(), any(), any(), any(), any(), any(),
+                    any(), any(), any(), any(), any());
+            return fileNetService.getData(invocation.getArgument(0), invocation.getArgument(1));
+        });
+
+        assertEquals("obsah doc-current", content(id));
+        assertEquals(misses + 1, contentCacheGets("miss"));
+        verify(ecmApi, times(1)).eCMGetDocumentMetadataWithHttpInfo(any(), any(), any(), any(), any(), any(), any(),
+                any(), any(), any(), any());
+    }
+
+    private String content(DMSDocumentId id) {
+        return new String(operations.getData(id, ZEEBE_VARIABLES).getData(), StandardCharsets.UTF_8);
+    }
+
+    private double contentCacheGets(String result) {
+        return meterRegistry.counter("filenet.content.cache.gets", "result", result).count();
+    }
+
+    private DocumentMetadataResponse metadata(String documentId, String version) {
+        DocumentMetadataResponse response = new DocumentMetadataResponse();
+        response.setId(identificator(documentId, version));
+        response.setNamespace(namespace);
+        response.setFilename("dokument.txt");
+        return response;
+    }
+
+    private GetDocumentResponse document(String documentId, String version) {
+        GetDocumentResponse response = new GetDocumentResponse();
+        response.setId(identificator(documentId, version));
+        response.setFileName("dokument.txt");
+        response.setContent(Base64.getEncoder().encodeToString(
+                ("obsah " + documentId).getBytes(StandardCharsets.UTF_8)));
+        return response;
+    }
+
+    private static FileNetIdentificator identificator(String documentId, String version) {
+        FileNetIdentificator id = new FileNetIdentificator();
+        id.setId(documentId);
+        id.setVersion(version);
+        return id;
+    }
+}
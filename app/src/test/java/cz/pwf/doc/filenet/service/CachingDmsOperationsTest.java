@@ -0,0 +1,141 @@
+package cz.pwf.filenet.service;
+
+import cz.notix.document.plugin.connector.DmsOperations;
+import cz.notix.document.plugin.connector.dto.DMSDocumentData;
+import cz.notix.document.plugin.connector.dto.DMSDocumentId;
+import cz.notix.document.plugin.connector.dto.DMSDocumentInfo;
+import cz.notix.document.plugin.connector.dto.DMSDocumentNew;
+import cz.notix.document.plugin.connector.dto.DMSDocumentUpdate;
+import cz.pwf.filenet.service.cache.ContentCacheKey;
+import cz.pwf.filenet.service.cache.DocumentContentCache;
+import cz.pwf.filenet.service.cache.MemoryContentCacheTier;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test operací document pluginu s předřazeným lokálním cache obsahu dokumentů.
+ */
+public class CachingDmsOperationsTest {
+
+    private static final String NAMESPACE = "ns";
+    private static final String ZEEBE_VARIABLES = "{}";
+    private static final DMSDocumentId ID = new DMSDocumentId(NAMESPACE, "doc-1", "1");
+    private static final ContentCacheKey KEY = new ContentCacheKey(NAMESPACE, "doc-1", "1");
+    private static final byte[] DATA = "obsah dokumentu".getBytes(StandardCharsets.UTF_8);
+
+    private DmsOperations delegate;
+    private FileNetService fileNetService;
+    private DocumentContentCache cache;
+    private CachingDmsOperations operations;
+
+    @BeforeEach
+    public void setUp() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        MemoryContentCacheTier memoryTier = new MemoryContentCacheTier(meterRegistry);
+        ReflectionTestUtils.setField(memoryTier, "enabled", true);
+        ReflectionTestUtils.setField(memoryTier, "maxBytes", 1024 * 1024L);
+        ReflectionTestUtils.setField(memoryTier, "maxDocumentSize", 1024L);
+        ReflectionTestUtils.setField(memoryTier, "ttlMinutes", 60L);
+        ReflectionTestUtils.invokeMethod(memoryTier, "init");
+        cache = new DocumentContentCache(List.of(memoryTier), meterRegistry);
+        ReflectionTestUtils.invokeMethod(cache, "init");
+
+        delegate = mock(DmsOperations.class);
+        fileNetService = mock(FileNetService.class);
+        operations = new CachingDmsOperations(delegate, fileNetService, cache, NAMESPACE);
+    }
+
+    @Test
+    public void localHitDoesNotCallPlugin() {
+        DMSDocumentData cached = new DMSDocumentData(info(), DATA);
+        when(fileNetService.getCachedData(ID, ZEEBE_VARIABLES)).thenReturn(Optional.of(cached));
+
+        assertSame(cached, operations.getData(ID, ZEEBE_VARIABLES));
+        verify(delegate, never()).getData(any(), any());
+    }
+
+    @Test
+    public void pluginResultIsWrittenThrough() {
+        DMSDocumentData data = new DMSDocumentData(info(), DATA);
+        when(fileNetService.getCachedData(ID, ZEEBE_VARIABLES)).thenReturn(Optional.empty());
+        when(delegate.getData(ID, ZEEBE_VARIABLES)).thenReturn(data);
+
+        assertSame(data, operations.getData(ID, ZEEBE_VARIABLES));
+        assertArrayEquals(DATA, cache.get(KEY).orElseThrow().getData());
+    }
+
+    @Test
+    public void writtenContentIsCachedUnderNewVersion() {
+        DMSDocumentNew doc = new DMSDocumentNew();
+        doc.bytes = DATA;
+        when(delegate.create(doc, ZEEBE_VARIABLES)).thenReturn(info());
+
+        operations.create(doc, ZEEBE_VARIABLES);
+        assertArrayEquals(DATA, cache.get(KEY).orElseThrow().getData());
+
+        byte[] updated = "nový obsah".getBytes(StandardCharsets.UTF_8);
+        DMSDocumentUpdate update = new DMSDocumentUpdate();
+        update.setData(updated);
+        DMSDocumentInfo updatedInfo = info();
+        updatedInfo.setId(new DMSDocumentId(NAMESPACE, "doc-1", "2"));
+        when(delegate.update(eq(ID), eq(update), eq(ZEEBE_VARIABLES))).thenReturn(updatedInfo);
+
+        operations.update(ID, update, ZEEBE_VARIABLES);
+        assertArrayEquals(updated, cache.get(new ContentCacheKey(NAMESPACE, "doc-1", "2")).orElseThrow().getData());
+    }
+
+    @Test
+    public void contentWithoutVersionIsNotCached() {
+        DMSDocumentInfo info = info();
+        info.setId(new DMSDocumentId(NAMESPACE, "doc-1", null));
+        DMSDocumentNew doc = new DMSDocumentNew();
+        doc.bytes = DATA;
+        when(delegate.create(doc, ZEEBE_VARIABLES)).thenReturn(info);
+
+        operations.create(doc, ZEEBE_VARIABLES);
+
+        assertFalse(cache.get(KEY).isPresent());
+    }
+
+    @Test
+    public void deleteInvalidatesAllVersions() {
+        cache.put(KEY, info(), DATA);
+        cache.put(new ContentCacheKey(NAMESPACE, "doc-1", "2"), info(), DATA);
+        assertTrue(cache.get(KEY).isPresent());
+
+        operations.delete(ID, ZEEBE_VARIABLES);
+
+        verify(delegate).delete(ID, ZEEBE_VARIABLES);
+        assertFalse(cache.get(KEY).isPresent());
+        assertFalse(cache.get(new ContentCacheKey(NAMESPACE, "doc-1", "2")).isPresent());
+    }
+
+    private static DMSDocumentInfo info() {
+        DMSDocumentInfo info = new DMSDocumentInfo();
+        info.setId(ID);
+        info.setFilename("doc.txt");
+        info.setMimetype("text/plain");
+        info.setSizeInBytes((long) DATA.length);
+        info.setAttributes(Collections.emptyList());
+
+        return info;
+    }
+}
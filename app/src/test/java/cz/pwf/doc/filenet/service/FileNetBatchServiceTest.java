@@ -0,0 +1,199 @@
+package cz.pwf.filenet.service;
+
+import cz.notix.document.plugin.connector.dto.DMSDocumentId;
+import cz.notix.document.plugin.connector.dto.DMSDocumentInfo;
+import cz.pwf.filenet.model.batch.BatchItemResult;
+import cz.pwf.filenet.service.ecm.EcmConcurrencyLimitExceededException;
+import cz.pwf.filenet.service.zeebe.ZeebeHeaders;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.HttpServerErrorException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test dávkových operací s dokumenty FileNetu, zejména izolace selhání položek a omezení souběžnosti dávky.
+ */
+public class FileNetBatchServiceTest {
+
+    private static final ZeebeHeaders HEADERS = ZeebeHeaders.authenticated("KPJM1");
+    private static final int MAX_CONCURRENCY = 3;
+
+    private FileNetService fileNetService;
+    private FileNetBatchService batchService;
+
+    @BeforeEach
+    public void setUp() {
+        fileNetService = mock(FileNetService.class);
+        batchService = new FileNetBatchService(fileNetService);
+        ReflectionTestUtils.setField(batchService, "threads", 8);
+        ReflectionTestUtils.setField(batchService, "queueCapacity", 100);
+        ReflectionTestUtils.setField(batchService, "maxConcurrency", MAX_CONCURRENCY);
+        ReflectionTestUtils.setField(batchService, "maxSize", 50);
+        ReflectionTestUtils.setField(batchService, "limiterWait", 1000L);
+        ReflectionTestUtils.setField(batchService, "limiterBackoff", 5L);
+        batchService.init();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        batchService.shutdown();
+    }
+
+    @Test
+    public void failedItemDoesNotAffectOtherItems() {
+        List<DMSDocumentId> ids = ids(5);
+        DMSDocumentInfo info = new DMSDocumentInfo();
+        when(fileNetService.getInfo(any(), any(ZeebeHeaders.class))).thenAnswer(invocation -> {
+            DMSDocumentId id = invocation.getArgument(0);
+            if ("doc-1".equals(id.getId())) {
+                throw new HttpServerErrorException(HttpStatus.BAD_GATEWAY);
+            }
+            if ("doc-3".equals(id.getId())) {
+                throw new IllegalStateException("unexpected");
+            }
+            return info;
+        });
+
+        List<BatchItemResult<DMSDocumentInfo>> results = batchService.getInfoAll(ids, HEADERS);
+
+        assertEquals(5, results.size());
+        for (int i = 0; i < results.size(); i++) {
+            assertEquals(i, results.get(i).getIndex());
+        }
+        assertSame(info, results.get(0).getResult());
+        assertTrue(results.get(2).isSuccess());
+        assertTrue(results.get(4).isSuccess());
+        assertFalse(results.get(1).isSuccess());
+        assertEquals("FileNet request failed with status 502", results.get(1).getError());
+        assertFalse(results.get(3).isSuccess());
+        assertEquals("Item processing failed", results.get(3).getError());
+        assertNull(results.get(3).getResult());
+        ids.forEach(id -> verify(fileNetService).getInfo(id, HEADERS));
+    }
+
+    @Test
+    public void errorFailsOnlyItsItem() {
+        DMSDocumentInfo info = new DMSDocumentInfo();
+        when(fileNetService.getInfo(any(), any(ZeebeHeaders.class))).thenAnswer(invocation -> {
+            if ("doc-1".equals(invocation.<DMSDocumentId>getArgument(0).getId())) {
+                throw new OutOfMemoryError("Java heap space");
+            }
+            return info;
+        });
+
+        List<BatchItemResult<DMSDocumentInfo>> results = batchService.getInfoAll(ids(3), HEADERS);
+
+        assertEquals(3, results.size());
+        assertTrue(results.get(0).isSuccess());
+        assertFalse(results.get(1).isSuccess());
+        assertEquals("Item processing failed", results.get(1).getError());
+        assertTrue(results.get(2).isSuccess());
+    }
+
+    @Test
+    public void itemsRejectedByLimiterAreRetried() {
+        DMSDocumentInfo info = new DMSDocumentInfo();
+        AtomicInteger rejections = new AtomicInteger();
+        when(fileNetService.getInfo(any(), any(ZeebeHeaders.class))).thenAnswer(invocation -> {
+            String id = invocation.<DMSDocumentId>getArgument(0).getId();
+            // položky doc-1 a doc-2 narazí na plný limit, doc-3 limit neuvolní nikdy
+            if ("doc-3".equals(id) || (("doc-1".equals(id) || "doc-2".equals(id)) && rejections.incrementAndGet() <= 4)) {
+                throw new EcmConcurrencyLimitExceededException("read", 2);
+            }
+            return info;
+        });
+
+        List<BatchItemResult<DMSDocumentInfo>> results = batchService.getInfoAll(ids(4), HEADERS);
+
+        assertTrue(results.get(0).isSuccess());
+        assertTrue(results.get(1).isSuccess());
+        assertTrue(results.get(2).isSuccess());
+        assertFalse(results.get(3).isSuccess());
+        assertEquals("Item processing failed", results.get(3).getError());
+    }
+
+    @Test
+    public void interruptedBatchFailsRemainingItems() {
+        Thread.currentThread().interrupt();
+        List<BatchItemResult<DMSDocumentInfo>> results;
+        try {
+            results = batchService.getInfoAll(ids(5), HEADERS);
+        } finally {
+            assertTrue(Thread.interrupted());
+        }
+
+        assertEquals(5, results.size());
+        for (int i = 0; i < results.size(); i++) {
+            assertEquals(i, results.get(i).getIndex());
+            assertFalse(results.get(i).isSuccess());
+        }
+        verify(fileNetService, never()).getInfo(any(), any(ZeebeHeaders.class));
+    }
+
+    @Test
+    public void concurrencyOfBatchIsLimited() {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        when(fileNetService.delete(any(), any(ZeebeHeaders.class))).thenAnswer(invocation -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(20);
+            } finally {
+                running.decrementAndGet();
+            }
+            return invocation.getArgument(0);
+        });
+
+        List<BatchItemResult<DMSDocumentId>> results = batchService.deleteAll(ids(20), HEADERS);
+
+        assertTrue(results.stream().allMatch(BatchItemResult::isSuccess));
+        assertTrue(maxRunning.get() <= MAX_CONCURRENCY, "max running " + maxRunning.get());
+        assertEquals(MAX_CONCURRENCY, maxRunning.get());
+    }
+
+    @Test
+    public void itemsAreFailedAfterShutdown() {
+        batchService.shutdown();
+
+        List<BatchItemResult<DMSDocumentInfo>> results = assertTimeoutPreemptively(Duration.ofSeconds(5),
+                () -> batchService.getInfoAll(ids(2 * MAX_CONCURRENCY), HEADERS));
+
+        assertEquals(2 * MAX_CONCURRENCY, results.size());
+        assertTrue(results.stream().noneMatch(BatchItemResult::isSuccess));
+        verify(fileNetService, never()).getInfo(any(), any(ZeebeHeaders.class));
+    }
+
+    @Test
+    public void oversizedBatchIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> batchService.getInfoAll(ids(51), HEADERS));
+        assertTrue(batchService.getInfoAll(List.of(), HEADERS).isEmpty());
+        verify(fileNetService, never()).getInfo(any(), any(ZeebeHeaders.class));
+    }
+
+    private static List<DMSDocumentId> ids(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> new DMSDocumentId("ns", "doc-" + i, null))
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,148 @@
+package cz.pwf.filenet.service;
+
+import cz.notix.document.plugin.connector.dto.AttributeType;
+import cz.notix.document.plugin.connector.dto.DMSDocumentId;
+import cz.notix.document.plugin.connector.dto.DmsAttribute;
+import cz.pwf.filenet.pwf_ecm_filenet_api_client.handler.EcmApi;
+import cz.pwf.filenet.pwf_ecm_filenet_api_client.model.DocumentMetadataResponse;
+import cz.pwf.filenet.pwf_ecm_filenet_api_client.model.FileNetIdentificator;
+import cz.pwf.filenet.pwf_ecm_filenet_api_client.model.GetDocumentResponse;
+import cz.pwf.filenet.service.cache.DocumentContentCache;
+import cz.pwf.filenet.service.cache.DocumentMetadataCache;
+import cz.pwf.filenet.service.cache.MemoryContentCacheTier;
+import cz.pwf.filenet.service.ecm.EcmBulkheads;
+import cz.pwf.filenet.service.ecm.EcmRequestExecutor;
+import cz.pwf.filenet.service.ecm.EcmRetryPolicies;
+import cz.pwf.filenet.service.zeebe.ZeebeHeaders;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test určení KPJM, pod kterým jsou volány operace FileNetu, a čtení obsahu dokumentu přes cache.
+ */
+public class FileNetServiceTest {
+
+    private static final List<DmsAttribute> METADATA = List.of(
+            new DmsAttribute("Reauthorize", "KPJM1", AttributeType.STRING));
+    private static final String ZEEBE_VARIABLES = "{\"headers\":{\"uid\":\"KPJM1\"}}";
+
+    private final FileNetService fileNetService = FileNetServices.offline();
+
+    @Test
+    public void techUserIsReauthorizedByMetadata() {
+        assertEquals("KPJM1", fileNetService.reauthorizeKpjmIfNeeded("Test", new ZeebeHeaders("pwfadmin"), METADATA));
+        assertEquals("KPJM1", fileNetService.reauthorizeKpjmIfNeeded("Test", ZeebeHeaders.EMPTY, METADATA));
+        assertEquals("KPJM2", fileNetService.reauthorizeKpjmIfNeeded("Test", new ZeebeHeaders("KPJM2"), METADATA));
+    }
+
+    @Test
+    public void authenticatedUserIsNeverReauthorized() {
+        assertEquals("pwfadmin", fileNetService.reauthorizeKpjmIfNeeded("Test",
+                ZeebeHeaders.authenticated("pwfadmin"), METADATA));
+        assertEquals("KPJM2", fileNetService.reauthorizeKpjmIfNeeded("Test",
+                ZeebeHeaders.authenticated("KPJM2"), METADATA));
+    }
+
+    @Test
+    public void currentVersionIsNotReadFromStaleCache() {
+        AtomicReference<String> currentVersion = new AtomicReference<>("1");
+        EcmApi ecmApi = mock(EcmApi.class);
+        when(ecmApi.eCMGetDocumentMetadataWithHttpInfo(any(), any(), any(), any(), any(), any(), any(), any(), any(),
+                any(), any())).thenAnswer(invocation -> ResponseEntity.ok(metadata(
+                        Optional.ofNullable(invocation.<String>getArgument(10)).orElse(currentVersion.get()))));
+        when(ecmApi.eCMGetDocumentWithHttpInfo(any(), any(), any(), any(), any(), any(), any(), any(), any(), any(),
+                any())).thenAnswer(invocation -> ResponseEntity.ok(document(invocation.getArgument(10))));
+        FileNetService service = cachingService(ecmApi);
+        DMSDocumentId current = new DMSDocumentId("ns", "doc-1", null);
+
+        assertEquals("obsah verze 1", content(service, current));
+        assertEquals("obsah verze 1", content(service, current));
+        // dokument změnila jiná instance služby, cache metadat této instance o změně neví
+        currentVersion.set("2");
+        assertEquals("obsah verze 2", content(service, current));
+        // konkrétní verze dokumentu se nemění, její obsah je čten z cache předřazeného pluginu
+        assertEquals("obsah verze 1", new String(service.getCachedData(new DMSDocumentId("ns", "doc-1", "1"),
+                ZEEBE_VARIABLES).orElseThrow().getData(), StandardCharsets.UTF_8));
+
+        verify(ecmApi, times(2)).eCMGetDocumentWithHttpInfo(any(), any(), any(), any(), any(), any(), any(), any(),
+                any(), any(), any());
+    }
+
+    private static FileNetService cachingService(EcmApi ecmApi) {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+        DocumentMetadataCache metadataCache = new DocumentMetadataCache(meterRegistry);
+        ReflectionTestUtils.setField(metadataCache, "enabled", true);
+        ReflectionTestUtils.setField(metadataCache, "maxWeight", 1000L);
+        ReflectionTestUtils.setField(metadataCache, "ttlSeconds", 300L);
+        ReflectionTestUtils.invokeMethod(metadataCache, "init");
+
+        MemoryContentCacheTier memoryTier = new MemoryContentCacheTier(meterRegistry);
+        ReflectionTestUtils.setField(memoryTier, "enabled", true);
+        ReflectionTestUtils.setField(memoryTier, "maxBytes", 1024 * 1024L);
+        ReflectionTestUtils.setField(memoryTier, "maxDocumentSize", 1024L);
+        ReflectionTestUtils.setField(memoryTier, "ttlMinutes", 60L);
+        ReflectionTestUtils.invokeMethod(memoryTier, "init");
+        DocumentContentCache contentCache = new DocumentContentCache(List.of(memoryTier), meterRegistry);
+        ReflectionTestUtils.invokeMethod(contentCache, "init");
+
+        EcmRetryPolicies retryPolicies = new EcmRetryPolicies();
+        ReflectionTestUtils.setField(retryPolicies, "retryableStatuses", Set.of(503));
+        ReflectionTestUtils.setField(retryPolicies, "writeRetryableStatuses", Set.of(503));
+        ReflectionTestUtils.setField(retryPolicies, "readMaxAttempts", 1);
+        ReflectionTestUtils.setField(retryPolicies, "writeMaxAttempts", 1);
+        ReflectionTestUtils.invokeMethod(retryPolicies, "init");
+        EcmRequestExecutor executor = new EcmRequestExecutor(meterRegistry, new EcmBulkheads(meterRegistry),
+                retryPolicies, CircuitBreaker.ofDefaults("filenet"));
+
+        FileNetService service = FileNetServices.create(ecmApi, metadataCache, contentCache, executor, meterRegistry);
+        ReflectionTestUtils.setField(service, "namespace", "ns");
+        return service;
+    }
+
+    private static String content(FileNetService service, DMSDocumentId id) {
+        return new String(service.getData(id, ZEEBE_VARIABLES).getData(), StandardCharsets.UTF_8);
+    }
+
+    private static DocumentMetadataResponse metadata(String version) {
+        DocumentMetadataResponse response = new DocumentMetadataResponse();
+        response.setId(identificator(version));
+        response.setNamespace("ns");
+        response.setFilename("dokument.txt");
+        return response;
+    }
+
+    private static GetDocumentResponse document(String version) {
+        GetDocumentResponse response = new GetDocumentResponse();
+        response.setId(identificator(version));
+        response.setFileName("dokument.txt");
+        response.setContent(Base64.getEncoder().encodeToString(
+                ("obsah verze " + version).getBytes(StandardCharsets.UTF_8)));
+        return response;
+    }
+
+    private static FileNetIdentificator identificator(String version) {
+        FileNetIdentificator id = new FileNetIdentificator();
+        id.setId("doc-1");
+        id.setVersion(version);
+        return id;
+    }
+}
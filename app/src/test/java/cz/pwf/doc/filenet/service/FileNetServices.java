@@ -0,0 +1,77 @@
+package cz.pwf.filenet.service;
+
+import cz.pwf.filenet.model.mapper.DocumentMapper;
+import cz.pwf.filenet.pwf_ecm_filenet_api_client.handler.ApiClient;
+import cz.pwf.filenet.pwf_ecm_filenet_api_client.handler.EcmApi;
+import cz.pwf.filenet.service.cache.DocumentContentCache;
+import cz.pwf.filenet.service.cache.DocumentMetadataCache;
+import cz.pwf.filenet.service.concurrent.ReadRequestCoalescer;
+import cz.pwf.filenet.service.content.EcmDocumentContentClient;
+import cz.pwf.filenet.service.dedup.DeduplicationIndex;
+import cz.pwf.filenet.service.ecm.EcmBulkheads;
+import cz.pwf.filenet.service.ecm.EcmHeaders;
+import cz.pwf.filenet.service.ecm.EcmRequestExecutor;
+import cz.pwf.filenet.service.ecm.EcmRetryPolicies;
+import cz.pwf.filenet.service.prefetch.DocumentPrefetcher;
+import cz.pwf.filenet.service.upload.ChunkedUploadService;
+import cz.pwf.filenet.service.upload.EcmChunkedUploadClient;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.mapstruct.factory.Mappers;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.List;
+
+/**
+ * Sestavení {@link FileNetService} pro testy a benchmarky bez Spring kontextu.
+ * <p>
+ * Služba je složena ze skutečných komponent s výchozím nastavením, tj. bez cache, prefetche a deduplikace, pokud
+ * nejsou cache předány. Při změně konstruktoru služby je tak potřeba upravit pouze tuto třídu. Třída je součástí
+ * test-jar modulu app, který používá modul benchmark.
+ */
+public final class FileNetServices {
+
+    private FileNetServices() {
+    }
+
+    /**
+     * @return Vrací službu bez spojení na FileNet, určenou pouze pro lokální zpracování.
+     */
+    public static FileNetService offline() {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        return create(new EcmApi(new ApiClient(new RestTemplate())), new DocumentMetadataCache(meterRegistry),
+                new DocumentContentCache(List.of(), meterRegistry),
+                new EcmRequestExecutor(meterRegistry, new EcmBulkheads(meterRegistry), new EcmRetryPolicies(),
+                        CircuitBreaker.ofDefaults("filenet")),
+                meterRegistry);
+    }
+
+    /**
+     * @param ecmApi                klient FileNetu
+     * @param documentMetadataCache cache metadat dokumentů
+     * @param documentContentCache  cache obsahu dokumentů
+     * @param ecmRequestExecutor    provádění volání FileNetu
+     * @param meterRegistry         registr metrik sdílený s cache
+     * @return Vrací službu volající FileNet přes předaného klienta.
+     */
+    public static FileNetService create(EcmApi ecmApi, DocumentMetadataCache documentMetadataCache,
+                                        DocumentContentCache documentContentCache,
+                                        EcmRequestExecutor ecmRequestExecutor, MeterRegistry meterRegistry) {
+        RestTemplate restTemplate = new RestTemplate();
+        EcmHeaders ecmHeaders = new EcmHeaders();
+
+        return new FileNetService(
+                ecmApi,
+                Mappers.getMapper(DocumentMapper.class),
+                documentMetadataCache,
+                documentContentCache,
+                new ReadRequestCoalescer(meterRegistry),
+                ecmRequestExecutor,
+                new ChunkedUploadService(new EcmChunkedUploadClient(restTemplate, ecmHeaders), ecmRequestExecutor,
+                        meterRegistry),
+                new EcmDocumentContentClient(restTemplate, ecmHeaders),
+                new DocumentPrefetcher(meterRegistry),
+                new DeduplicationIndex(meterRegistry));
+    }
+}
@@ -0,0 +1,228 @@
+package cz.pwf.filenet.service.buffer;
+
+import cz.pwf.filenet.config.rest.StreamingGetDocumentResponseConverter;
+import cz.pwf.filenet.model.ecm.SpooledGetDocumentResponse;
+import cz.pwf.filenet.pwf_ecm_filenet_api_client.model.GetDocumentResponse;
+import cz.pwf.filenet.service.content.SpooledContent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test poolu off-heap bufferů a jeho použití při průběžném načítání obsahu dokumentů. Detekce úniků je zapnuta
+ * v režimu {@code paranoid}, po každém testu musí být všechny buffery uvolněny.
+ */
+public class BufferPoolTest {
+
+    private static final int SEGMENT_SIZE = 16 * 1024;
+
+    private BufferPool pool;
+
+    @AfterEach
+    public void assertNoLeaks() {
+        assertTrue(pool.getUnreleased().isEmpty(), "Unreleased buffers: " + pool.getUnreleased());
+        assertEquals(0, pool.getUsedBytes());
+    }
+
+    @Test
+    public void streamKeepsContentAfterOwnerIsClosed() throws IOException {
+        pool = pool(1024 * 1024, 50);
+        byte[] data = data(200 * 1024);
+
+        SpooledContent content = new SpooledContent(1024 * 1024, null, pool);
+        content.write(data, 0, data.length);
+        content.finishWrite();
+        assertFalse(content.isSpilled());
+        assertEquals(13 * SEGMENT_SIZE, pool.getUsedBytes());
+
+        InputStream inputStream = content.openStream();
+        content.close();
+        assertEquals(13 * SEGMENT_SIZE, pool.getUsedBytes());
+
+        assertArrayEquals(data, inputStream.readAllBytes());
+        inputStream.close();
+        assertEquals(0, pool.getUsedBytes());
+    }
+
+    @Test
+    public void contentAboveMemoryThresholdIsKeptInPool() throws IOException {
+        pool = pool(64 * SEGMENT_SIZE, 50);
+        ReflectionTestUtils.setField(pool, "maxContentSize", 32L * SEGMENT_SIZE);
+        byte[] data = data(20 * SEGMENT_SIZE);
+
+        // velikost obsahu v poolu omezuje max-content-size, ne memoryThreshold
+        try (SpooledContent content = new SpooledContent(SEGMENT_SIZE, null, pool)) {
+            content.write(data, 0, data.length);
+            assertFalse(content.isSpilled());
+            assertEquals(20 * SEGMENT_SIZE, pool.getUsedBytes());
+
+            try (InputStream inputStream = content.openStream()) {
+                assertArrayEquals(data, inputStream.readAllBytes());
+            }
+        }
+
+        try (SpooledContent content = new SpooledContent(SEGMENT_SIZE, null, pool)) {
+            byte[] large = data(32 * SEGMENT_SIZE + 1);
+            content.write(large, 0, large.length);
+            assertTrue(content.isSpilled());
+            assertEquals(0, pool.getUsedBytes());
+            assertArrayEquals(large, content.toByteArray());
+        }
+    }
+
+    @Test
+    public void releasedBufferCanNotBeUsed() throws IOException {
+        pool = pool(1024 * 1024, 50);
+
+        PooledBuffer buffer = pool.allocate();
+        buffer.write(new byte[10], 0, 10);
+        assertEquals(2, buffer.retain().refCnt());
+        assertFalse(buffer.release());
+        assertTrue(buffer.release());
+
+        assertThrows(IllegalStateException.class, buffer::release);
+        assertThrows(IllegalStateException.class, buffer::retain);
+        assertThrows(IllegalStateException.class, buffer::toByteArray);
+    }
+
+    @Test
+    public void exhaustedPoolSpillsToFile() throws IOException {
+        pool = pool(4 * SEGMENT_SIZE, 10);
+        byte[] data = data(3 * SEGMENT_SIZE);
+
+        try (SpooledContent first = new SpooledContent(1024 * 1024, null, pool);
+             SpooledContent second = new SpooledContent(1024 * 1024, null, pool)) {
+            first.write(data, 0, data.length);
+            second.write(data, 0, SEGMENT_SIZE);
+            second.write(data, SEGMENT_SIZE, data.length - SEGMENT_SIZE);
+
+            assertFalse(first.isSpilled());
+            assertTrue(second.isSpilled());
+            assertEquals(3 * SEGMENT_SIZE, pool.getUsedBytes());
+            assertArrayEquals(data, first.toByteArray());
+            assertArrayEquals(data, second.toByteArray());
+        }
+    }
+
+    @Test
+    public void acquireWaitsForReleasedSegments() throws Exception {
+        pool = pool(2 * SEGMENT_SIZE, 5000);
+        PooledBuffer first = pool.allocate();
+        first.write(new byte[2 * SEGMENT_SIZE], 0, 2 * SEGMENT_SIZE);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            CountDownLatch started = new CountDownLatch(1);
+            Future<PooledBuffer> second = executor.submit(() -> {
+                PooledBuffer buffer = pool.allocate();
+                started.countDown();
+                buffer.write(new byte[SEGMENT_SIZE], 0, SEGMENT_SIZE);
+                return buffer;
+            });
+
+            started.await();
+            Thread.sleep(100);
+            assertFalse(second.isDone());
+
+            first.release();
+            second.get(5, TimeUnit.SECONDS).release();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void concurrentDownloadsStayWithinPoolLimit() throws Exception {
+        pool = pool(64 * SEGMENT_SIZE, 20);
+        StreamingGetDocumentResponseConverter converter = new StreamingGetDocumentResponseConverter(
+                1024 * 1024, null, pool);
+        byte[] data = data(512 * 1024);
+        byte[] json = ("{\"fileName\":\"doc.pdf\",\"content\":\"" + Base64.getEncoder().encodeToString(data) + "\"}")
+                .getBytes(StandardCharsets.US_ASCII);
+
+        AtomicLong maxUsedBytes = new AtomicLong();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < 32; i++) {
+                results.add(executor.submit(() -> {
+                    GetDocumentResponse response = converter.read(GetDocumentResponse.class, new MockHttpInputMessage(json));
+                    try (SpooledContent content = ((SpooledGetDocumentResponse) response).getSpooledContent()) {
+                        maxUsedBytes.accumulateAndGet(pool.getUsedBytes(), Math::max);
+                        return "doc.pdf".equals(response.getFileName()) && Arrays.equals(data, content.toByteArray());
+                    }
+                }));
+            }
+
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get(30, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertTrue(maxUsedBytes.get() > 0);
+        assertTrue(maxUsedBytes.get() <= 64 * SEGMENT_SIZE);
+    }
+
+    @Test
+    public void leakedBufferIsReturnedToPool() throws Exception {
+        pool = pool(1024 * 1024, 50);
+        allocateAndForget();
+        assertEquals(SEGMENT_SIZE, pool.getUsedBytes());
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (pool.getLeakCount() == 0 && System.currentTimeMillis() < deadline) {
+            System.gc();
+            Thread.sleep(20);
+        }
+
+        assertEquals(1, pool.getLeakCount());
+    }
+
+    private void allocateAndForget() throws IOException {
+        pool.allocate().write(new byte[100], 0, 100);
+    }
+
+    private static BufferPool pool(long maxBytes, long acquireTimeout) {
+        BufferPool pool = new BufferPool(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(pool, "enabled", true);
+        ReflectionTestUtils.setField(pool, "segmentSize", SEGMENT_SIZE);
+        ReflectionTestUtils.setField(pool, "maxBytes", maxBytes);
+        ReflectionTestUtils.setField(pool, "maxContentSize", maxBytes);
+        ReflectionTestUtils.setField(pool, "acquireTimeout", acquireTimeout);
+        ReflectionTestUtils.setField(pool, "leakDetection", "paranoid");
+        pool.init();
+
+        return pool;
+    }
+
+    private static byte[] data(int length) {
+        byte[] data = new byte[length];
+        new Random(length).nextBytes(data);
+        return data;
+    }
+}
@@ -0,0 +1,143 @@
+package cz.pwf.filenet.service.cache;
+
+import cz.notix.document.plugin.connector.dto.DMSDocumentData;
+import cz.notix.document.plugin.connector.dto.DMSDocumentId;
+import cz.notix.document.plugin.connector.dto.DMSDocumentInfo;
+import cz.pwf.filenet.model.content.DocumentContentRange;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test víceúrovňového cache obsahu dokumentů s úrovní v paměti a na lokálním disku.
+ */
+public class DocumentContentCacheTest {
+
+    private static final long TTL_MINUTES = 60;
+    private static final ContentCacheKey KEY = new ContentCacheKey("ns", "doc-1", "1");
+    private static final byte[] DATA = "obsah dokumentu".getBytes(StandardCharsets.UTF_8);
+
+    @TempDir
+    Path directory;
+
+    private SimpleMeterRegistry meterRegistry;
+    private MemoryContentCacheTier memoryTier;
+    private DiskContentCacheTier diskTier;
+    private DocumentContentCache cache;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        meterRegistry = new SimpleMeterRegistry();
+        memoryTier = new MemoryContentCacheTier(meterRegistry);
+        ReflectionTestUtils.setField(memoryTier, "enabled", true);
+        ReflectionTestUtils.setField(memoryTier, "maxBytes", 1024 * 1024L);
+        ReflectionTestUtils.setField(memoryTier, "maxDocumentSize", 1024L);
+        ReflectionTestUtils.setField(memoryTier, "ttlMinutes", TTL_MINUTES);
+        memoryTier.init();
+
+        diskTier = new DiskContentCacheTier(meterRegistry);
+        ReflectionTestUtils.setField(diskTier, "enabled", true);
+        ReflectionTestUtils.setField(diskTier, "directoryName", directory.toString());
+        ReflectionTestUtils.setField(diskTier, "maxBytes", 1024 * 1024L);
+        ReflectionTestUtils.setField(diskTier, "ttlMinutes", TTL_MINUTES);
+        diskTier.init();
+
+        cache = new DocumentContentCache(List.of(memoryTier, diskTier), meterRegistry);
+        cache.init();
+    }
+
+    @Test
+    public void writeThroughAndPromotion() {
+        cache.put(KEY, info(), DATA);
+        assertTrue(memoryTier.get(KEY).isPresent());
+        assertTrue(diskTier.get(KEY).isPresent());
+
+        // obsah vytlačený z paměti zůstává na disku
+        memoryTier.invalidate(KEY.getId());
+        Optional<DMSDocumentData> data = cache.get(KEY);
+        assertTrue(data.isPresent());
+        assertArrayEquals(DATA, data.get().getData());
+        assertEquals("doc.txt", data.get().getInfo().getFilename());
+        assertEquals("text/plain", data.get().getInfo().getMimetype());
+        assertEquals(0, cache.getHitRatio("memory"));
+        assertEquals(1, cache.getHitRatio("disk"));
+
+        // obsah byl uložen do paměti, disk již není čten
+        assertTrue(cache.get(KEY).isPresent());
+        assertEquals(0.5, cache.getHitRatio("memory"));
+        assertEquals(1, cache.getHitRatio("disk"));
+
+        // souhrnná metrika započte každé čtení jednou bez ohledu na úroveň
+        assertFalse(cache.get(new ContentCacheKey("ns", "doc-2", "1")).isPresent());
+        assertEquals(2, meterRegistry.counter("filenet.content.cache.gets", "result", "hit").count());
+        assertEquals(1, meterRegistry.counter("filenet.content.cache.gets", "result", "miss").count());
+    }
+
+    @Test
+    public void putIfAbsentFillsOnlyMissingTiers() {
+        cache.put(KEY, info(), DATA);
+        memoryTier.invalidate(KEY.getId());
+        long diskBytes = diskTier.getTotalBytes();
+
+        cache.putIfAbsent(KEY, info(), DATA);
+
+        assertTrue(memoryTier.contains(KEY));
+        assertTrue(diskTier.contains(KEY));
+        assertEquals(diskBytes, diskTier.getTotalBytes());
+        assertEquals(1, directory.toFile().list().length);
+    }
+
+    @Test
+    public void invalidateRemovesAllVersions() {
+        ContentCacheKey otherVersion = new ContentCacheKey("ns", "doc-1", "2");
+        cache.put(KEY, info(), DATA);
+        cache.put(otherVersion, info(), DATA);
+        // opakované uložení stejné verze záznam pouze aktualizuje
+        cache.put(KEY, info(), DATA);
+
+        cache.invalidate(KEY.getId());
+
+        assertFalse(cache.get(KEY).isPresent());
+        assertFalse(cache.get(otherVersion).isPresent());
+        assertEquals(0, diskTier.getTotalBytes());
+    }
+
+    @Test
+    public void rangeFromDiskTier() throws IOException {
+        cache.put(KEY, info(), DATA);
+        memoryTier.invalidate(KEY.getId());
+
+        try (DocumentContentRange range = cache.getRange(KEY, 6, 100).orElseThrow()) {
+            assertEquals(6, range.getOffset());
+            assertEquals(DATA.length - 6, range.getLength());
+            assertEquals(DATA.length, range.getTotalLength());
+            assertEquals("dokumentu", new String(range.getContent().readAllBytes(), StandardCharsets.UTF_8));
+        }
+        assertFalse(cache.getRange(KEY, DATA.length, 100).isPresent());
+    }
+
+    static DMSDocumentInfo info() {
+        DMSDocumentInfo info = new DMSDocumentInfo();
+        info.setId(new DMSDocumentId(KEY.getNamespace(), KEY.getId(), KEY.getVersion()));
+        info.setFilename("doc.txt");
+        info.setMimetype("text/plain");
+        info.setSizeInBytes((long) DATA.length);
+        info.setAttributes(Collections.emptyList());
+
+        return info;
+    }
+}
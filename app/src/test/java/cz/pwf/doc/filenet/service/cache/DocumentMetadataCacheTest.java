@@ -0,0 +1,167 @@
+package cz.pwf.filenet.service.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import cz.notix.document.plugin.connector.dto.DMSDocumentInfo;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test cache metadat dokumentů, zejména invalidace záznamů během jejich načítání.
+ */
+public class DocumentMetadataCacheTest {
+
+    private DocumentMetadataCache cache;
+
+    @BeforeEach
+    public void setUp() {
+        cache = new DocumentMetadataCache(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(cache, "enabled", true);
+        ReflectionTestUtils.setField(cache, "maxWeight", 1000L);
+        ReflectionTestUtils.setField(cache, "ttlSeconds", 300L);
+        cache.init();
+    }
+
+    @Test
+    public void invalidateRemovesAllVersionsAndKpjm() {
+        AtomicInteger loads = new AtomicInteger();
+        MetadataCacheKey current = new MetadataCacheKey("ns", "doc-1", null, "KPJM1");
+        MetadataCacheKey version = new MetadataCacheKey("ns", "doc-1", "1", "KPJM2");
+        MetadataCacheKey other = new MetadataCacheKey("ns", "doc-2", "1", "KPJM1");
+        for (MetadataCacheKey key : new MetadataCacheKey[]{current, version, other}) {
+            cache.get(key, () -> info(loads));
+            cache.get(key, () -> info(loads));
+        }
+        assertEquals(3, loads.get());
+
+        cache.invalidate("doc-1");
+
+        cache.get(current, () -> info(loads));
+        cache.get(version, () -> info(loads));
+        cache.get(other, () -> info(loads));
+        assertEquals(5, loads.get());
+    }
+
+    @Test
+    public void nullIsNotCached() {
+        AtomicInteger loads = new AtomicInteger();
+        MetadataCacheKey key = new MetadataCacheKey("ns", "doc-1", "1", "KPJM1");
+
+        assertNull(cache.get(key, () -> {
+            loads.incrementAndGet();
+            return null;
+        }));
+        cache.get(key, () -> info(loads));
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void invalidationDuringLoadWins() throws Exception {
+        MetadataCacheKey key = new MetadataCacheKey("ns", "doc-1", "1", "KPJM1");
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        DMSDocumentInfo stale = new DMSDocumentInfo();
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<DMSDocumentInfo> load = executor.submit(() -> cache.get(key, () -> {
+                loading.countDown();
+                await(release);
+                return stale;
+            }));
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+            // update dokumentu během načítání metadat
+            Future<?> invalidate = executor.submit(() -> cache.invalidate("doc-1"));
+            Thread.sleep(100);
+            release.countDown();
+
+            assertSame(stale, load.get(5, TimeUnit.SECONDS));
+            invalidate.get(5, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        DMSDocumentInfo fresh = new DMSDocumentInfo();
+        assertSame(fresh, cache.get(key, () -> fresh));
+    }
+
+    @Test
+    public void loadDoesNotBlockOtherKeys() throws Exception {
+        MetadataCacheKey slow = new MetadataCacheKey("ns", "doc-1", "1", "KPJM1");
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<DMSDocumentInfo> load = executor.submit(() -> cache.get(slow, () -> {
+                loading.countDown();
+                await(release);
+                return new DMSDocumentInfo();
+            }));
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+            // načítání jiných klíčů a invalidace nečekají na probíhající volání FileNetu
+            AtomicInteger loads = new AtomicInteger();
+            for (int i = 0; i < 100; i++) {
+                cache.get(new MetadataCacheKey("ns", "doc-" + (i + 2), "1", "KPJM1"), () -> info(loads));
+            }
+            cache.invalidate("doc-1");
+            assertEquals(100, loads.get());
+
+            release.countDown();
+            load.get(5, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void evictedKeysDoNotStayIndexed() {
+        ReflectionTestUtils.setField(cache, "maxWeight", 10L);
+        cache.init();
+        AtomicInteger loads = new AtomicInteger();
+        for (int i = 0; i < 1000; i++) {
+            cache.get(new MetadataCacheKey("ns", "doc-" + (i % 50), String.valueOf(i), "KPJM1"), () -> info(loads));
+        }
+
+        Cache<MetadataCacheKey, DMSDocumentInfo> entries = (Cache<MetadataCacheKey, DMSDocumentInfo>)
+                ReflectionTestUtils.getField(cache, "cache");
+        Map<String, Set<MetadataCacheKey>> keysById = (Map<String, Set<MetadataCacheKey>>)
+                ReflectionTestUtils.getField(cache, "keysById");
+        entries.cleanUp();
+
+        long indexed = keysById.values().stream().mapToLong(Set::size).sum();
+        assertEquals(entries.estimatedSize(), indexed);
+    }
+
+    private static DMSDocumentInfo info(AtomicInteger loads) {
+        loads.incrementAndGet();
+        return new DMSDocumentInfo();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
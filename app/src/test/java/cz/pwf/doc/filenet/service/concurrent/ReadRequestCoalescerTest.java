@@ -0,0 +1,152 @@
+package cz.pwf.filenet.service.concurrent;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test slučování souběžných shodných čtecích požadavků do FileNetu.
+ */
+public class ReadRequestCoalescerTest {
+
+    private static final int CALLERS = 8;
+    private static final ReadRequestKey KEY = new ReadRequestKey("GetDocument", "ns", "doc-1", "1", "KPJM1");
+
+    private SimpleMeterRegistry meterRegistry;
+    private ReadRequestCoalescer coalescer;
+    private ExecutorService executor;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        coalescer = new ReadRequestCoalescer(meterRegistry);
+        ReflectionTestUtils.setField(coalescer, "enabled", true);
+        executor = Executors.newFixedThreadPool(CALLERS);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void concurrentIdenticalRequestsShareOneCall() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        Object result = new Object();
+
+        List<Future<Object>> futures = submitCallers(() -> {
+            calls.incrementAndGet();
+            await(release);
+            return result;
+        });
+        awaitJoinedCallers(CALLERS - 1);
+        release.countDown();
+
+        for (Future<Object> future : futures) {
+            assertSame(result, future.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    public void exceptionIsPropagatedToAllJoinedCallers() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        IllegalStateException failure = new IllegalStateException("FileNet unavailable");
+
+        List<Future<Object>> futures = submitCallers(() -> {
+            calls.incrementAndGet();
+            await(release);
+            throw failure;
+        });
+        awaitJoinedCallers(CALLERS - 1);
+        release.countDown();
+
+        for (Future<Object> future : futures) {
+            ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+            assertSame(failure, e.getCause());
+        }
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    public void keyIsReleasedAfterCompletion() {
+        AtomicInteger calls = new AtomicInteger();
+
+        coalescer.execute(KEY, calls::incrementAndGet);
+        assertThrows(IllegalStateException.class, () -> coalescer.execute(KEY, () -> {
+            calls.incrementAndGet();
+            throw new IllegalStateException();
+        }));
+        coalescer.execute(KEY, calls::incrementAndGet);
+
+        assertEquals(3, calls.get());
+        assertTrue(((Map<?, ?>) ReflectionTestUtils.getField(coalescer, "inFlight")).isEmpty());
+    }
+
+    @Test
+    public void disabledCoalescerCallsSupplierForEveryRequest() throws Exception {
+        ReflectionTestUtils.setField(coalescer, "enabled", false);
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch entered = new CountDownLatch(CALLERS);
+
+        List<Future<Object>> futures = submitCallers(() -> {
+            calls.incrementAndGet();
+            entered.countDown();
+            // všichni volající musí být uvnitř dodavatele současně, jinak by nebyli slučováni
+            await(entered);
+            return new Object();
+        });
+
+        for (Future<Object> future : futures) {
+            future.get(5, TimeUnit.SECONDS);
+        }
+        assertEquals(CALLERS, calls.get());
+        assertEquals(0.0, meterRegistry.counter("filenet.requests.coalesced", "operation", "GetDocument").count());
+    }
+
+    private List<Future<Object>> submitCallers(Supplier<Object> supplier) {
+        List<Future<Object>> futures = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            futures.add(executor.submit(() -> coalescer.execute(KEY, supplier)));
+        }
+        return futures;
+    }
+
+    private void awaitJoinedCallers(int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.counter("filenet.requests.coalesced", "operation", "GetDocument").count() < expected) {
+            assertTrue(System.nanoTime() < deadline, "callers did not join the in-flight request");
+            Thread.sleep(5);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
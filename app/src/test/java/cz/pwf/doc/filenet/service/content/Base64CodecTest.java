@@ -0,0 +1,114 @@
+package cz.pwf.filenet.service.content;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Test Base64 kódování proti {@link Base64} z JDK.
+ */
+public class Base64CodecTest {
+
+    private static final int MAX_LENGTH = 1000;
+
+    @Test
+    public void roundTripMatchesJdk() throws IOException {
+        Random random = new Random(42);
+        // délky 0..MAX_LENGTH pokrývají všechny varianty paddingu (žádný, "=" a "==")
+        for (int length = 0; length <= MAX_LENGTH; length++) {
+            byte[] data = new byte[length];
+            random.nextBytes(data);
+            String expected = Base64.getEncoder().encodeToString(data);
+
+            assertEquals(expected.length(), Base64Codec.encodedLength(length));
+            assertEquals(length, Base64Codec.decodedLength(expected));
+            assertArrayEquals(data, Base64Codec.decode(expected), "length " + length);
+            assertArrayEquals(data, Base64Codec.decode(Base64.getEncoder().withoutPadding().encodeToString(data)));
+
+            assertEquals(expected, encode(ByteBuffer.wrap(data), ByteBuffer.allocate(expected.length())));
+            assertEquals(expected, encode(direct(data), ByteBuffer.allocateDirect(expected.length())));
+
+            ByteArrayOutputStream stream = new ByteArrayOutputStream();
+            Base64Codec.encode(ByteBuffer.wrap(data), stream);
+            assertEquals(expected, stream.toString(StandardCharsets.US_ASCII));
+
+            assertArrayEquals(data, decode(ByteBuffer.wrap(expected.getBytes(StandardCharsets.US_ASCII)), length));
+            assertArrayEquals(data, decode(direct(expected.getBytes(StandardCharsets.US_ASCII)), length));
+        }
+    }
+
+    @Test
+    public void streamEncodingSpansChunks() throws IOException {
+        byte[] data = new byte[100_000];
+        new Random(7).nextBytes(data);
+
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        Base64Codec.encode(ByteBuffer.wrap(data), stream);
+
+        assertEquals(Base64.getEncoder().encodeToString(data), stream.toString(StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    public void invalidCharactersAreRejected() {
+        for (String base64 : new String[]{"AB-_", "AB\nC", "AB=C", "ABCé", "ABCŁ", "ABCD EFG"}) {
+            assertThrows(IllegalArgumentException.class, () -> Base64Codec.decode(base64), base64);
+            ByteBuffer src = ByteBuffer.wrap(base64.getBytes(StandardCharsets.UTF_8));
+            assertThrows(IllegalArgumentException.class, () -> Base64Codec.decode(src, ByteBuffer.allocate(16)), base64);
+        }
+    }
+
+    @Test
+    public void invalidLengthIsRejected() {
+        for (String base64 : new String[]{"A", "QUJDR", "QUJDRA===", "=", "QUJDR=="}) {
+            assertThrows(IllegalArgumentException.class, () -> Base64Codec.decode(base64), base64);
+            assertThrows(IllegalArgumentException.class, () -> Base64Codec.decodedLength(base64), base64);
+        }
+    }
+
+    @Test
+    public void charSequenceSlicesAreDecoded() {
+        byte[] data = "Base64 slice test".getBytes(StandardCharsets.UTF_8);
+        String base64 = Base64.getEncoder().encodeToString(data);
+        String wrapped = "{\"content\":\"" + base64 + "\"}";
+        int start = wrapped.indexOf(base64);
+
+        assertArrayEquals(data, Base64Codec.decode(wrapped.subSequence(start, start + base64.length())));
+        assertArrayEquals(data, Base64Codec.decode(CharBuffer.wrap(wrapped, start, start + base64.length())));
+        assertArrayEquals(data, Base64Codec.decode(new StringBuilder(wrapped).subSequence(start, start + base64.length())));
+        assertEquals(data.length, Base64Codec.decodedLength(CharBuffer.wrap(wrapped, start, start + base64.length())));
+    }
+
+    private static String encode(ByteBuffer src, ByteBuffer dst) {
+        int written = Base64Codec.encode(src, dst);
+        assertEquals(0, src.remaining());
+        assertEquals(written, dst.position());
+
+        byte[] encoded = new byte[written];
+        dst.flip().get(encoded);
+        return new String(encoded, StandardCharsets.US_ASCII);
+    }
+
+    private static byte[] decode(ByteBuffer src, int length) {
+        ByteBuffer dst = ByteBuffer.allocate(length);
+        assertEquals(length, Base64Codec.decode(src, dst));
+        assertEquals(0, src.remaining());
+
+        return dst.array();
+    }
+
+    private static ByteBuffer direct(byte[] data) {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(data.length);
+        buffer.put(data).flip();
+        return buffer;
+    }
+}
@@ -0,0 +1,39 @@
+package cz.pwf.filenet.service.content;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Test čtení hlavičky {@code Content-Range} odpovědi FileNetu.
+ */
+public class ContentRangeTest {
+
+    @Test
+    public void validHeaderIsParsed() {
+        ContentRange range = ContentRange.parse("bytes 100-149/1000", 0, -1);
+        assertEquals(100, range.getOffset());
+        assertEquals(50, range.getLength());
+        assertEquals(1000, range.getTotalLength());
+
+        assertEquals(-1, ContentRange.parse("bytes 100-149/*", 0, -1).getTotalLength());
+        assertEquals(1000, ContentRange.parse("bytes */1000", 0, -1).getTotalLength());
+    }
+
+    @Test
+    public void missingHeaderUsesDefaults() {
+        ContentRange range = ContentRange.parse(null, 10, 20);
+        assertEquals(10, range.getOffset());
+        assertEquals(20, range.getLength());
+        assertEquals(-1, range.getTotalLength());
+    }
+
+    @Test
+    public void malformedHeaderIsRejected() {
+        for (String value : new String[]{"bytes */abc", "bytes -149/1000", "bytes 100-/1000", "bytes 100-149",
+                "bytes a-b/1000", "bytes 149-100/1000", "bytes 100-1000/1000", "bytes 1-2-3/10", "items 0-9/10"}) {
+            assertThrows(InvalidContentRangeException.class, () -> ContentRange.parse(value, 0, -1), value);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package cz.pwf.filenet.service.content;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import cz.pwf.filenet.service.ecm.EcmHeaders;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Test čtení části obsahu dokumentu proti lokální náhradě endpointu FileNetu s podporou hlavičky {@code Range}.
+ */
+public class EcmDocumentContentClientTest {
+
+    private static final String PATH = "/document/{id}/content";
+    private static final byte[] CONTENT = content(1000);
+
+    private HttpServer server;
+    private final AtomicReference<String> rangeHeader = new AtomicReference<>();
+    private EcmDocumentContentClient client;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/document/", this::handle);
+        server.start();
+
+        EcmHeaders ecmHeaders = new EcmHeaders();
+        ReflectionTestUtils.setField(ecmHeaders, "apiBaseUrl", "http://127.0.0.1:" + server.getAddress().getPort());
+        ReflectionTestUtils.setField(ecmHeaders, "username", "user");
+        ReflectionTestUtils.setField(ecmHeaders, "password", "password");
+        client = new EcmDocumentContentClient(new RestTemplate(), ecmHeaders);
+        ReflectionTestUtils.setField(client, "path", PATH);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    public void boundedRange() throws IOException {
+        ResponseEntity<InputStream> response = client.getRange("KPJM", "request", "ns", "doc-1", null, 100, 50);
+
+        assertEquals("bytes=100-149", rangeHeader.get());
+        assertEquals(HttpStatus.PARTIAL_CONTENT.value(), response.getStatusCodeValue());
+        assertEquals("bytes 100-149/1000", response.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE));
+        try (InputStream body = response.getBody()) {
+            assertArrayEquals(Arrays.copyOfRange(CONTENT, 100, 150), Objects.requireNonNull(body).readAllBytes());
+        }
+    }
+
+    @Test
+    public void openRangeDoesNotOverflow() throws IOException {
+        ResponseEntity<InputStream> response = client.getRange("KPJM", "request", "ns", "doc-1", null, 100,
+                Long.MAX_VALUE);
+
+        assertEquals("bytes=100-", rangeHeader.get());
+        try (InputStream body = response.getBody()) {
+            assertArrayEquals(Arrays.copyOfRange(CONTENT, 100, CONTENT.length),
+                    Objects.requireNonNull(body).readAllBytes());
+        }
+
+        client.getRange("KPJM", "request", "ns", "doc-1", null, 0, Long.MAX_VALUE).getBody().close();
+        assertEquals("bytes=0-", rangeHeader.get());
+
+        client.getRange("KPJM", "request", "ns", "doc-1", null, 100, Long.MAX_VALUE - 50).getBody().close();
+        assertEquals("bytes=100-", rangeHeader.get());
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String range = exchange.getRequestHeaders().getFirst(HttpHeaders.RANGE);
+            rangeHeader.set(range);
+
+            String[] bounds = range.substring("bytes=".length()).split("-", -1);
+            int first = Integer.parseInt(bounds[0]);
+            int last = bounds[1].isEmpty() ? CONTENT.length - 1 : Math.min(Integer.parseInt(bounds[1]), CONTENT.length - 1);
+
+            exchange.getResponseHeaders().set(HttpHeaders.CONTENT_TYPE, "application/octet-stream");
+            exchange.getResponseHeaders().set(HttpHeaders.CONTENT_RANGE,
+                    "bytes " + first + "-" + last + "/" + CONTENT.length);
+            exchange.sendResponseHeaders(HttpStatus.PARTIAL_CONTENT.value(), last - first + 1);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(CONTENT, first, last - first + 1);
+            }
+        }
+    }
+
+    private static byte[] content(int length) {
+        byte[] data = new byte[length];
+        for (int i = 0; i < length; i++) {
+            data[i] = (byte) i;
+        }
+
+        return data;
+    }
+}
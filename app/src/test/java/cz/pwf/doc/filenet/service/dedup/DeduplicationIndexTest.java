@@ -0,0 +1,186 @@
+package cz.pwf.filenet.service.dedup;
+
+import cz.notix.document.plugin.connector.dto.AttributeType;
+import cz.notix.document.plugin.connector.dto.DMSDocumentNew;
+import cz.notix.document.plugin.connector.dto.DmsAttribute;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test indexu deduplikace nově ukládaných dokumentů.
+ */
+public class DeduplicationIndexTest {
+
+    private static final String NAMESPACE = "ns";
+    private static final String SCOPE = "2251799813685249";
+
+    @TempDir
+    Path directory;
+
+    private SimpleMeterRegistry meterRegistry;
+    private DeduplicationIndex index;
+
+    @AfterEach
+    public void close() throws IOException {
+        if (Objects.nonNull(index)) {
+            index.close();
+        }
+    }
+
+    @Test
+    public void keyIgnoresAttributeOrderAndNameCase() {
+        DMSDocumentNew doc = document("obsah", new DmsAttribute("a", "1", AttributeType.STRING),
+                new DmsAttribute("B", "2", AttributeType.STRING));
+        DMSDocumentNew reordered = document("obsah", new DmsAttribute("b", "2", AttributeType.STRING),
+                new DmsAttribute("A", "1", AttributeType.STRING));
+        DMSDocumentNew otherMetadata = document("obsah", new DmsAttribute("a", "1", AttributeType.STRING),
+                new DmsAttribute("b", "3", AttributeType.STRING));
+        DMSDocumentNew otherContent = document("jiný obsah", new DmsAttribute("a", "1", AttributeType.STRING),
+                new DmsAttribute("b", "2", AttributeType.STRING));
+
+        DeduplicationKey key = DeduplicationIndex.key(NAMESPACE, SCOPE, doc);
+        assertEquals(key, DeduplicationIndex.key(NAMESPACE, SCOPE, reordered));
+        assertNotEquals(key, DeduplicationIndex.key("other", SCOPE, doc));
+        assertNotEquals(key, DeduplicationIndex.key(NAMESPACE, "2251799813685250", doc));
+
+        DeduplicationKey otherMetadataKey = DeduplicationIndex.key(NAMESPACE, SCOPE, otherMetadata);
+        assertEquals(key.getHash(), otherMetadataKey.getHash());
+        assertNotEquals(key.getFingerprint(), otherMetadataKey.getFingerprint());
+
+        DeduplicationKey otherContentKey = DeduplicationIndex.key(NAMESPACE, SCOPE, otherContent);
+        assertNotEquals(key.getHash(), otherContentKey.getHash());
+        assertEquals(key.getFingerprint(), otherContentKey.getFingerprint());
+    }
+
+    @Test
+    public void indexIsRestoredAfterRestart() throws IOException {
+        index = index(10);
+        DeduplicationKey first = key("1");
+        DeduplicationKey second = key("2");
+        index.put(first, new DeduplicationEntry("{id-1}", "1.0", 100));
+        index.put(second, new DeduplicationEntry("{id-2}", null, 200));
+        index.stale(first);
+        index.close();
+        // neúplný záznam po pádu aplikace
+        Files.writeString(directory.resolve("index.journal"), "P\tincomplete", StandardOpenOption.APPEND);
+
+        index = index(10);
+
+        assertEquals(1, index.size());
+        assertFalse(index.find(first).isPresent());
+        assertEquals(Optional.of(new DeduplicationEntry("{id-2}", null, 200)), index.find(second));
+        assertEquals(1, Files.readAllLines(directory.resolve("index.journal"), StandardCharsets.UTF_8).size());
+    }
+
+    @Test
+    public void entriesOfOtherProcessAreNotFound() throws IOException {
+        index = index(10);
+        DMSDocumentNew doc = document("obsah");
+        index.put(DeduplicationIndex.key(NAMESPACE, SCOPE, doc), new DeduplicationEntry("{id-1}", "1.0", 100));
+        index.close();
+        index = index(10);
+
+        assertTrue(index.find(DeduplicationIndex.key(NAMESPACE, SCOPE, doc)).isPresent());
+        assertFalse(index.find(DeduplicationIndex.key(NAMESPACE, "2251799813685250", doc)).isPresent());
+    }
+
+    @Test
+    public void journalFileIsRequired() {
+        DeduplicationIndex unconfigured = new DeduplicationIndex(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(unconfigured, "enabled", true);
+        ReflectionTestUtils.setField(unconfigured, "fileName", "");
+        ReflectionTestUtils.setField(unconfigured, "maxEntries", 10);
+
+        assertThrows(IllegalStateException.class, unconfigured::init);
+    }
+
+    @Test
+    public void leastRecentlyUsedEntriesAreEvicted() throws IOException {
+        index = index(2);
+        index.put(key("1"), new DeduplicationEntry("{id-1}", "1.0", 100));
+        index.put(key("2"), new DeduplicationEntry("{id-2}", "1.0", 100));
+        assertTrue(index.find(key("1")).isPresent());
+        index.put(key("3"), new DeduplicationEntry("{id-3}", "1.0", 100));
+
+        assertEquals(2, index.size());
+        assertFalse(index.find(key("2")).isPresent());
+        assertEquals(1, meterRegistry.counter("filenet.dedup.evictions").count());
+
+        index.close();
+        index = index(2);
+        assertTrue(index.find(key("1")).isPresent());
+        assertTrue(index.find(key("3")).isPresent());
+    }
+
+    @Test
+    public void invalidateRemovesAllEntriesOfDocument() throws IOException {
+        index = index(10);
+        index.put(key("1"), new DeduplicationEntry("{id-1}", "1.0", 100));
+        index.put(key("2"), new DeduplicationEntry("{id-1}", "2.0", 100));
+        index.put(key("3"), new DeduplicationEntry("{id-3}", "1.0", 100));
+
+        index.invalidate("{id-1}");
+        index.close();
+        index = index(10);
+
+        assertEquals(1, index.size());
+        assertTrue(index.find(key("3")).isPresent());
+    }
+
+    @Test
+    public void hitsAreReportedAsSavedBytes() throws IOException {
+        index = index(10);
+        index.put(key("1"), new DeduplicationEntry("{id-1}", "1.0", 1000));
+
+        index.hit(index.find(key("1")).orElseThrow());
+        index.hit(index.find(key("1")).orElseThrow());
+        index.find(key("2"));
+
+        assertEquals(2000, meterRegistry.find("filenet.dedup.saved").counter().count());
+        assertEquals(2, meterRegistry.counter("filenet.dedup.lookups", "result", "hit").count());
+        assertEquals(1, meterRegistry.counter("filenet.dedup.lookups", "result", "miss").count());
+    }
+
+    private DeduplicationIndex index(int maxEntries) throws IOException {
+        meterRegistry = new SimpleMeterRegistry();
+        DeduplicationIndex index = new DeduplicationIndex(meterRegistry);
+        ReflectionTestUtils.setField(index, "enabled", true);
+        ReflectionTestUtils.setField(index, "fileName", directory.resolve("index.journal").toString());
+        ReflectionTestUtils.setField(index, "maxEntries", maxEntries);
+        index.init();
+
+        return index;
+    }
+
+    private static DeduplicationKey key(String content) {
+        return DeduplicationIndex.key(NAMESPACE, SCOPE, document(content));
+    }
+
+    private static DMSDocumentNew document(String content, DmsAttribute... attributes) {
+        DMSDocumentNew doc = new DMSDocumentNew();
+        doc.filename = "doc.pdf";
+        doc.mimeType = "application/pdf";
+        doc.bytes = content.getBytes(StandardCharsets.UTF_8);
+        doc.metadata = List.of(attributes);
+
+        return doc;
+    }
+}
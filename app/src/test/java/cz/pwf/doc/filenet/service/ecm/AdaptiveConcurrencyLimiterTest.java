@@ -0,0 +1,102 @@
+package cz.pwf.filenet.service.ecm;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test adaptivního limitu souběžných volání FileNetu.
+ */
+public class AdaptiveConcurrencyLimiterTest {
+
+    private static final long THRESHOLD = TimeUnit.SECONDS.toNanos(1);
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+
+    @Test
+    public void callsOverLimitAreRejected() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("read", 2, 1, 10, 0.5, THRESHOLD);
+
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+        assertEquals(2, limiter.getInFlight());
+
+        limiter.release(FAST, false);
+        assertTrue(limiter.tryAcquire());
+    }
+
+    @Test
+    public void limitIncreasesByOnePerWindow() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("read", 10, 1, 20, 0.5, THRESHOLD);
+
+        // jedno úspěšné volání limit nezvýší, zvýší jej až okno přibližně limit úspěšných volání
+        completeFullyUtilized(limiter, 1);
+        assertEquals(10, limiter.getLimit());
+        completeFullyUtilized(limiter, 10);
+        assertEquals(11, limiter.getLimit());
+        completeFullyUtilized(limiter, 30);
+        assertEquals(13, limiter.getLimit());
+    }
+
+    @Test
+    public void limitDoesNotIncreaseWhenUnderutilized() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("read", 10, 1, 20, 0.5, THRESHOLD);
+
+        for (int i = 0; i < 100; i++) {
+            assertTrue(limiter.tryAcquire());
+            limiter.release(FAST, false);
+        }
+
+        assertEquals(10, limiter.getLimit());
+    }
+
+    @Test
+    public void limitIncreaseIsCappedAtMax() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("read", 10, 1, 11, 0.5, THRESHOLD);
+
+        completeFullyUtilized(limiter, 1000);
+
+        assertEquals(11, limiter.getLimit());
+    }
+
+    @Test
+    public void limitDecreasesOnOverload() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("read", 16, 3, 20, 0.5, THRESHOLD);
+
+        assertTrue(limiter.tryAcquire());
+        limiter.release(FAST, true);
+        assertEquals(8, limiter.getLimit());
+
+        // pomalé volání je známkou přetížení i bez chyby
+        assertTrue(limiter.tryAcquire());
+        limiter.release(THRESHOLD + 1, false);
+        assertEquals(4, limiter.getLimit());
+
+        assertTrue(limiter.tryAcquire());
+        limiter.release(FAST, true);
+        assertEquals(3, limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    public void initialLimitIsClampedToRange() {
+        assertEquals(10, new AdaptiveConcurrencyLimiter("read", 50, 1, 10, 0.5, THRESHOLD).getLimit());
+        assertEquals(5, new AdaptiveConcurrencyLimiter("read", 1, 5, 10, 0.5, THRESHOLD).getLimit());
+    }
+
+    /**
+     * Dokončí zadaný počet volání, uvolněný limit je vždy znovu celý obsazen.
+     */
+    private static void completeFullyUtilized(AdaptiveConcurrencyLimiter limiter, int calls) {
+        for (int i = 0; i < calls; i++) {
+            while (limiter.tryAcquire()) {
+                // obsazení celého limitu
+            }
+            limiter.release(FAST, false);
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package cz.pwf.filenet.service.ecm;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test opakování volání FileNetu po dočasném selhání.
+ */
+public class EcmRequestExecutorTest {
+
+    private MeterRegistry meterRegistry;
+    private EcmRequestExecutor executor;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        executor = new EcmRequestExecutor(meterRegistry, bulkheads(), retryPolicies(10000L),
+                CircuitBreaker.ofDefaults("filenet"));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        MDC.clear();
+    }
+
+    @Test
+    public void writeIsRetriedOnConnectFailure() {
+        AtomicInteger calls = new AtomicInteger();
+
+        ResponseEntity<String> response = executor.execute("CreateDocument", false, requestId -> {
+            if (calls.incrementAndGet() == 1) {
+                throw new ResourceAccessException("I/O error", new ConnectException("Connection refused"));
+            }
+            return ResponseEntity.ok(requestId);
+        });
+
+        assertNotNull(response.getBody());
+        assertEquals(2, calls.get());
+        assertEquals(1.0, meterRegistry.counter("filenet.ecm.retries", "endpoint", "CreateDocument").count());
+    }
+
+    @Test
+    public void connectFailureIsNotRetriedAfterDeadline() {
+        EcmRequestExecutor noDeadline = new EcmRequestExecutor(meterRegistry, bulkheads(),
+                retryPolicies(0L), CircuitBreaker.ofDefaults("filenet"));
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThrows(EcmRetryableException.class, () -> noDeadline.execute("CreateDocument", false, requestId -> {
+            calls.incrementAndGet();
+            throw new ResourceAccessException("I/O error", new ConnectException("Connection refused"));
+        }));
+
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    public void writeIsNotRetriedOnReadTimeout() {
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThrows(ResourceAccessException.class, () -> executor.execute("CreateDocument", false, requestId -> {
+            calls.incrementAndGet();
+            throw new ResourceAccessException("I/O error", new SocketTimeoutException("Read timed out"));
+        }));
+
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    public void readIsRetriedAfterTransientFailure() {
+        AtomicInteger calls = new AtomicInteger();
+
+        ResponseEntity<String> response = executor.execute("GetDocumentMetadata", false, requestId -> {
+            int call = calls.incrementAndGet();
+            if (call == 1) {
+                throw new ResourceAccessException("I/O error", new SocketTimeoutException("Read timed out"));
+            }
+            if (call == 2) {
+                throw HttpServerErrorException.create(HttpStatus.SERVICE_UNAVAILABLE, "Service Unavailable", null,
+                        null, null);
+            }
+            return ResponseEntity.ok(requestId);
+        });
+
+        assertNotNull(response.getBody());
+        assertEquals(3, calls.get());
+        assertEquals(2.0, meterRegistry.counter("filenet.ecm.retries", "endpoint", "GetDocumentMetadata").count());
+    }
+
+    @Test
+    public void readRetriesAreLimitedByMaxAttempts() {
+        AtomicInteger calls = new AtomicInteger();
+
+        EcmRetryableException failure = assertThrows(EcmRetryableException.class,
+                () -> executor.execute("GetDocument", false, requestId -> {
+                    calls.incrementAndGet();
+                    throw new ResourceAccessException("I/O error", new SocketTimeoutException("Read timed out"));
+                }));
+
+        assertEquals(3, calls.get());
+        assertTrue(failure.getCause() instanceof ResourceAccessException);
+    }
+
+    @Test
+    public void readIsNotRetriedAfterDeadline() {
+        EcmRequestExecutor noDeadline = new EcmRequestExecutor(meterRegistry, bulkheads(),
+                retryPolicies(0L), CircuitBreaker.ofDefaults("filenet"));
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThrows(EcmRetryableException.class, () -> noDeadline.execute("GetDocumentMetadata", false, requestId -> {
+            calls.incrementAndGet();
+            throw HttpServerErrorException.create(HttpStatus.SERVICE_UNAVAILABLE, "Service Unavailable", null, null,
+                    null);
+        }));
+
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    public void writeIsRetriedOnlyOnRejectedStatus() {
+        AtomicInteger calls = new AtomicInteger();
+
+        ResponseEntity<String> response = executor.execute("CreateDocument", false, requestId -> {
+            if (calls.incrementAndGet() == 1) {
+                throw HttpServerErrorException.create(HttpStatus.SERVICE_UNAVAILABLE, "Service Unavailable", null,
+                        null, null);
+            }
+            return ResponseEntity.ok(requestId);
+        });
+        assertNotNull(response.getBody());
+        assertEquals(2, calls.get());
+
+        // 502 nezaručuje, že FileNet zápis neprovedl
+        AtomicInteger badGatewayCalls = new AtomicInteger();
+        assertThrows(HttpServerErrorException.class, () -> executor.execute("CreateDocument", false, requestId -> {
+            badGatewayCalls.incrementAndGet();
+            throw HttpServerErrorException.create(HttpStatus.BAD_GATEWAY, "Bad Gateway", null, null, null);
+        }));
+        assertEquals(1, badGatewayCalls.get());
+    }
+
+    @Test
+    public void outerMdcValuesAreRestored() {
+        MDC.put(EcmRequestExecutor.REQUEST_ID_MDC_KEY, "outer");
+        MDC.put(EcmRequestExecutor.ENDPOINT_MDC_KEY, "CreateDocument");
+
+        executor.execute("UploadDocumentChunk", false, requestId -> ResponseEntity.ok(requestId));
+
+        assertEquals("outer", MDC.get(EcmRequestExecutor.REQUEST_ID_MDC_KEY));
+        assertEquals("CreateDocument", MDC.get(EcmRequestExecutor.ENDPOINT_MDC_KEY));
+    }
+
+    private EcmBulkheads bulkheads() {
+        EcmBulkheads bulkheads = new EcmBulkheads(meterRegistry);
+        ReflectionTestUtils.setField(bulkheads, "enabled", false);
+        return bulkheads;
+    }
+
+    private static EcmRetryPolicies retryPolicies(long deadline) {
+        EcmRetryPolicies retryPolicies = new EcmRetryPolicies();
+        ReflectionTestUtils.setField(retryPolicies, "retryableStatuses", Set.of(502, 503));
+        ReflectionTestUtils.setField(retryPolicies, "writeRetryableStatuses", Set.of(503));
+        ReflectionTestUtils.setField(retryPolicies, "readMaxAttempts", 3);
+        ReflectionTestUtils.setField(retryPolicies, "readDeadline", deadline);
+        ReflectionTestUtils.setField(retryPolicies, "writeMaxAttempts", 3);
+        ReflectionTestUtils.setField(retryPolicies, "writeDeadline", deadline);
+        ReflectionTestUtils.setField(retryPolicies, "initialBackoff", 10L);
+        ReflectionTestUtils.setField(retryPolicies, "maxBackoff", 50L);
+        ReflectionTestUtils.setField(retryPolicies, "multiplier", 2.0);
+        ReflectionTestUtils.invokeMethod(retryPolicies, "init");
+        return retryPolicies;
+    }
+}
@@ -0,0 +1,113 @@
+package cz.pwf.filenet.service.prefetch;
+
+import cz.notix.document.plugin.connector.dto.DMSDocumentId;
+import cz.notix.document.plugin.connector.dto.DMSDocumentInfo;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test rozpočtu přednačítání a započtení zásahů.
+ */
+public class DocumentPrefetcherTest {
+
+    private MeterRegistry meterRegistry;
+    private DocumentPrefetcher prefetcher;
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        prefetcher = new DocumentPrefetcher(meterRegistry);
+        ReflectionTestUtils.setField(prefetcher, "enabled", true);
+        ReflectionTestUtils.setField(prefetcher, "jobTypes", Set.of());
+        ReflectionTestUtils.setField(prefetcher, "variables", Set.of("documentId"));
+        ReflectionTestUtils.setField(prefetcher, "attributes", Set.of());
+        ReflectionTestUtils.setField(prefetcher, "contentEnabled", false);
+        ReflectionTestUtils.setField(prefetcher, "threads", 1);
+        ReflectionTestUtils.setField(prefetcher, "queueCapacity", 10);
+        ReflectionTestUtils.setField(prefetcher, "maxEntries", 2L);
+        ReflectionTestUtils.setField(prefetcher, "maxBytes", 1000L);
+        ReflectionTestUtils.setField(prefetcher, "maxDocumentSize", 1000L);
+        ReflectionTestUtils.setField(prefetcher, "ttl", 60000L);
+        ReflectionTestUtils.invokeMethod(prefetcher, "init");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        release.countDown();
+        ReflectionTestUtils.invokeMethod(prefetcher, "shutdown");
+    }
+
+    @Test
+    public void budgetLimitsScheduledDocuments() {
+        prefetcher.prefetch("{\"documentId\":[\"doc-1\",\"doc-2\",\"doc-3\",\"doc-1\"]}", null, null, "ns", "K1",
+                loader());
+
+        assertEquals(1.0, skipped("budget"));
+        assertEquals(0.0, skipped("duplicate"));
+
+        // použití uvolní rozpočet pro další dokument
+        prefetcher.metadataRead("ns", "doc-1", null, "K1");
+        prefetcher.prefetch("{\"documentId\":\"doc-3\"}", null, null, "ns", "K1", loader());
+        assertEquals(1.0, skipped("budget"));
+    }
+
+    @Test
+    public void readJoiningInFlightPrefetchIsHit() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        prefetcher.prefetch("{\"documentId\":\"doc-1\"}", null, null, "ns", "K1", new Loader() {
+            @Override
+            public DMSDocumentInfo loadInfo(DMSDocumentId id) {
+                started.countDown();
+                return super.loadInfo(id);
+            }
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        prefetcher.metadataRead("ns", "doc-1", null, "K1");
+
+        assertEquals(1.0, meterRegistry.counter("filenet.prefetch.hits", "kind", "metadata").count());
+    }
+
+    private double skipped(String reason) {
+        return meterRegistry.counter("filenet.prefetch.skipped", "reason", reason).count();
+    }
+
+    private DocumentPrefetcher.PrefetchLoader loader() {
+        return new Loader();
+    }
+
+    private class Loader implements DocumentPrefetcher.PrefetchLoader {
+
+        @Override
+        public DMSDocumentInfo loadInfo(DMSDocumentId id) {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return new DMSDocumentInfo();
+        }
+
+        @Override
+        public void loadData(DMSDocumentId id) {
+        }
+
+        @Override
+        public boolean isContentCacheEnabled() {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package cz.pwf.filenet.service.prefetch;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test vyhledání odkazů na dokumenty v Zeebe proměnných.
+ */
+public class PrefetchCandidateExtractorTest {
+
+    private static final Set<String> VARIABLES = Set.of("documentId", "attachments");
+
+    @Test
+    public void scalarReferencesAreExtracted() {
+        assertEquals(List.of(new PrefetchCandidate("doc-1", null), new PrefetchCandidate("42", null)),
+                List.copyOf(PrefetchCandidateExtractor.extract(
+                        "{\"documentId\":\"doc-1\",\"other\":\"doc-2\",\"attachments\":42}", VARIABLES)));
+    }
+
+    @Test
+    public void documentIdObjectsAndArraysAreExtracted() {
+        String variables = "{\"documentId\":{\"namespace\":\"ns\",\"id\":\"doc-1\",\"version\":\"2\","
+                + "\"dmsSpecificAttributes\":[{\"name\":\"id\",\"value\":\"ignored\"}]},"
+                + "\"attachments\":[\"doc-2\",{\"id\":\"doc-3\",\"version\":null},[\"doc-4\"]]}";
+
+        assertEquals(List.of(new PrefetchCandidate("doc-1", "2"), new PrefetchCandidate("doc-2", null),
+                        new PrefetchCandidate("doc-3", null), new PrefetchCandidate("doc-4", null)),
+                List.copyOf(PrefetchCandidateExtractor.extract(variables, VARIABLES)));
+    }
+
+    @Test
+    public void nestedVariablesAreExtractedWithoutDuplicates() {
+        String variables = "{\"case\":{\"documentId\":\"doc-1\",\"items\":[{\"documentId\":\"doc-2\"},"
+                + "{\"documentId\":\"doc-1\"}]},\"documentId\":\"doc-2\"}";
+
+        assertEquals(List.of(new PrefetchCandidate("doc-1", null), new PrefetchCandidate("doc-2", null)),
+                List.copyOf(PrefetchCandidateExtractor.extract(variables, VARIABLES)));
+    }
+
+    @Test
+    public void emptyReferencesAreIgnored() {
+        assertTrue(PrefetchCandidateExtractor.extract("{\"documentId\":\" \",\"attachments\":[null,{}]}", VARIABLES)
+                .isEmpty());
+        assertTrue(PrefetchCandidateExtractor.extract("{\"documentId\":\"doc-1\"}", Set.of()).isEmpty());
+        assertTrue(PrefetchCandidateExtractor.extract(null, VARIABLES).isEmpty());
+    }
+
+    @Test
+    public void jobTypeIsReadFromHeaders() {
+        String variables = "{\"jobType\":\"variable\",\"variables\":{\"headers\":{\"jobType\":\"nested\"}},"
+                + "\"headers\":{\"kpjm\":\"K1\",\"jobType\":\"document-review\"}}";
+
+        assertEquals("document-review", PrefetchCandidateExtractor.extractJobType(variables, "jobType"));
+        assertNull(PrefetchCandidateExtractor.extractJobType("{\"headers\":{\"kpjm\":\"K1\"}}", "jobType"));
+        assertNull(PrefetchCandidateExtractor.extractJobType("{\"jobType\":\"variable\"}", "jobType"));
+        assertNull(PrefetchCandidateExtractor.extractJobType("", "jobType"));
+    }
+}
@@ -0,0 +1,226 @@
+package cz.pwf.filenet.service.upload;
+
+import cz.pwf.filenet.model.ecm.ChunkedUploadStartRequest;
+import cz.pwf.filenet.pwf_ecm_filenet_api_client.model.FileNetIdentificator;
+import cz.pwf.filenet.service.ecm.EcmBulkheads;
+import cz.pwf.filenet.service.ecm.EcmHeaders;
+import cz.pwf.filenet.service.ecm.EcmRequestExecutor;
+import cz.pwf.filenet.service.ecm.EcmRetryPolicies;
+import cz.pwf.filenet.service.ecm.EcmRetryableException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test nahrávání obsahu dokumentu po částech proti lokální náhradě FileNetu ({@link EcmUploadStubServer}).
+ */
+public class ChunkedUploadServiceTest {
+
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    private EcmUploadStubServer server;
+    private MeterRegistry meterRegistry;
+    private ChunkedUploadService chunkedUploadService;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        server = new EcmUploadStubServer();
+        meterRegistry = new SimpleMeterRegistry();
+
+        EcmHeaders ecmHeaders = new EcmHeaders();
+        ReflectionTestUtils.setField(ecmHeaders, "apiBaseUrl", server.getBaseUrl());
+        ReflectionTestUtils.setField(ecmHeaders, "username", "user");
+        ReflectionTestUtils.setField(ecmHeaders, "password", "password");
+        EcmChunkedUploadClient client = new EcmChunkedUploadClient(new RestTemplate(), ecmHeaders);
+        ReflectionTestUtils.setField(client, "path", EcmUploadStubServer.PATH);
+
+        chunkedUploadService = new ChunkedUploadService(client, requestExecutor(meterRegistry), meterRegistry);
+        ReflectionTestUtils.setField(chunkedUploadService, "enabled", true);
+        ReflectionTestUtils.setField(chunkedUploadService, "threshold", 4L * CHUNK_SIZE);
+        ReflectionTestUtils.setField(chunkedUploadService, "chunkSize", CHUNK_SIZE);
+        ReflectionTestUtils.setField(chunkedUploadService, "threads", 4);
+        ReflectionTestUtils.setField(chunkedUploadService, "queueCapacity", 10);
+        ReflectionTestUtils.setField(chunkedUploadService, "maxParallelChunks", 3);
+        ReflectionTestUtils.setField(chunkedUploadService, "resumeTtl", 60000L);
+        ReflectionTestUtils.invokeMethod(chunkedUploadService, "init");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        ReflectionTestUtils.invokeMethod(chunkedUploadService, "shutdown");
+        server.close();
+    }
+
+    @Test
+    public void chunkedThreshold() {
+        assertFalse(chunkedUploadService.isChunked(new byte[4 * CHUNK_SIZE - 1]));
+        assertTrue(chunkedUploadService.isChunked(new byte[4 * CHUNK_SIZE]));
+        assertFalse(chunkedUploadService.isChunked(null));
+    }
+
+    @Test
+    public void uploadInParallelChunks() {
+        byte[] data = content(10 * CHUNK_SIZE + 123);
+
+        FileNetIdentificator identificator = chunkedUploadService.upload("CreateDocument", "KPJM", false, request(), data);
+
+        assertEquals("doc-upload-1", identificator.getId());
+        assertEquals(11, server.getChunkRequests());
+        assertTrue(server.getMaxConcurrentChunks() <= 3, "Max concurrent chunks: " + server.getMaxConcurrentChunks());
+    }
+
+    @Test
+    public void transientChunkFailureIsRetried() {
+        byte[] data = content(5 * CHUNK_SIZE);
+        server.failChunk(2, 503, 1);
+
+        FileNetIdentificator identificator = chunkedUploadService.upload("CreateDocument", "KPJM", false, request(), data);
+
+        assertEquals("doc-upload-1", identificator.getId());
+        assertEquals(1, server.getStartedUploads());
+        assertEquals(6, server.getChunkRequests());
+        assertEquals(1.0, meterRegistry.counter("filenet.ecm.retries", "endpoint", "UploadDocumentChunk").count());
+    }
+
+    @Test
+    public void exhaustedChunkRetriesAreResumedByJobRetry() {
+        byte[] data = content(5 * CHUNK_SIZE);
+        server.failChunk(2, 503, 3);
+
+        assertThrows(EcmRetryableException.class,
+                () -> chunkedUploadService.upload("CreateDocument", "KPJM", false, request(), data));
+
+        FileNetIdentificator identificator = chunkedUploadService.upload("CreateDocument", "KPJM", false, request(), data);
+
+        assertEquals("doc-upload-1", identificator.getId());
+        assertEquals(1, server.getStartedUploads());
+        assertEquals(4 + 3 + 1, server.getChunkRequests());
+        assertEquals(2.0, meterRegistry.counter("filenet.ecm.retries", "endpoint", "UploadDocumentChunk").count());
+    }
+
+    @Test
+    public void failedUploadIsResumed() {
+        byte[] data = content(8 * CHUNK_SIZE);
+        server.failChunk(5, 400, 1);
+
+        assertThrows(HttpClientErrorException.BadRequest.class,
+                () -> chunkedUploadService.upload("CreateDocument", "KPJM", false, request(), data));
+        int firstAttemptRequests = server.getChunkRequests();
+
+        FileNetIdentificator identificator = chunkedUploadService.upload("CreateDocument", "KPJM", false, request(), data);
+
+        assertEquals("doc-upload-1", identificator.getId());
+        assertEquals(1, server.getStartedUploads());
+        assertEquals(8 + 1, server.getChunkRequests(), "First attempt requests: " + firstAttemptRequests);
+        assertEquals(1.0, meterRegistry.counter("filenet.upload.resumed").count());
+    }
+
+    @Test
+    public void differentKpjmStartsNewUpload() {
+        byte[] data = content(4 * CHUNK_SIZE);
+        server.failChunk(0, 400, 1);
+
+        assertThrows(HttpClientErrorException.BadRequest.class,
+                () -> chunkedUploadService.upload("CreateDocument", "KPJM", false, request(), data));
+        chunkedUploadService.upload("CreateDocument", "OTHER", false, request(), data);
+
+        assertEquals(2, server.getStartedUploads());
+    }
+
+    @Test
+    public void shutdownDuringUploadFailsAndAbortsUpload() throws Exception {
+        byte[] data = content(10 * CHUNK_SIZE);
+        CountDownLatch release = server.holdChunks();
+
+        ExecutorService caller = Executors.newSingleThreadExecutor();
+        try {
+            Future<FileNetIdentificator> upload = caller.submit(
+                    () -> chunkedUploadService.upload("CreateDocument", "KPJM", false, request(), data));
+            assertTrue(server.awaitChunk(5, TimeUnit.SECONDS));
+
+            ReflectionTestUtils.invokeMethod(chunkedUploadService, "shutdown");
+            release.countDown();
+
+            // nahrávání nesmí čekat na části odmítnuté ukončeným poolem
+            ExecutionException failure = assertThrows(ExecutionException.class, () -> upload.get(5, TimeUnit.SECONDS));
+            assertTrue(failure.getCause() instanceof RuntimeException);
+        } finally {
+            caller.shutdownNow();
+        }
+
+        assertEquals(1, server.getAbortedUploads());
+        assertEquals(0, server.getOpenUploads());
+    }
+
+    @Test
+    public void expiredUploadIsAborted() throws InterruptedException {
+        byte[] data = content(4 * CHUNK_SIZE);
+        server.failChunk(0, 400, 1);
+        assertThrows(HttpClientErrorException.BadRequest.class,
+                () -> chunkedUploadService.upload("CreateDocument", "KPJM", false, request(), data));
+        assertEquals(0, server.getAbortedUploads());
+
+        ReflectionTestUtils.setField(chunkedUploadService, "resumeTtl", 0L);
+        Thread.sleep(5);
+        chunkedUploadService.upload("CreateDocument", "KPJM", false, request(), data);
+
+        assertEquals(2, server.getStartedUploads());
+        assertEquals(1, server.getAbortedUploads());
+        assertEquals(0, server.getOpenUploads());
+    }
+
+    private static ChunkedUploadStartRequest request() {
+        ChunkedUploadStartRequest request = new ChunkedUploadStartRequest();
+        request.setFilename("large.bin");
+        request.setMimetype("application/octet-stream");
+
+        return request;
+    }
+
+    private static byte[] content(int length) {
+        byte[] data = new byte[length];
+        new Random(length).nextBytes(data);
+
+        return data;
+    }
+
+    private static EcmRequestExecutor requestExecutor(MeterRegistry meterRegistry) {
+        EcmBulkheads bulkheads = new EcmBulkheads(meterRegistry);
+        ReflectionTestUtils.setField(bulkheads, "enabled", false);
+
+        EcmRetryPolicies retryPolicies = new EcmRetryPolicies();
+        ReflectionTestUtils.setField(retryPolicies, "retryableStatuses", Set.of(503));
+        ReflectionTestUtils.setField(retryPolicies, "writeRetryableStatuses", Set.of(503));
+        ReflectionTestUtils.setField(retryPolicies, "readMaxAttempts", 3);
+        ReflectionTestUtils.setField(retryPolicies, "readDeadline", 10000L);
+        ReflectionTestUtils.setField(retryPolicies, "writeMaxAttempts", 3);
+        ReflectionTestUtils.setField(retryPolicies, "writeDeadline", 10000L);
+        ReflectionTestUtils.setField(retryPolicies, "initialBackoff", 10L);
+        ReflectionTestUtils.setField(retryPolicies, "maxBackoff", 50L);
+        ReflectionTestUtils.setField(retryPolicies, "multiplier", 2.0);
+        ReflectionTestUtils.invokeMethod(retryPolicies, "init");
+
+        return new EcmRequestExecutor(meterRegistry, bulkheads, retryPolicies, CircuitBreaker.ofDefaults("filenet"));
+    }
+}
@@ -0,0 +1,218 @@
+package cz.pwf.filenet.service.upload;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32C;
+
+/**
+ * Lokální náhrada endpointů FileNetu pro nahrávání obsahu dokumentu po částech (viz {@link EcmChunkedUploadClient}).
+ * Umožňuje nastavit selhání nahrání vybraných částí a pozdržet nahrávání částí.
+ */
+class EcmUploadStubServer implements AutoCloseable {
+
+    static final String PATH = "/document/upload";
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final Pattern CONTENT_RANGE = Pattern.compile("bytes (\\d+)-(\\d+)/(\\d+)");
+
+    private final HttpServer server;
+    private final Map<String, Upload> uploads = new ConcurrentHashMap<>();
+    private final Map<Integer, Failure> failures = new ConcurrentHashMap<>();
+    private final AtomicInteger uploadCounter = new AtomicInteger();
+    private final AtomicInteger chunkRequests = new AtomicInteger();
+    private final AtomicInteger concurrentChunks = new AtomicInteger();
+    private final AtomicInteger maxConcurrentChunks = new AtomicInteger();
+    private final AtomicInteger abortedUploads = new AtomicInteger();
+    private final CountDownLatch chunkReceived = new CountDownLatch(1);
+    private volatile CountDownLatch chunkRelease = new CountDownLatch(0);
+
+    EcmUploadStubServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext(PATH, this::handle);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+    }
+
+    String getBaseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    /**
+     * Nahrání části {@code index} selže {@code times}-krát se stavem {@code status}.
+     */
+    void failChunk(int index, int status, int times) {
+        failures.put(index, new Failure(status, new AtomicInteger(times)));
+    }
+
+    /**
+     * Nahrání částí bude pozdrženo do uvolnění vráceného latche.
+     */
+    CountDownLatch holdChunks() {
+        chunkRelease = new CountDownLatch(1);
+        return chunkRelease;
+    }
+
+    boolean awaitChunk(long timeout, TimeUnit unit) throws InterruptedException {
+        return chunkReceived.await(timeout, unit);
+    }
+
+    int getAbortedUploads() {
+        return abortedUploads.get();
+    }
+
+    int getOpenUploads() {
+        return uploads.size();
+    }
+
+    int getChunkRequests() {
+        return chunkRequests.get();
+    }
+
+    int getMaxConcurrentChunks() {
+        return maxConcurrentChunks.get();
+    }
+
+    int getStartedUploads() {
+        return uploadCounter.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String[] segments = exchange.getRequestURI().getPath().substring(PATH.length()).split("/");
+            String method = exchange.getRequestMethod();
+            if (segments.length <= 1 && "POST".equals(method)) {
+                start(exchange);
+                return;
+            }
+
+            Upload upload = uploads.get(segments[1]);
+            if (upload == null) {
+                respond(exchange, 404, null);
+            } else if (segments.length == 2 && "DELETE".equals(method)) {
+                uploads.remove(segments[1]);
+                abortedUploads.incrementAndGet();
+                respond(exchange, 204, null);
+            } else if (segments.length == 2 && "GET".equals(method)) {
+                respond(exchange, 200, Map.of("uploadId", segments[1], "receivedChunks", upload.received));
+            } else if (segments.length == 4 && "chunks".equals(segments[2]) && "PUT".equals(method)) {
+                chunk(exchange, upload, Integer.parseInt(segments[3]));
+            } else if (segments.length == 3 && "complete".equals(segments[2]) && "POST".equals(method)) {
+                complete(exchange, segments[1], upload);
+            } else {
+                respond(exchange, 405, null);
+            }
+        }
+    }
+
+    private void start(HttpExchange exchange) throws IOException {
+        JsonNode request = OBJECT_MAPPER.readTree(exchange.getRequestBody());
+        String uploadId = "upload-" + uploadCounter.incrementAndGet();
+        uploads.put(uploadId, new Upload(new byte[request.get("size").asInt()], request.get("chunkCount").asInt(),
+                request.get("checksum").asText()));
+        respond(exchange, 200, Map.of("uploadId", uploadId));
+    }
+
+    private void chunk(HttpExchange exchange, Upload upload, int index) throws IOException {
+        chunkRequests.incrementAndGet();
+        int concurrent = concurrentChunks.incrementAndGet();
+        maxConcurrentChunks.accumulateAndGet(concurrent, Math::max);
+        try {
+            byte[] body = exchange.getRequestBody().readAllBytes();
+            chunkReceived.countDown();
+            try {
+                chunkRelease.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            Failure failure = failures.get(index);
+            if (failure != null && failure.remaining.getAndDecrement() > 0) {
+                respond(exchange, failure.status, null);
+                return;
+            }
+
+            Matcher range = CONTENT_RANGE.matcher(exchange.getRequestHeaders().getFirst("Content-Range"));
+            if (!range.matches() || Integer.parseInt(range.group(2)) - Integer.parseInt(range.group(1)) + 1 != body.length) {
+                respond(exchange, 400, null);
+                return;
+            }
+
+            System.arraycopy(body, 0, upload.data, Integer.parseInt(range.group(1)), body.length);
+            upload.received.add(index);
+            respond(exchange, 204, null);
+        } finally {
+            concurrentChunks.decrementAndGet();
+        }
+    }
+
+    private void complete(HttpExchange exchange, String uploadId, Upload upload) throws IOException {
+        CRC32C crc = new CRC32C();
+        crc.update(upload.data, 0, upload.data.length);
+        if (upload.received.size() != upload.chunkCount || !Long.toHexString(crc.getValue()).equals(upload.checksum)) {
+            respond(exchange, 409, null);
+            return;
+        }
+
+        uploads.remove(uploadId);
+        respond(exchange, 200, Map.of("id", "doc-" + uploadId, "version", "1"));
+    }
+
+    private static void respond(HttpExchange exchange, int status, Object body) throws IOException {
+        if (body == null) {
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+
+        byte[] json = OBJECT_MAPPER.writeValueAsString(body).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, json.length);
+        try (OutputStream outputStream = exchange.getResponseBody()) {
+            outputStream.write(json);
+        }
+    }
+
+    private static final class Upload {
+
+        private final byte[] data;
+        private final int chunkCount;
+        private final String checksum;
+        private final ConcurrentSkipListSet<Integer> received = new ConcurrentSkipListSet<>();
+
+        private Upload(byte[] data, int chunkCount, String checksum) {
+            this.data = data;
+            this.chunkCount = chunkCount;
+            this.checksum = checksum;
+        }
+    }
+
+    private static final class Failure {
+
+        private final int status;
+        private final AtomicInteger remaining;
+
+        private Failure(int status, AtomicInteger remaining) {
+            this.status = status;
+            this.remaining = remaining;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package cz.pwf.filenet.service.zeebe;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class ZeebeHeaderExtractorTest {
+
+    @Test
+    public void extractUid() {
+        ZeebeHeaders headers = ZeebeHeaderExtractor.extract("{\"headers\":{\"uid\":\"KPJM1\",\"other\":\"x\"}}");
+
+        assertEquals("KPJM1", headers.getUid());
+    }
+
+    @Test
+    public void extractUidSkipsOtherSubtrees() {
+        String zeebeVariables = "{\"variables\":{\"headers\":{\"uid\":\"WRONG\"},\"list\":[1,{\"uid\":\"WRONG\"}]},"
+                + "\"headers\":{\"nested\":{\"uid\":\"WRONG\"},\"items\":[\"uid\"],\"uid\":\"KPJM2\"}}";
+
+        assertEquals("KPJM2", ZeebeHeaderExtractor.extract(zeebeVariables).getUid());
+    }
+
+    @Test
+    public void extractProcessInstanceKey() {
+        ZeebeHeaders headers = ZeebeHeaderExtractor.extract(
+                "{\"headers\":{\"processInstanceKey\":2251799813685249,\"uid\":\"KPJM1\"},\"variables\":{}}");
+
+        assertEquals("KPJM1", headers.getUid());
+        assertEquals("2251799813685249", headers.getProcessInstanceKey());
+        assertNull(ZeebeHeaderExtractor.extract("{\"headers\":{\"uid\":\"KPJM1\"}}").getProcessInstanceKey());
+    }
+
+    @Test
+    public void extractNonStringUid() {
+        assertEquals("12345", ZeebeHeaderExtractor.extract("{\"headers\":{\"uid\":12345}}").getUid());
+    }
+
+    @Test
+    public void missingUid() {
+        assertNull(ZeebeHeaderExtractor.extract("{\"headers\":{\"other\":\"x\"}}").getUid());
+        assertNull(ZeebeHeaderExtractor.extract("{\"headers\":{\"uid\":null}}").getUid());
+        assertNull(ZeebeHeaderExtractor.extract("{\"headers\":{\"uid\":{\"value\":\"x\"}}}").getUid());
+    }
+
+    @Test
+    public void missingHeaders() {
+        assertSame(ZeebeHeaders.EMPTY, ZeebeHeaderExtractor.extract("{\"variables\":{\"a\":1}}"));
+        assertSame(ZeebeHeaders.EMPTY, ZeebeHeaderExtractor.extract("{\"headers\":null}"));
+        assertSame(ZeebeHeaders.EMPTY, ZeebeHeaderExtractor.extract("[]"));
+        assertSame(ZeebeHeaders.EMPTY, ZeebeHeaderExtractor.extract(""));
+        assertSame(ZeebeHeaders.EMPTY, ZeebeHeaderExtractor.extract(null));
+    }
+}
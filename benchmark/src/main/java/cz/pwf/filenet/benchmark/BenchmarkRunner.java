@@ -0,0 +1,26 @@
+package cz.pwf.filenet.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Spouštěč JMH benchmarků. Oproti {@code org.openjdk.jmh.Main} má vždy zapnutý GC profiler, aby byla u každého
+ * benchmarku měřena i alokace paměti ({@code gc.alloc.rate.norm}).
+ * <p>
+ * Parametry příkazové řádky odpovídají JMH, např. {@code java -jar benchmarks.jar DocumentMapper -p size=1024}.
+ */
+public final class BenchmarkRunner {
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,67 @@
+package cz.pwf.filenet.benchmark;
+
+import cz.notix.document.plugin.connector.dto.AttributeType;
+import cz.notix.document.plugin.connector.dto.DmsAttribute;
+
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generování testovacích dat benchmarků.
+ */
+public final class Payloads {
+
+    /**
+     * Velikosti binárního obsahu od 1 KB do 100 MB.
+     */
+    public static final String SIZE_1KB = "1024";
+    public static final String SIZE_100KB = "102400";
+    public static final String SIZE_10MB = "10485760";
+    public static final String SIZE_100MB = "104857600";
+
+    private Payloads() {
+    }
+
+    public static byte[] bytes(int size) {
+        byte[] data = new byte[size];
+        new Random(size).nextBytes(data);
+        return data;
+    }
+
+    public static String base64(int size) {
+        return Base64.getEncoder().encodeToString(bytes(size));
+    }
+
+    public static List<DmsAttribute> attributes(int count) {
+        List<DmsAttribute> attributes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            attributes.add(new DmsAttribute("attribute" + i, "value" + i, AttributeType.STRING));
+        }
+
+        return attributes;
+    }
+
+    /**
+     * Zeebe proměnné o přibližné velikosti {@code size}. Hlavičky jsou uvedeny až za procesními proměnnými,
+     * což je pro čtení hlavičky {@code uid} nejhorší případ.
+     */
+    public static String zeebeVariables(int size, String uid) {
+        StringBuilder builder = new StringBuilder(size + 256);
+        builder.append("{\"variables\":{\"items\":[");
+        int i = 0;
+        while (builder.length() < size) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            builder.append("{\"id\":").append(i).append(",\"name\":\"item").append(i)
+                    .append("\",\"valid\":true,\"tags\":[\"a\",\"b\"]}");
+            i++;
+        }
+        builder.append("]},\"headers\":{\"processInstanceKey\":\"2251799813685249\",\"uid\":\"")
+                .append(uid).append("\"}}");
+
+        return builder.toString();
+    }
+}
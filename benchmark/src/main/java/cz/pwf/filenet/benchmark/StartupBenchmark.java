@@ -0,0 +1,103 @@
+package cz.pwf.filenet.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark doby startu aplikace do okamžiku, kdy je připravena přijímat Zeebe joby, s AppCDS archivem
+ * a odloženou inicializací beanů a bez nich.
+ * <p>
+ * Aplikace je spouštěna jako samostatný proces z adresáře připraveného skriptem {@code src/main/docker/cds.sh}
+ * ({@code sh src/main/docker/cds.sh target/fast-startup target/app-*-exec.jar} v modulu app). Měřen je čas do zalogování
+ * připravenosti aplikace, proces se poté sám ukončí ({@code filenet.startup.exit-after-ready}).
+ * <p>
+ * Výchozí profil {@code cds-training} vypíná Flyway, naměřený čas tak nezahrnuje migrace databáze ani čekání na
+ * spojení s ní. Start s migracemi lze změřit parametrem {@code -p profiles=...} s profilem bez tohoto vypnutí.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 10)
+@Fork(1)
+public class StartupBenchmark {
+
+    private static final String READY_MESSAGE = "Application ready";
+
+    @Param({"default", "lazy", "cds", "cds-lazy"})
+    private String mode;
+
+    @Param("../app/target/fast-startup")
+    private String appDir;
+
+    @Param("cds-training")
+    private String profiles;
+
+    private List<String> command;
+
+    @Setup
+    public void setup() throws IOException {
+        Path dir = Path.of(appDir);
+        String classpath = Files.readString(dir.resolve("classpath.txt")).trim();
+        String mainClass = Files.readString(dir.resolve("main-class.txt")).trim();
+
+        command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        if (mode.startsWith("cds")) {
+            command.add("-Xshare:on");
+            command.add("-XX:SharedArchiveFile=app.jsa");
+        }
+        command.add("-Dfilenet.startup.lazy-beans.enabled=" + mode.endsWith("lazy"));
+        command.add("-Dfilenet.startup.exit-after-ready=true");
+        command.add("-cp");
+        command.add(classpath);
+        command.add(mainClass);
+        command.add("--spring.profiles.active=" + profiles);
+    }
+
+    @Benchmark
+    public long startup() throws Exception {
+        Process process = new ProcessBuilder(command)
+                .directory(Path.of(appDir).toFile())
+                .redirectErrorStream(true)
+                .start();
+        long start = System.nanoTime();
+
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.contains(READY_MESSAGE)) {
+                    long elapsed = System.nanoTime() - start;
+                    reader.transferTo(Writer.nullWriter());
+                    process.waitFor();
+                    return elapsed;
+                }
+            }
+        } finally {
+            process.destroyForcibly();
+        }
+
+        throw new IllegalStateException("Application exited with code " + process.waitFor() + " before startup");
+    }
+}
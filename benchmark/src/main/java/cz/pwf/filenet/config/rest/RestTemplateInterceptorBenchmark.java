@@ -0,0 +1,127 @@
+package cz.pwf.filenet.config.rest;
+
+import cz.pwf.filenet.benchmark.Payloads;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.util.StreamUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark logování těl požadavků a odpovědí v {@link RestTemplateInterceptor}. Logger interceptoru je
+ * povolen, logovací výstup je však zahozen, měřena je tedy pouze příprava logovaných zpráv.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class RestTemplateInterceptorBenchmark {
+
+    @Param({Payloads.SIZE_1KB, Payloads.SIZE_100KB, Payloads.SIZE_10MB, Payloads.SIZE_100MB})
+    private int size;
+
+    private RestTemplateInterceptor interceptor;
+    private HttpRequest request;
+    private byte[] body;
+
+    @Setup
+    public void setup() {
+        interceptor = new RestTemplateInterceptor(Set.of("password"), Set.of("data", "content"), 64, 8192);
+        body = ("{\"filename\":\"document.pdf\",\"mimetype\":\"application/pdf\",\"data\":\"" + Payloads.base64(size) + "\"}")
+                .getBytes(StandardCharsets.UTF_8);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        request = new HttpRequest() {
+            @Override
+            public String getMethodValue() {
+                return HttpMethod.POST.name();
+            }
+
+            @Override
+            public URI getURI() {
+                return URI.create("http://localhost/ecm/document");
+            }
+
+            @Override
+            public HttpHeaders getHeaders() {
+                return headers;
+            }
+        };
+    }
+
+    @Benchmark
+    public long intercept() throws Exception {
+        ClientHttpRequestExecution execution = (r, b) -> new JsonResponse(body);
+        try (ClientHttpResponse response = interceptor.intercept(request, body, execution)) {
+            // tělo odpovědi je logováno při jeho čtení
+            return StreamUtils.drain(response.getBody());
+        }
+    }
+
+    /**
+     * Odpověď vracející stejné tělo jako požadavek.
+     */
+    private static final class JsonResponse implements ClientHttpResponse {
+
+        private final byte[] body;
+        private final HttpHeaders headers = new HttpHeaders();
+
+        private JsonResponse(byte[] body) {
+            this.body = body;
+            headers.setContentType(MediaType.APPLICATION_JSON);
+        }
+
+        @Override
+        public HttpStatus getStatusCode() {
+            return HttpStatus.OK;
+        }
+
+        @Override
+        public int getRawStatusCode() {
+            return HttpStatus.OK.value();
+        }
+
+        @Override
+        public String getStatusText() {
+            return HttpStatus.OK.getReasonPhrase();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+
+        @Override
+        public InputStream getBody() {
+            return new ByteArrayInputStream(body);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package cz.pwf.filenet.model.mapper;
+
+import cz.notix.document.plugin.connector.dto.DmsAttribute;
+import cz.pwf.filenet.benchmark.Payloads;
+import cz.pwf.filenet.pwf_ecm_filenet_api_client.model.FileNetAttributes;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark mapování seznamů atributů v {@link DocumentMapper}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DocumentMapperAttributesBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    private int count;
+
+    private DocumentMapper documentMapper;
+    private List<DmsAttribute> dmsAttributes;
+    private List<FileNetAttributes> fileNetAttributes;
+
+    @Setup
+    public void setup() {
+        documentMapper = Mappers.getMapper(DocumentMapper.class);
+        dmsAttributes = Payloads.attributes(count);
+        fileNetAttributes = documentMapper.toFileNetAttributesList(dmsAttributes);
+    }
+
+    @Benchmark
+    public List<FileNetAttributes> toFileNetAttributesList() {
+        return documentMapper.toFileNetAttributesList(dmsAttributes);
+    }
+
+    @Benchmark
+    public List<DmsAttribute> toDmsAttributeList() {
+        return documentMapper.toDmsAttributeList(fileNetAttributes);
+    }
+}
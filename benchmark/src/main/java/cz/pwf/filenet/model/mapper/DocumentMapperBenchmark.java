@@ -0,0 +1,74 @@
+package cz.pwf.filenet.model.mapper;
+
+import cz.notix.document.plugin.connector.dto.DMSDocumentNew;
+import cz.pwf.filenet.benchmark.Payloads;
+import cz.pwf.filenet.model.ecm.StreamingCreateDocumentBodyRequest;
+import cz.pwf.filenet.pwf_ecm_filenet_api_client.model.CreateDocumentBodyRequest;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark převodů binárního obsahu v {@link DocumentMapper}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class DocumentMapperBenchmark {
+
+    @Param({Payloads.SIZE_1KB, Payloads.SIZE_100KB, Payloads.SIZE_10MB, Payloads.SIZE_100MB})
+    private int size;
+
+    private DocumentMapper documentMapper;
+    private byte[] data;
+    private String base64Data;
+    private DMSDocumentNew document;
+
+    @Setup
+    public void setup() {
+        documentMapper = Mappers.getMapper(DocumentMapper.class);
+        data = Payloads.bytes(size);
+        base64Data = Payloads.base64(size);
+
+        document = new DMSDocumentNew();
+        document.filename = "document.pdf";
+        document.mimeType = "application/pdf";
+        document.bytes = data;
+        document.metadata = Collections.emptyList();
+    }
+
+    @Benchmark
+    public String toBase64() {
+        return documentMapper.toBase64(data);
+    }
+
+    @Benchmark
+    public Long getFileSizeInBytesFromBase64String() {
+        return documentMapper.getFileSizeInBytesFromBase64String(base64Data);
+    }
+
+    @Benchmark
+    public CreateDocumentBodyRequest toCreateDocumentBodyRequest() {
+        return documentMapper.toCreateDocumentBodyRequest(document);
+    }
+
+    @Benchmark
+    public StreamingCreateDocumentBodyRequest toStreamingCreateDocumentBodyRequest() {
+        return documentMapper.toStreamingCreateDocumentBodyRequest(document);
+    }
+}
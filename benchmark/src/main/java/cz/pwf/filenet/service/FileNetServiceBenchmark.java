@@ -0,0 +1,86 @@
+package cz.pwf.filenet.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import cz.notix.document.plugin.connector.dto.AttributeType;
+import cz.notix.document.plugin.connector.dto.DmsAttribute;
+import cz.pwf.filenet.benchmark.Payloads;
+import cz.pwf.filenet.model.attribute.DmsAttributes;
+import cz.pwf.filenet.service.zeebe.ZeebeHeaders;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark zpracování Zeebe proměnných a určení KPJM v {@link FileNetService}.
+ * <p>
+ * {@code castToHeadersMapFullDeserialization} odpovídá původní implementaci, která deserializovala celé
+ * Zeebe proměnné, a slouží jako srovnání pro {@code castToHeaders}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class FileNetServiceBenchmark {
+
+    @Param({Payloads.SIZE_1KB, Payloads.SIZE_100KB, Payloads.SIZE_10MB, Payloads.SIZE_100MB})
+    private int size;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private FileNetService fileNetService;
+    private String zeebeVariables;
+    private ZeebeHeaders techUserHeaders;
+    private List<DmsAttribute> metadata;
+    private DmsAttributes indexedMetadata;
+
+    @Setup
+    public void setup() {
+        fileNetService = FileNetServices.offline();
+        zeebeVariables = Payloads.zeebeVariables(size, "pwfadmin");
+        techUserHeaders = new ZeebeHeaders("pwfadmin");
+
+        metadata = new ArrayList<>(Payloads.attributes(20));
+        metadata.add(new DmsAttribute("reauthorize", "KPJM1", AttributeType.STRING));
+        indexedMetadata = DmsAttributes.of(metadata);
+    }
+
+    @Benchmark
+    public ZeebeHeaders castToHeaders() {
+        return fileNetService.castToHeaders(zeebeVariables);
+    }
+
+    @Benchmark
+    public Map<String, Object> castToHeadersMapFullDeserialization() throws Exception {
+        Map<String, Map<String, Object>> map = objectMapper.readValue(zeebeVariables, new TypeReference<>() {});
+        return map.get("headers");
+    }
+
+    @Benchmark
+    public String reauthorizeKpjmIfNeeded() {
+        return fileNetService.reauthorizeKpjmIfNeeded("GetDocument", fileNetService.castToHeaders(zeebeVariables), metadata);
+    }
+
+    /**
+     * Atributy dokumentu načteného z FileNetu, viz {@code DocumentMapper#toDmsAttributeList}.
+     */
+    @Benchmark
+    public String reauthorizeKpjmIfNeededIndexed() {
+        return fileNetService.reauthorizeKpjmIfNeeded("GetDocument", techUserHeaders, indexedMetadata);
+    }
+}
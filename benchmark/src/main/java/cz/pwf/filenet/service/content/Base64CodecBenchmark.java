@@ -0,0 +1,128 @@
+package cz.pwf.filenet.service.content;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import cz.pwf.filenet.benchmark.Payloads;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark {@link Base64Codec} oproti {@link Base64} a {@code byte[]} API Jacksonu. Úspora alokací je patrná
+ * z metriky {@code gc.alloc.rate.norm} (viz {@code BenchmarkRunner}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g", "-XX:MaxDirectMemorySize=1g"})
+public class Base64CodecBenchmark {
+
+    @Param({Payloads.SIZE_1KB, Payloads.SIZE_100KB, Payloads.SIZE_10MB, Payloads.SIZE_100MB})
+    private int size;
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    private byte[] data;
+    private String base64Data;
+    private byte[] json;
+    private ByteBuffer directData;
+    private ByteBuffer directEncoded;
+    private ByteBuffer directBase64Data;
+    private ByteBuffer directDecoded;
+
+    @Setup
+    public void setup() {
+        data = Payloads.bytes(size);
+        base64Data = Payloads.base64(size);
+        json = ("{\"content\":\"" + base64Data + "\"}").getBytes(StandardCharsets.US_ASCII);
+
+        directData = ByteBuffer.allocateDirect(size);
+        directData.put(data).flip();
+        directEncoded = ByteBuffer.allocateDirect((int) Base64Codec.encodedLength(size));
+        directDecoded = ByteBuffer.allocateDirect(size);
+        directBase64Data = ByteBuffer.allocateDirect(base64Data.length());
+        directBase64Data.put(base64Data.getBytes(StandardCharsets.US_ASCII)).flip();
+    }
+
+    @Benchmark
+    public byte[] jdkDecodeString() {
+        return Base64.getDecoder().decode(base64Data);
+    }
+
+    @Benchmark
+    public byte[] codecDecodeString() {
+        return Base64Codec.decode(base64Data);
+    }
+
+    @Benchmark
+    public String jdkEncodeToString() {
+        return Base64.getEncoder().encodeToString(data);
+    }
+
+    @Benchmark
+    public ByteBuffer codecEncodeDirect() {
+        directEncoded.clear();
+        Base64Codec.encode(directData.duplicate(), directEncoded);
+        return directEncoded;
+    }
+
+    @Benchmark
+    public ByteBuffer codecDecodeDirect() {
+        directDecoded.clear();
+        Base64Codec.decode(directBase64Data.duplicate(), directDecoded);
+        return directDecoded;
+    }
+
+    @Benchmark
+    public void jdkEncodeStream() throws IOException {
+        try (OutputStream encoder = Base64.getEncoder().wrap(OutputStream.nullOutputStream())) {
+            encoder.write(data);
+        }
+    }
+
+    @Benchmark
+    public void codecEncodeStream() throws IOException {
+        Base64Codec.encode(ByteBuffer.wrap(data), OutputStream.nullOutputStream());
+    }
+
+    @Benchmark
+    public byte[] jacksonBinaryValue() throws IOException {
+        try (JsonParser parser = contentParser()) {
+            return parser.getBinaryValue();
+        }
+    }
+
+    @Benchmark
+    public ByteBuffer codecReadBinaryDirect() throws IOException {
+        directDecoded.clear();
+        try (JsonParser parser = contentParser()) {
+            Base64Codec.readBinary(parser, directDecoded);
+        }
+        return directDecoded;
+    }
+
+    private JsonParser contentParser() throws IOException {
+        JsonParser parser = jsonFactory.createParser(json);
+        parser.nextToken();
+        parser.nextToken();
+        parser.nextToken();
+        return parser;
+    }
+}